@@ -6,8 +6,11 @@ import io.quarkus.runtime.QuarkusApplication;
 import io.quarkus.runtime.annotations.QuarkusMain;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.geekden.mcp.cli.ExplainCommand;
+import org.geekden.mcp.cli.ExportCommand;
 import org.geekden.mcp.cli.IntrospectCommand;
 import org.geekden.mcp.cli.QueryCommand;
+import org.geekden.mcp.database.metrics.MetricsFileWriter;
 import org.jboss.logging.Logger;
 import picocli.CommandLine;
 
@@ -24,6 +27,8 @@ import picocli.CommandLine;
  *   ./app introspect public users # CLI: Show table structure
  *   ./app query "SELECT * FROM t" # CLI: Execute query
  *   ./app query "..." --page 2    # CLI: Execute with pagination
+ *   ./app export "..." --output f # CLI: Export a result as CSV
+ *   ./app explain "..." --analyze # CLI: Show a query's plan
  *   ./app --help                  # Show help
  */
 @QuarkusMain
@@ -31,7 +36,7 @@ import picocli.CommandLine;
   mixinStandardHelpOptions = true,
   versionProvider = AppVersionProvider.class,
   description = "MCP Database Server - runs as stdio server by default, or use CLI subcommands",
-  subcommands = { IntrospectCommand.class, QueryCommand.class }
+  subcommands = { IntrospectCommand.class, QueryCommand.class, ExportCommand.class, ExplainCommand.class }
 )
 public class Main implements Runnable, QuarkusApplication {
 
@@ -48,6 +53,9 @@ public class Main implements Runnable, QuarkusApplication {
   @Inject
   StdioMcpMessageHandler mcpHandler;
 
+  @Inject
+  MetricsFileWriter metricsFileWriter;
+
   @ConfigProperty(name = "quarkus.application.name")
   String appName;
 
@@ -60,6 +68,7 @@ public class Main implements Runnable, QuarkusApplication {
     LOG.info("Initializing MCP (stdio) server...");
 
     mcpHandler.initialize(System.out);
+    metricsFileWriter.start();
 
     LOG.info("MCP (stdio) server ready.");
 
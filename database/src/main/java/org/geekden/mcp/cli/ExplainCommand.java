@@ -0,0 +1,103 @@
+package org.geekden.mcp.cli;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.config.DatabaseConfig;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+import org.geekden.mcp.database.provider.ReadReplica;
+import org.geekden.mcp.database.service.QueryParameters;
+import org.geekden.mcp.database.service.SqlExecutionService;
+import org.geekden.mcp.database.service.StatementCanceller;
+import org.jboss.logging.Logger;
+import picocli.CommandLine;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Explain command for showing a query's plan.
+ *
+ * Usage:
+ *   explain "<sql>"                  # Estimated plan; the query is not run
+ *   explain "<sql>" --analyze        # Run the query (rolled back) for actual rows and times
+ *   explain "<sql>" --param <v>...   # Bind values to ? placeholders in order
+ *   explain "<sql>" --datasource <n> # Explain against a named datasource
+ */
+@CommandLine.Command(
+  name = "explain",
+  description = "Show a query's plan: condensed tree, costliest steps, scans of large tables",
+  mixinStandardHelpOptions = true
+)
+public class ExplainCommand implements Callable<Integer> {
+
+  private static final Logger LOG = Logger.getLogger(ExplainCommand.class);
+
+  @CommandLine.Parameters(
+    index = "0",
+    description = "SQL query to explain"
+  )
+  String sql;
+
+  @CommandLine.Option(
+    names = {"--analyze"},
+    description = "Run the query for actual rows and times, in a transaction that is rolled back"
+  )
+  boolean analyze;
+
+  @CommandLine.Option(
+    names = {"--param"},
+    description = "Value for the next ? placeholder (repeatable; JSON scalars like 42, true, null are typed)"
+  )
+  List<String> params;
+
+  @CommandLine.Option(
+    names = {"--datasource"},
+    description = "Named datasource (db.<name>.jdbc.url) to explain against instead of the main database"
+  )
+  String datasource;
+
+  @Inject
+  Instance<Connection> connection;
+
+  @Inject
+  @ReadReplica
+  Instance<Connection> readConnection;
+
+  @Inject
+  DatabaseConfig config;
+
+  @Inject
+  DataSourceRegistry dataSources;
+
+  @Inject
+  SqlExecutionService sqlExecutionService;
+
+  @Inject
+  OutputWriter output;
+
+  @Override
+  public Integer call() {
+    // Check database configuration
+    if (!config.isConfigured()) {
+      output.printErr("Error: Database not configured.");
+      output.printErr("Set DB_URL, DB_USERNAME, and DB_PASSWORD environment variables.");
+      return 1;
+    }
+
+    try {
+      DataSourceRegistry.Selection selection = dataSources.select(datasource);
+      try (Connection conn = SqlExecutionService.isReadOnly(sql) ? readConnection.get() : connection.get()) {
+        output.printOut(sqlExecutionService.explainQuery(conn, sql, QueryParameters.fromStrings(params), analyze,
+            StatementCanceller.NEVER));
+        return 0;
+      } finally {
+        selection.close();
+      }
+    } catch (Exception e) {
+      output.printErr("Explain failed: " + e.getMessage());
+      LOG.error("Explain error", e);
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package org.geekden.mcp.cli;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.config.DatabaseConfig;
+import org.geekden.mcp.database.formatter.DelimitedWriter;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+import org.geekden.mcp.database.provider.ReadReplica;
+import org.geekden.mcp.database.service.ExportService;
+import org.geekden.mcp.database.service.QueryParameters;
+import org.jboss.logging.Logger;
+import picocli.CommandLine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Export command for dumping a whole query result as CSV, TSV or Arrow.
+ *
+ * Usage:
+ *   export "<sql>"                  # Write CSV to stdout
+ *   export "<sql>" --output <file>  # Write to a file instead
+ *   export "<sql>" --format tsv     # Tab-separated instead of comma-separated
+ *   export "<sql>" --format arrow   # Arrow IPC stream, for pandas/polars/DuckDB
+ *   export "<sql>" --param <v>...   # Bind values to ? placeholders in order
+ *   export "<sql>" --datasource <n> # Export from a named datasource
+ *
+ * The row count and throughput are reported on stderr, so stdout holds only the data.
+ */
+@CommandLine.Command(
+  name = "export",
+  description = "Export a query result as CSV, TSV or Arrow",
+  mixinStandardHelpOptions = true
+)
+public class ExportCommand implements Callable<Integer> {
+
+  private static final Logger LOG = Logger.getLogger(ExportCommand.class);
+
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  @CommandLine.Parameters(
+    index = "0",
+    description = "SELECT query to export"
+  )
+  String sql;
+
+  @CommandLine.Option(
+    names = {"--format"},
+    description = "csv, tsv or arrow (default: ${DEFAULT-VALUE})",
+    defaultValue = "csv"
+  )
+  String format;
+
+  @CommandLine.Option(
+    names = {"--output"},
+    description = "File to write (default: stdout); replaced if it exists"
+  )
+  Path outputFile;
+
+  @CommandLine.Option(
+    names = {"--param"},
+    description = "Value for the next ? placeholder (repeatable; JSON scalars like 42, true, null are typed)"
+  )
+  List<String> params;
+
+  @CommandLine.Option(
+    names = {"--datasource"},
+    description = "Named datasource (db.<name>.jdbc.url) to export from instead of the main database"
+  )
+  String datasource;
+
+  @Inject
+  @ReadReplica
+  Instance<Connection> connection;
+
+  @Inject
+  DatabaseConfig config;
+
+  @Inject
+  DataSourceRegistry dataSources;
+
+  @Inject
+  ExportService exportService;
+
+  @Inject
+  OutputWriter output;
+
+  @Override
+  public Integer call() {
+    // Check database configuration
+    if (!config.isConfigured()) {
+      output.printErr("Error: Database not configured.");
+      output.printErr("Set DB_URL, DB_USERNAME, and DB_PASSWORD environment variables.");
+      return 1;
+    }
+
+    boolean arrow = "arrow".equalsIgnoreCase(format.trim());
+    DelimitedWriter.Format delimitedFormat = null;
+    if (!arrow) {
+      try {
+        delimitedFormat = DelimitedWriter.Format.parse(format);
+      } catch (IllegalArgumentException e) {
+        output.printErr("Unknown format '" + format + "'; use csv, tsv or arrow");
+        return 1;
+      }
+    }
+
+    try {
+      DataSourceRegistry.Selection selection = dataSources.select(datasource);
+      try (Connection conn = connection.get()) {
+        ExportService.Summary summary = arrow ? exportArrow(conn) : exportDelimited(conn, delimitedFormat);
+        output.printErr(summary.describe());
+        return 0;
+      } finally {
+        selection.close();
+      }
+    } catch (Exception e) {
+      output.printErr("Export failed: " + e.getMessage());
+      LOG.error("Export error", e);
+      return 1;
+    }
+  }
+
+  private ExportService.Summary exportDelimited(Connection conn, DelimitedWriter.Format delimitedFormat)
+      throws Exception {
+    if (outputFile == null) {
+      Writer out = output.stdoutWriter();
+      try {
+        return exportService.export(conn, sql, QueryParameters.fromStrings(params), delimitedFormat, out);
+      } finally {
+        out.flush();
+      }
+    }
+    try (Writer out = new BufferedWriter(Channels.newWriter(openFile(outputFile), StandardCharsets.UTF_8),
+        BUFFER_SIZE)) {
+      return exportService.export(conn, sql, QueryParameters.fromStrings(params), delimitedFormat, out);
+    }
+  }
+
+  private ExportService.Summary exportArrow(Connection conn) throws Exception {
+    if (outputFile == null) {
+      OutputStream out = output.stdoutStream();
+      try {
+        return exportService.exportArrow(conn, sql, QueryParameters.fromStrings(params), Channels.newChannel(out));
+      } finally {
+        out.flush();
+      }
+    }
+    // Arrow writes whole buffers at a time, so the channel needs no buffering
+    try (FileChannel out = openFile(outputFile)) {
+      return exportService.exportArrow(conn, sql, QueryParameters.fromStrings(params), out);
+    }
+  }
+
+  /**
+   * Open a file for writing, truncating any existing file.
+   */
+  private static FileChannel openFile(Path file) throws IOException {
+    return FileChannel.open(file,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+  }
+}
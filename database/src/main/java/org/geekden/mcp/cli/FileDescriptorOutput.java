@@ -3,8 +3,12 @@ package org.geekden.mcp.cli;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.io.FileDescriptor;
+import java.io.BufferedWriter;
 import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -21,10 +25,12 @@ public class FileDescriptorOutput implements OutputWriter {
 
   private final PrintStream stdout;
   private final PrintStream stderr;
+  private final Writer stdoutWriter;
 
   public FileDescriptorOutput() {
     this.stdout = new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8);
     this.stderr = new PrintStream(new FileOutputStream(FileDescriptor.err), true, StandardCharsets.UTF_8);
+    this.stdoutWriter = new BufferedWriter(new OutputStreamWriter(stdout, StandardCharsets.UTF_8), 64 * 1024);
   }
 
   @Override
@@ -36,5 +42,14 @@ public class FileDescriptorOutput implements OutputWriter {
   public void printErr(String message) {
     stderr.println(message);
   }
-}
 
+  @Override
+  public Writer stdoutWriter() {
+    return stdoutWriter;
+  }
+
+  @Override
+  public OutputStream stdoutStream() {
+    return stdout;
+  }
+}
@@ -3,6 +3,8 @@ package org.geekden.mcp.cli;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 import org.geekden.mcp.database.config.DatabaseConfig;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+import org.geekden.mcp.database.provider.ReadReplica;
 import org.geekden.mcp.database.service.IntrospectionService;
 import org.jboss.logging.Logger;
 import picocli.CommandLine;
@@ -18,6 +20,8 @@ import java.util.concurrent.Callable;
  *   introspect                    # List all schemas/tables
  *   introspect <schema>           # List tables in schema
  *   introspect <schema> <table>   # Show table structure
+ *   introspect <schema> '*'       # Show structure of every table
+ *   introspect --datasource <n>   # Introspect a named datasource
  */
 @CommandLine.Command(
   name = "introspect",
@@ -38,16 +42,26 @@ public class IntrospectCommand implements Callable<Integer> {
   @CommandLine.Parameters(
     index = "1",
     arity = "0..1",
-    description = "Table name (optional, requires schema)"
+    description = "Table name, or * for all tables (optional, requires schema)"
   )
   String table;
 
+  @CommandLine.Option(
+    names = {"--datasource"},
+    description = "Named datasource (db.<name>.jdbc.url) to introspect instead of the main database"
+  )
+  String datasource;
+
   @Inject
+  @ReadReplica
   Instance<Connection> connection;
 
   @Inject
   DatabaseConfig config;
 
+  @Inject
+  DataSourceRegistry dataSources;
+
   @Inject
   IntrospectionService introspectionService;
 
@@ -63,27 +77,34 @@ public class IntrospectCommand implements Callable<Integer> {
       return 1;
     }
 
-    try (Connection conn = connection.get()) {
-      DatabaseMetaData metaData = conn.getMetaData();
+    try {
+      DataSourceRegistry.Selection selection = dataSources.select(datasource);
+      try (Connection conn = connection.get()) {
+        DatabaseMetaData metaData = conn.getMetaData();
 
-      String result;
-      if (table != null) {
-        // introspect <schema> <table>
-        if (schema == null) {
-          output.printErr("Error: Schema name is required when table name is specified");
-          return 1;
+        String result;
+        if (table != null) {
+          // introspect <schema> <table>
+          if (schema == null) {
+            output.printErr("Error: Schema name is required when table name is specified");
+            return 1;
+          }
+          result = IntrospectionService.ALL_TABLES.equals(table)
+              ? introspectionService.describeSchema(metaData, schema)
+              : introspectionService.describeTable(metaData, schema, table);
+        } else if (schema != null) {
+          // introspect <schema>
+          result = introspectionService.listTables(metaData, schema);
+        } else {
+          // introspect
+          result = introspectionService.listSchemas(metaData);
         }
-        result = introspectionService.describeTable(metaData, schema, table);
-      } else if (schema != null) {
-        // introspect <schema>
-        result = introspectionService.listTables(metaData, schema);
-      } else {
-        // introspect
-        result = introspectionService.listSchemas(metaData);
-      }
 
-      output.printOut(result);
-      return 0;
+        output.printOut(result);
+        return 0;
+      } finally {
+        selection.close();
+      }
     } catch (Exception e) {
       output.printErr("Introspection failed: " + e.getMessage());
       LOG.error("Introspection error", e);
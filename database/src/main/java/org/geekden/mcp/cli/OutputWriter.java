@@ -1,5 +1,8 @@
 package org.geekden.mcp.cli;
 
+import java.io.OutputStream;
+import java.io.Writer;
+
 /**
  * Abstraction for CLI output to allow different implementations
  * for production (FileDescriptor) and testing (capturing).
@@ -25,4 +28,20 @@ public interface OutputWriter {
    * @param message The message to write
    */
   void printErr(String message);
+
+  /**
+   * Writer for streaming large output to standard output incrementally.
+   * Callers must flush it when done; it must not be closed.
+   *
+   * @return Buffered writer over standard output
+   */
+  Writer stdoutWriter();
+
+  /**
+   * Stream for binary data on standard output.
+   * Callers must flush it when done; it must not be closed.
+   *
+   * @return Unbuffered stream over standard output
+   */
+  OutputStream stdoutStream();
 }
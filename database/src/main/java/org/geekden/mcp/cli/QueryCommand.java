@@ -3,11 +3,22 @@ package org.geekden.mcp.cli;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 import org.geekden.mcp.database.config.DatabaseConfig;
+import org.geekden.mcp.database.formatter.OutputLimits;
+import org.geekden.mcp.database.formatter.ResultFormat;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+import org.geekden.mcp.database.provider.ReadReplica;
+import org.geekden.mcp.database.service.QueryParameters;
+import org.geekden.mcp.database.service.QueryRequest;
 import org.geekden.mcp.database.service.SqlExecutionService;
+import org.geekden.mcp.database.service.StatementCanceller;
 import org.jboss.logging.Logger;
 import picocli.CommandLine;
 
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 /**
@@ -16,6 +27,13 @@ import java.util.concurrent.Callable;
  * Usage:
  *   query "<sql>"                 # Execute SQL query (page 1)
  *   query "<sql>" --page <n>      # Execute SQL query with pagination
+ *   query "<sql>" --cursor <c>    # Continue from a previous page's cursor
+ *   query "<sql>" --param <v>...  # Bind values to ? placeholders in order
+ *   query "<sql>" --stream        # Stream all rows without pagination
+ *   query "<sql>" --max-chars <n> # Stop pages early past a character budget
+ *   query "<sql>" --format <f>    # Render rows as table, tsv, markdown or jsonl
+ *   query --file <script.sql>     # Run a script of statements in one transaction
+ *   query "<sql>" --datasource <n> # Run against a named datasource
  */
 @CommandLine.Command(
   name = "query",
@@ -28,10 +46,23 @@ public class QueryCommand implements Callable<Integer> {
 
   @CommandLine.Parameters(
     index = "0",
+    arity = "0..1",
     description = "SQL query to execute"
   )
   String sql;
 
+  @CommandLine.Option(
+    names = {"--file"},
+    description = "SQL script to run in one transaction (statements separated by semicolons)"
+  )
+  Path file;
+
+  @CommandLine.Option(
+    names = {"--datasource"},
+    description = "Named datasource (db.<name>.jdbc.url) to query instead of the main database"
+  )
+  String datasource;
+
   @CommandLine.Option(
     names = {"--page"},
     description = "Page number for result pagination (default: ${DEFAULT-VALUE})",
@@ -39,12 +70,51 @@ public class QueryCommand implements Callable<Integer> {
   )
   int page;
 
+  @CommandLine.Option(
+    names = {"--cursor"},
+    description = "Cursor from the previous page of the same query (overrides --page)"
+  )
+  String cursor;
+
+  @CommandLine.Option(
+    names = {"--param"},
+    description = "Value for the next ? placeholder (repeatable; JSON scalars like 42, true, null are typed)"
+  )
+  List<String> params;
+
+  @CommandLine.Option(
+    names = {"--stream"},
+    description = "Stream all rows without pagination, using constant memory"
+  )
+  boolean stream;
+
+  @CommandLine.Option(
+    names = {"--max-chars"},
+    description = "Character budget for the result table (default: DB_OUTPUT_MAX_CHARS)",
+    defaultValue = "0"
+  )
+  int maxChars;
+
+  @CommandLine.Option(
+    names = {"--format"},
+    description = "Result format: table, tsv, markdown or jsonl (default: ${DEFAULT-VALUE})",
+    defaultValue = "table"
+  )
+  String format;
+
   @Inject
   Instance<Connection> connection;
 
+  @Inject
+  @ReadReplica
+  Instance<Connection> readConnection;
+
   @Inject
   DatabaseConfig config;
 
+  @Inject
+  DataSourceRegistry dataSources;
+
   @Inject
   SqlExecutionService sqlExecutionService;
 
@@ -60,20 +130,77 @@ public class QueryCommand implements Callable<Integer> {
       return 1;
     }
 
+    if ((sql == null) == (file == null)) {
+      output.printErr("Specify either a SQL query or --file");
+      return 1;
+    }
+
     // Validate page number
     if (page < 1) {
       output.printErr("Page number must be >= 1");
       return 1;
     }
 
-    try (Connection conn = connection.get()) {
-      String result = sqlExecutionService.executeQuery(conn, sql, page, config.getPageSize());
-      output.printOut(result);
-      return 0;
+    if (maxChars < 0) {
+      output.printErr("--max-chars must be >= 0");
+      return 1;
+    }
+
+    if (stream && (page != 1 || cursor != null)) {
+      output.printErr("--stream cannot be combined with --page or --cursor");
+      return 1;
+    }
+
+    ResultFormat resultFormat;
+    try {
+      resultFormat = ResultFormat.parse(format);
+    } catch (IllegalArgumentException e) {
+      output.printErr(e.getMessage());
+      return 1;
+    }
+
+    try {
+      DataSourceRegistry.Selection selection = dataSources.select(datasource);
+      try (Connection conn = openConnection()) {
+        if (file != null) {
+          output.printOut(sqlExecutionService.executeScript(conn, Files.readString(file), config.getPageSize(),
+              StatementCanceller.NEVER));
+          return 0;
+        }
+
+        if (stream) {
+          Writer out = output.stdoutWriter();
+          try {
+            sqlExecutionService.streamQuery(conn, sql, QueryParameters.fromStrings(params), out, resultFormat);
+            out.append('\n');
+          } finally {
+            out.flush();
+          }
+          return 0;
+        }
+
+        OutputLimits limits = config.getOutputLimits(maxChars);
+        String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(sql, page, config.getPageSize())
+            .withCursor(cursor)
+            .withParams(QueryParameters.fromStrings(params))
+            .withLimits(limits)
+            .withFormat(resultFormat));
+        output.printOut(result);
+        return 0;
+      } finally {
+        selection.close();
+      }
     } catch (Exception e) {
       output.printErr("Query execution failed: " + e.getMessage());
       LOG.error("Query execution error", e);
       return 1;
     }
   }
+
+  /**
+   * Read-only queries use the read replica (if configured); scripts and writes use the primary.
+   */
+  private Connection openConnection() {
+    return file == null && SqlExecutionService.isReadOnly(sql) ? readConnection.get() : connection.get();
+  }
 }
@@ -0,0 +1,52 @@
+package org.geekden.mcp.database;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import org.geekden.mcp.database.config.DatabaseConfig;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps the number of tool calls running at once.
+ * <p>
+ * Tool methods run on virtual threads, so a slow query no longer blocks other
+ * requests; this bounds how many run together so they don't all queue on the
+ * connection pool. Calls beyond the limit wait their turn, in arrival order.
+ */
+@ConcurrencyLimited
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class ConcurrencyLimitInterceptor {
+
+  private static final Logger LOG = Logger.getLogger(ConcurrencyLimitInterceptor.class);
+
+  @Inject
+  DatabaseConfig config;
+
+  private int maxConcurrent;
+  private Semaphore permits;
+
+  @PostConstruct
+  void init() {
+    maxConcurrent = Math.max(1, config.getMaxConcurrentTools());
+    permits = new Semaphore(maxConcurrent, true);
+  }
+
+  @AroundInvoke
+  Object limit(InvocationContext context) throws Exception {
+    if (permits.availablePermits() == 0) {
+      LOG.debugf("Tool call %s waiting for one of %d slots", context.getMethod().getName(), maxConcurrent);
+    }
+    permits.acquire();
+    try {
+      return context.proceed();
+    } finally {
+      permits.release();
+    }
+  }
+}
@@ -1,13 +1,25 @@
 package org.geekden.mcp.database;
 
+import io.quarkiverse.mcp.server.Cancellation;
 import io.quarkiverse.mcp.server.Tool;
 import io.quarkiverse.mcp.server.ToolArg;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 import org.geekden.mcp.database.config.DatabaseConfig;
+import org.geekden.mcp.database.formatter.OutputLimits;
+import org.geekden.mcp.database.formatter.ResultFormat;
+import org.geekden.mcp.database.metrics.Metered;
+import org.geekden.mcp.database.metrics.ServerMetrics;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+import org.geekden.mcp.database.provider.ReadReplica;
+import org.geekden.mcp.database.service.ConnectionLease;
 import org.geekden.mcp.database.service.IntrospectionService;
+import org.geekden.mcp.database.service.QueryParameters;
+import org.geekden.mcp.database.service.QueryRequest;
 import org.geekden.mcp.database.service.SqlExecutionService;
+import org.geekden.mcp.database.service.StatementCanceller;
 import org.jboss.logging.Logger;
 
 import java.sql.Connection;
@@ -16,15 +28,25 @@ import java.sql.DatabaseMetaData;
 /**
  * MCP Tools for database access.
  * Provides introspection and SQL execution capabilities via MCP protocol.
+ * Tool calls run concurrently on virtual threads, up to db.tools.max-concurrent at a time.
+ * Introspection and read-only SELECTs use the read replica when one is configured.
+ * Each tool takes an optional datasource name to work on a {@code db.<name>.jdbc.url} database instead.
  */
 @ApplicationScoped
 public class DatabaseMcpTools {
 
   private static final Logger LOG = Logger.getLogger(DatabaseMcpTools.class);
 
+  private static final String DATASOURCE_DESCRIPTION =
+      "Named datasource to use (optional, default: the main database)";
+
   @Inject
   Instance<Connection> connection;
 
+  @Inject
+  @ReadReplica
+  Instance<Connection> readConnection;
+
   @Inject
   DatabaseConfig config;
 
@@ -34,38 +56,78 @@ public class DatabaseMcpTools {
   @Inject
   SqlExecutionService sqlExecutionService;
 
+  @Inject
+  ServerMetrics metrics;
+
+  @Inject
+  DataSourceRegistry dataSources;
+
   /**
    * Hierarchical schema introspection tool.
    *
    * Behavior:
    * - introspect() → all schemas, tables, views
    * - introspect(schema="public") → tables/views in schema
-   * - introspect(schema="public", table="users") → detailed table structure
+   * - introspect(schema="public", table="users") → detailed table structure, indexes and statistics
+   * - introspect(schema="public", table="*") → structure of every table in the schema,
+   *   as many tables as fit maxChars; pass after="last shown table" for the rest
+   *
+   * Results are cached; refresh=true drops the datasource's cached metadata first.
    */
+  @RunOnVirtualThread
+  @ConcurrencyLimited
+  @Metered
   @Tool(description = "Introspect database schema. Call with no args for all schemas, "
-      + "with schema for tables in that schema, or with schema and table for table details.")
+      + "with schema for tables in that schema, or with schema and table for table details "
+      + "(columns, keys, indexes, estimated rows, size and last analyze time). "
+      + "Use table=\"*\" to get every table's details in the schema at once; if they exceed maxChars, "
+      + "pass the 'after' value from the footer to get the next tables. "
+      + "Results are cached; schema changes made through executeSql are picked up automatically, "
+      + "pass refresh=true after changes made elsewhere.")
   public String introspect(
       @ToolArg(description = "Schema name (optional)", required = false) String schema,
-      @ToolArg(description = "Table name (optional, requires schema)", required = false) String table) {
+      @ToolArg(description = "Table name, or * for all tables (optional, requires schema)",
+               required = false) String table,
+      @ToolArg(description = "With table=\"*\": continue after this table, as given in the previous footer "
+               + "(optional)", required = false) String after,
+      @ToolArg(description = "Character budget for table=\"*\" (optional, default: server setting)",
+               required = false, defaultValue = "0") int maxChars,
+      @ToolArg(description = "Reload metadata instead of using cached results (default: false)",
+               required = false, defaultValue = "false") boolean refresh,
+      @ToolArg(description = DATASOURCE_DESCRIPTION, required = false) String datasource) {
 
     try {
       if (!config.isConfigured()) {
         return "Error: Database not configured. Set DB_URL, DB_USERNAME, and DB_PASSWORD environment variables.";
       }
 
-      try (Connection conn = connection.get()) {
+      if (maxChars < 0) {
+        return "Error: maxChars must be >= 0";
+      }
+
+      DataSourceRegistry.Selection selection = dataSources.select(datasource);
+      try (Connection conn = readConnection.get()) {
         DatabaseMetaData metaData = conn.getMetaData();
 
+        if (refresh) {
+          introspectionService.invalidate();
+        }
+
         if (schema == null) {
           // List all schemas
           return listSchemas(metaData);
         } else if (table == null) {
           // List tables in schema
           return listTables(metaData, schema);
+        } else if (IntrospectionService.ALL_TABLES.equals(table)) {
+          // Show details of every table
+          return describeSchema(metaData, schema, after, config.getOutputLimits(maxChars).maxChars());
         } else {
           // Show table details
           return describeTable(metaData, schema, table);
         }
+      } finally {
+        selection.close();
       }
     } catch (Exception e) {
       LOG.error("Error during introspection", e);
@@ -73,18 +135,58 @@ public class DatabaseMcpTools {
     }
   }
 
+  /**
+   * Execute SQL query with pagination.
+   *
+   * @see #executeSql(String, int, String, String, int, String, String, Cancellation)
+   */
+  public String executeSql(String query, int page) {
+    return executeSql(query, page, null, null, 0, null, null, null);
+  }
+
+  /**
+   * Introspect the default datasource.
+   *
+   * @see #introspect(String, String, String, int, boolean, String)
+   */
+  public String introspect(String schema, String table) {
+    return introspect(schema, table, null, 0, false, null);
+  }
+
   /**
    * Execute SQL query with pagination.
    *
    * Supports all SQL operations (SELECT, INSERT, UPDATE, DELETE, DDL).
-   * SELECT queries are paginated automatically.
+   * SELECT queries are paginated automatically. Pages of single-table queries
+   * end with a cursor that fetches the next page without rescanning earlier rows.
+   * Values for {@code ?} placeholders are passed as a JSON array.
+   * Pages stop early once the table reaches the character budget, and long
+   * cells are truncated. Cancelling the request cancels the running statement.
+   * Rows can be rendered as TSV, Markdown or JSON Lines instead of the padded table.
    */
+  @RunOnVirtualThread
+  @ConcurrencyLimited
+  @Metered
   @Tool(description = "Execute SQL query with automatic pagination for SELECT statements. "
-      + "Supports all SQL operations (SELECT, INSERT, UPDATE, DELETE, DDL).")
+      + "Supports all SQL operations (SELECT, INSERT, UPDATE, DELETE, DDL). "
+      + "Use ? placeholders with params instead of inlining literal values. "
+      + "When a page ends with 'Next cursor', pass it back with the same query to fetch the next page efficiently. "
+      + "Pages stop early when the output would exceed maxChars. "
+      + "Use format tsv, markdown or jsonl for compact output without column padding.")
   public String executeSql(
       @ToolArg(description = "SQL query to execute") String query,
       @ToolArg(description = "Page number for paginated results (default: 1)",
-               required = false, defaultValue = "1") int page) {
+               required = false, defaultValue = "1") int page,
+      @ToolArg(description = "Cursor from the previous page of the same query (optional, overrides page)",
+               required = false) String cursor,
+      @ToolArg(description = "Values for ? placeholders as a JSON array, e.g. [42, \"abc\", null] (optional)",
+               required = false) String params,
+      @ToolArg(description = "Character budget for the result table (optional, default: server setting)",
+               required = false, defaultValue = "0") int maxChars,
+      @ToolArg(description = "Result format: table, tsv, markdown or jsonl (optional, default: table)",
+               required = false) String format,
+      @ToolArg(description = DATASOURCE_DESCRIPTION, required = false) String datasource,
+      Cancellation cancellation) {
 
     try {
       if (!config.isConfigured()) {
@@ -95,8 +197,24 @@ public class DatabaseMcpTools {
         return "Error: Page number must be >= 1";
       }
 
-      try (Connection conn = connection.get()) {
-        return sqlExecutionService.executeQuery(conn, query, page, config.getPageSize());
+      if (maxChars < 0) {
+        return "Error: maxChars must be >= 0";
+      }
+
+      OutputLimits limits = config.getOutputLimits(maxChars);
+      ResultFormat resultFormat = ResultFormat.parse(format);
+
+      DataSourceRegistry.Selection selection = dataSources.select(datasource);
+      // Borrowed only if needed; a cursor session opened for the first page keeps it
+      try (ConnectionLease conn = new ConnectionLease(() -> connectionFor(query))) {
+        return sqlExecutionService.executeQuery(conn, QueryRequest.of(query, page, config.getPageSize())
+            .withCursor(cursor)
+            .withParams(QueryParameters.fromJsonArray(params))
+            .withLimits(limits)
+            .withCancellation(cancellation == null ? StatementCanceller.NEVER : cancellation::isRequested)
+            .withFormat(resultFormat));
+      } finally {
+        selection.close();
       }
 
     } catch (Exception e) {
@@ -105,6 +223,103 @@ public class DatabaseMcpTools {
     }
   }
 
+  /**
+   * Execute a multi-statement SQL script in one transaction.
+   *
+   * Statements are separated by semicolons; consecutive INSERT/UPDATE/DELETE
+   * statements are sent as one batch. The whole script commits together or
+   * rolls back on the first failure.
+   */
+  @RunOnVirtualThread
+  @ConcurrencyLimited
+  @Metered
+  @Tool(description = "Execute several SQL statements separated by semicolons in a single transaction. "
+      + "Use this instead of many execute_sql calls for bulk INSERT/UPDATE/DELETE or schema changes. "
+      + "Reports the outcome of each statement; if any statement fails, the whole script is rolled back.")
+  public String executeScript(
+      @ToolArg(description = "SQL statements separated by semicolons") String script,
+      @ToolArg(description = DATASOURCE_DESCRIPTION, required = false) String datasource,
+      Cancellation cancellation) {
+
+    try {
+      if (!config.isConfigured()) {
+        return "Error: Database not configured. Set DB_URL, DB_USERNAME, and DB_PASSWORD environment variables.";
+      }
+
+      DataSourceRegistry.Selection selection = dataSources.select(datasource);
+      try (Connection conn = connection.get()) {
+        return sqlExecutionService.executeScript(conn, script, config.getPageSize(),
+            cancellation == null ? StatementCanceller.NEVER : cancellation::isRequested);
+      } finally {
+        selection.close();
+      }
+
+    } catch (Exception e) {
+      LOG.error("Error executing SQL script", e);
+      return "Error: " + e.getMessage();
+    }
+  }
+
+  /**
+   * Explain a query's plan without returning its rows.
+   *
+   * Runs EXPLAIN (FORMAT JSON) on PostgreSQL or EXPLAIN QUERY PLAN on SQLite and
+   * condenses the plan to a tree with estimated rows and costs, the costliest steps
+   * and full scans of large tables. With analyze=true the query runs inside a
+   * transaction that is rolled back, adding actual rows and times.
+   */
+  @RunOnVirtualThread
+  @ConcurrencyLimited
+  @Metered
+  @Tool(description = "Show how the database would run a SQL query, as a condensed plan tree with estimated rows "
+      + "and costs, the costliest steps, and sequential scans of large tables. "
+      + "Use it to tune a query before running it against large tables. "
+      + "With analyze=true the query also runs (in a transaction that is rolled back) to show actual rows and times.")
+  public String explainSql(
+      @ToolArg(description = "SQL query to explain") String query,
+      @ToolArg(description = "Values for ? placeholders as a JSON array, e.g. [42, \"abc\", null] (optional)",
+               required = false) String params,
+      @ToolArg(description = "Run the query to measure actual rows and times; changes are rolled back (default: false)",
+               required = false, defaultValue = "false") boolean analyze,
+      @ToolArg(description = DATASOURCE_DESCRIPTION, required = false) String datasource,
+      Cancellation cancellation) {
+
+    try {
+      if (!config.isConfigured()) {
+        return "Error: Database not configured. Set DB_URL, DB_USERNAME, and DB_PASSWORD environment variables.";
+      }
+
+      DataSourceRegistry.Selection selection = dataSources.select(datasource);
+      try (Connection conn = connectionFor(query)) {
+        return sqlExecutionService.explainQuery(conn, query, QueryParameters.fromJsonArray(params), analyze,
+            cancellation == null ? StatementCanceller.NEVER : cancellation::isRequested);
+      } finally {
+        selection.close();
+      }
+
+    } catch (Exception e) {
+      LOG.error("Error explaining SQL", e);
+      return "Error: " + e.getMessage();
+    }
+  }
+
+  /**
+   * Server statistics: connection pool, per-tool latency and result sizes, caches.
+   * Cheap and in-memory, so it isn't counted against the concurrency limit.
+   */
+  @Tool(description = "Show server statistics: connection pool usage, connection acquire time, "
+      + "per-tool call counts, errors, latency percentiles, rows and characters returned, and cache hit rates.")
+  public String serverStats() {
+    return metrics.report();
+  }
+
+  /**
+   * Read-only statements go to the read replica (if configured), everything else to the primary.
+   */
+  private Connection connectionFor(String query) {
+    return SqlExecutionService.isReadOnly(query) ? readConnection.get() : connection.get();
+  }
+
   private String listSchemas(DatabaseMetaData metaData) {
     try {
       return introspectionService.listSchemas(metaData);
@@ -131,4 +346,13 @@ public class DatabaseMcpTools {
       return "Error describing table " + schema + "." + table + ": " + e.getMessage();
     }
   }
+
+  private String describeSchema(DatabaseMetaData metaData, String schema, String after, int maxChars) {
+    try {
+      return introspectionService.describeSchema(metaData, schema, after, maxChars);
+    } catch (Exception e) {
+      LOG.error("Error describing tables in schema: " + schema, e);
+      return "Error describing tables in schema " + schema + ": " + e.getMessage();
+    }
+  }
 }
@@ -0,0 +1,39 @@
+package org.geekden.mcp.database.config;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import org.geekden.mcp.database.provider.ConnectionProvider;
+import org.jboss.logging.Logger;
+
+/**
+ * Opens the connection pool at startup.
+ * Runs before DatabaseInfoLogger so the first tool call finds warm connections.
+ */
+@ApplicationScoped
+public class ConnectionPoolWarmer {
+
+  private static final Logger LOG = Logger.getLogger(ConnectionPoolWarmer.class);
+
+  @Inject
+  ConnectionProvider connectionProvider;
+
+  @Inject
+  DatabaseConfig config;
+
+  void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION) StartupEvent ev) {
+    if (!config.isConfigured()) {
+      return;
+    }
+
+    try {
+      connectionProvider.warmUp();
+    } catch (Exception e) {
+      // Not fatal: the pool retries on the first tool call
+      LOG.error("Failed to warm up connection pool: " + e.getMessage(), e);
+    }
+  }
+}
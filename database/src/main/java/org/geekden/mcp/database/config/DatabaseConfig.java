@@ -3,7 +3,9 @@ package org.geekden.mcp.database.config;
 import io.quarkus.runtime.annotations.RegisterForReflection;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.geekden.mcp.database.formatter.OutputLimits;
 
+import java.time.Duration;
 import java.util.Optional;
 
 /**
@@ -28,6 +30,24 @@ public class DatabaseConfig {
   @ConfigProperty(name = "db.page-size", defaultValue = "100")
   int pageSize;
 
+  @ConfigProperty(name = "db.output.max-chars", defaultValue = "40000")
+  int outputMaxChars;
+
+  @ConfigProperty(name = "db.output.max-cell-chars", defaultValue = "1000")
+  int outputMaxCellChars;
+
+  @ConfigProperty(name = "db.output.max-time", defaultValue = "0s")
+  Duration outputMaxTime;
+
+  @ConfigProperty(name = "hikari.maximum-pool-size", defaultValue = "4")
+  int maximumPoolSize;
+
+  @ConfigProperty(name = "db.tools.max-concurrent", defaultValue = "3")
+  int maxConcurrentTools;
+
+  @ConfigProperty(name = "db.cursor.max-open", defaultValue = "1")
+  int maxOpenCursors;
+
   public Optional<String> getJdbcUrl() {
     return jdbcUrl;
   }
@@ -44,6 +64,48 @@ public class DatabaseConfig {
     return pageSize;
   }
 
+  public int getOutputMaxChars() {
+    return outputMaxChars;
+  }
+
+  public int getOutputMaxCellChars() {
+    return outputMaxCellChars;
+  }
+
+  public Duration getOutputMaxTime() {
+    return outputMaxTime;
+  }
+
+  /**
+   * Connections in the main database's pool (and in its read replica's).
+   */
+  public int getMaximumPoolSize() {
+    return maximumPoolSize;
+  }
+
+  /**
+   * Tool calls allowed to run at once.
+   */
+  public int getMaxConcurrentTools() {
+    return maxConcurrentTools;
+  }
+
+  /**
+   * Cursor sessions allowed to hold a pooled connection of one datasource at once.
+   */
+  public int getMaxOpenCursors() {
+    return maxOpenCursors;
+  }
+
+  /**
+   * Output limits for a call, overriding the configured character budget if one is given.
+   *
+   * @param maxChars Character budget requested by the caller (0 for the configured default)
+   */
+  public OutputLimits getOutputLimits(int maxChars) {
+    return new OutputLimits(maxChars > 0 ? maxChars : outputMaxChars, outputMaxCellChars, outputMaxTime);
+  }
+
   public boolean isConfigured() {
     return jdbcUrl.isPresent() && !jdbcUrl.get().isEmpty();
   }
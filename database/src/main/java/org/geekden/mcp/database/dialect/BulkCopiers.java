@@ -0,0 +1,34 @@
+package org.geekden.mcp.database.dialect;
+
+import org.postgresql.PGConnection;
+
+import java.util.OptionalLong;
+
+/**
+ * Factory methods for creating bulk copiers.
+ */
+class BulkCopiers {
+
+  /**
+   * No bulk copy; rows are read through JDBC.
+   */
+  static DatabaseDialect.BulkCopier none() {
+    return (connection, query, delimiter, out) -> OptionalLong.empty();
+  }
+
+  /**
+   * PostgreSQL: COPY (query) TO STDOUT in CSV format, which the server writes
+   * as text without per-row JDBC decoding. Falls back when the connection isn't
+   * pgjdbc (e.g. behind a wrapping driver).
+   */
+  static DatabaseDialect.BulkCopier copyCommand() {
+    return (connection, query, delimiter, out) -> {
+      if (!connection.isWrapperFor(PGConnection.class)) {
+        return OptionalLong.empty();
+      }
+      String options = delimiter == '\t' ? "FORMAT csv, HEADER, DELIMITER E'\\t'" : "FORMAT csv, HEADER";
+      String copy = "COPY (" + query + ") TO STDOUT WITH (" + options + ")";
+      return OptionalLong.of(connection.unwrap(PGConnection.class).getCopyAPI().copyOut(copy, out));
+    };
+  }
+}
@@ -1,8 +1,18 @@
 package org.geekden.mcp.database.dialect;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
 
 /**
  * Database dialect: composition of strategies for database-specific behavior.
@@ -11,10 +21,137 @@ import java.util.List;
 public interface DatabaseDialect {
 
   /**
-   * Strategy for listing schemas in a database.
+   * A table or view.
+   *
+   * @param name Table name
+   * @param type "TABLE" or "VIEW"
+   */
+  record TableInfo(String name, String type) {
+  }
+
+  /**
+   * A column with the constraints that involve it.
+   *
+   * @param name       Column name
+   * @param type       Type as displayed, e.g. "varchar(255)"
+   * @param nullable   Whether the column accepts NULL
+   * @param primaryKey Whether the column is part of the primary key
+   * @param references Referenced "table.column" if the column is a foreign key, otherwise null
+   */
+  record ColumnInfo(String name, String type, boolean nullable, boolean primaryKey, String references) {
+  }
+
+  /**
+   * An index on a table.
+   *
+   * @param name    Index name
+   * @param columns Key columns in index order; expressions as the database prints them, or "(expression)"
+   * @param unique  Whether the index enforces uniqueness
+   */
+  record IndexInfo(String name, List<String> columns, boolean unique) {
+  }
+
+  /**
+   * What the database knows about a table's size, each part empty where it doesn't.
+   *
+   * @param estimatedRows Row count from the planner statistics (not an exact count)
+   * @param sizeBytes     On-disk size including indexes
+   * @param lastAnalyzed  When statistics were last gathered
+   */
+  record TableStats(OptionalLong estimatedRows, OptionalLong sizeBytes, Optional<Instant> lastAnalyzed) {
+
+    static final TableStats UNKNOWN = new TableStats(OptionalLong.empty(), OptionalLong.empty(), Optional.empty());
+  }
+
+  /**
+   * One step of a query plan, with its inputs as children.
+   *
+   * @param operation     The step as the database describes it, e.g. "Index Scan using users_pkey on users"
+   * @param relation      Table the step reads, or null
+   * @param detail        Conditions and keys the step applies, or null
+   * @param fullScan      Whether the step reads the whole table rather than seeking through an index
+   * @param estimatedRows Rows the planner expects per loop
+   * @param actualRows    Rows produced per loop, once the query has run
+   * @param loops         Times the step ran (0 if never), once the query has run; otherwise 1
+   * @param cost          Planner's cost of the step including its children
+   * @param actualMillis  Time spent in the step and its children over all loops, once the query has run
+   * @param children      Input steps
+   */
+  record PlanNode(String operation, String relation, String detail, boolean fullScan,
+                  OptionalLong estimatedRows, OptionalLong actualRows, long loops,
+                  OptionalDouble cost, OptionalDouble actualMillis, List<PlanNode> children) {
+
+    /**
+     * The same step measured as a whole: it ran once, producing the given rows.
+     */
+    PlanNode withActuals(long rows, double millis) {
+      return new PlanNode(operation, relation, detail, fullScan, estimatedRows, OptionalLong.of(rows), 1,
+          cost, OptionalDouble.of(millis), children);
+    }
+  }
+
+  /**
+   * A parsed EXPLAIN result.
+   *
+   * @param root            Top step
+   * @param analyzed        Whether the query ran, so steps carry actual rows and times where measured
+   * @param planningMillis  Time the planner took, if reported
+   * @param executionMillis Time the query took, if it ran
+   */
+  record QueryPlan(PlanNode root, boolean analyzed, OptionalDouble planningMillis, OptionalDouble executionMillis) {
+
+    /**
+     * This plan after running the query separately and measuring it as a whole.
+     */
+    public QueryPlan measured(long rows, double millis) {
+      return new QueryPlan(root.withActuals(rows, millis), true, planningMillis, OptionalDouble.of(millis));
+    }
+  }
+
+  /**
+   * Strategy for reading schemas, tables, columns, keys, indexes and statistics.
+   * A null schema means any schema visible to the connection.
    */
   interface Introspector {
     List<String> schemas(DatabaseMetaData metaData) throws SQLException;
+
+    /**
+     * Tables and views, tables first, each group ordered by name.
+     */
+    List<TableInfo> tables(DatabaseMetaData metaData, String schema) throws SQLException;
+
+    /**
+     * Columns in table order, empty if there is no such table or view.
+     */
+    List<ColumnInfo> columns(DatabaseMetaData metaData, String schema, String table) throws SQLException;
+
+    /**
+     * Primary key columns in key order, empty if the table has no primary key.
+     */
+    List<String> primaryKey(DatabaseMetaData metaData, String schema, String table) throws SQLException;
+
+    /**
+     * Indexes, the primary key's first, then by name.
+     */
+    List<IndexInfo> indexes(DatabaseMetaData metaData, String schema, String table) throws SQLException;
+
+    /**
+     * Estimated rows, size and last analyze time, as far as the database records them.
+     */
+    TableStats stats(DatabaseMetaData metaData, String schema, String table) throws SQLException;
+
+    /**
+     * Columns of every table and view in a schema, in {@link #tables} order.
+     * Describes one table at a time unless the dialect can fetch them all at once.
+     */
+    default Map<TableInfo, List<ColumnInfo>> describeAll(DatabaseMetaData metaData, String schema)
+        throws SQLException {
+      Map<TableInfo, List<ColumnInfo>> described = new LinkedHashMap<>();
+      for (TableInfo table : tables(metaData, schema)) {
+        described.put(table, columns(metaData, schema, table.name()));
+      }
+      return described;
+    }
   }
 
   /**
@@ -24,8 +161,63 @@ public interface DatabaseDialect {
     String paginate(String query, int offset, int limit);
   }
 
+  /**
+   * Strategy for estimating how many rows a query returns without running it.
+   */
+  interface RowEstimator {
+    OptionalLong estimate(Connection connection, String query, List<Object> params) throws SQLException;
+  }
+
+  /**
+   * Strategy for bulk-copying a query's rows out as delimited text, bypassing JDBC row handling.
+   */
+  interface BulkCopier {
+    /**
+     * @return Rows copied, or empty if this database has no bulk copy (the caller reads rows instead)
+     */
+    OptionalLong copyOut(Connection connection, String query, char delimiter, Writer out)
+        throws SQLException, IOException;
+  }
+
+  /**
+   * Strategy for showing how the database will run a query.
+   */
+  interface Explainer {
+    /**
+     * @param analyze Whether the statement should also run the query and measure it
+     * @return EXPLAIN statement for the query, or empty if this database has none the server can read
+     */
+    Optional<String> statement(String query, boolean analyze);
+
+    /**
+     * Whether an analyzing statement reports actual rows and time for each step; if not,
+     * the caller runs the query itself and measures it as a whole.
+     */
+    boolean measuresSteps();
+
+    /**
+     * Read the result of {@link #statement}.
+     */
+    QueryPlan parse(ResultSet rs, String query, boolean analyze) throws SQLException;
+  }
+
   boolean accepts(DatabaseMetaData metaData) throws SQLException;
   String getName();
   Introspector introspector();
   Paginator paginator();
+  RowEstimator rowEstimator();
+  BulkCopier bulkCopier();
+  Explainer explainer();
+
+  /**
+   * Whether a result set can stay open between tool calls without blocking
+   * other connections (e.g. SQLite holds a file lock while a read is pending).
+   */
+  boolean supportsHeldCursors();
+
+  /**
+   * Whether the driver only honours {@code setFetchSize} inside a transaction
+   * (auto-commit off); otherwise it materializes the whole result set.
+   */
+  boolean requiresTransactionForFetchSize();
 }
@@ -7,12 +7,19 @@ import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.util.List;
 
+/**
+ * Detects the dialect of a database from its metadata.
+ * <p>
+ * The connection pool resolves its dialect once at startup; see
+ * {@code ConnectionProvider#produceDialect()}.
+ */
 @ApplicationScoped
 public class DialectFactory {
   private static final Logger LOG = Logger.getLogger(DialectFactory.class);
 
   private static final List<DatabaseDialect> DIALECTS = List.of(
       new SQLiteDialect(),
+      new PostgreSQLDialect(),
       new StandardDialect() // Catch-all must be last
   );
 
@@ -22,7 +29,7 @@ public class DialectFactory {
 
     for (DatabaseDialect dialect : DIALECTS) {
       if (dialect.accepts(metaData)) {
-        LOG.infof("Using %s dialect", dialect.getName());
+        LOG.debugf("Using %s dialect", dialect.getName());
         return dialect;
       }
     }
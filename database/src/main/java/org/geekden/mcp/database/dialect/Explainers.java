@@ -0,0 +1,259 @@
+package org.geekden.mcp.database.dialect;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Factory methods for creating query plan explainers.
+ */
+class Explainers {
+
+  /**
+   * No EXPLAIN the server can read.
+   */
+  static DatabaseDialect.Explainer none() {
+    return new DatabaseDialect.Explainer() {
+      @Override
+      public Optional<String> statement(String query, boolean analyze) {
+        return Optional.empty();
+      }
+
+      @Override
+      public boolean measuresSteps() {
+        return false;
+      }
+
+      @Override
+      public DatabaseDialect.QueryPlan parse(ResultSet rs, String query, boolean analyze) throws SQLException {
+        throw new SQLFeatureNotSupportedException("EXPLAIN is not supported for this database");
+      }
+    };
+  }
+
+  /**
+   * PostgreSQL: EXPLAIN (FORMAT JSON), with ANALYZE for actual rows and times per step.
+   */
+  static DatabaseDialect.Explainer planJson() {
+    return new PlanJson();
+  }
+
+  /**
+   * SQLite: EXPLAIN QUERY PLAN, which names each step but has no row estimates or costs.
+   */
+  static DatabaseDialect.Explainer queryPlan() {
+    return new QueryPlanRows();
+  }
+
+  private static final class PlanJson implements DatabaseDialect.Explainer {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Conditions worth showing, in the order EXPLAIN prints them. */
+    private static final List<String> CONDITIONS =
+        List.of("Index Cond", "Recheck Cond", "Hash Cond", "Merge Cond", "Join Filter", "Filter");
+
+    /** Key lists worth showing. */
+    private static final List<String> KEYS = List.of("Sort Key", "Group Key");
+
+    @Override
+    public Optional<String> statement(String query, boolean analyze) {
+      return Optional.of((analyze ? "EXPLAIN (ANALYZE, FORMAT JSON) " : "EXPLAIN (FORMAT JSON) ") + query);
+    }
+
+    @Override
+    public boolean measuresSteps() {
+      return true;
+    }
+
+    @Override
+    public DatabaseDialect.QueryPlan parse(ResultSet rs, String query, boolean analyze) throws SQLException {
+      if (!rs.next()) {
+        throw new SQLException("EXPLAIN returned no plan");
+      }
+      JsonNode result;
+      try {
+        result = MAPPER.readTree(rs.getString(1)).path(0);
+      } catch (JsonProcessingException e) {
+        throw new SQLException("Unreadable EXPLAIN output: " + e.getOriginalMessage(), e);
+      }
+      return new DatabaseDialect.QueryPlan(step(result.path("Plan")), analyze,
+          number(result, "Planning Time"), number(result, "Execution Time"));
+    }
+
+    private static DatabaseDialect.PlanNode step(JsonNode node) {
+      String relation = node.path("Relation Name").asText(null);
+      StringBuilder operation = new StringBuilder(label(node));
+      if (node.has("Index Name")) {
+        operation.append(" using ").append(node.get("Index Name").asText());
+      }
+      if (relation != null) {
+        operation.append(" on ").append(relation);
+        String alias = node.path("Alias").asText(relation);
+        if (!alias.equals(relation)) {
+          operation.append(' ').append(alias);
+        }
+      }
+
+      List<String> details = new ArrayList<>();
+      for (String field : CONDITIONS) {
+        if (node.has(field)) {
+          details.add(field + ": " + node.get(field).asText());
+        }
+      }
+      if (node.path("Rows Removed by Filter").asLong() > 0) {
+        details.add("Rows Removed by Filter: " + node.get("Rows Removed by Filter").asLong());
+      }
+      for (String field : KEYS) {
+        if (node.has(field)) {
+          List<String> keys = new ArrayList<>();
+          node.get(field).forEach(key -> keys.add(key.asText()));
+          details.add(field + ": " + String.join(", ", keys));
+        }
+      }
+
+      List<DatabaseDialect.PlanNode> children = new ArrayList<>();
+      for (JsonNode child : node.path("Plans")) {
+        children.add(step(child));
+      }
+
+      // Actual rows and times are averages per loop; times are totalled here
+      boolean ran = node.has("Actual Loops");
+      long loops = ran ? node.get("Actual Loops").asLong() : 1;
+      OptionalLong actualRows = ran && loops > 0
+          ? OptionalLong.of(Math.round(node.path("Actual Rows").asDouble()))
+          : OptionalLong.empty();
+      OptionalDouble actualMillis = node.has("Actual Total Time") && loops > 0
+          ? OptionalDouble.of(node.get("Actual Total Time").asDouble() * loops)
+          : OptionalDouble.empty();
+
+      return new DatabaseDialect.PlanNode(operation.toString(), relation,
+          details.isEmpty() ? null : String.join(", ", details),
+          node.path("Node Type").asText().equals("Seq Scan"),
+          node.has("Plan Rows") ? OptionalLong.of(node.get("Plan Rows").asLong()) : OptionalLong.empty(),
+          actualRows, loops, number(node, "Total Cost"), actualMillis, List.copyOf(children));
+    }
+
+    /**
+     * The node type as EXPLAIN's text format names it, e.g. "Hash Left Join" or "HashAggregate".
+     */
+    private static String label(JsonNode node) {
+      String type = node.path("Node Type").asText();
+      String join = node.path("Join Type").asText("Inner");
+      String label;
+      if (type.equals("Aggregate")) {
+        label = switch (node.path("Strategy").asText()) {
+          case "Hashed" -> "HashAggregate";
+          case "Sorted" -> "GroupAggregate";
+          case "Mixed" -> "MixedAggregate";
+          default -> type;
+        };
+      } else if (join.equals("Inner")) {
+        label = type;
+      } else if (type.equals("Nested Loop")) {
+        label = type + " " + join + " Join";
+      } else if (type.endsWith(" Join")) {
+        label = type.substring(0, type.length() - " Join".length()) + " " + join + " Join";
+      } else {
+        label = type;
+      }
+      return node.path("Parallel Aware").asBoolean() ? "Parallel " + label : label;
+    }
+
+    private static OptionalDouble number(JsonNode node, String field) {
+      return node.has(field) ? OptionalDouble.of(node.get(field).asDouble()) : OptionalDouble.empty();
+    }
+  }
+
+  private static final class QueryPlanRows implements DatabaseDialect.Explainer {
+
+    /** A table read, as SQLite 3.36+ ("SCAN o") and earlier ("SCAN TABLE orders AS o") print it. */
+    private static final Pattern TABLE_ACCESS =
+        Pattern.compile("^(SCAN|SEARCH)\\s+(?:TABLE\\s+)?(\\S+)(?:\\s+AS\\s+(\\S+))?(.*)$");
+
+    /** A table after FROM or JOIN, with the alias that newer SQLite prints instead of its name. */
+    private static final Pattern FROM_ITEM = Pattern.compile(
+        "\\b(?:FROM|JOIN)\\s+(?:\\w+\\.)?\"?(\\w+)\"?(?:\\s+(?:AS\\s+)?\"?(\\w+)\"?)?", Pattern.CASE_INSENSITIVE);
+
+    @Override
+    public Optional<String> statement(String query, boolean analyze) {
+      return Optional.of("EXPLAIN QUERY PLAN " + query);
+    }
+
+    @Override
+    public boolean measuresSteps() {
+      return false;
+    }
+
+    /**
+     * Rows of (id, parent, notused, detail), children after their parent; top-level
+     * steps have parent 0 and hang off a "QUERY PLAN" root as in the sqlite3 shell.
+     */
+    @Override
+    public DatabaseDialect.QueryPlan parse(ResultSet rs, String query, boolean analyze) throws SQLException {
+      Map<Integer, List<Integer>> childIds = new HashMap<>();
+      Map<Integer, String> details = new HashMap<>();
+      while (rs.next()) {
+        int id = rs.getInt(1);
+        childIds.computeIfAbsent(rs.getInt(2), parent -> new ArrayList<>()).add(id);
+        details.put(id, rs.getString(4));
+      }
+
+      DatabaseDialect.PlanNode root = new DatabaseDialect.PlanNode("QUERY PLAN", null, null, false,
+          OptionalLong.empty(), OptionalLong.empty(), 1, OptionalDouble.empty(), OptionalDouble.empty(),
+          children(0, childIds, details, aliases(query)));
+      return new DatabaseDialect.QueryPlan(root, false, OptionalDouble.empty(), OptionalDouble.empty());
+    }
+
+    private static List<DatabaseDialect.PlanNode> children(int parent, Map<Integer, List<Integer>> childIds,
+                                                           Map<Integer, String> details, Map<String, String> aliases) {
+      List<DatabaseDialect.PlanNode> steps = new ArrayList<>();
+      for (int id : childIds.getOrDefault(parent, List.of())) {
+        steps.add(step(details.get(id), aliases, children(id, childIds, details, aliases)));
+      }
+      return List.copyOf(steps);
+    }
+
+    private static DatabaseDialect.PlanNode step(String detail, Map<String, String> aliases,
+                                                 List<DatabaseDialect.PlanNode> children) {
+      String relation = null;
+      boolean fullScan = false;
+      Matcher access = TABLE_ACCESS.matcher(detail);
+      if (access.matches() && !detail.startsWith("SCAN CONSTANT ROW")) {
+        String name = access.group(2);
+        relation = access.group(3) != null ? name : aliases.getOrDefault(name.toLowerCase(Locale.ROOT), name);
+        fullScan = access.group(1).equals("SCAN") && !access.group(4).contains("INDEX");
+      }
+      return new DatabaseDialect.PlanNode(detail, relation, null, fullScan, OptionalLong.empty(),
+          OptionalLong.empty(), 1, OptionalDouble.empty(), OptionalDouble.empty(), children);
+    }
+
+    /**
+     * Alias -> table for the query's FROM and JOIN items.
+     */
+    private static Map<String, String> aliases(String query) {
+      Map<String, String> aliases = new HashMap<>();
+      Matcher item = FROM_ITEM.matcher(query);
+      while (item.find()) {
+        if (item.group(2) != null) {
+          aliases.putIfAbsent(item.group(2).toLowerCase(Locale.ROOT), item.group(1));
+        }
+      }
+      return aliases;
+    }
+  }
+}
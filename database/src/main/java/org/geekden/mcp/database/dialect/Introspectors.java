@@ -1,38 +1,28 @@
 package org.geekden.mcp.database.dialect;
 
-import java.sql.DatabaseMetaData;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Factory methods for creating database introspectors.
  */
 class Introspectors {
 
   /**
-   * Standard schema listing: PostgreSQL, MySQL, Oracle conventions.
+   * Standard JDBC metadata: PostgreSQL, MySQL, Oracle conventions.
    */
   static DatabaseDialect.Introspector standard() {
-    return metaData -> {
-      List<String> schemas = new ArrayList<>();
-      try (ResultSet rs = metaData.getSchemas()) {
-        while (rs.next()) {
-          String schemaName = rs.getString("TABLE_SCHEM");
-          if (schemaName != null && !schemaName.isEmpty()) {
-            schemas.add(schemaName);
-          }
-        }
-      }
-      return schemas;
-    };
+    return new JdbcIntrospector();
+  }
+
+  /**
+   * PostgreSQL: hand-written pg_catalog queries, one round trip per operation.
+   */
+  static DatabaseDialect.Introspector pgCatalog() {
+    return new PgCatalogIntrospector();
   }
 
   /**
-   * SQLite: No traditional schemas, uses "main".
+   * SQLite: No traditional schemas, uses "main"; metadata from the PRAGMA functions.
    */
   static DatabaseDialect.Introspector sqlite() {
-    return metaData -> List.of("main");
+    return new SqliteIntrospector();
   }
 }
@@ -0,0 +1,201 @@
+package org.geekden.mcp.database.dialect;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Introspection through the driver's DatabaseMetaData, for any JDBC database.
+ * <p>
+ * Describing a table takes four metadata calls (getTables, getPrimaryKeys,
+ * getImportedKeys, getColumns), each of which the driver turns into one or
+ * more catalog queries.
+ */
+class JdbcIntrospector implements DatabaseDialect.Introspector {
+
+  private static final String[] TABLE_TYPES = {"TABLE", "VIEW"};
+
+  @Override
+  public List<String> schemas(DatabaseMetaData metaData) throws SQLException {
+    List<String> schemas = new ArrayList<>();
+    try (ResultSet rs = metaData.getSchemas()) {
+      while (rs.next()) {
+        String schemaName = rs.getString("TABLE_SCHEM");
+        if (schemaName != null && !schemaName.isEmpty()) {
+          schemas.add(schemaName);
+        }
+      }
+    }
+    return schemas;
+  }
+
+  @Override
+  public List<DatabaseDialect.TableInfo> tables(DatabaseMetaData metaData, String schema) throws SQLException {
+    List<DatabaseDialect.TableInfo> tables = new ArrayList<>();
+    try (ResultSet rs = metaData.getTables(null, schema, "%", TABLE_TYPES)) {
+      while (rs.next()) {
+        tables.add(new DatabaseDialect.TableInfo(rs.getString("TABLE_NAME"), rs.getString("TABLE_TYPE")));
+      }
+    }
+    return tables;
+  }
+
+  @Override
+  public List<DatabaseDialect.ColumnInfo> columns(DatabaseMetaData metaData, String schema, String table)
+      throws SQLException {
+    try (ResultSet rs = metaData.getTables(null, schema, table, TABLE_TYPES)) {
+      if (!rs.next()) {
+        return List.of();
+      }
+    }
+
+    Set<String> primaryKeys = new HashSet<>(primaryKey(metaData, schema, table));
+    Map<String, String> foreignKeys = foreignKeys(metaData, schema, table);
+
+    List<DatabaseDialect.ColumnInfo> columns = new ArrayList<>();
+    try (ResultSet rs = metaData.getColumns(null, schema, table, "%")) {
+      while (rs.next()) {
+        columns.add(new ColumnRow(rs).toColumn(primaryKeys, foreignKeys));
+      }
+    }
+    return columns;
+  }
+
+  /**
+   * One getColumns call for the whole schema, then the keys table by table,
+   * since DatabaseMetaData only reports keys for a named table.
+   */
+  @Override
+  public Map<DatabaseDialect.TableInfo, List<DatabaseDialect.ColumnInfo>> describeAll(
+      DatabaseMetaData metaData, String schema) throws SQLException {
+    Map<String, List<ColumnRow>> rowsByTable = new HashMap<>();
+    try (ResultSet rs = metaData.getColumns(null, schema, "%", "%")) {
+      while (rs.next()) {
+        rowsByTable.computeIfAbsent(rs.getString("TABLE_NAME"), t -> new ArrayList<>()).add(new ColumnRow(rs));
+      }
+    }
+
+    Map<DatabaseDialect.TableInfo, List<DatabaseDialect.ColumnInfo>> described = new LinkedHashMap<>();
+    for (DatabaseDialect.TableInfo table : tables(metaData, schema)) {
+      Set<String> primaryKeys = new HashSet<>(primaryKey(metaData, schema, table.name()));
+      Map<String, String> foreignKeys = foreignKeys(metaData, schema, table.name());
+      List<DatabaseDialect.ColumnInfo> columns = new ArrayList<>();
+      for (ColumnRow row : rowsByTable.getOrDefault(table.name(), List.of())) {
+        columns.add(row.toColumn(primaryKeys, foreignKeys));
+      }
+      described.put(table, columns);
+    }
+    return described;
+  }
+
+  @Override
+  public List<String> primaryKey(DatabaseMetaData metaData, String schema, String table) throws SQLException {
+    Map<Integer, String> columnsBySequence = new TreeMap<>();
+    try (ResultSet rs = metaData.getPrimaryKeys(null, schema, table)) {
+      while (rs.next()) {
+        columnsBySequence.put(rs.getInt("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+      }
+    }
+    return List.copyOf(columnsBySequence.values());
+  }
+
+  @Override
+  public List<DatabaseDialect.IndexInfo> indexes(DatabaseMetaData metaData, String schema, String table)
+      throws SQLException {
+    Map<String, List<String>> columnsByIndex = new LinkedHashMap<>();
+    Map<String, Boolean> unique = new HashMap<>();
+    try (ResultSet rs = metaData.getIndexInfo(null, schema, table, false, true)) {
+      while (rs.next()) {
+        String indexName = rs.getString("INDEX_NAME");
+        if (rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic || indexName == null) {
+          continue;
+        }
+        String column = rs.getString("COLUMN_NAME");
+        columnsByIndex.computeIfAbsent(indexName, i -> new ArrayList<>()).add(column != null ? column : "(expression)");
+        unique.put(indexName, !rs.getBoolean("NON_UNIQUE"));
+      }
+    }
+
+    Set<String> primaryKeyIndex = new HashSet<>();
+    try (ResultSet rs = metaData.getPrimaryKeys(null, schema, table)) {
+      while (rs.next()) {
+        if (rs.getString("PK_NAME") != null) {
+          primaryKeyIndex.add(rs.getString("PK_NAME"));
+        }
+      }
+    }
+
+    List<DatabaseDialect.IndexInfo> indexes = new ArrayList<>();
+    columnsByIndex.forEach((name, columns) ->
+        indexes.add(new DatabaseDialect.IndexInfo(name, List.copyOf(columns), unique.get(name))));
+    indexes.sort(Comparator.comparing((DatabaseDialect.IndexInfo index) -> !primaryKeyIndex.contains(index.name()))
+        .thenComparing(DatabaseDialect.IndexInfo::name));
+    return indexes;
+  }
+
+  /**
+   * The row count some drivers report as getIndexInfo's table statistic; nothing else
+   * is available through DatabaseMetaData.
+   */
+  @Override
+  public DatabaseDialect.TableStats stats(DatabaseMetaData metaData, String schema, String table)
+      throws SQLException {
+    try (ResultSet rs = metaData.getIndexInfo(null, schema, table, false, true)) {
+      while (rs.next()) {
+        if (rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+          return new DatabaseDialect.TableStats(OptionalLong.of(rs.getLong("CARDINALITY")), OptionalLong.empty(),
+              Optional.empty());
+        }
+      }
+    }
+    return DatabaseDialect.TableStats.UNKNOWN;
+  }
+
+  /**
+   * Column name -> referenced "table.column".
+   */
+  private static Map<String, String> foreignKeys(DatabaseMetaData metaData, String schema, String table)
+      throws SQLException {
+    Map<String, String> foreignKeys = new HashMap<>();
+    try (ResultSet rs = metaData.getImportedKeys(null, schema, table)) {
+      while (rs.next()) {
+        foreignKeys.put(rs.getString("FKCOLUMN_NAME"),
+            rs.getString("PKTABLE_NAME") + "." + rs.getString("PKCOLUMN_NAME"));
+      }
+    }
+    return foreignKeys;
+  }
+
+  /**
+   * The getColumns fields a ColumnInfo is built from.
+   */
+  private record ColumnRow(String name, String type, int size, int nullable) {
+
+    ColumnRow(ResultSet rs) throws SQLException {
+      this(rs.getString("COLUMN_NAME"), rs.getString("TYPE_NAME"), rs.getInt("COLUMN_SIZE"), rs.getInt("NULLABLE"));
+    }
+
+    DatabaseDialect.ColumnInfo toColumn(Set<String> primaryKeys, Map<String, String> foreignKeys) {
+      // Format type with size if applicable
+      String typeDisplay = type;
+      if (size > 0 && !type.equalsIgnoreCase("TEXT")
+          && !type.equalsIgnoreCase("INTEGER")
+          && !type.equalsIgnoreCase("BIGINT")) {
+        typeDisplay = type + "(" + size + ")";
+      }
+      return new DatabaseDialect.ColumnInfo(name, typeDisplay, nullable != DatabaseMetaData.columnNoNulls,
+          primaryKeys.contains(name), foreignKeys.get(name));
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package org.geekden.mcp.database.dialect;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * PostgreSQL introspection straight from pg_catalog, one query per operation.
+ * <p>
+ * pgjdbc answers each DatabaseMetaData call with a general-purpose catalog query
+ * (LIKE patterns, privilege checks, type lookups), and describing a table takes four
+ * of them. Here a table's columns, primary key and foreign keys come back in a single
+ * round trip, names are matched exactly rather than as patterns, and types are shown
+ * as PostgreSQL writes them ({@code format_type}), e.g. "character varying(255)".
+ * <p>
+ * Ordinary and partitioned tables are listed as TABLE, views as VIEW. A null schema
+ * lists tables in every non-system schema, and finds a single table through the
+ * search path.
+ */
+class PgCatalogIntrospector implements DatabaseDialect.Introspector {
+
+  private static final String SCHEMAS = """
+      SELECT nspname
+        FROM pg_catalog.pg_namespace
+       WHERE nspname <> 'pg_toast' AND nspname !~ '^pg_(toast_)?temp_'
+       ORDER BY nspname""";
+
+  private static final String TABLES = """
+      SELECT c.relname, CASE c.relkind WHEN 'v' THEN 'VIEW' ELSE 'TABLE' END AS table_type
+        FROM pg_catalog.pg_class c
+        JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace
+       WHERE c.relkind IN ('r', 'p', 'v') AND %s
+       ORDER BY table_type, n.nspname, c.relname""";
+
+  /** Name, type, NOT NULL, primary key member, first foreign key target: for attribute a of relation c. */
+  private static final String COLUMN_VALUES = """
+      a.attname,
+             pg_catalog.format_type(a.atttypid, a.atttypmod),
+             a.attnotnull,
+             EXISTS (SELECT 1
+                       FROM pg_catalog.pg_constraint p
+                      WHERE p.conrelid = c.oid AND p.contype = 'p' AND a.attnum = ANY (p.conkey)),
+             (SELECT r.relname || '.' || ra.attname
+                FROM pg_catalog.pg_constraint f
+                JOIN pg_catalog.pg_class r ON r.oid = f.confrelid
+                JOIN pg_catalog.pg_attribute ra ON ra.attrelid = f.confrelid
+                 AND ra.attnum = f.confkey[array_position(f.conkey, a.attnum)]
+               WHERE f.conrelid = c.oid AND f.contype = 'f' AND a.attnum = ANY (f.conkey)
+               ORDER BY f.conname
+               LIMIT 1)""";
+
+  private static final String COLUMNS = """
+      SELECT %s
+        FROM pg_catalog.pg_class c
+        JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace
+        JOIN pg_catalog.pg_attribute a ON a.attrelid = c.oid AND a.attnum > 0 AND NOT a.attisdropped
+       WHERE c.relkind IN ('r', 'p', 'v') AND c.relname = ? AND %%s
+       ORDER BY a.attnum""".formatted(COLUMN_VALUES);
+
+  /** Every column of every table, in {@link #TABLES} order. */
+  private static final String SCHEMA_COLUMNS = """
+      SELECT %s,
+             c.relname,
+             CASE c.relkind WHEN 'v' THEN 'VIEW' ELSE 'TABLE' END AS table_type
+        FROM pg_catalog.pg_class c
+        JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace
+        JOIN pg_catalog.pg_attribute a ON a.attrelid = c.oid AND a.attnum > 0 AND NOT a.attisdropped
+       WHERE c.relkind IN ('r', 'p', 'v') AND %%s
+       ORDER BY table_type, n.nspname, c.relname, a.attnum""".formatted(COLUMN_VALUES);
+
+  private static final String PRIMARY_KEY = """
+      SELECT a.attname
+        FROM pg_catalog.pg_constraint p
+        JOIN pg_catalog.pg_class c ON c.oid = p.conrelid
+        JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace
+       CROSS JOIN LATERAL unnest(p.conkey) WITH ORDINALITY AS k(attnum, seq)
+        JOIN pg_catalog.pg_attribute a ON a.attrelid = c.oid AND a.attnum = k.attnum
+       WHERE p.contype = 'p' AND c.relname = ? AND %s
+       ORDER BY k.seq""";
+
+  /** Key columns (not INCLUDE columns) of each index, as pg_get_indexdef prints them. */
+  private static final String INDEXES = """
+      SELECT i.relname,
+             ix.indisunique,
+             ARRAY(SELECT pg_catalog.pg_get_indexdef(ix.indexrelid, k, true)
+                     FROM generate_series(1, ix.indnkeyatts) AS k
+                    ORDER BY k)
+        FROM pg_catalog.pg_index ix
+        JOIN pg_catalog.pg_class i ON i.oid = ix.indexrelid
+        JOIN pg_catalog.pg_class c ON c.oid = ix.indrelid
+        JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace
+       WHERE c.relname = ? AND %s
+       ORDER BY ix.indisprimary DESC, i.relname""";
+
+  /** reltuples is the planner's estimate, -1 (or 0 before PostgreSQL 14) until the first analyze. */
+  private static final String STATS = """
+      SELECT c.reltuples,
+             pg_catalog.pg_total_relation_size(c.oid),
+             GREATEST(s.last_analyze, s.last_autoanalyze)
+        FROM pg_catalog.pg_class c
+        JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace
+        LEFT JOIN pg_catalog.pg_stat_all_tables s ON s.relid = c.oid
+       WHERE c.relkind IN ('r', 'p', 'm') AND c.relname = ? AND %s""";
+
+  /** Tables in any schema except the system ones. */
+  private static final String USER_SCHEMAS = "n.nspname <> 'information_schema' AND n.nspname !~ '^pg_'";
+
+  /** The table the search path resolves an unqualified name to. */
+  private static final String VISIBLE = "pg_catalog.pg_table_is_visible(c.oid)";
+
+  @Override
+  public List<String> schemas(DatabaseMetaData metaData) throws SQLException {
+    List<String> schemas = new ArrayList<>();
+    try (PreparedStatement stmt = metaData.getConnection().prepareStatement(SCHEMAS);
+         ResultSet rs = stmt.executeQuery()) {
+      while (rs.next()) {
+        schemas.add(rs.getString(1));
+      }
+    }
+    return schemas;
+  }
+
+  @Override
+  public List<DatabaseDialect.TableInfo> tables(DatabaseMetaData metaData, String schema) throws SQLException {
+    List<DatabaseDialect.TableInfo> tables = new ArrayList<>();
+    try (PreparedStatement stmt = prepare(metaData, TABLES, schema, USER_SCHEMAS)) {
+      if (schema != null) {
+        stmt.setString(1, schema);
+      }
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          tables.add(new DatabaseDialect.TableInfo(rs.getString(1), rs.getString(2)));
+        }
+      }
+    }
+    return tables;
+  }
+
+  @Override
+  public List<DatabaseDialect.ColumnInfo> columns(DatabaseMetaData metaData, String schema, String table)
+      throws SQLException {
+    List<DatabaseDialect.ColumnInfo> columns = new ArrayList<>();
+    try (PreparedStatement stmt = prepare(metaData, COLUMNS, schema, VISIBLE)) {
+      bindTable(stmt, schema, table);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          columns.add(column(rs));
+        }
+      }
+    }
+    return columns;
+  }
+
+  /**
+   * Every table's columns and keys in one round trip.
+   */
+  @Override
+  public Map<DatabaseDialect.TableInfo, List<DatabaseDialect.ColumnInfo>> describeAll(
+      DatabaseMetaData metaData, String schema) throws SQLException {
+    Map<DatabaseDialect.TableInfo, List<DatabaseDialect.ColumnInfo>> described = new LinkedHashMap<>();
+    try (PreparedStatement stmt = prepare(metaData, SCHEMA_COLUMNS, schema, USER_SCHEMAS)) {
+      if (schema != null) {
+        stmt.setString(1, schema);
+      }
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          DatabaseDialect.TableInfo table = new DatabaseDialect.TableInfo(rs.getString(6), rs.getString(7));
+          described.computeIfAbsent(table, t -> new ArrayList<>()).add(column(rs));
+        }
+      }
+    }
+    return described;
+  }
+
+  @Override
+  public List<String> primaryKey(DatabaseMetaData metaData, String schema, String table) throws SQLException {
+    List<String> columns = new ArrayList<>();
+    try (PreparedStatement stmt = prepare(metaData, PRIMARY_KEY, schema, VISIBLE)) {
+      bindTable(stmt, schema, table);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          columns.add(rs.getString(1));
+        }
+      }
+    }
+    return List.copyOf(columns);
+  }
+
+  @Override
+  public List<DatabaseDialect.IndexInfo> indexes(DatabaseMetaData metaData, String schema, String table)
+      throws SQLException {
+    List<DatabaseDialect.IndexInfo> indexes = new ArrayList<>();
+    try (PreparedStatement stmt = prepare(metaData, INDEXES, schema, VISIBLE)) {
+      bindTable(stmt, schema, table);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          String[] columns = (String[]) rs.getArray(3).getArray();
+          indexes.add(new DatabaseDialect.IndexInfo(rs.getString(1), List.of(columns), rs.getBoolean(2)));
+        }
+      }
+    }
+    return indexes;
+  }
+
+  @Override
+  public DatabaseDialect.TableStats stats(DatabaseMetaData metaData, String schema, String table)
+      throws SQLException {
+    try (PreparedStatement stmt = prepare(metaData, STATS, schema, VISIBLE)) {
+      bindTable(stmt, schema, table);
+      try (ResultSet rs = stmt.executeQuery()) {
+        if (!rs.next()) {
+          return DatabaseDialect.TableStats.UNKNOWN;
+        }
+        double reltuples = rs.getDouble(1);
+        Timestamp lastAnalyzed = rs.getTimestamp(3);
+        // VACUUM and CREATE INDEX also set reltuples, so a positive value counts without an analyze
+        boolean estimated = reltuples > 0 || (reltuples == 0 && lastAnalyzed != null);
+        return new DatabaseDialect.TableStats(
+            estimated ? OptionalLong.of(Math.round(reltuples)) : OptionalLong.empty(),
+            OptionalLong.of(rs.getLong(2)),
+            Optional.ofNullable(lastAnalyzed).map(Timestamp::toInstant));
+      }
+    }
+  }
+
+  /**
+   * Prepare a query, filtering on the schema name when one is given and on
+   * {@code withoutSchema} otherwise.
+   */
+  private static PreparedStatement prepare(DatabaseMetaData metaData, String query, String schema,
+                                           String withoutSchema) throws SQLException {
+    String filter = schema != null ? "n.nspname = ?" : withoutSchema;
+    return metaData.getConnection().prepareStatement(query.formatted(filter));
+  }
+
+  private static void bindTable(PreparedStatement stmt, String schema, String table) throws SQLException {
+    stmt.setString(1, table);
+    if (schema != null) {
+      stmt.setString(2, schema);
+    }
+  }
+
+  /**
+   * A ColumnInfo from the leading {@link #COLUMN_VALUES} fields.
+   */
+  private static DatabaseDialect.ColumnInfo column(ResultSet rs) throws SQLException {
+    return new DatabaseDialect.ColumnInfo(rs.getString(1), rs.getString(2), !rs.getBoolean(3),
+        rs.getBoolean(4), rs.getString(5));
+  }
+}
@@ -0,0 +1,58 @@
+package org.geekden.mcp.database.dialect;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * PostgreSQL dialect: catalog-based introspection, standard pagination, cursor-based fetching.
+ * <p>
+ * pgjdbc only streams rows in fetch-size batches when auto-commit is off.
+ */
+class PostgreSQLDialect implements DatabaseDialect {
+
+  @Override
+  public boolean accepts(DatabaseMetaData metaData) throws SQLException {
+    String dbName = metaData.getDatabaseProductName().toLowerCase();
+    return dbName.contains("postgresql");
+  }
+
+  @Override
+  public String getName() {
+    return "PostgreSQL";
+  }
+
+  @Override
+  public Introspector introspector() {
+    return Introspectors.pgCatalog();
+  }
+
+  @Override
+  public Paginator paginator() {
+    return Paginators.standard();
+  }
+
+  @Override
+  public RowEstimator rowEstimator() {
+    return RowEstimators.planner();
+  }
+
+  @Override
+  public BulkCopier bulkCopier() {
+    return BulkCopiers.copyCommand();
+  }
+
+  @Override
+  public Explainer explainer() {
+    return Explainers.planJson();
+  }
+
+  @Override
+  public boolean supportsHeldCursors() {
+    return true;
+  }
+
+  @Override
+  public boolean requiresTransactionForFetchSize() {
+    return true;
+  }
+}
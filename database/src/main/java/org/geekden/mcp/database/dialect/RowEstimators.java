@@ -0,0 +1,76 @@
+package org.geekden.mcp.database.dialect;
+
+import org.geekden.mcp.database.service.QueryParameters;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Factory methods for creating row count estimators.
+ */
+class RowEstimators {
+
+  /** Row estimate of the top plan node in EXPLAIN (FORMAT JSON) output. */
+  private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\"\\s*:\\s*(\\d+)");
+
+  /** A whole-table read: SELECT <columns> FROM <table>, nothing else. */
+  private static final Pattern WHOLE_TABLE = Pattern.compile(
+      "^SELECT\\s+[\\w\\s,.*\"]+?\\s+FROM\\s+\"?(\\w+)\"?\\s*;?$", Pattern.CASE_INSENSITIVE);
+
+  /**
+   * No estimate.
+   */
+  static DatabaseDialect.RowEstimator none() {
+    return (connection, query, params) -> OptionalLong.empty();
+  }
+
+  /**
+   * PostgreSQL: the planner's row estimate from EXPLAIN, which doesn't run the query.
+   */
+  static DatabaseDialect.RowEstimator planner() {
+    return (connection, query, params) -> {
+      try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + query)) {
+        QueryParameters.bind(stmt, params);
+        try (ResultSet rs = stmt.executeQuery()) {
+          if (rs.next()) {
+            Matcher matcher = PLAN_ROWS.matcher(rs.getString(1));
+            if (matcher.find()) {
+              return OptionalLong.of(Long.parseLong(matcher.group(1)));
+            }
+          }
+        }
+      }
+      return OptionalLong.empty();
+    };
+  }
+
+  /**
+   * SQLite: the table size recorded by ANALYZE in sqlite_stat1. Only whole-table
+   * reads qualify, since the stat says nothing about filtered rows.
+   */
+  static DatabaseDialect.RowEstimator sqliteStats() {
+    return (connection, query, params) -> {
+      Matcher table = WHOLE_TABLE.matcher(query.trim());
+      if (!table.matches()) {
+        return OptionalLong.empty();
+      }
+      try (PreparedStatement stmt = connection.prepareStatement(
+          "SELECT stat FROM sqlite_stat1 WHERE tbl = ? COLLATE NOCASE LIMIT 1")) {
+        stmt.setString(1, table.group(1));
+        try (ResultSet rs = stmt.executeQuery()) {
+          if (rs.next() && rs.getString(1) != null) {
+            // "<rows> <rows per distinct key>..."
+            return OptionalLong.of(Long.parseLong(rs.getString(1).split(" ")[0]));
+          }
+        }
+      }
+      return OptionalLong.empty();
+    };
+  }
+}
@@ -4,7 +4,7 @@ import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 
 /**
- * SQLite dialect: Custom schema provider, standard pagination.
+ * SQLite dialect: PRAGMA-based introspection, standard pagination.
  */
 class SQLiteDialect implements DatabaseDialect {
 
@@ -28,4 +28,29 @@ class SQLiteDialect implements DatabaseDialect {
   public Paginator paginator() {
     return Paginators.standard();
   }
+
+  @Override
+  public RowEstimator rowEstimator() {
+    return RowEstimators.sqliteStats();
+  }
+
+  @Override
+  public BulkCopier bulkCopier() {
+    return BulkCopiers.none();
+  }
+
+  @Override
+  public Explainer explainer() {
+    return Explainers.queryPlan();
+  }
+
+  @Override
+  public boolean supportsHeldCursors() {
+    return false;
+  }
+
+  @Override
+  public boolean requiresTransactionForFetchSize() {
+    return false;
+  }
 }
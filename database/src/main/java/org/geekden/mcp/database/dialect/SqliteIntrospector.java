@@ -0,0 +1,244 @@
+package org.geekden.mcp.database.dialect;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * SQLite introspection through the table-valued PRAGMA functions.
+ * <p>
+ * sqlite-jdbc emulates DatabaseMetaData by reading sqlite_schema and re-parsing each
+ * table's CREATE statement with regular expressions on every call. The PRAGMAs
+ * (table_list, table_xinfo, foreign_key_list) read the already-parsed schema instead,
+ * and a table's columns, primary key and foreign keys come back in one statement.
+ * <p>
+ * Schemas are the attached databases; any other schema name, or none, means "main",
+ * which matches how the driver ignored unknown schemas. Types are shown as declared.
+ */
+class SqliteIntrospector implements DatabaseDialect.Introspector {
+
+  /** The attached database named by parameter ?2, or "main". */
+  private static final String SCHEMA = "COALESCE((SELECT name FROM pragma_database_list WHERE name = ?2), 'main')";
+
+  private static final String TABLES = """
+      SELECT name, CASE type WHEN 'view' THEN 'VIEW' ELSE 'TABLE' END AS table_type
+        FROM pragma_table_list
+       WHERE schema = COALESCE((SELECT name FROM pragma_database_list WHERE name = ?), 'main')
+         AND type IN ('table', 'view', 'virtual') AND name NOT LIKE 'sqlite\\_%' ESCAPE '\\'
+       ORDER BY table_type, name""";
+
+  /** Table ?1: columns with their primary key flag and first foreign key target. */
+  private static final String COLUMNS = """
+      SELECT %s
+        FROM pragma_table_xinfo(?1, %s) c
+       WHERE c.hidden <> 1
+       ORDER BY c.cid""".formatted(columnValues("?1", SCHEMA), SCHEMA);
+
+  /** Every table's columns, in {@link #TABLES} order, in one pass over the schema. */
+  private static final String SCHEMA_COLUMNS = """
+      SELECT %s,
+             t.name,
+             CASE t.type WHEN 'view' THEN 'VIEW' ELSE 'TABLE' END AS table_type
+        FROM pragma_table_list t
+        JOIN pragma_table_xinfo(t.name, t.schema) c
+       WHERE t.schema = COALESCE((SELECT name FROM pragma_database_list WHERE name = ?), 'main')
+         AND t.type IN ('table', 'view', 'virtual') AND t.name NOT LIKE 'sqlite\\_%%' ESCAPE '\\'
+         AND c.hidden <> 1
+       ORDER BY table_type, t.name, c.cid""".formatted(columnValues("t.name", "t.schema"));
+
+  private static final String PRIMARY_KEY = """
+      SELECT name
+        FROM pragma_table_info(?1, %s)
+       WHERE pk > 0
+       ORDER BY pk""".formatted(SCHEMA);
+
+  /** Indexes of table ?1 with their columns; a null column name is an expression. */
+  private static final String INDEXES = """
+      SELECT il.name, il."unique", ii.name
+        FROM pragma_index_list(?1, %1$s) il
+        JOIN pragma_index_info(il.name, %1$s) ii
+       ORDER BY il.origin = 'pk' DESC, il.name, ii.seqno""".formatted(SCHEMA);
+
+  /** The resolved schema name, and whether ANALYZE has created its sqlite_stat1. */
+  private static final String STAT1 = """
+      SELECT d.name,
+             EXISTS (SELECT 1 FROM pragma_table_list t WHERE t.schema = d.name AND t.name = 'sqlite_stat1')
+        FROM pragma_database_list d
+       WHERE d.name = COALESCE((SELECT name FROM pragma_database_list WHERE name = ?), 'main')""";
+
+  /** Pages of the table and its indexes, from the dbstat virtual table in aggregate mode. */
+  private static final String SIZE = """
+      SELECT SUM(pgsize)
+        FROM dbstat(?2, 1)
+       WHERE name COLLATE NOCASE IN (SELECT ?1 UNION ALL SELECT name FROM pragma_index_list(?1, ?2))""";
+
+  /**
+   * Name, declared type, NOT NULL, primary key member and first foreign key target of
+   * column c. Foreign keys that name only the parent table refer to its primary key.
+   */
+  private static String columnValues(String table, String schema) {
+    return """
+        c.name,
+               c.type,
+               c."notnull",
+               c.pk > 0,
+               (SELECT f."table" || '.' || COALESCE(f."to",
+                           (SELECT p.name FROM pragma_table_info(f."table", %2$s) p WHERE p.pk = f.seq + 1))
+                  FROM pragma_foreign_key_list(%1$s, %2$s) f
+                 WHERE f."from" = c.name
+                 ORDER BY f.id
+                 LIMIT 1)""".formatted(table, schema);
+  }
+
+  @Override
+  public List<String> schemas(DatabaseMetaData metaData) {
+    return List.of("main");
+  }
+
+  @Override
+  public List<DatabaseDialect.TableInfo> tables(DatabaseMetaData metaData, String schema) throws SQLException {
+    List<DatabaseDialect.TableInfo> tables = new ArrayList<>();
+    try (PreparedStatement stmt = metaData.getConnection().prepareStatement(TABLES)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          tables.add(new DatabaseDialect.TableInfo(rs.getString(1), rs.getString(2)));
+        }
+      }
+    }
+    return tables;
+  }
+
+  @Override
+  public List<DatabaseDialect.ColumnInfo> columns(DatabaseMetaData metaData, String schema, String table)
+      throws SQLException {
+    List<DatabaseDialect.ColumnInfo> columns = new ArrayList<>();
+    try (PreparedStatement stmt = metaData.getConnection().prepareStatement(COLUMNS)) {
+      stmt.setString(1, table);
+      stmt.setString(2, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          columns.add(column(rs));
+        }
+      }
+    }
+    return columns;
+  }
+
+  @Override
+  public Map<DatabaseDialect.TableInfo, List<DatabaseDialect.ColumnInfo>> describeAll(
+      DatabaseMetaData metaData, String schema) throws SQLException {
+    Map<DatabaseDialect.TableInfo, List<DatabaseDialect.ColumnInfo>> described = new LinkedHashMap<>();
+    try (PreparedStatement stmt = metaData.getConnection().prepareStatement(SCHEMA_COLUMNS)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          DatabaseDialect.TableInfo table = new DatabaseDialect.TableInfo(rs.getString(6), rs.getString(7));
+          described.computeIfAbsent(table, t -> new ArrayList<>()).add(column(rs));
+        }
+      }
+    }
+    return described;
+  }
+
+  @Override
+  public List<String> primaryKey(DatabaseMetaData metaData, String schema, String table) throws SQLException {
+    List<String> columns = new ArrayList<>();
+    try (PreparedStatement stmt = metaData.getConnection().prepareStatement(PRIMARY_KEY)) {
+      stmt.setString(1, table);
+      stmt.setString(2, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          columns.add(rs.getString(1));
+        }
+      }
+    }
+    return List.copyOf(columns);
+  }
+
+  @Override
+  public List<DatabaseDialect.IndexInfo> indexes(DatabaseMetaData metaData, String schema, String table)
+      throws SQLException {
+    Map<String, List<String>> columnsByIndex = new LinkedHashMap<>();
+    Map<String, Boolean> unique = new LinkedHashMap<>();
+    try (PreparedStatement stmt = metaData.getConnection().prepareStatement(INDEXES)) {
+      stmt.setString(1, table);
+      stmt.setString(2, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          String column = rs.getString(3);
+          columnsByIndex.computeIfAbsent(rs.getString(1), i -> new ArrayList<>())
+              .add(column != null ? column : "(expression)");
+          unique.put(rs.getString(1), rs.getBoolean(2));
+        }
+      }
+    }
+    List<DatabaseDialect.IndexInfo> indexes = new ArrayList<>();
+    columnsByIndex.forEach((name, columns) ->
+        indexes.add(new DatabaseDialect.IndexInfo(name, List.copyOf(columns), unique.get(name))));
+    return indexes;
+  }
+
+  /**
+   * Rows from sqlite_stat1 once ANALYZE has run, and size from dbstat where the
+   * library was built with it. SQLite doesn't record when ANALYZE ran.
+   */
+  @Override
+  public DatabaseDialect.TableStats stats(DatabaseMetaData metaData, String schema, String table)
+      throws SQLException {
+    Connection connection = metaData.getConnection();
+    String resolved;
+    boolean analyzed;
+    try (PreparedStatement stmt = connection.prepareStatement(STAT1)) {
+      stmt.setString(1, schema);
+      try (ResultSet rs = stmt.executeQuery()) {
+        rs.next();
+        resolved = rs.getString(1);
+        analyzed = rs.getBoolean(2);
+      }
+    }
+
+    OptionalLong rows = OptionalLong.empty();
+    if (analyzed) {
+      String sql = "SELECT stat FROM \"" + resolved.replace("\"", "\"\"") + "\".sqlite_stat1 "
+          + "WHERE tbl = ? COLLATE NOCASE ORDER BY idx IS NOT NULL LIMIT 1";
+      try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        stmt.setString(1, table);
+        try (ResultSet rs = stmt.executeQuery()) {
+          if (rs.next() && rs.getString(1) != null) {
+            // "<rows> <rows per distinct key>..."
+            rows = OptionalLong.of(Long.parseLong(rs.getString(1).split(" ")[0]));
+          }
+        }
+      }
+    }
+
+    OptionalLong size = OptionalLong.empty();
+    try (PreparedStatement stmt = connection.prepareStatement(SIZE)) {
+      stmt.setString(1, table);
+      stmt.setString(2, resolved);
+      try (ResultSet rs = stmt.executeQuery()) {
+        if (rs.next() && rs.getObject(1) != null) {
+          size = OptionalLong.of(rs.getLong(1));
+        }
+      }
+    } catch (SQLException e) {
+      // dbstat is a compile-time option (SQLITE_ENABLE_DBSTAT_VTAB); without it the size is unknown
+    }
+
+    return new DatabaseDialect.TableStats(rows, size, Optional.empty());
+  }
+
+  private static DatabaseDialect.ColumnInfo column(ResultSet rs) throws SQLException {
+    return new DatabaseDialect.ColumnInfo(rs.getString(1), rs.getString(2), !rs.getBoolean(3),
+        rs.getBoolean(4), rs.getString(5));
+  }
+}
@@ -26,4 +26,33 @@ class StandardDialect implements DatabaseDialect {
   public Paginator paginator() {
     return Paginators.standard();
   }
+
+  @Override
+  public RowEstimator rowEstimator() {
+    return RowEstimators.none();
+  }
+
+  @Override
+  public BulkCopier bulkCopier() {
+    return BulkCopiers.none();
+  }
+
+  @Override
+  public Explainer explainer() {
+    return Explainers.none();
+  }
+
+  /**
+   * Not all drivers stream rows by fetch size (MySQL's reads the whole result set),
+   * so an open cursor could hold an unbounded result in memory; use OFFSET instead.
+   */
+  @Override
+  public boolean supportsHeldCursors() {
+    return false;
+  }
+
+  @Override
+  public boolean requiresTransactionForFetchSize() {
+    return false;
+  }
 }
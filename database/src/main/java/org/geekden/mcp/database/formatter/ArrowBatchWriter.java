@@ -0,0 +1,544 @@
+package org.geekden.mcp.database.formatter;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a ResultSet as an Apache Arrow IPC stream, one record batch at a time.
+ *
+ * Features:
+ * - Column types from ResultSetMetaData: integers, doubles, booleans, decimals,
+ *   dates and timestamps become typed columns; everything else is UTF-8 text
+ * - Record batches of a fixed number of rows; memory bounded by one batch
+ * - Text columns with few distinct values in the first batch are dictionary-encoded;
+ *   a dictionary that grows is sent again, and one that would grow too big starts over
+ * - Rows are loaded into Arrow vectors and written by Arrow's {@link ArrowStreamWriter}
+ * <p>
+ * The output is the streaming format (readable with e.g. {@code pyarrow.ipc.open_stream}),
+ * which unlike the file format can be written to a pipe and allows dictionaries to change.
+ * Arrow's memory module needs {@code --add-opens=java.base/java.nio=ALL-UNNAMED}.
+ */
+public class ArrowBatchWriter {
+
+  public static final int DEFAULT_BATCH_ROWS = 65536;
+
+  /** A text column is dictionary-encoded if its first batch has at most this many distinct values... */
+  static final int DICTIONARY_CANDIDATE_LIMIT = 1024;
+  /** ...and a dictionary that would grow past this many entries is replaced rather than extended. */
+  static final int MAX_DICTIONARY_SIZE = 65536;
+
+  private static final ArrowType.Int INDEX_TYPE = new ArrowType.Int(32, true);
+
+  private final WritableByteChannel out;
+  private final int batchRows;
+
+  /**
+   * Create a writer with the default batch size.
+   *
+   * @param out Destination for the stream
+   */
+  public ArrowBatchWriter(WritableByteChannel out) {
+    this(out, DEFAULT_BATCH_ROWS);
+  }
+
+  /**
+   * @param out       Destination for the stream; not closed here
+   * @param batchRows Rows per record batch (at least 1)
+   */
+  public ArrowBatchWriter(WritableByteChannel out, int batchRows) {
+    if (batchRows < 1) {
+      throw new IllegalArgumentException("Batch rows must be >= 1");
+    }
+    this.out = out;
+    this.batchRows = batchRows;
+  }
+
+  /**
+   * Write the schema and every remaining row of a ResultSet, then the end-of-stream marker.
+   *
+   * @param rs ResultSet positioned before the first row
+   * @return Number of rows written
+   */
+  public long write(ResultSet rs) throws SQLException, IOException {
+    ResultSetMetaData metaData = rs.getMetaData();
+    SinkChannel sink = new SinkChannel(out);
+    List<Column> columns = new ArrayList<>(metaData.getColumnCount());
+    VectorSchemaRoot root = null;
+    ArrowStreamWriter writer = null;
+    boolean complete = false;
+
+    try (BufferAllocator allocator = new RootAllocator()) {
+      try {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+          columns.add(columnFor(metaData, i, allocator));
+        }
+
+        // The schema says which columns use a dictionary, so it waits for the first batch
+        long total = 0;
+        int rows = 0;
+        while (rs.next()) {
+          for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).read(rs, i + 1, rows);
+          }
+          rows++;
+          if (rows == batchRows) {
+            if (writer == null) {
+              root = root(columns, rows, allocator);
+              writer = new ArrowStreamWriter(root, dictionaries(columns), sink);
+            }
+            writeBatch(writer, root, columns, rows);
+            total += rows;
+            rows = 0;
+          }
+        }
+        if (writer == null) {
+          root = root(columns, rows, allocator);
+          writer = new ArrowStreamWriter(root, dictionaries(columns), sink);
+          writer.start();
+        }
+        if (rows > 0) {
+          writeBatch(writer, root, columns, rows);
+          total += rows;
+        }
+        writer.end();
+        complete = true;
+        return total;
+      } finally {
+        if (!complete) {
+          // Closing the writer ends the stream; don't let a failed one look complete
+          sink.abandon();
+        }
+        if (writer != null) {
+          writer.close();
+        }
+        if (root != null) {
+          root.close();
+        }
+        for (Column column : columns) {
+          column.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Choose each text column's encoding from the buffered first batch, and gather the
+   * vectors the batches are written from.
+   */
+  private static VectorSchemaRoot root(List<Column> columns, int sampleRows, BufferAllocator allocator) {
+    long dictionaryId = 0;
+    List<FieldVector> vectors = new ArrayList<>(columns.size());
+    for (Column column : columns) {
+      if (column instanceof TextColumn text) {
+        text.chooseEncoding(sampleRows, dictionaryId, allocator);
+        if (text.dictionary != null) {
+          dictionaryId++;
+        }
+      }
+      vectors.add(column.vector());
+    }
+    return new VectorSchemaRoot(vectors);
+  }
+
+  private static DictionaryProvider dictionaries(List<Column> columns) {
+    DictionaryProvider.MapDictionaryProvider provider = new DictionaryProvider.MapDictionaryProvider();
+    for (Column column : columns) {
+      if (column instanceof TextColumn text && text.dictionary != null) {
+        provider.put(text.dictionary);
+      }
+    }
+    return provider;
+  }
+
+  private static void writeBatch(ArrowStreamWriter writer, VectorSchemaRoot root, List<Column> columns, int rows)
+      throws IOException {
+    for (Column column : columns) {
+      column.fill(rows);
+    }
+    root.setRowCount(rows);
+    writer.writeBatch();
+    for (Column column : columns) {
+      column.reset(rows);
+    }
+  }
+
+  private static Column columnFor(ResultSetMetaData metaData, int column, BufferAllocator allocator)
+      throws SQLException {
+    String name = metaData.getColumnLabel(column);
+    switch (metaData.getColumnType(column)) {
+      case Types.BOOLEAN, Types.BIT: {
+        BitVector vector = new BitVector(name, allocator);
+        return new TypedColumn(vector, (rs, index, row) -> {
+          boolean value = rs.getBoolean(index);
+          if (rs.wasNull()) {
+            vector.setNull(row);
+          } else {
+            vector.setSafe(row, value ? 1 : 0);
+          }
+        });
+      }
+      case Types.TINYINT, Types.SMALLINT: {
+        IntVector vector = new IntVector(name, allocator);
+        return new TypedColumn(vector, (rs, index, row) -> {
+          int value = rs.getInt(index);
+          if (rs.wasNull()) {
+            vector.setNull(row);
+          } else {
+            vector.setSafe(row, value);
+          }
+        });
+      }
+      // INTEGER too, since SQLite reports 64-bit values as INTEGER
+      case Types.INTEGER, Types.BIGINT: {
+        BigIntVector vector = new BigIntVector(name, allocator);
+        return new TypedColumn(vector, (rs, index, row) -> {
+          long value = rs.getLong(index);
+          if (rs.wasNull()) {
+            vector.setNull(row);
+          } else {
+            vector.setSafe(row, value);
+          }
+        });
+      }
+      case Types.REAL, Types.FLOAT, Types.DOUBLE: {
+        Float8Vector vector = new Float8Vector(name, allocator);
+        return new TypedColumn(vector, (rs, index, row) -> {
+          double value = rs.getDouble(index);
+          if (rs.wasNull()) {
+            vector.setNull(row);
+          } else {
+            vector.setSafe(row, value);
+          }
+        });
+      }
+      case Types.NUMERIC, Types.DECIMAL: {
+        int precision = metaData.getPrecision(column);
+        int scale = metaData.getScale(column);
+        if (precision > 0 && precision <= 38 && scale >= 0 && scale <= precision) {
+          return decimalColumn(new DecimalVector(name, allocator, precision, scale));
+        }
+        return new TextColumn(name);
+      }
+      case Types.DATE: {
+        DateDayVector vector = new DateDayVector(name, allocator);
+        return new TypedColumn(vector, (rs, index, row) -> {
+          java.sql.Date date = rs.getDate(index);
+          if (date == null) {
+            vector.setNull(row);
+          } else {
+            vector.setSafe(row, (int) date.toLocalDate().toEpochDay());
+          }
+        });
+      }
+      case Types.TIMESTAMP:
+        // pgjdbc reports timestamptz as TIMESTAMP
+        if ("timestamptz".equalsIgnoreCase(metaData.getColumnTypeName(column))) {
+          return timestampColumn(new TimeStampMicroTZVector(name, allocator, "UTC"), true);
+        }
+        return timestampColumn(new TimeStampMicroVector(name, allocator), false);
+      case Types.TIMESTAMP_WITH_TIMEZONE:
+        return timestampColumn(new TimeStampMicroTZVector(name, allocator, "UTC"), true);
+      case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB: {
+        VarBinaryVector vector = new VarBinaryVector(name, allocator);
+        return new TypedColumn(vector, (rs, index, row) -> {
+          byte[] value = rs.getBytes(index);
+          if (value == null) {
+            vector.setNull(row);
+          } else {
+            vector.setSafe(row, value);
+          }
+        });
+      }
+      default:
+        return new TextColumn(name);
+    }
+  }
+
+  /**
+   * 128-bit decimals, rounded to the column's scale.
+   */
+  private static Column decimalColumn(DecimalVector vector) {
+    return new TypedColumn(vector, (rs, index, row) -> {
+      BigDecimal value = rs.getBigDecimal(index);
+      if (value == null) {
+        vector.setNull(row);
+        return;
+      }
+      BigDecimal scaled = value.setScale(vector.getScale(), RoundingMode.HALF_UP);
+      if (scaled.precision() > vector.getPrecision()) {
+        throw new SQLException("Value " + value + " does not fit DECIMAL("
+            + vector.getPrecision() + "," + vector.getScale() + ")");
+      }
+      vector.setSafe(row, scaled);
+    });
+  }
+
+  /**
+   * Microseconds since the epoch; local date-times are stored as if they were UTC.
+   */
+  private static Column timestampColumn(FieldVector vector, boolean utc) {
+    return new TypedColumn(vector, (rs, index, row) -> {
+      Timestamp timestamp = rs.getTimestamp(index);
+      if (timestamp == null) {
+        vector.setNull(row);
+        return;
+      }
+      Instant instant = utc ? timestamp.toInstant() : timestamp.toLocalDateTime().toInstant(ZoneOffset.UTC);
+      long micros = Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L),
+          instant.getNano() / 1000);
+      if (vector instanceof TimeStampMicroTZVector zoned) {
+        zoned.setSafe(row, micros);
+      } else {
+        ((TimeStampMicroVector) vector).setSafe(row, micros);
+      }
+    });
+  }
+
+  /**
+   * Reads one value of the current row into a vector.
+   */
+  @FunctionalInterface
+  private interface Reader {
+    void read(ResultSet rs, int column, int row) throws SQLException;
+  }
+
+  /**
+   * One column of the current batch.
+   */
+  private abstract static class Column {
+
+    abstract void read(ResultSet rs, int column, int row) throws SQLException;
+
+    /** Vector the column's batches are written from. */
+    abstract FieldVector vector();
+
+    /** Finish the first {@code rows} values before the batch is written. */
+    void fill(int rows) {
+    }
+
+    /** Clear the written batch, keeping the vectors' capacity for the next one. */
+    void reset(int rows) {
+      vector().reset();
+    }
+
+    void close() {
+      vector().close();
+    }
+  }
+
+  /**
+   * A column whose values go straight into their vector as they are read.
+   */
+  private static final class TypedColumn extends Column {
+    private final FieldVector vector;
+    private final Reader reader;
+
+    TypedColumn(FieldVector vector, Reader reader) {
+      this.vector = vector;
+      this.reader = reader;
+    }
+
+    @Override
+    void read(ResultSet rs, int column, int row) throws SQLException {
+      reader.read(rs, column, row);
+    }
+
+    @Override
+    FieldVector vector() {
+      return vector;
+    }
+  }
+
+  /**
+   * UTF-8 text, optionally dictionary-encoded with 32-bit indices.
+   * <p>
+   * Values are held as strings until the batch is written, since whether the
+   * column uses a dictionary is only known once the first batch has been read.
+   */
+  private static final class TextColumn extends Column {
+    private final String name;
+    private String[] values = new String[16];
+    private FieldVector vector;
+    private Dictionary dictionary;
+    private final Map<String, Integer> entries = new HashMap<>();
+
+    TextColumn(String name) {
+      this.name = name;
+    }
+
+    @Override
+    void read(ResultSet rs, int column, int row) throws SQLException {
+      if (row == values.length) {
+        values = Arrays.copyOf(values, values.length * 2);
+      }
+      values[row] = rs.getString(column);
+    }
+
+    @Override
+    FieldVector vector() {
+      return vector;
+    }
+
+    /**
+     * Use a dictionary if the first batch repeats values enough for one to pay off.
+     */
+    void chooseEncoding(int rows, long dictionaryId, BufferAllocator allocator) {
+      Set<String> distinct = new HashSet<>();
+      boolean repeats = rows > 0;
+      for (int i = 0; i < rows && repeats; i++) {
+        if (values[i] != null && distinct.add(values[i]) && distinct.size() > DICTIONARY_CANDIDATE_LIMIT) {
+          repeats = false;
+        }
+      }
+      if (!repeats || distinct.size() * 2 > rows) {
+        vector = new VarCharVector(name, allocator);
+        return;
+      }
+      DictionaryEncoding encoding = new DictionaryEncoding(dictionaryId, false, INDEX_TYPE);
+      vector = new IntVector(new Field(name, new FieldType(true, INDEX_TYPE, encoding), null), allocator);
+      dictionary = new Dictionary(new VarCharVector(name, allocator), encoding);
+    }
+
+    @Override
+    void fill(int rows) {
+      if (dictionary == null) {
+        VarCharVector text = (VarCharVector) vector;
+        for (int i = 0; i < rows; i++) {
+          if (values[i] == null) {
+            text.setNull(i);
+          } else {
+            text.setSafe(i, values[i].getBytes(StandardCharsets.UTF_8));
+          }
+        }
+        return;
+      }
+
+      VarCharVector words = (VarCharVector) dictionary.getVector();
+      int sizeBefore = entries.size();
+      if (sizeBefore + distinctNew(rows) > MAX_DICTIONARY_SIZE) {
+        // Start over with just this batch's values rather than growing without bound
+        entries.clear();
+        words.reset();
+        sizeBefore = 0;
+      }
+      IntVector indices = (IntVector) vector;
+      for (int i = 0; i < rows; i++) {
+        if (values[i] == null) {
+          indices.setNull(i);
+          continue;
+        }
+        Integer index = entries.get(values[i]);
+        if (index == null) {
+          index = entries.size();
+          entries.put(values[i], index);
+          words.setSafe(index, values[i].getBytes(StandardCharsets.UTF_8));
+        }
+        indices.setSafe(i, index);
+      }
+      // The stream writer sends the dictionary again whenever it has changed
+      words.setValueCount(entries.size());
+    }
+
+    private int distinctNew(int rows) {
+      Set<String> added = new HashSet<>();
+      for (int i = 0; i < rows; i++) {
+        if (values[i] != null && !entries.containsKey(values[i])) {
+          added.add(values[i]);
+        }
+      }
+      return added.size();
+    }
+
+    @Override
+    void reset(int rows) {
+      super.reset(rows);
+      Arrays.fill(values, 0, rows, null);
+    }
+
+    @Override
+    void close() {
+      if (vector != null) {
+        vector.close();
+      }
+      if (dictionary != null) {
+        dictionary.getVector().close();
+      }
+    }
+  }
+
+  /**
+   * The caller's channel as handed to Arrow's writer, which closes it on close.
+   * Closing does nothing here, and once abandoned further writes are dropped.
+   */
+  private static final class SinkChannel implements WritableByteChannel {
+    private final WritableByteChannel out;
+    private boolean abandoned;
+
+    SinkChannel(WritableByteChannel out) {
+      this.out = out;
+    }
+
+    void abandon() {
+      abandoned = true;
+    }
+
+    @Override
+    public int write(ByteBuffer buffer) throws IOException {
+      if (abandoned) {
+        int length = buffer.remaining();
+        buffer.position(buffer.limit());
+        return length;
+      }
+      return out.write(buffer);
+    }
+
+    @Override
+    public boolean isOpen() {
+      return out.isOpen();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,291 @@
+package org.geekden.mcp.database.formatter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Writes rows as TSV, Markdown or JSON Lines directly to a sink, one row at a time.
+ *
+ * Features:
+ * - No padding and no column width pre-computation: each row costs only its own characters
+ * - Every row on one line: TSV escapes tabs, newlines and backslashes as \t, \n and \\;
+ *   Markdown escapes backslashes and pipes and turns line breaks into &lt;br&gt;
+ * - SQL NULL is a null cell: TSV and Markdown show &lt;null&gt;, JSON Lines writes null,
+ *   so a value that is the text "&lt;null&gt;" stays a string
+ * - JSON Lines through a Jackson generator, objects keyed by column label; numeric and
+ *   boolean columns are written as JSON numbers and booleans, and a repeated label gets a
+ *   numbered suffix (id, id_2) so no key is lost
+ * - Constant memory, whatever the size of the result set
+ */
+public class CompactWriter {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory()
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+  /** A number as JSON writes it; anything else (NaN, a truncated cell) stays a string. */
+  private static final Pattern JSON_NUMBER = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
+  private final Appendable sink;
+  private final ResultFormat format;
+  private List<String> headers = List.of();
+  private List<Integer> types = List.of();
+  private JsonGenerator json;
+
+  /**
+   * @param sink   Destination for the rows
+   * @param format TSV, MARKDOWN or JSONL
+   */
+  public CompactWriter(Appendable sink, ResultFormat format) {
+    if (format == ResultFormat.TABLE) {
+      throw new IllegalArgumentException("Tables are written by TableFormatter or StreamingTableWriter");
+    }
+    this.sink = sink;
+    this.format = format;
+  }
+
+  /**
+   * Render a page of rows in a compact format, without a trailing newline.
+   *
+   * @param format  TSV, MARKDOWN or JSONL
+   * @param headers Column labels
+   * @param types   JDBC type of each column ({@link Types})
+   * @param rows    Rows of cell strings (null for SQL NULL)
+   * @return Rendered rows
+   */
+  public static String render(ResultFormat format, List<String> headers, List<Integer> types,
+                              List<List<String>> rows) {
+    StringBuilder sb = new StringBuilder();
+    CompactWriter writer = new CompactWriter(sb, format);
+    try {
+      writer.writeHeader(headers, types);
+      for (List<String> row : rows) {
+        writer.writeRow(row);
+      }
+    } catch (IOException e) {
+      // StringBuilder doesn't throw
+      throw new UncheckedIOException(e);
+    }
+    if (sb.length() > 0 && sb.charAt(sb.length() - 1) == '\n') {
+      sb.setLength(sb.length() - 1);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Write the header and every remaining row of a ResultSet.
+   * Writes "No results." if there are no rows.
+   *
+   * @param rs ResultSet positioned before the first row
+   * @return Number of rows written
+   */
+  public long write(ResultSet rs) throws SQLException, IOException {
+    ResultSetMetaData metaData = rs.getMetaData();
+    int columnCount = metaData.getColumnCount();
+
+    if (!rs.next()) {
+      sink.append("No results.");
+      return 0;
+    }
+
+    List<String> labels = new ArrayList<>(columnCount);
+    List<Integer> columnTypes = new ArrayList<>(columnCount);
+    for (int i = 1; i <= columnCount; i++) {
+      labels.add(metaData.getColumnLabel(i));
+      columnTypes.add(metaData.getColumnType(i));
+    }
+    writeHeader(labels, columnTypes);
+
+    long count = 0;
+    List<String> row = new ArrayList<>(columnCount);
+    do {
+      row.clear();
+      for (int i = 1; i <= columnCount; i++) {
+        Object value = rs.getObject(i);
+        row.add(value == null ? null : value.toString());
+      }
+      writeRow(row);
+      count++;
+    } while (rs.next());
+    return count;
+  }
+
+  /**
+   * Start the output. TSV and Markdown write a header line; JSON Lines keeps
+   * the labels as keys for every row, and the types to write values by.
+   *
+   * @param labels Column labels
+   * @param types  JDBC type of each column ({@link Types})
+   */
+  public void writeHeader(List<String> labels, List<Integer> types) throws IOException {
+    this.headers = format == ResultFormat.JSONL ? uniqueKeys(labels) : List.copyOf(labels);
+    this.types = List.copyOf(types);
+    switch (format) {
+      case TSV -> appendTsvLine(headers);
+      case MARKDOWN -> {
+        appendMarkdownLine(headers);
+        for (int i = 0; i < headers.size(); i++) {
+          sink.append("|---");
+        }
+        sink.append("|\n");
+      }
+      case JSONL -> {
+        json = JSON_FACTORY.createGenerator(asWriter(sink));
+        json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        json.setRootValueSeparator(null);
+      }
+      default -> throw new IllegalStateException("Unexpected format " + format);
+    }
+  }
+
+  /**
+   * Write one row, after {@link #writeHeader}.
+   *
+   * @param cells Cell strings, one per column (null for SQL NULL)
+   */
+  public void writeRow(List<String> cells) throws IOException {
+    switch (format) {
+      case TSV -> appendTsvLine(cells);
+      case MARKDOWN -> appendMarkdownLine(cells);
+      case JSONL -> {
+        json.writeStartObject();
+        for (int i = 0; i < headers.size(); i++) {
+          String value = i < cells.size() ? cells.get(i) : null;
+          json.writeFieldName(headers.get(i));
+          if (value == null) {
+            json.writeNull();
+          } else {
+            writeJsonValue(value, i < types.size() ? types.get(i) : Types.VARCHAR);
+          }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+        // Hand the line to the sink now, so it is never reordered with other output
+        json.flush();
+      }
+      default -> throw new IllegalStateException("Unexpected format " + format);
+    }
+  }
+
+  /**
+   * Write a cell as a JSON number or boolean if its column is one and the text
+   * is a valid literal, and as a string otherwise.
+   */
+  private void writeJsonValue(String value, int type) throws IOException {
+    switch (type) {
+      case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+           Types.REAL, Types.FLOAT, Types.DOUBLE, Types.NUMERIC, Types.DECIMAL -> {
+        if (JSON_NUMBER.matcher(value).matches()) {
+          json.writeNumber(value);
+          return;
+        }
+      }
+      case Types.BOOLEAN, Types.BIT -> {
+        // SQLite has no boolean storage and returns 1 and 0
+        if (value.equals("true") || value.equals("1")) {
+          json.writeBoolean(true);
+          return;
+        }
+        if (value.equals("false") || value.equals("0")) {
+          json.writeBoolean(false);
+          return;
+        }
+      }
+      default -> {
+      }
+    }
+    json.writeString(value);
+  }
+
+  /**
+   * Object keys for the labels, numbering repeats (id, id_2) so each column keeps its value.
+   */
+  private static List<String> uniqueKeys(List<String> labels) {
+    Set<String> taken = new HashSet<>(labels);
+    Set<String> used = new HashSet<>();
+    List<String> keys = new ArrayList<>(labels.size());
+    for (String label : labels) {
+      String key = label;
+      // A numbered key mustn't take a label that appears elsewhere
+      for (int n = 2; used.contains(key) || (n > 2 && taken.contains(key)); n++) {
+        key = label + "_" + n;
+      }
+      used.add(key);
+      keys.add(key);
+    }
+    return keys;
+  }
+
+  private void appendTsvLine(List<String> cells) throws IOException {
+    for (int i = 0; i < cells.size(); i++) {
+      if (i > 0) {
+        sink.append('\t');
+      }
+      String value = cells.get(i) == null ? TableFormatter.NULL_VALUE : cells.get(i);
+      for (int j = 0; j < value.length(); j++) {
+        char c = value.charAt(j);
+        switch (c) {
+          case '\t' -> sink.append("\\t");
+          case '\n' -> sink.append("\\n");
+          case '\r' -> sink.append("\\r");
+          case '\\' -> sink.append("\\\\");
+          default -> sink.append(c);
+        }
+      }
+    }
+    sink.append('\n');
+  }
+
+  private void appendMarkdownLine(List<String> cells) throws IOException {
+    for (String cell : cells) {
+      sink.append('|');
+      String value = cell == null ? TableFormatter.NULL_VALUE : cell;
+      for (int j = 0; j < value.length(); j++) {
+        char c = value.charAt(j);
+        switch (c) {
+          case '\\' -> sink.append("\\\\");
+          case '|' -> sink.append("\\|");
+          case '\n' -> sink.append("<br>");
+          case '\r' -> {
+            // Dropped; a following \n becomes the line break
+          }
+          default -> sink.append(c);
+        }
+      }
+    }
+    sink.append("|\n");
+  }
+
+  private static Writer asWriter(Appendable sink) {
+    if (sink instanceof Writer writer) {
+      return writer;
+    }
+    return new Writer() {
+      @Override
+      public void write(char[] buffer, int offset, int length) throws IOException {
+        sink.append(CharBuffer.wrap(buffer, offset, length));
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+}
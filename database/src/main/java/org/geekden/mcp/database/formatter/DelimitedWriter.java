@@ -0,0 +1,122 @@
+package org.geekden.mcp.database.formatter;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Writes a ResultSet as CSV or TSV directly to a sink, one row at a time.
+ *
+ * Features:
+ * - Header row of column labels
+ * - RFC 4180 quoting: fields containing the delimiter, a quote or a line break are
+ *   quoted, with quotes doubled
+ * - NULL as an empty field and the empty string as "", like PostgreSQL's COPY ... CSV
+ * - Values as the driver's text form (getString), not the table display form
+ * - Constant memory, whatever the size of the result set
+ */
+public class DelimitedWriter {
+
+  /**
+   * Output format, named by its delimiter.
+   */
+  public enum Format {
+    CSV(','),
+    TSV('\t');
+
+    private final char delimiter;
+
+    Format(char delimiter) {
+      this.delimiter = delimiter;
+    }
+
+    public char delimiter() {
+      return delimiter;
+    }
+
+    /**
+     * Parse a format name, ignoring case.
+     *
+     * @throws IllegalArgumentException if the name is not csv or tsv
+     */
+    public static Format parse(String name) {
+      try {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unknown format '" + name + "'; use csv or tsv");
+      }
+    }
+  }
+
+  private final Appendable sink;
+  private final char delimiter;
+
+  /**
+   * @param sink   Destination for the rows
+   * @param format CSV or TSV
+   */
+  public DelimitedWriter(Appendable sink, Format format) {
+    this.sink = sink;
+    this.delimiter = format.delimiter();
+  }
+
+  /**
+   * Write the header and every remaining row of a ResultSet.
+   *
+   * @param rs ResultSet positioned before the first row
+   * @return Number of rows written (not counting the header)
+   */
+  public long write(ResultSet rs) throws SQLException, IOException {
+    ResultSetMetaData metaData = rs.getMetaData();
+    int columnCount = metaData.getColumnCount();
+
+    for (int i = 1; i <= columnCount; i++) {
+      appendField(i, metaData.getColumnLabel(i));
+    }
+    sink.append('\n');
+
+    long count = 0;
+    while (rs.next()) {
+      for (int i = 1; i <= columnCount; i++) {
+        appendField(i, rs.getString(i));
+      }
+      sink.append('\n');
+      count++;
+    }
+    return count;
+  }
+
+  private void appendField(int column, String value) throws IOException {
+    if (column > 1) {
+      sink.append(delimiter);
+    }
+    if (value == null) {
+      return;
+    }
+    if (!value.isEmpty() && !needsQuotes(value)) {
+      sink.append(value);
+      return;
+    }
+    sink.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        sink.append('"');
+      }
+      sink.append(c);
+    }
+    sink.append('"');
+  }
+
+  private boolean needsQuotes(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+        return true;
+      }
+    }
+    return false;
+  }
+}
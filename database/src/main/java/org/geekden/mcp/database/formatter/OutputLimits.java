@@ -0,0 +1,52 @@
+package org.geekden.mcp.database.formatter;
+
+import java.time.Duration;
+
+/**
+ * Bounds on the size of a formatted result.
+ * <p>
+ * Keeps responses predictable whatever the row width: a page stops early once
+ * the rendered table would exceed {@code maxChars}, and cells longer than
+ * {@code maxCellChars} are truncated. With a time limit, a page also stops once
+ * reading its rows has taken longer than {@code maxTime}, returning the rows read
+ * so far. Zero means unlimited.
+ *
+ * @param maxChars     Budget for the rendered table in characters (0 for none)
+ * @param maxCellChars Longest cell value in characters (0 for none)
+ * @param maxTime      Time allowed for reading a page's rows (zero for none)
+ */
+public record OutputLimits(int maxChars, int maxCellChars, Duration maxTime) {
+
+  /** No limits. */
+  public static final OutputLimits NONE = new OutputLimits(0, 0);
+
+  public OutputLimits {
+    if (maxChars < 0 || maxCellChars < 0) {
+      throw new IllegalArgumentException("Output limits must be >= 0");
+    }
+    if (maxTime == null || maxTime.isNegative()) {
+      throw new IllegalArgumentException("Time limit must be >= 0");
+    }
+  }
+
+  /**
+   * Size limits without a time limit.
+   */
+  public OutputLimits(int maxChars, int maxCellChars) {
+    this(maxChars, maxCellChars, Duration.ZERO);
+  }
+
+  /**
+   * Whether a page may end before its row limit.
+   */
+  boolean canCutShort() {
+    return maxChars > 0 || !maxTime.isZero();
+  }
+
+  /**
+   * Apply the cell limit to a value.
+   */
+  String cell(String value) {
+    return maxCellChars > 0 ? TableFormatter.truncate(value, maxCellChars) : value;
+  }
+}
@@ -0,0 +1,37 @@
+package org.geekden.mcp.database.formatter;
+
+import java.util.Locale;
+
+/**
+ * How query results are rendered.
+ * <p>
+ * The aligned table is easiest to read but pads every cell to its column width.
+ * The compact formats write each row on its own, without padding, so one long
+ * value no longer inflates every row; see {@link CompactWriter}.
+ */
+public enum ResultFormat {
+  /** Aligned text table with ── separators (the default). */
+  TABLE,
+  /** Tab-separated values with a header row; tabs, newlines and backslashes escaped. */
+  TSV,
+  /** GitHub-flavored Markdown table. */
+  MARKDOWN,
+  /** One JSON object per row, keyed by column label, with numbers and booleans unquoted. */
+  JSONL;
+
+  /**
+   * Parse a format name, ignoring case. A null or blank name means {@link #TABLE}.
+   *
+   * @throws IllegalArgumentException if the name is not a known format
+   */
+  public static ResultFormat parse(String name) {
+    if (name == null || name.isBlank()) {
+      return TABLE;
+    }
+    try {
+      return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown format '" + name + "'; use table, tsv, markdown or jsonl");
+    }
+  }
+}
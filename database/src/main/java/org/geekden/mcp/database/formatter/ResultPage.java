@@ -0,0 +1,89 @@
+package org.geekden.mcp.database.formatter;
+
+import java.util.List;
+
+/**
+ * One page of rows read from a ResultSet, ready to be rendered.
+ *
+ * @param headers     Column labels
+ * @param columnTypes JDBC type of each column ({@link java.sql.Types}), in header order
+ * @param rows        Displayed rows (cell values already converted to strings; null for SQL NULL)
+ * @param hasMore     Whether at least one more row follows this page
+ * @param nextCursor  Cursor for the next page (null if none was issued)
+ * @param cutoff      Why the page stopped before its row limit, if it did
+ * @param total       Rows the whole query returns, if known (null otherwise)
+ */
+public record ResultPage(List<String> headers, List<Integer> columnTypes, List<List<String>> rows, boolean hasMore,
+                         String nextCursor, Cutoff cutoff, RowTotal total) {
+
+  /**
+   * Page without a known row total.
+   */
+  public ResultPage(List<String> headers, List<Integer> columnTypes, List<List<String>> rows, boolean hasMore,
+                    String nextCursor, Cutoff cutoff) {
+    this(headers, columnTypes, rows, hasMore, nextCursor, cutoff, null);
+  }
+
+  /**
+   * Number of rows a query returns.
+   *
+   * @param count Row count
+   * @param exact Whether it was counted, rather than estimated by the database
+   */
+  public record RowTotal(long count, boolean exact) {
+
+    /**
+     * Phrase for the pagination footer, e.g. "about 1200 rows in total".
+     */
+    public String describe() {
+      String rows = count == 1 ? "1 row" : count + " rows";
+      return (exact ? "" : "about ") + rows + " in total";
+    }
+  }
+
+  /**
+   * Reason a page ended early.
+   */
+  public enum Cutoff {
+    /** The page ended at its row limit or the end of the data. */
+    NONE(null),
+    /** The next row would have exceeded the character budget. */
+    OUTPUT_LIMIT("to fit the output limit"),
+    /** Reading rows took longer than the time limit. */
+    TIME_LIMIT("at the time limit");
+
+    private final String description;
+
+    Cutoff(String description) {
+      this.description = description;
+    }
+
+    /**
+     * Phrase completing "stopped after N rows ...".
+     */
+    public String description() {
+      return description;
+    }
+  }
+
+  /**
+   * Whether the page stopped early because of an output or time limit.
+   */
+  public boolean isCutShort() {
+    return cutoff != Cutoff.NONE;
+  }
+
+  /**
+   * Copy of this page with a different next-page cursor.
+   */
+  public ResultPage withNextCursor(String cursor) {
+    return new ResultPage(headers, columnTypes, rows, hasMore, cursor, cutoff, total);
+  }
+
+  /**
+   * Copy of this page with a row total for the whole query.
+   */
+  public ResultPage withTotal(RowTotal rowTotal) {
+    return new ResultPage(headers, columnTypes, rows, hasMore, nextCursor, cutoff, rowTotal);
+  }
+}
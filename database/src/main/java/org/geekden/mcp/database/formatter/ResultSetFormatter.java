@@ -1,5 +1,7 @@
 package org.geekden.mcp.database.formatter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -14,10 +16,35 @@ import java.util.List;
  * - Extracts row data from ResultSet
  * - Handles NULL values as &lt;null&gt;
  * - Supports pagination metadata in footer
- * - Uses TableFormatter for consistent formatting
+ * - Optional output budget that ends a page early, and a per-cell length cap
+ * - Uses TableFormatter for consistent formatting, or CompactWriter for TSV, Markdown and JSON Lines
  */
 public class ResultSetFormatter {
 
+  /**
+   * Produces the continuation cursor for the page after the given row.
+   * <p>
+   * Which row ends a page is only known once the next one is read or rejected, so the
+   * position of each row that may end it is kept, and only the last one is made into a
+   * cursor.
+   */
+  public interface CursorFactory {
+    /**
+     * Read what a cursor after the current row needs, such as its key values. Called for
+     * every row that may end the page, so it should do no more than read columns.
+     *
+     * @param row ResultSet positioned on a displayed row
+     * @return Position of the row
+     */
+    List<Object> positionOf(ResultSet row) throws SQLException;
+
+    /**
+     * @param position Position of the last displayed row, from {@link #positionOf}
+     * @return Opaque cursor for the next page, or null if none can be issued
+     */
+    String cursorAfter(List<Object> position);
+  }
+
   /**
    * Format a ResultSet as an aligned text table.
    *
@@ -37,19 +64,110 @@ public class ResultSetFormatter {
    * @return Formatted table with optional pagination footer
    */
   public static String format(ResultSet rs, Integer pageNumber, int rowsToDisplay) throws SQLException {
+    return format(rs, pageNumber, rowsToDisplay, null);
+  }
+
+  /**
+   * Format a ResultSet with pagination metadata and a continuation cursor.
+   *
+   * @param rs             ResultSet to format
+   * @param pageNumber     Current page number (null if not paginated)
+   * @param rowsToDisplay  Number of rows to display (0 for all)
+   * @param cursorFactory  Creates the next-page cursor from the last displayed row (null for none)
+   * @return Formatted table with optional pagination footer
+   */
+  public static String format(ResultSet rs, Integer pageNumber, int rowsToDisplay,
+                              CursorFactory cursorFactory) throws SQLException {
+    return render(readPage(rs, rowsToDisplay, false, cursorFactory), pageNumber);
+  }
+
+  /**
+   * Read one page of rows from a ResultSet.
+   *
+   * @see #readPage(ResultSet, int, boolean, CursorFactory, OutputLimits)
+   */
+  public static ResultPage readPage(ResultSet rs, int rowsToDisplay, boolean positioned,
+                                    CursorFactory cursorFactory) throws SQLException {
+    return readPage(rs, rowsToDisplay, positioned, cursorFactory, OutputLimits.NONE);
+  }
+
+  /**
+   * Read one page of rows from a ResultSet, within output limits.
+   * <p>
+   * Reads one row past the page to detect more data. When more data is available
+   * the ResultSet is left positioned on the first row of the next page, so an open
+   * ResultSet can be resumed with {@code positioned = true}.
+   * <p>
+   * With a character budget the page ends early, before the first row that would
+   * take the rendered table past the budget (at least one row is always shown).
+   * That row is left for the next page, and the cursor is issued for the last row
+   * actually displayed. A time limit ends the page the same way once reading has
+   * taken longer than allowed, so a slow query still returns the rows it has.
+   *
+   * @param rs             ResultSet to read
+   * @param rowsToDisplay  Number of rows to display (0 for all)
+   * @param positioned     Whether the ResultSet is already on the first row to display
+   * @param cursorFactory  Creates the next-page cursor from the last displayed row (null for none)
+   * @param limits         Character budget, per-cell cap and time limit
+   * @return Page of rows with pagination state
+   */
+  public static ResultPage readPage(ResultSet rs, int rowsToDisplay, boolean positioned,
+                                    CursorFactory cursorFactory, OutputLimits limits) throws SQLException {
+    return readPage(rs, rowsToDisplay, positioned, cursorFactory, limits, ResultFormat.TABLE);
+  }
+
+  /**
+   * Read one page of rows from a ResultSet, within output limits for a result format.
+   * <p>
+   * The character budget is measured in the format the page will be rendered in,
+   * so compact formats fit more rows into the same budget.
+   *
+   * @param rs             ResultSet to read
+   * @param rowsToDisplay  Number of rows to display (0 for all)
+   * @param positioned     Whether the ResultSet is already on the first row to display
+   * @param cursorFactory  Creates the next-page cursor from the last displayed row (null for none)
+   * @param limits         Character budget, per-cell cap and time limit
+   * @param format         Format the page will be rendered in
+   * @return Page of rows with pagination state
+   * @see #readPage(ResultSet, int, boolean, CursorFactory, OutputLimits)
+   */
+  public static ResultPage readPage(ResultSet rs, int rowsToDisplay, boolean positioned,
+                                    CursorFactory cursorFactory, OutputLimits limits, ResultFormat format)
+      throws SQLException {
     ResultSetMetaData metaData = rs.getMetaData();
     int columnCount = metaData.getColumnCount();
 
     // Extract column headers
     List<String> headers = new ArrayList<>();
+    List<Integer> types = new ArrayList<>();
+    int[] widths = new int[columnCount];
     for (int i = 1; i <= columnCount; i++) {
       headers.add(metaData.getColumnLabel(i));
+      types.add(metaData.getColumnType(i));
+      widths[i - 1] = headers.get(i - 1).length();
+    }
+
+    // Compact formats have no column widths: measure them by rendering each row into a counter
+    CharCounter compact = null;
+    CompactWriter compactSizer = null;
+    if (limits.maxChars() > 0 && format != ResultFormat.TABLE) {
+      compact = new CharCounter();
+      compactSizer = new CompactWriter(compact, format);
+      try {
+        compactSizer.writeHeader(headers, types);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
     }
 
     // Extract rows
     List<List<String>> rows = new ArrayList<>();
     int rowsFetched = 0;
-    while (rs.next()) {
+    List<Object> lastPosition = null;
+    ResultPage.Cutoff cutoff = ResultPage.Cutoff.NONE;
+    long deadline = limits.maxTime().isZero() ? 0 : System.nanoTime() + limits.maxTime().toNanos();
+    boolean hasRow = positioned || rs.next();
+    while (hasRow) {
       rowsFetched++;
 
       // Stop if we've reached the display limit
@@ -57,42 +175,169 @@ public class ResultSetFormatter {
         break;
       }
 
+      // Out of time: return what we have and leave this row for the next page
+      if (deadline != 0 && !rows.isEmpty() && System.nanoTime() - deadline > 0) {
+        cutoff = ResultPage.Cutoff.TIME_LIMIT;
+        break;
+      }
+
       List<String> row = new ArrayList<>();
       for (int i = 1; i <= columnCount; i++) {
         Object value = rs.getObject(i);
-        row.add(TableFormatter.valueToString(value));
+        row.add(value == null ? null : limits.cell(value.toString()));
+      }
+
+      // Stop before the row that would overflow the budget, leaving it for the next page
+      if (limits.maxChars() > 0) {
+        long size;
+        if (compactSizer != null) {
+          appendCompact(compactSizer, row);
+          size = compact.count;
+        } else {
+          size = renderedSize(widths, row, rows.size() + 1);
+        }
+        if (!rows.isEmpty() && size > limits.maxChars()) {
+          cutoff = ResultPage.Cutoff.OUTPUT_LIMIT;
+          break;
+        }
+      }
+
+      for (int i = 0; i < columnCount; i++) {
+        widths[i] = Math.max(widths[i], width(row.get(i)));
       }
       rows.add(row);
+
+      // Note the position while on what may be the last displayed row
+      if (cursorFactory != null && (rowsFetched == rowsToDisplay || limits.canCutShort())) {
+        lastPosition = cursorFactory.positionOf(rs);
+      }
+
+      hasRow = rs.next();
     }
 
+    boolean hasMore = cutoff != ResultPage.Cutoff.NONE || (rowsToDisplay > 0 && rowsFetched > rowsToDisplay);
+    String nextCursor = hasMore && lastPosition != null ? cursorFactory.cursorAfter(lastPosition) : null;
+    return new ResultPage(headers, types, rows, hasMore, nextCursor, cutoff);
+  }
+
+  /**
+   * Characters the table would take if {@code row} were added as row number {@code rowCount}.
+   */
+  private static long renderedSize(int[] widths, List<String> row, int rowCount) {
+    long lineWidth = 2L * (widths.length - 1);
+    for (int i = 0; i < widths.length; i++) {
+      lineWidth += Math.max(widths[i], width(row.get(i)));
+    }
+    // Header, separator and rows end in a newline; the footer separator doesn't
+    return (lineWidth + 1) * (rowCount + 2) + lineWidth;
+  }
+
+  /**
+   * Width of a cell in the table, where SQL NULL shows as {@code <null>}.
+   */
+  private static int width(String cell) {
+    return cell == null ? TableFormatter.NULL_VALUE.length() : cell.length();
+  }
+
+  /**
+   * Counts the characters appended to it, without keeping them.
+   */
+  private static final class CharCounter implements Appendable {
+    long count;
+
+    @Override
+    public Appendable append(CharSequence csq) {
+      count += csq.length();
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+      count += end - start;
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) {
+      count++;
+      return this;
+    }
+  }
+
+  /**
+   * Append a row to the compact sizer, which writes to a counter and can't fail.
+   */
+  private static void appendCompact(CompactWriter sizer, List<String> cells) {
+    try {
+      sizer.writeRow(cells);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Render a page as an aligned text table.
+   *
+   * @param page       Page to render
+   * @param pageNumber Current page number (null if not paginated)
+   * @return Formatted table with optional pagination footer
+   */
+  public static String render(ResultPage page, Integer pageNumber) {
+    return render(page, pageNumber, ResultFormat.TABLE);
+  }
+
+  /**
+   * Render a page in a result format, with the same footer as the table.
+   *
+   * @param page       Page to render
+   * @param pageNumber Current page number (null if not paginated)
+   * @param format     Table or one of the compact formats
+   * @return Formatted rows with optional pagination footer
+   */
+  public static String render(ResultPage page, Integer pageNumber, ResultFormat format) {
     // Check if there was any data
-    if (rows.isEmpty()) {
+    if (page.rows().isEmpty()) {
       return "No results.";
     }
 
-    // Add pagination footer if specified
+    String footer = null;
     if (pageNumber != null && pageNumber > 0) {
-      boolean hasMore = rowsFetched > rowsToDisplay;
-      String footer = formatPaginationFooter(pageNumber, hasMore);
-      return TableFormatter.formatWithFooter(headers, rows, footer);
+      // Add pagination footer if specified
+      footer = formatPaginationFooter(pageNumber, page);
+    } else if (page.isCutShort()) {
+      // Unpaginated queries (their own LIMIT, CTEs, ...) have no cursor to continue from
+      footer = "Showing the first " + rows(page.rows().size()) + " " + page.cutoff().description()
+          + "; the rest can't be fetched as a next page. Narrow the query (e.g. its LIMIT/OFFSET) "
+          + "or raise maxChars to see more.";
     }
 
-    return TableFormatter.format(headers, rows);
+    if (format == ResultFormat.TABLE) {
+      return TableFormatter.formatWithFooter(page.headers(), page.rows(), footer);
+    }
+    String body = CompactWriter.render(format, page.headers(), page.columnTypes(), page.rows());
+    return footer == null ? body : body + "\n" + footer;
   }
 
   /**
    * Format pagination metadata footer.
    *
    * @param pageNumber Current page number
-   * @param hasMore    Whether more data is available
+   * @param page       Page being rendered
    * @return Pagination footer message
    */
-  private static String formatPaginationFooter(int pageNumber, boolean hasMore) {
-    if (hasMore) {
-      return "Page " + pageNumber + " (more available)";
-    } else {
+  private static String formatPaginationFooter(int pageNumber, ResultPage page) {
+    if (!page.hasMore()) {
       return "Page " + pageNumber + " (no more data)";
     }
+
+    String details = page.isCutShort()
+        ? "more available; stopped after " + rows(page.rows().size()) + " " + page.cutoff().description()
+        : "more available";
+    if (page.total() != null) {
+      details += "; " + page.total().describe();
+    }
+    String footer = "Page " + pageNumber + " (" + details + ")";
+    return page.nextCursor() == null ? footer : footer + "\nNext cursor: " + page.nextCursor();
   }
 
   /**
@@ -105,6 +350,20 @@ public class ResultSetFormatter {
     return message;
   }
 
+  /**
+   * Format the number of rows a query returned (for streamed results).
+   *
+   * @param rowCount Number of rows returned
+   * @return Formatted message
+   */
+  public static String formatRowTotal(long rowCount) {
+    return rows(rowCount) + ".";
+  }
+
+  private static String rows(long rowCount) {
+    return rowCount == 1 ? "1 row" : rowCount + " rows";
+  }
+
   /**
    * Format affected row count for DML operations.
    *
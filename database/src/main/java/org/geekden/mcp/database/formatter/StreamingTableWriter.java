@@ -0,0 +1,167 @@
+package org.geekden.mcp.database.formatter;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a ResultSet as an aligned text table directly to a sink, one row at a time.
+ *
+ * Features:
+ * - Same layout as TableFormatter (two-space gaps, ── separators, &lt;null&gt;)
+ * - Column widths from a bounded look-ahead sample, widened to the driver's
+ *   display size where that is reasonable
+ * - Cells wider than their column are truncated with an ellipsis
+ * - Memory bounded by the sample, not by the result set
+ */
+public class StreamingTableWriter {
+
+  public static final int DEFAULT_SAMPLE_ROWS = 100;
+  public static final int DEFAULT_MAX_CELL_WIDTH = 200;
+
+  private final Appendable sink;
+  private final int sampleRows;
+  private final int maxCellWidth;
+
+  /**
+   * Create a writer with the default sample size and cell width.
+   *
+   * @param sink Destination for the table
+   */
+  public StreamingTableWriter(Appendable sink) {
+    this(sink, DEFAULT_SAMPLE_ROWS, DEFAULT_MAX_CELL_WIDTH);
+  }
+
+  /**
+   * @param sink         Destination for the table
+   * @param sampleRows   Rows to read ahead for sizing columns (at least 1)
+   * @param maxCellWidth Widest a column may grow; longer cells are truncated
+   */
+  public StreamingTableWriter(Appendable sink, int sampleRows, int maxCellWidth) {
+    if (sampleRows < 1) {
+      throw new IllegalArgumentException("Sample rows must be >= 1");
+    }
+    if (maxCellWidth < 1) {
+      throw new IllegalArgumentException("Max cell width must be >= 1");
+    }
+    this.sink = sink;
+    this.sampleRows = sampleRows;
+    this.maxCellWidth = maxCellWidth;
+  }
+
+  /**
+   * Write every remaining row of a ResultSet as a table.
+   * Writes "No results." if there are no rows.
+   *
+   * @param rs ResultSet positioned before the first row
+   * @return Number of rows written
+   */
+  public long write(ResultSet rs) throws SQLException, IOException {
+    ResultSetMetaData metaData = rs.getMetaData();
+    int columnCount = metaData.getColumnCount();
+
+    List<String> headers = new ArrayList<>(columnCount);
+    for (int i = 1; i <= columnCount; i++) {
+      headers.add(metaData.getColumnLabel(i));
+    }
+
+    // Read ahead a bounded sample to size the columns
+    List<List<String>> sample = new ArrayList<>();
+    boolean hasRow = rs.next();
+    while (hasRow && sample.size() < sampleRows) {
+      sample.add(readRow(rs, columnCount));
+      hasRow = rs.next();
+    }
+
+    if (sample.isEmpty()) {
+      sink.append("No results.");
+      return 0;
+    }
+
+    int[] widths = columnWidths(metaData, headers, sample, hasRow);
+
+    appendRow(headers, widths);
+    appendHeaderSeparator(widths);
+    for (List<String> row : sample) {
+      appendRow(row, widths);
+    }
+
+    long count = sample.size();
+    sample.clear();
+    while (hasRow) {
+      appendRow(readRow(rs, columnCount), widths);
+      count++;
+      hasRow = rs.next();
+    }
+
+    appendFooterSeparator(widths);
+    return count;
+  }
+
+  private int[] columnWidths(ResultSetMetaData metaData, List<String> headers, List<List<String>> sample,
+                             boolean moreRows) throws SQLException {
+    int[] widths = new int[headers.size()];
+    for (int i = 0; i < widths.length; i++) {
+      int width = headers.get(i).length();
+      for (List<String> row : sample) {
+        width = Math.max(width, row.get(i).length());
+      }
+      if (moreRows) {
+        // Rows past the sample may be wider; trust the driver's display size if it is sane
+        int displaySize = metaData.getColumnDisplaySize(i + 1);
+        if (displaySize > 0 && displaySize <= maxCellWidth) {
+          width = Math.max(width, displaySize);
+        }
+      }
+      widths[i] = Math.min(width, maxCellWidth);
+    }
+    return widths;
+  }
+
+  private static List<String> readRow(ResultSet rs, int columnCount) throws SQLException {
+    List<String> row = new ArrayList<>(columnCount);
+    for (int i = 1; i <= columnCount; i++) {
+      row.add(TableFormatter.valueToString(rs.getObject(i)));
+    }
+    return row;
+  }
+
+  private void appendRow(List<String> cells, int[] widths) throws IOException {
+    for (int i = 0; i < widths.length; i++) {
+      if (i > 0) {
+        sink.append("  ");
+      }
+      String value = TableFormatter.truncate(cells.get(i), widths[i]);
+      sink.append(value);
+      pad(' ', widths[i] - value.length());
+    }
+    sink.append('\n');
+  }
+
+  private void appendHeaderSeparator(int[] widths) throws IOException {
+    for (int i = 0; i < widths.length; i++) {
+      if (i > 0) {
+        sink.append("  ");
+      }
+      pad('─', widths[i]);
+    }
+    sink.append('\n');
+  }
+
+  private void appendFooterSeparator(int[] widths) throws IOException {
+    int totalWidth = 2 * (widths.length - 1);
+    for (int width : widths) {
+      totalWidth += width;
+    }
+    pad('─', totalWidth);
+  }
+
+  private void pad(char c, int count) throws IOException {
+    for (int i = 0; i < count; i++) {
+      sink.append(c);
+    }
+  }
+}
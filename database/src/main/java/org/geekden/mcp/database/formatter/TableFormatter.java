@@ -15,7 +15,7 @@ import java.util.List;
 public class TableFormatter {
 
   private static final String UNICODE_SEPARATOR = "──";
-  private static final String NULL_VALUE = "<null>";
+  static final String NULL_VALUE = "<null>";
 
   /**
    * Format data as an aligned text table.
@@ -169,6 +169,20 @@ public class TableFormatter {
     return value == null ? NULL_VALUE : value.toString();
   }
 
+  /**
+   * Shorten a value to at most {@code maxLength} characters, marking the cut with an ellipsis.
+   *
+   * @param value     Cell value
+   * @param maxLength Maximum length (at least 1)
+   * @return The value, or its truncated prefix ending in "…"
+   */
+  public static String truncate(String value, int maxLength) {
+    if (value.length() <= maxLength) {
+      return value;
+    }
+    return value.substring(0, maxLength - 1) + "…";
+  }
+
   /**
    * Create a list of string values from objects.
    */
@@ -0,0 +1,91 @@
+package org.geekden.mcp.database.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-bucket histogram of durations.
+ * <p>
+ * Buckets follow a 1-2-5 series from 1 ms to 60 s, so percentiles are reported
+ * as the upper bound of the bucket they fall in. Cheap enough to record every
+ * call; memory is constant.
+ */
+public final class LatencyHistogram {
+
+  /** Upper bounds of the buckets in milliseconds; a final bucket holds anything slower. */
+  private static final long[] BOUNDS_MS = {
+      1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000, 60000
+  };
+
+  private final long[] counts = new long[BOUNDS_MS.length + 1];
+  private long count;
+  private long totalNanos;
+  private long maxNanos;
+
+  /**
+   * Record one duration.
+   */
+  public synchronized void record(long nanos) {
+    long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+    int bucket = 0;
+    while (bucket < BOUNDS_MS.length && millis >= BOUNDS_MS[bucket]) {
+      bucket++;
+    }
+    counts[bucket]++;
+    count++;
+    totalNanos += nanos;
+    maxNanos = Math.max(maxNanos, nanos);
+  }
+
+  /**
+   * Consistent view of the histogram.
+   */
+  public synchronized Snapshot snapshot() {
+    return new Snapshot(count, totalNanos, maxNanos, counts.clone());
+  }
+
+  /**
+   * Point-in-time copy of a histogram.
+   *
+   * @param count      Durations recorded
+   * @param totalNanos Sum of all durations
+   * @param maxNanos   Longest duration
+   * @param counts     Durations per bucket
+   */
+  public record Snapshot(long count, long totalNanos, long maxNanos, long[] counts) {
+
+    /**
+     * Mean duration in milliseconds (0 if nothing was recorded).
+     */
+    public double meanMillis() {
+      return count == 0 ? 0 : totalNanos / 1e6 / count;
+    }
+
+    /**
+     * Longest duration in milliseconds.
+     */
+    public double maxMillis() {
+      return maxNanos / 1e6;
+    }
+
+    /**
+     * Upper bound in milliseconds of the bucket holding the given percentile,
+     * capped at the longest duration seen.
+     *
+     * @param percentile Between 0 and 100
+     */
+    public double percentileMillis(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = (long) Math.ceil(percentile / 100 * count);
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank && i < BOUNDS_MS.length) {
+          return Math.min(BOUNDS_MS[i], maxMillis());
+        }
+      }
+      return maxMillis();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package org.geekden.mcp.database.metrics;
+
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes the metrics report to a file next to the log file.
+ * <p>
+ * The server talks to its client over stdio, so the file is the only way to
+ * watch it from outside. Each dump replaces the file atomically, so readers
+ * never see a partial report. A zero interval disables dumping.
+ * <p>
+ * Only the stdio server starts the writer; one-shot CLI commands leave the
+ * running server's file alone.
+ */
+@ApplicationScoped
+public class MetricsFileWriter {
+
+  private static final Logger LOG = Logger.getLogger(MetricsFileWriter.class);
+
+  @ConfigProperty(name = "db.metrics.file")
+  Optional<Path> file;
+
+  @ConfigProperty(name = "db.metrics.dump-interval", defaultValue = "60s")
+  Duration interval;
+
+  @Inject
+  ServerMetrics metrics;
+
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * Start writing the report every interval, and once more at shutdown.
+   */
+  public synchronized void start() {
+    if (scheduler != null || file.isEmpty() || interval.isZero() || interval.isNegative()) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "metrics-writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long period = Math.max(1, interval.toMillis());
+    scheduler.scheduleAtFixedRate(this::write, period, period, TimeUnit.MILLISECONDS);
+    LOG.infof("Writing metrics to %s every %s", file.get(), interval);
+  }
+
+  synchronized void onStop(@Observes ShutdownEvent ev) {
+    if (scheduler == null) {
+      return;
+    }
+    scheduler.shutdownNow();
+    write();
+  }
+
+  /**
+   * Write the current report, replacing the previous one.
+   */
+  void write() {
+    Path target = file.orElseThrow();
+    String report = "Metrics at " + OffsetDateTime.now() + "\n" + metrics.report() + "\n";
+    try {
+      Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+      Files.writeString(temp, report, StandardCharsets.UTF_8);
+      try {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | RuntimeException e) {
+      // Never let a failed dump stop the schedule
+      LOG.warn("Failed to write metrics file " + target + ": " + e.getMessage());
+    }
+  }
+}
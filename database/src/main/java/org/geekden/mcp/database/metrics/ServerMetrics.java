@@ -0,0 +1,217 @@
+package org.geekden.mcp.database.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.formatter.TableFormatter;
+import org.geekden.mcp.database.service.CursorSessionRegistry;
+import org.geekden.mcp.database.service.ExpiringLruCache;
+import org.geekden.mcp.database.service.IntrospectionService;
+import org.geekden.mcp.database.service.PageCache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process metrics for the connection pool and tool calls.
+ * <p>
+ * Features:
+ * - Pool gauges (active, idle, pending connections) read from Hikari
+ * - Connection acquire time and timeouts
+ * - Per-tool call latency, errors, rows and characters returned
+ * - Text report shared by the serverStats tool and the metrics file
+ */
+@ApplicationScoped
+public class ServerMetrics {
+
+  /** Rows counted for the tool call running on the current thread. */
+  private static final ThreadLocal<long[]> CALL_ROWS = new ThreadLocal<>();
+
+  @Inject
+  PageCache pageCache;
+
+  @Inject
+  CursorSessionRegistry cursorSessions;
+
+  @Inject
+  IntrospectionService introspectionService;
+
+  private final Instant started = Instant.now();
+  private final Map<String, ToolStats> tools = new ConcurrentHashMap<>();
+  private final Map<String, PoolTracker> pools = new ConcurrentHashMap<>();
+
+  /**
+   * Hikari tracker factory that feeds pool statistics into these metrics.
+   */
+  public MetricsTrackerFactory poolTrackerFactory() {
+    return (poolName, stats) -> {
+      PoolTracker tracker = new PoolTracker(poolName, stats);
+      pools.put(poolName, tracker);
+      return tracker;
+    };
+  }
+
+  /**
+   * Add rows returned by a statement to the tool call running on this thread.
+   */
+  public void recordRows(long rows) {
+    long[] counter = CALL_ROWS.get();
+    if (counter != null) {
+      counter[0] += rows;
+    }
+  }
+
+  /**
+   * Start counting rows for a tool call on this thread.
+   */
+  void beginCall() {
+    CALL_ROWS.set(new long[1]);
+  }
+
+  /**
+   * Record a finished tool call and stop counting its rows.
+   *
+   * @param tool   Tool method name
+   * @param nanos  Time taken, including any wait for a concurrency slot
+   * @param chars  Length of the result returned to the client
+   * @param failed Whether the call threw or returned an error message
+   */
+  void endCall(String tool, long nanos, long chars, boolean failed) {
+    long[] counter = CALL_ROWS.get();
+    CALL_ROWS.remove();
+    tools.computeIfAbsent(tool, name -> new ToolStats())
+        .record(nanos, counter == null ? 0 : counter[0], chars, failed);
+  }
+
+  /**
+   * Render all metrics as text.
+   */
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("Uptime: ").append(formatUptime(Duration.between(started, Instant.now()))).append('\n');
+
+    if (pools.isEmpty()) {
+      sb.append("Connection pool: not started\n");
+    }
+    new TreeMap<>(pools).forEach((name, pool) -> pool.appendTo(sb, name));
+
+    sb.append("Open cursor sessions: ").append(cursorSessions.openCount()).append('\n');
+    if (pageCache.isEnabled()) {
+      ExpiringLruCache.Stats cache = pageCache.stats();
+      sb.append(String.format(Locale.ROOT,
+          "Page cache: %d hits, %d misses (%.0f%%), %d evictions, %d entries%n",
+          cache.hits(), cache.misses(), cache.hitRatio() * 100, cache.evictions(), cache.entries()));
+    }
+    if (introspectionService.isCacheEnabled()) {
+      ExpiringLruCache.Stats cache = introspectionService.cacheStats();
+      sb.append(String.format(Locale.ROOT,
+          "Metadata cache: %d hits, %d misses (%.0f%%), %d evictions, %d entries%n",
+          cache.hits(), cache.misses(), cache.hitRatio() * 100, cache.evictions(), cache.entries()));
+    }
+
+    Map<String, ToolStats> sorted = new TreeMap<>(tools);
+    if (sorted.isEmpty()) {
+      sb.append("\nNo tool calls yet.");
+      return sb.toString();
+    }
+    List<List<String>> rows = new ArrayList<>();
+    sorted.forEach((name, stats) -> rows.add(stats.row(name)));
+    sb.append('\n').append(TableFormatter.format(
+        List.of("tool", "calls", "errors", "p50 ms", "p95 ms", "max ms", "rows", "chars"), rows));
+    return sb.toString();
+  }
+
+  private static String millis(double value) {
+    return value < 10 ? String.format(Locale.ROOT, "%.1f", value) : String.format(Locale.ROOT, "%.0f", value);
+  }
+
+  private static String formatUptime(Duration uptime) {
+    long seconds = uptime.toSeconds();
+    return String.format(Locale.ROOT, "%dh %02dm %02ds", seconds / 3600, seconds / 60 % 60, seconds % 60);
+  }
+
+  /**
+   * Counters for one tool.
+   */
+  private static final class ToolStats {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder chars = new LongAdder();
+
+    void record(long nanos, long rowCount, long charCount, boolean failed) {
+      latency.record(nanos);
+      rows.add(rowCount);
+      chars.add(charCount);
+      if (failed) {
+        errors.increment();
+      }
+    }
+
+    List<String> row(String name) {
+      LatencyHistogram.Snapshot snapshot = latency.snapshot();
+      return List.of(name,
+          String.valueOf(snapshot.count()),
+          String.valueOf(errors.sum()),
+          millis(snapshot.percentileMillis(50)),
+          millis(snapshot.percentileMillis(95)),
+          millis(snapshot.maxMillis()),
+          String.valueOf(rows.sum()),
+          String.valueOf(chars.sum()));
+    }
+  }
+
+  /**
+   * Receives one pool's connection events.
+   */
+  private final class PoolTracker implements IMetricsTracker {
+
+    private final String name;
+    private final PoolStats stats;
+    private final LatencyHistogram acquireTime = new LatencyHistogram();
+    private final LongAdder acquireTimeouts = new LongAdder();
+
+    PoolTracker(String name, PoolStats stats) {
+      this.name = name;
+      this.stats = stats;
+    }
+
+    void appendTo(StringBuilder sb, String name) {
+      LatencyHistogram.Snapshot acquire = acquireTime.snapshot();
+      sb.append(String.format(Locale.ROOT,
+          "Connection pool %s: %d active, %d idle, %d pending (max %d)%n",
+          name, stats.getActiveConnections(), stats.getIdleConnections(), stats.getPendingThreads(),
+          stats.getMaxConnections()));
+      sb.append(String.format(Locale.ROOT,
+          "Connection acquire: %d acquired, p50 %s ms, p95 %s ms, max %s ms, %d timeouts%n",
+          acquire.count(), millis(acquire.percentileMillis(50)), millis(acquire.percentileMillis(95)),
+          millis(acquire.maxMillis()), acquireTimeouts.sum()));
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+      acquireTime.record(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+      acquireTimeouts.increment();
+    }
+
+    /** Called when the pool closes, e.g. an idle named datasource. */
+    @Override
+    public void close() {
+      pools.remove(name, this);
+    }
+  }
+}
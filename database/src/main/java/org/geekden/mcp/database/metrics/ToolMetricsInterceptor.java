@@ -0,0 +1,39 @@
+package org.geekden.mcp.database.metrics;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Records latency, rows, result size and errors of tool calls.
+ * <p>
+ * Runs outside the concurrency limit, so latency includes time spent waiting
+ * for a slot, as the client sees it. Tools report failures as "Error ..."
+ * results rather than exceptions, so those count as errors too.
+ */
+@Metered
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION - 10)
+public class ToolMetricsInterceptor {
+
+  @Inject
+  ServerMetrics metrics;
+
+  @AroundInvoke
+  Object record(InvocationContext context) throws Exception {
+    long start = System.nanoTime();
+    metrics.beginCall();
+    Object result = null;
+    boolean failed = true;
+    try {
+      result = context.proceed();
+      failed = result instanceof String text && text.startsWith("Error");
+      return result;
+    } finally {
+      long chars = result instanceof CharSequence text ? text.length() : 0;
+      metrics.endCall(context.getMethod().getName(), System.nanoTime() - start, chars, failed);
+    }
+  }
+}
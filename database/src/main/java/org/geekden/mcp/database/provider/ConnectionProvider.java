@@ -2,31 +2,51 @@ package org.geekden.mcp.database.provider;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.Dependent;
 import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.geekden.mcp.database.config.DatabaseConfig;
+import org.geekden.mcp.database.dialect.DatabaseDialect;
+import org.geekden.mcp.database.dialect.DialectFactory;
+import org.geekden.mcp.database.metrics.ServerMetrics;
 
 import org.jboss.logging.Logger;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * CDI producer for database connections using HikariCP connection pool.
  * <p>
  * Provides connections via HikariCP with efficient connection pooling
- * and lifecycle management.
+ * and lifecycle management, and the dialect of the pooled database.
+ * <p>
+ * When {@code db.read.jdbc.url} points at a read replica, a second pool with
+ * the same settings serves {@link ReadReplica} connections, which are read-only.
+ * Without it, read-only work shares the primary pool.
+ * <p>
+ * While a tool call has selected a named datasource (see {@link DataSourceRegistry}),
+ * both connection producers and the dialect producer serve that datasource instead.
  */
 @ApplicationScoped
 public class ConnectionProvider {
 
   private static final Logger LOG = Logger.getLogger(ConnectionProvider.class);
 
+  /** SQLITE_OPEN_READONLY flag for sqlite-jdbc's open_mode property. */
+  private static final int SQLITE_OPEN_READONLY = 1;
+
   static {
     // Eagerly initialize DriverManager to trigger JDBC 4.0 ServiceLoader
     // This ensures drivers are loaded before first connection attempt
@@ -46,13 +66,66 @@ public class ConnectionProvider {
   @ConfigProperty(name = "db.password")
   Optional<String> password;
 
-  @ConfigProperty(name = "hikari.maximum-pool-size", defaultValue = "2")
-  int maximumPoolSize;
+  @ConfigProperty(name = "db.read.jdbc.url")
+  Optional<String> readUrl;
+
+  @ConfigProperty(name = "db.read.username")
+  Optional<String> readUsername;
+
+  @ConfigProperty(name = "db.read.password")
+  Optional<String> readPassword;
 
   @ConfigProperty(name = "hikari.pool-name", defaultValue = "DatabaseConnectionPool")
   String poolName;
 
-  private HikariDataSource dataSource;
+  @ConfigProperty(name = "hikari.minimum-idle", defaultValue = "1")
+  int minimumIdle;
+
+  @ConfigProperty(name = "hikari.connection-timeout", defaultValue = "30s")
+  Duration connectionTimeout;
+
+  @ConfigProperty(name = "hikari.idle-timeout", defaultValue = "10m")
+  Duration idleTimeout;
+
+  @ConfigProperty(name = "hikari.max-lifetime", defaultValue = "30m")
+  Duration maxLifetime;
+
+  @ConfigProperty(name = "hikari.keepalive-time", defaultValue = "2m")
+  Duration keepaliveTime;
+
+  @ConfigProperty(name = "hikari.validation-timeout", defaultValue = "5s")
+  Duration validationTimeout;
+
+  @ConfigProperty(name = "hikari.connection-test-query")
+  Optional<String> connectionTestQuery;
+
+  @ConfigProperty(name = "hikari.leak-detection-threshold", defaultValue = "0s")
+  Duration leakDetectionThreshold;
+
+  @ConfigProperty(name = "db.statement-cache.prepare-threshold", defaultValue = "5")
+  int prepareThreshold;
+
+  @ConfigProperty(name = "db.statement-cache.max-queries", defaultValue = "256")
+  int statementCacheQueries;
+
+  @ConfigProperty(name = "db.statement-cache.max-size-mib", defaultValue = "5")
+  int statementCacheSizeMiB;
+
+  @Inject
+  DatabaseConfig config;
+
+  @Inject
+  DialectFactory dialectFactory;
+
+  @Inject
+  ServerMetrics metrics;
+
+  @Inject
+  DataSourceRegistry dataSources;
+
+  private volatile HikariDataSource dataSource;
+  private volatile HikariDataSource readDataSource;
+  private volatile DatabaseDialect dialect;
 
   /**
    * Sanitize JDBC URL for logging by removing embedded credentials.
@@ -72,35 +145,180 @@ public class ConnectionProvider {
   /**
    * Initialize HikariCP DataSource with configuration.
    * Internal method - not exposed as CDI bean to avoid conflicts.
+   * Only the first call locks; later ones see the pool without synchronizing.
+   */
+  private void initializeDataSource() throws SQLException {
+    if (dataSource != null) {
+      return;
+    }
+    synchronized (this) {
+      if (dataSource == null) {
+        String url = configuredUrl.orElseThrow(() ->
+            new SQLException("No database URL configured (set DB_URL environment variable)")
+        );
+
+        LOG.info("=== Initializing HikariCP connection pool ===");
+        validatePoolSize();
+        dataSource = createDataSource(url, username, password, poolName, config.getMaximumPoolSize(), false);
+        LOG.info("HikariCP connection pool initialized successfully");
+        LOG.info("==========================================");
+      }
+    }
+  }
+
+  /**
+   * Initialize the read replica pool, if one is configured.
+   * Credentials default to the primary's. Like the primary pool, only the first call locks.
    */
-  private synchronized void initializeDataSource() throws SQLException {
-    if (dataSource == null) {
-      String url = configuredUrl.orElseThrow(() ->
-          new SQLException("No database URL configured (set DB_URL environment variable)")
-      );
-
-      LOG.info("=== Initializing HikariCP connection pool ===");
-      LOG.info("Database URL: " + sanitizeUrl(url));
-      LOG.info("Pool name: " + poolName);
-      LOG.info("Max pool size: " + maximumPoolSize);
-
-      HikariConfig config = new HikariConfig();
-      config.setJdbcUrl(url);
-
-      // Set credentials if provided
-      if (username.isPresent()) {
-        config.setUsername(username.get());
-        config.setPassword(password.orElse(""));
+  private void initializeReadDataSource() throws SQLException {
+    if (readDataSource != null || readUrl.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      if (readDataSource == null) {
+        LOG.info("=== Initializing HikariCP read replica pool ===");
+        readDataSource = createDataSource(readUrl.get(),
+            readUsername.isPresent() ? readUsername : username,
+            readUsername.isPresent() ? readPassword : password,
+            poolName + "-read", config.getMaximumPoolSize(), true);
+        LOG.info("HikariCP read replica pool initialized successfully");
+        LOG.info("==========================================");
       }
+    }
+  }
+
+  /**
+   * Create a pool with the configured Hikari settings.
+   *
+   * @param url      JDBC URL
+   * @param user     Username, if any
+   * @param pass     Password, if any
+   * @param name     Pool name
+   * @param maxSize  Maximum pool size
+   * @param readOnly Whether the pool's connections are read-only
+   */
+  HikariDataSource createDataSource(String url, Optional<String> user, Optional<String> pass,
+                                    String name, int maxSize, boolean readOnly) {
+    LOG.info("Database URL: " + sanitizeUrl(url));
+    LOG.info("Pool name: " + name);
+    LOG.info("Max pool size: " + maxSize);
+    LOG.info("Minimum idle: " + Math.min(minimumIdle, maxSize));
 
-      // Configure pool settings
-      config.setMaximumPoolSize(maximumPoolSize);
-      config.setPoolName(poolName);
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(url);
 
-      dataSource = new HikariDataSource(config);
-      LOG.info("HikariCP connection pool initialized successfully");
-      LOG.info("==========================================");
+    // Set credentials if provided
+    if (user.isPresent()) {
+      config.setUsername(user.get());
+      config.setPassword(pass.orElse(""));
     }
+
+    // Configure pool settings
+    config.setMaximumPoolSize(maxSize);
+    config.setMinimumIdle(Math.min(minimumIdle, maxSize));
+    config.setPoolName(name);
+    config.setConnectionTimeout(connectionTimeout.toMillis());
+    config.setIdleTimeout(idleTimeout.toMillis());
+    config.setMaxLifetime(maxLifetime.toMillis());
+    config.setKeepaliveTime(keepaliveTime.toMillis());
+    config.setValidationTimeout(validationTimeout.toMillis());
+    config.setLeakDetectionThreshold(leakDetectionThreshold.toMillis());
+    // Without a test query, Hikari validates with JDBC4 Connection.isValid()
+    connectionTestQuery.ifPresent(config::setConnectionTestQuery);
+    config.setMetricsTrackerFactory(metrics.poolTrackerFactory());
+
+    if (readOnly) {
+      if (url.startsWith("jdbc:sqlite:")) {
+        // sqlite-jdbc can't switch an open connection to read-only; open it that way instead
+        config.addDataSourceProperty("open_mode", String.valueOf(SQLITE_OPEN_READONLY));
+      } else {
+        config.setReadOnly(true);
+      }
+    }
+    if (url.startsWith("jdbc:postgresql:")) {
+      configureStatementCache(config);
+    }
+
+    return new HikariDataSource(config);
+  }
+
+  /**
+   * Create the pool and open its minimum idle connections now, so the first
+   * tool call doesn't pay for connecting, authenticating and driver setup.
+   *
+   * @return Number of connections opened
+   * @throws SQLException if the pool cannot be initialized or a connection fails
+   */
+  public int warmUp() throws SQLException {
+    long start = System.nanoTime();
+    initializeDataSource();
+
+    int count = warmUp(dataSource);
+    initializeReadDataSource();
+    if (readDataSource != null) {
+      count += warmUp(readDataSource);
+    }
+
+    LOG.infof("Connection pool warmed up with %d connection(s) in %d ms",
+        count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    return count;
+  }
+
+  /**
+   * Live connection counts of the main pool.
+   *
+   * @return The pool's counters, or empty if the pool hasn't been created yet
+   */
+  public Optional<HikariPoolMXBean> poolStatus() {
+    HikariDataSource pool = dataSource;
+    return pool == null ? Optional.empty() : Optional.ofNullable(pool.getHikariPoolMXBean());
+  }
+
+  private int warmUp(HikariDataSource pool) throws SQLException {
+    // Hold the connections together so the pool has to open distinct ones
+    int count = Math.min(minimumIdle, config.getMaximumPoolSize());
+    List<Connection> connections = new ArrayList<>(count);
+    try {
+      for (int i = 0; i < count; i++) {
+        connections.add(pool.getConnection());
+      }
+    } finally {
+      for (Connection conn : connections) {
+        conn.close();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Warn if the pool is too small for concurrent tool calls to run in parallel.
+   * <p>
+   * Each running tool call needs a connection, and each open cursor session keeps
+   * one; with fewer connections, calls that are allowed to run wait on the pool.
+   */
+  private void validatePoolSize() {
+    int required = config.getMaxConcurrentTools() + config.getMaxOpenCursors();
+    if (config.getMaximumPoolSize() < required) {
+      LOG.warnf("hikari.maximum-pool-size=%d is below db.tools.max-concurrent=%d plus db.cursor.max-open=%d; "
+          + "concurrent tool calls will wait for connections", config.getMaximumPoolSize(),
+          config.getMaxConcurrentTools(), config.getMaxOpenCursors());
+    }
+  }
+
+  /**
+   * Configure pgjdbc's per-connection prepared statement cache.
+   * <p>
+   * The cache lives in the physical connection, so it survives Hikari closing
+   * statements when a connection is returned to the pool. After a statement has
+   * been executed {@code prepareThreshold} times the driver switches to a named
+   * server-side statement and later executions skip parse and plan.
+   */
+  private void configureStatementCache(HikariConfig config) {
+    config.addDataSourceProperty("prepareThreshold", String.valueOf(prepareThreshold));
+    config.addDataSourceProperty("preparedStatementCacheQueries", String.valueOf(statementCacheQueries));
+    config.addDataSourceProperty("preparedStatementCacheSizeMiB", String.valueOf(statementCacheSizeMiB));
+    LOG.info("Prepared statement cache: " + statementCacheQueries + " queries, "
+        + statementCacheSizeMiB + " MiB, prepare threshold " + prepareThreshold);
   }
 
   /**
@@ -115,6 +333,10 @@ public class ConnectionProvider {
   @Produces
   @Dependent
   public Connection produceConnection() throws SQLException {
+    String selected = DataSourceRegistry.current();
+    if (selected != null) {
+      return dataSources.getConnection(selected);
+    }
     initializeDataSource();
     LOG.debug("Requesting connection from HikariCP pool '" + poolName + "'");
     Connection conn = dataSource.getConnection();
@@ -122,6 +344,76 @@ public class ConnectionProvider {
     return conn;
   }
 
+  /**
+   * CDI producer method for read-only connections.
+   * <p>
+   * Returns a connection from the read replica pool if one is configured, and
+   * from the primary pool otherwise. Use it for SELECTs and introspection only;
+   * a replica may lag behind the primary.
+   *
+   * @return A connection for read-only work
+   * @throws SQLException if connection cannot be obtained
+   */
+  @Produces
+  @Dependent
+  @ReadReplica
+  public Connection produceReadOnlyConnection() throws SQLException {
+    if (readUrl.isEmpty() || DataSourceRegistry.current() != null) {
+      return produceConnection();
+    }
+    initializeReadDataSource();
+    LOG.debug("Requesting connection from HikariCP pool '" + poolName + "-read'");
+    return readDataSource.getConnection();
+  }
+
+  /**
+   * Whether a read replica pool is configured.
+   */
+  public boolean hasReadReplica() {
+    return readUrl.isPresent();
+  }
+
+  /**
+   * Name prefix of the pools this provider creates.
+   */
+  String poolName() {
+    return poolName;
+  }
+
+  /**
+   * CDI producer for the dialect of the pooled database.
+   * <p>
+   * The dialect can't change for the life of a pool, so it is detected once
+   * from the first connection's metadata instead of on every query.
+   *
+   * @return Dialect of the selected datasource
+   * @throws SQLException if the pool cannot be initialized or no dialect matches
+   */
+  @Produces
+  @Dependent
+  public DatabaseDialect produceDialect() throws SQLException {
+    String selected = DataSourceRegistry.current();
+    if (selected != null) {
+      return dataSources.dialect(selected);
+    }
+    DatabaseDialect resolved = dialect;
+    if (resolved != null) {
+      return resolved;
+    }
+    initializeDataSource();
+    return resolveDialect();
+  }
+
+  private synchronized DatabaseDialect resolveDialect() throws SQLException {
+    if (dialect == null) {
+      try (Connection conn = dataSource.getConnection()) {
+        dialect = dialectFactory.getDialect(conn.getMetaData());
+      }
+      LOG.info("Using " + dialect.getName() + " dialect");
+    }
+    return dialect;
+  }
+
   /**
    * Cleanup method to properly close the HikariCP DataSource on shutdown.
    */
@@ -131,5 +423,9 @@ public class ConnectionProvider {
       LOG.info("Closing HikariCP connection pool");
       dataSource.close();
     }
+    if (readDataSource != null && !readDataSource.isClosed()) {
+      LOG.info("Closing HikariCP read replica pool");
+      readDataSource.close();
+    }
   }
 }
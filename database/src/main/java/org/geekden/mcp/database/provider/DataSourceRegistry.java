@@ -0,0 +1,298 @@
+package org.geekden.mcp.database.provider;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.geekden.mcp.database.dialect.DatabaseDialect;
+import org.geekden.mcp.database.dialect.DialectFactory;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pools for named datasources, configured as {@code db.<name>.jdbc.url}.
+ * <p>
+ * Features:
+ * - Datasources are discovered from configuration (properties or DB_NAME_JDBC_URL variables)
+ * - Each pool is created on first use and its dialect detected once
+ * - Pools unused for {@code db.datasources.idle-timeout} are closed
+ * - At most {@code db.datasources.max-open} pools are open; the least recently used idle pool makes room
+ * <p>
+ * A tool call selects a datasource for its thread with {@link #select(String)};
+ * while selected, the {@link Connection} and {@link DatabaseDialect} producers
+ * serve that datasource instead of the default one.
+ */
+@ApplicationScoped
+public class DataSourceRegistry {
+
+  private static final Logger LOG = Logger.getLogger(DataSourceRegistry.class);
+
+  /** Names that look like datasources but configure something else. */
+  private static final Set<String> RESERVED = Set.of("read");
+
+  private static final Pattern PROPERTY = Pattern.compile("db\\.([A-Za-z0-9_-]+)\\.jdbc\\.url");
+  private static final Pattern ENV_VAR = Pattern.compile("DB_([A-Z0-9_]+)_JDBC_URL");
+
+  /** Datasource selected by the tool call running on the current thread (null for the default). */
+  private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+  @ConfigProperty(name = "db.datasources.max-open", defaultValue = "3")
+  int maxOpen;
+
+  @ConfigProperty(name = "db.datasources.max-pool-size", defaultValue = "2")
+  int maxPoolSize;
+
+  @ConfigProperty(name = "db.datasources.idle-timeout", defaultValue = "10m")
+  Duration idleTimeout;
+
+  @Inject
+  Config config;
+
+  @Inject
+  ConnectionProvider connectionProvider;
+
+  @Inject
+  DialectFactory dialectFactory;
+
+  private final Set<String> names = new TreeSet<>();
+  private final Map<String, NamedPool> pools = new ConcurrentHashMap<>();
+  private ScheduledExecutorService sweeper;
+  private volatile LongSupplier clock = System::nanoTime;
+
+  private static final class NamedPool {
+    final HikariDataSource dataSource;
+    /** Callers between taking the pool and holding a connection from it. */
+    final AtomicInteger checkingOut = new AtomicInteger();
+    volatile DatabaseDialect dialect;
+    volatile long lastUsedNanos;
+
+    NamedPool(HikariDataSource dataSource, long createdNanos) {
+      this.dataSource = dataSource;
+      this.lastUsedNanos = createdNanos;
+    }
+
+    boolean isBusy() {
+      if (checkingOut.get() > 0) {
+        return true;
+      }
+      HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+      return pool != null && (pool.getActiveConnections() > 0 || pool.getThreadsAwaitingConnection() > 0);
+    }
+
+    /**
+     * Borrow a connection for a caller counted in {@link #checkingOut}, then stop counting it.
+     */
+    Connection checkOut() throws SQLException {
+      try {
+        return dataSource.getConnection();
+      } finally {
+        checkingOut.decrementAndGet();
+      }
+    }
+  }
+
+  @PostConstruct
+  void init() {
+    for (String property : config.getPropertyNames()) {
+      Matcher matcher = PROPERTY.matcher(property);
+      Matcher envMatcher = ENV_VAR.matcher(property);
+      String name = matcher.matches() ? matcher.group(1)
+          : envMatcher.matches() ? envMatcher.group(1).toLowerCase(Locale.ROOT) : null;
+      if (name != null && !RESERVED.contains(name) && url(name).isPresent()) {
+        names.add(name);
+      }
+    }
+    if (names.isEmpty()) {
+      return;
+    }
+    LOG.info("Named datasources: " + String.join(", ", names));
+
+    sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "datasource-sweeper");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long period = Math.max(1000, idleTimeout.toMillis() / 2);
+    sweeper.scheduleWithFixedDelay(this::closeIdlePools, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (sweeper != null) {
+      sweeper.shutdownNow();
+    }
+    closeAll();
+  }
+
+  /**
+   * Close every open pool; they are created again on next use.
+   */
+  synchronized void closeAll() {
+    pools.keySet().forEach(this::closePool);
+  }
+
+  /**
+   * Names of the datasources whose pools are currently open.
+   */
+  Set<String> openPools() {
+    return Set.copyOf(pools.keySet());
+  }
+
+  /**
+   * Replace the clock used for idle times, in {@link System#nanoTime()} units.
+   */
+  void setClock(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Names of the configured datasources, sorted.
+   */
+  public Set<String> names() {
+    return Collections.unmodifiableSet(names);
+  }
+
+  /**
+   * Most connections the pool of each named datasource holds ({@code db.datasources.max-pool-size}).
+   */
+  public int maxPoolSize() {
+    return maxPoolSize;
+  }
+
+  /**
+   * Select a datasource for the current thread until the returned handle is closed.
+   *
+   * @param name Datasource name, or null for the default datasource
+   * @return Handle that restores the previous selection
+   * @throws IllegalArgumentException if no datasource has that name
+   */
+  public Selection select(String name) {
+    if (name != null && !names.contains(name)) {
+      throw new IllegalArgumentException("Unknown datasource '" + name + "'"
+          + (names.isEmpty() ? "; none are configured" : "; configured: " + String.join(", ", names)));
+    }
+    String previous = CURRENT.get();
+    CURRENT.set(name);
+    return () -> CURRENT.set(previous);
+  }
+
+  /**
+   * Datasource selected on the current thread, or null for the default.
+   */
+  public static String current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Borrow a connection from a named datasource's pool, creating the pool if needed.
+   */
+  Connection getConnection(String name) throws SQLException {
+    return reserve(name).checkOut();
+  }
+
+  /**
+   * Dialect of a named datasource, detected from its first connection.
+   */
+  DatabaseDialect dialect(String name) throws SQLException {
+    NamedPool pool = pool(name);
+    if (pool.dialect == null) {
+      pool = reserve(name);
+      try (Connection conn = pool.checkOut()) {
+        pool.dialect = dialectFactory.getDialect(conn.getMetaData());
+      }
+      LOG.infof("Datasource %s uses %s dialect", name, pool.dialect.getName());
+    }
+    return pool.dialect;
+  }
+
+  /**
+   * Take a datasource's pool for a checkout. The pool counts as used and busy from here,
+   * inside the lock, so the sweeper can't close it before the caller holds a connection;
+   * the caller must follow with {@link NamedPool#checkOut()}.
+   */
+  private synchronized NamedPool reserve(String name) throws SQLException {
+    NamedPool pool = pool(name);
+    pool.lastUsedNanos = clock.getAsLong();
+    pool.checkingOut.incrementAndGet();
+    return pool;
+  }
+
+  private synchronized NamedPool pool(String name) throws SQLException {
+    NamedPool pool = pools.get(name);
+    if (pool != null) {
+      return pool;
+    }
+    if (pools.size() >= maxOpen && !evictLeastRecentlyUsed()) {
+      throw new SQLException("All " + maxOpen + " datasource pools are in use (db.datasources.max-open)");
+    }
+    String url = url(name).orElseThrow(() -> new SQLException("No URL configured for datasource " + name));
+    LOG.info("=== Initializing HikariCP pool for datasource " + name + " ===");
+    pool = new NamedPool(connectionProvider.createDataSource(url,
+        config.getOptionalValue("db." + name + ".username", String.class),
+        config.getOptionalValue("db." + name + ".password", String.class),
+        connectionProvider.poolName() + "-" + name, maxPoolSize, false), clock.getAsLong());
+    pools.put(name, pool);
+    return pool;
+  }
+
+  private boolean evictLeastRecentlyUsed() {
+    Optional<String> victim = pools.entrySet().stream()
+        .filter(entry -> !entry.getValue().isBusy())
+        .min(Comparator.comparingLong(entry -> entry.getValue().lastUsedNanos))
+        .map(Map.Entry::getKey);
+    victim.ifPresent(this::closePool);
+    return victim.isPresent();
+  }
+
+  synchronized void closeIdlePools() {
+    long now = clock.getAsLong();
+    pools.forEach((name, pool) -> {
+      if (now - pool.lastUsedNanos > idleTimeout.toNanos() && !pool.isBusy()) {
+        closePool(name);
+      }
+    });
+  }
+
+  private void closePool(String name) {
+    NamedPool pool = pools.remove(name);
+    if (pool != null) {
+      LOG.info("Closing HikariCP pool for datasource " + name);
+      pool.dataSource.close();
+    }
+  }
+
+  private Optional<String> url(String name) {
+    return config.getOptionalValue("db." + name + ".jdbc.url", String.class).filter(url -> !url.isBlank());
+  }
+
+  /**
+   * A datasource selection; closing it restores the previous one.
+   */
+  @FunctionalInterface
+  public interface Selection extends AutoCloseable {
+    @Override
+    void close();
+  }
+}
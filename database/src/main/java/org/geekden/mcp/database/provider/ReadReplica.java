@@ -0,0 +1,20 @@
+package org.geekden.mcp.database.provider;
+
+import jakarta.inject.Qualifier;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Qualifies connections meant for read-only work.
+ * <p>
+ * They come from the read replica pool when {@code db.read.jdbc.url} is set,
+ * and from the primary pool otherwise.
+ */
+@Qualifier
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER, ElementType.TYPE})
+public @interface ReadReplica {
+}
@@ -0,0 +1,86 @@
+package org.geekden.mcp.database.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A pooled connection borrowed for one call, which a cursor session may keep.
+ * <p>
+ * The connection is only checked out when first used, so a call served from an
+ * open cursor session doesn't take a second one. If the call opens a session, the
+ * connection is handed over to it and stays checked out after the lease closes;
+ * otherwise closing the lease returns it to the pool.
+ */
+public final class ConnectionLease implements AutoCloseable {
+
+  private final Supplier<Connection> borrow;
+  private final boolean transferable;
+  private Connection connection;
+  private boolean transferred;
+
+  /**
+   * Lease a connection from a pool.
+   *
+   * @param borrow Checks out a connection, called at most once
+   */
+  public ConnectionLease(Supplier<Connection> borrow) {
+    this(borrow, true);
+  }
+
+  private ConnectionLease(Supplier<Connection> borrow, boolean transferable) {
+    this.borrow = borrow;
+    this.transferable = transferable;
+  }
+
+  /**
+   * Lend out a connection the caller owns and closes itself. It is never handed
+   * over, so a cursor session opened on it checks out a connection of its own.
+   *
+   * @param connection Connection to use
+   */
+  public static ConnectionLease of(Connection connection) {
+    return new ConnectionLease(() -> connection, false);
+  }
+
+  /**
+   * The leased connection, checked out on first use.
+   *
+   * @throws IllegalStateException if the connection was handed over to a cursor session
+   */
+  public Connection get() {
+    if (transferred) {
+      throw new IllegalStateException("Connection was handed over to a cursor session");
+    }
+    if (connection == null) {
+      connection = borrow.get();
+    }
+    return connection;
+  }
+
+  /**
+   * Hand the connection over to a new owner, which becomes responsible for closing it.
+   *
+   * @return The connection, or empty if the caller owns it
+   */
+  Optional<Connection> transfer() {
+    if (!transferable) {
+      return Optional.empty();
+    }
+    Connection handedOver = get();
+    transferred = true;
+    return Optional.of(handedOver);
+  }
+
+  /**
+   * Return the connection to the pool, unless it was never checked out, was handed
+   * over, or belongs to the caller.
+   */
+  @Override
+  public void close() throws SQLException {
+    if (transferable && !transferred && connection != null) {
+      connection.close();
+    }
+  }
+}
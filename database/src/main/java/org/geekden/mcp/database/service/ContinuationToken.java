@@ -0,0 +1,338 @@
+package org.geekden.mcp.database.service;
+
+import org.geekden.mcp.database.formatter.ResultSetFormatter;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Opaque cursor handed to the client with each continuable page.
+ * <p>
+ * Encodes the page number to continue from, a fingerprint of the query and bind
+ * parameters it was issued for, the datasource it ran on, and one of: the primary
+ * key values of the last row displayed (keyset pagination), the handle of an open
+ * cursor session, or the number of rows already shown (for pages that ended early
+ * and so no longer line up with page-size multiples). Tokens are URL-safe Base64 so they can be passed
+ * back verbatim as a tool argument.
+ *
+ * @param fingerprint First 64 bits of the SHA-256 digest of the normalized query text and its parameters
+ * @param datasource  Named datasource the query ran on (null for the main database)
+ * @param page        Page number the token continues to
+ * @param keyValues   Key values of the last row on the previous page
+ *                    ({@link BigDecimal} for numbers, {@link String} otherwise);
+ *                    empty for session and offset tokens
+ * @param session     Cursor session handle (null for keyset and offset tokens)
+ * @param offset      Rows shown before the next page (0 for keyset tokens)
+ */
+record ContinuationToken(long fingerprint, String datasource, int page, List<Object> keyValues, String session,
+                         int offset) {
+
+  private static final int VERSION = 3;
+  private static final char KEYSET = 'K';
+  private static final char SESSION = 'C';
+  private static final char OFFSET = 'O';
+  private static final char NUMBER = 'N';
+  private static final char STRING = 'S';
+
+  /**
+   * Cursors for key-ordered pages, continuing after the last row's key.
+   * <p>
+   * Only the key values of each row that may end the page are read; the token is
+   * encoded once, for the row that does.
+   *
+   * @param keyColumns Primary key columns in key sequence order
+   * @param query      Original SQL query
+   * @param params     Bind parameters of the query
+   * @param nextPage   Page number the token continues to
+   * @return Factory whose cursors are null if a key value cannot be carried in a token
+   */
+  static ResultSetFormatter.CursorFactory afterKey(List<String> keyColumns, String query, List<Object> params,
+                                                   int nextPage) {
+    return new ResultSetFormatter.CursorFactory() {
+      @Override
+      public List<Object> positionOf(ResultSet row) throws SQLException {
+        List<Object> values = new ArrayList<>(keyColumns.size());
+        for (String key : keyColumns) {
+          values.add(row.getObject(key));
+        }
+        return values;
+      }
+
+      @Override
+      public String cursorAfter(List<Object> position) {
+        return forKey(position, query, params, nextPage);
+      }
+    };
+  }
+
+  /**
+   * Create the token for the page after a row with the given key values.
+   *
+   * @return Encoded token, or null if a key value cannot be carried in a token
+   */
+  private static String forKey(List<Object> keyValues, String query, List<Object> params, int nextPage) {
+    List<Object> values = new ArrayList<>(keyValues.size());
+    for (Object value : keyValues) {
+      if (value == null || value instanceof byte[]) {
+        return null;
+      }
+      if (value instanceof Number) {
+        try {
+          values.add(new BigDecimal(value.toString()));
+        } catch (NumberFormatException e) {
+          return null; // NaN, Infinity
+        }
+      } else {
+        values.add(value.toString());
+      }
+    }
+    return new ContinuationToken(fingerprint(query, params), DataSourceRegistry.current(), nextPage, values, null, 0)
+        .encode();
+  }
+
+  /**
+   * Create the token for the next page of an open cursor session.
+   *
+   * @param session  Cursor session handle
+   * @param query    Original SQL query
+   * @param params   Bind parameters of the query
+   * @param nextPage Page number the token continues to
+   * @param offset   Rows shown before the next page, for re-execution if the session is gone
+   * @return Encoded token
+   */
+  static String forSession(String session, String query, List<Object> params, int nextPage, int offset) {
+    return new ContinuationToken(fingerprint(query, params), DataSourceRegistry.current(), nextPage, List.of(),
+        session, offset).encode();
+  }
+
+  /**
+   * Create the token for the next page of a query paginated with OFFSET.
+   *
+   * @param query    Original SQL query
+   * @param params   Bind parameters of the query
+   * @param nextPage Page number the token continues to
+   * @param offset   Rows shown before the next page
+   * @return Encoded token
+   */
+  static String forOffset(String query, List<Object> params, int nextPage, int offset) {
+    return new ContinuationToken(fingerprint(query, params), DataSourceRegistry.current(), nextPage, List.of(),
+        null, offset).encode();
+  }
+
+  /**
+   * Whether this token continues an open cursor session rather than seeking by key.
+   */
+  boolean isSession() {
+    return session != null;
+  }
+
+  /**
+   * Whether this token seeks past primary key values.
+   */
+  boolean isKeyset() {
+    return session == null && !keyValues.isEmpty();
+  }
+
+  /**
+   * Fingerprint a query so tokens cannot be replayed against a different one.
+   * Whitespace and a trailing semicolon are not significant.
+   */
+  static long fingerprint(String query) {
+    return fingerprint(query, List.of());
+  }
+
+  /**
+   * Fingerprint a query together with its bind parameters: a SHA-256 digest of the
+   * normalized query followed by each parameter's type and value, cut to 64 bits.
+   */
+  static long fingerprint(String query, List<Object> params) {
+    String normalized = query.trim().replaceAll("\\s+", " ");
+    if (normalized.endsWith(";")) {
+      normalized = normalized.substring(0, normalized.length() - 1).trim();
+    }
+
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    update(digest, normalized);
+    for (Object param : params) {
+      // Type names keep 42 and "42" apart
+      update(digest, param == null ? "null" : param.getClass().getName());
+      update(digest, String.valueOf(param));
+    }
+    return ByteBuffer.wrap(digest.digest()).getLong();
+  }
+
+  /**
+   * Add a length-prefixed string to a digest, so adjacent strings can't run together.
+   */
+  private static void update(MessageDigest digest, String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+    digest.update(bytes);
+  }
+
+  /**
+   * Check whether this token was issued for the given query and parameters.
+   */
+  boolean matches(String query, List<Object> params) {
+    return fingerprint == fingerprint(query, params);
+  }
+
+  /**
+   * Check whether this token was issued on the given datasource.
+   *
+   * @param name Datasource name, or null for the main database
+   */
+  boolean matchesDatasource(String name) {
+    return Objects.equals(datasource, name);
+  }
+
+  /**
+   * Encode as a URL-safe Base64 string.
+   */
+  String encode() {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        out.writeByte(VERSION);
+        out.writeLong(fingerprint);
+        out.writeBoolean(datasource != null);
+        if (datasource != null) {
+          out.writeUTF(datasource);
+        }
+        out.writeInt(page);
+        if (isSession()) {
+          out.writeChar(SESSION);
+          out.writeUTF(session);
+          out.writeInt(offset);
+        } else if (!isKeyset()) {
+          out.writeChar(OFFSET);
+          out.writeInt(offset);
+        } else {
+          out.writeChar(KEYSET);
+          out.writeShort(keyValues.size());
+          for (Object value : keyValues) {
+            out.writeChar(value instanceof BigDecimal ? NUMBER : STRING);
+            writeString(out, value.toString());
+          }
+        }
+      }
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to encode cursor", e);
+    }
+  }
+
+  /**
+   * Decode a token produced by {@link #encode()}.
+   *
+   * @param token Encoded token
+   * @return Decoded token
+   * @throws IllegalArgumentException if the token is malformed
+   */
+  static ContinuationToken decode(String token) {
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(token.trim());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor", e);
+    }
+
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      if (in.readByte() != VERSION) {
+        throw new IllegalArgumentException("Invalid cursor: unsupported version");
+      }
+      long fingerprint = in.readLong();
+      String datasource = in.readBoolean() ? in.readUTF() : null;
+      int page = in.readInt();
+      if (page < 2) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+
+      char kind = in.readChar();
+      if (kind == SESSION) {
+        String session = in.readUTF();
+        int offset = in.readInt();
+        if (session.isEmpty() || offset < 1 || in.available() > 0) {
+          throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new ContinuationToken(fingerprint, datasource, page, List.of(), session, offset);
+      } else if (kind == OFFSET) {
+        int offset = in.readInt();
+        if (offset < 1 || in.available() > 0) {
+          throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new ContinuationToken(fingerprint, datasource, page, List.of(), null, offset);
+      } else if (kind != KEYSET) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+
+      int count = in.readShort();
+      if (count < 1) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+
+      List<Object> values = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        char type = in.readChar();
+        String value = readString(in);
+        switch (type) {
+          case NUMBER -> values.add(parseNumber(value));
+          case STRING -> values.add(value);
+          default -> throw new IllegalArgumentException("Invalid cursor");
+        }
+      }
+      if (in.available() > 0) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      return new ContinuationToken(fingerprint, datasource, page, values, null, 0);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid cursor", e);
+    }
+  }
+
+  /**
+   * Write a string as its UTF-8 length and bytes. Unlike {@link DataOutputStream#writeUTF},
+   * this has no 64 KB limit, so long text keys can still be carried.
+   */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > in.available()) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+  }
+
+  private static BigDecimal parseNumber(String value) {
+    try {
+      return new BigDecimal(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cursor", e);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package org.geekden.mcp.database.service;
+
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * An open query whose ResultSet is kept alive between tool calls.
+ * <p>
+ * Holds its own pooled connection so later pages continue fetching from the
+ * live cursor instead of re-executing the query. Only one caller uses a session
+ * at a time; the registry hands it out and takes it back.
+ */
+class CursorSession implements AutoCloseable {
+
+  private static final Logger LOG = Logger.getLogger(CursorSession.class);
+
+  private final String id;
+  private final String datasource;
+  private final Connection connection;
+  private final Statement statement;
+  private final ResultSet resultSet;
+  private final boolean restoreAutoCommit;
+  private int nextPage;
+  private int rowsShown;
+  private long lastAccessNanos;
+
+  CursorSession(String id, String datasource, Connection connection, Statement statement, ResultSet resultSet,
+                boolean restoreAutoCommit) {
+    this.id = id;
+    this.datasource = datasource;
+    this.connection = connection;
+    this.statement = statement;
+    this.resultSet = resultSet;
+    this.restoreAutoCommit = restoreAutoCommit;
+    this.nextPage = 1;
+    this.lastAccessNanos = System.nanoTime();
+  }
+
+  String id() {
+    return id;
+  }
+
+  /**
+   * Named datasource whose pool the connection came from (null for the default).
+   */
+  String datasource() {
+    return datasource;
+  }
+
+  ResultSet resultSet() {
+    return resultSet;
+  }
+
+  Statement statement() {
+    return statement;
+  }
+
+  /**
+   * Connection the cursor lives on, inside a transaction where the dialect needs one.
+   */
+  Connection connection() {
+    return connection;
+  }
+
+  /**
+   * Page number the live cursor is positioned at.
+   */
+  int nextPage() {
+    return nextPage;
+  }
+
+  /**
+   * Rows handed out so far; pages cut short by the output budget make this
+   * differ from a multiple of the page size.
+   */
+  int rowsShown() {
+    return rowsShown;
+  }
+
+  /**
+   * Record that a page was served and the cursor now sits at {@code page},
+   * after {@code rowsShown} rows in total.
+   */
+  void advanceTo(int page, int rowsShown) {
+    this.nextPage = page;
+    this.rowsShown = rowsShown;
+    this.lastAccessNanos = System.nanoTime();
+  }
+
+  long idleNanos() {
+    return System.nanoTime() - lastAccessNanos;
+  }
+
+  /**
+   * Close the cursor and return the connection to the pool.
+   */
+  @Override
+  public void close() {
+    try {
+      resultSet.close();
+      statement.close();
+      if (restoreAutoCommit) {
+        // Read-only transaction: nothing to keep
+        connection.rollback();
+        connection.setAutoCommit(true);
+      }
+    } catch (SQLException e) {
+      LOG.warn("Error closing cursor session " + id, e);
+    } finally {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        LOG.warn("Error releasing connection for cursor session " + id, e);
+      }
+    }
+  }
+}
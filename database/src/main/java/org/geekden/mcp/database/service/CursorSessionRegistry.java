@@ -0,0 +1,291 @@
+package org.geekden.mcp.database.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.geekden.mcp.database.config.DatabaseConfig;
+import org.geekden.mcp.database.dialect.DatabaseDialect;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+import org.geekden.mcp.database.provider.ReadReplica;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Registry of open cursor sessions keyed by query handle.
+ * <p>
+ * Lets page N+1 of a query continue fetching from the ResultSet that served
+ * page N instead of re-executing it. Each session holds a pooled connection,
+ * taken over from the call that opened it where possible, so the number of open
+ * sessions on each datasource is capped below the size of that datasource's pool
+ * and idle sessions are closed after a timeout. When the cap is reached the least
+ * recently used idle session of the datasource is evicted; its next page falls back
+ * to re-execution.
+ */
+@ApplicationScoped
+public class CursorSessionRegistry {
+
+  private static final Logger LOG = Logger.getLogger(CursorSessionRegistry.class);
+
+  @ConfigProperty(name = "db.cursor.idle-timeout", defaultValue = "60s")
+  Duration idleTimeout;
+
+  @ConfigProperty(name = "db.query-timeout", defaultValue = "60s")
+  Duration queryTimeout;
+
+  @Inject
+  DatabaseConfig config;
+
+  @Inject
+  StatementCanceller canceller;
+
+  @Inject
+  DataSourceRegistry dataSources;
+
+  @Inject
+  Instance<Connection> connection;
+
+  @Inject
+  @ReadReplica
+  Instance<Connection> readConnection;
+
+  /** Sessions waiting for their next page; sessions in use are removed until released. */
+  private final Map<String, CursorSession> idle = new ConcurrentHashMap<>();
+  /** Sessions holding a connection, per datasource ("" for the default). */
+  private final Map<String, AtomicInteger> open = new ConcurrentHashMap<>();
+  private ScheduledExecutorService sweeper;
+
+  @PostConstruct
+  void init() {
+    int maxOpen = config.getMaxOpenCursors();
+    if (capacity(null) < maxOpen) {
+      LOG.warnf("db.cursor.max-open=%d exceeds pool size %d; limiting to %d open cursors",
+          maxOpen, config.getMaximumPoolSize(), capacity(null));
+    }
+    // Named pools all have the same size
+    Optional<String> named = dataSources.names().stream().findFirst();
+    if (named.isPresent() && capacity(named.get()) < maxOpen) {
+      LOG.warnf("db.cursor.max-open=%d exceeds db.datasources.max-pool-size=%d; "
+          + "limiting named datasources to %d open cursors each",
+          maxOpen, dataSources.maxPoolSize(), capacity(named.get()));
+    }
+
+    if (maxOpen > 0) {
+      sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cursor-session-sweeper");
+        thread.setDaemon(true);
+        return thread;
+      });
+      long period = Math.max(1, idleTimeout.toMillis() / 2);
+      sweeper.scheduleAtFixedRate(() -> evictIdle(idleTimeout), period, period, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Whether cursor sessions are enabled on the selected datasource (capacity above zero).
+   */
+  public boolean isEnabled() {
+    return capacity(DataSourceRegistry.current()) > 0;
+  }
+
+  /**
+   * Execute a query and keep its cursor open on a connection held by the session.
+   * <p>
+   * The session takes over the caller's leased connection where it can, so the call
+   * doesn't hold two; otherwise it checks out one of its own.
+   *
+   * @param lease           Connection of the call opening the session
+   * @param query           SQL query to execute (without pagination)
+   * @param params          Bind parameters for the query's placeholders
+   * @param fetchSize       Rows to fetch per round trip
+   * @param dialect         Dialect of the database
+   * @param cancelRequested Whether the client has cancelled the call
+   * @return Open session positioned before the first row, or empty if all cursor slots of the
+   *     selected datasource are in use
+   */
+  Optional<CursorSession> open(ConnectionLease lease, String query, List<Object> params, int fetchSize,
+                               DatabaseDialect dialect, BooleanSupplier cancelRequested) throws SQLException {
+    String datasource = DataSourceRegistry.current();
+    if (!reserveSlot(datasource)) {
+      return Optional.empty();
+    }
+
+    Connection conn = null;
+    try {
+      conn = lease.transfer()
+          .orElseGet(() -> SqlExecutionService.isReadOnly(query) ? readConnection.get() : connection.get());
+      boolean restoreAutoCommit = false;
+      if (dialect.requiresTransactionForFetchSize() && conn.getAutoCommit()) {
+        conn.setAutoCommit(false);
+        restoreAutoCommit = true;
+      }
+
+      PreparedStatement stmt =
+          conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      stmt.setFetchSize(fetchSize);
+      stmt.setQueryTimeout(SqlExecutionService.timeoutSeconds(queryTimeout));
+      QueryParameters.bind(stmt, params);
+      ResultSet rs;
+      StatementCanceller.Watch watch = canceller.watch(stmt, cancelRequested);
+      try {
+        rs = stmt.executeQuery();
+      } finally {
+        watch.close();
+      }
+
+      CursorSession session =
+          new CursorSession(UUID.randomUUID().toString(), datasource, conn, stmt, rs, restoreAutoCommit);
+      LOG.debugf("Opened cursor session %s", session.id());
+      return Optional.of(session);
+    } catch (SQLException | RuntimeException e) {
+      slots(datasource).decrementAndGet();
+      if (conn != null) {
+        try {
+          conn.close();
+        } catch (SQLException suppressed) {
+          e.addSuppressed(suppressed);
+        }
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Take an idle session to serve the given page.
+   *
+   * @param id   Session handle
+   * @param page Page the caller wants
+   * @return The session, or empty if it was evicted or is positioned at a different page
+   */
+  Optional<CursorSession> resume(String id, int page) {
+    CursorSession session = idle.remove(id);
+    if (session == null) {
+      return Optional.empty();
+    }
+    if (session.nextPage() != page) {
+      // Client went back to an earlier page; leave the cursor where it is
+      idle.put(id, session);
+      return Optional.empty();
+    }
+    return Optional.of(session);
+  }
+
+  /**
+   * Return a session that has more rows so a later call can resume it.
+   */
+  void park(CursorSession session) {
+    idle.put(session.id(), session);
+  }
+
+  /**
+   * Close a session that is exhausted or failed.
+   */
+  void close(CursorSession session) {
+    session.close();
+    slots(session.datasource()).decrementAndGet();
+    LOG.debugf("Closed cursor session %s", session.id());
+  }
+
+  /**
+   * Number of sessions currently holding a connection, on any datasource.
+   */
+  public int openCount() {
+    return open.values().stream().mapToInt(AtomicInteger::get).sum();
+  }
+
+  /**
+   * Most sessions a datasource may have open: one less than its pool size, so ordinary
+   * queries always get a connection, and no more than {@code db.cursor.max-open}.
+   *
+   * @param datasource Named datasource, or null for the default
+   */
+  private int capacity(String datasource) {
+    int poolSize = datasource == null ? config.getMaximumPoolSize() : dataSources.maxPoolSize();
+    return Math.max(0, Math.min(config.getMaxOpenCursors(), poolSize - 1));
+  }
+
+  private AtomicInteger slots(String datasource) {
+    return open.computeIfAbsent(datasource == null ? "" : datasource, key -> new AtomicInteger());
+  }
+
+  private boolean reserveSlot(String datasource) {
+    AtomicInteger slots = slots(datasource);
+    int capacity = capacity(datasource);
+    while (true) {
+      int current = slots.get();
+      if (current < capacity) {
+        if (slots.compareAndSet(current, current + 1)) {
+          return true;
+        }
+      } else if (!evictLeastRecentlyUsed(datasource)) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Close the datasource's longest idle session, freeing a connection of its pool.
+   */
+  private boolean evictLeastRecentlyUsed(String datasource) {
+    Optional<CursorSession> oldest = idle.values().stream()
+        .filter(session -> Objects.equals(session.datasource(), datasource))
+        .max(Comparator.comparingLong(CursorSession::idleNanos));
+    if (oldest.isEmpty() || !idle.remove(oldest.get().id(), oldest.get())) {
+      return oldest.isPresent(); // Lost a race: retry
+    }
+    LOG.debugf("Evicting cursor session %s to make room", oldest.get().id());
+    close(oldest.get());
+    return true;
+  }
+
+  /**
+   * Close sessions that have been idle for longer than the timeout.
+   */
+  void evictIdle(Duration timeout) {
+    long timeoutNanos = timeout.toNanos();
+    for (CursorSession session : idle.values()) {
+      if (session.idleNanos() > timeoutNanos && idle.remove(session.id(), session)) {
+        LOG.debugf("Cursor session %s idle for more than %s", session.id(), timeout);
+        close(session);
+      }
+    }
+  }
+
+  /**
+   * Close every idle session.
+   */
+  void closeAll() {
+    for (CursorSession session : idle.values()) {
+      if (idle.remove(session.id(), session)) {
+        close(session);
+      }
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (sweeper != null) {
+      sweeper.shutdownNow();
+    }
+    closeAll();
+  }
+}
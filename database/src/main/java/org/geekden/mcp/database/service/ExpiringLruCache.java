@@ -0,0 +1,134 @@
+package org.geekden.mcp.database.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Size-bounded LRU cache whose entries expire after a fixed time-to-live.
+ * <p>
+ * Each entry has a weight (e.g. its length in characters). When the total weight
+ * exceeds the bound, least recently used entries are evicted. Entries heavier than
+ * the whole bound are not cached. All operations are synchronized; the cache is
+ * meant for small, infrequently contended data such as formatted results.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class ExpiringLruCache<K, V> {
+
+  /**
+   * Point-in-time cache counters.
+   */
+  public record Stats(long hits, long misses, long evictions, int entries, long weight) {
+
+    /**
+     * Fraction of lookups served from the cache (0 when there were none).
+     */
+    public double hitRatio() {
+      long lookups = hits + misses;
+      return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+  }
+
+  private record Entry<V>(V value, int weight, long expiresAtNanos) {
+  }
+
+  private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final long maxWeight;
+  private final long ttlNanos;
+  private final ToIntFunction<V> weigher;
+  private final LongSupplier nanoClock;
+
+  private long weight;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  ExpiringLruCache(long maxWeight, Duration ttl, ToIntFunction<V> weigher) {
+    this(maxWeight, ttl, weigher, System::nanoTime);
+  }
+
+  ExpiringLruCache(long maxWeight, Duration ttl, ToIntFunction<V> weigher, LongSupplier nanoClock) {
+    this.maxWeight = maxWeight;
+    this.ttlNanos = ttl.toNanos();
+    this.weigher = weigher;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Look up a live entry, counting a hit or miss.
+   */
+  synchronized Optional<V> get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry != null && entry.expiresAtNanos() - nanoClock.getAsLong() <= 0) {
+      remove(key);
+      entry = null;
+    }
+    if (entry == null) {
+      misses++;
+      return Optional.empty();
+    }
+    hits++;
+    return Optional.of(entry.value());
+  }
+
+  /**
+   * Store a value, evicting least recently used entries to stay within the bound.
+   */
+  synchronized void put(K key, V value) {
+    int entryWeight = weigher.applyAsInt(value);
+    if (entryWeight > maxWeight) {
+      return;
+    }
+
+    remove(key);
+    entries.put(key, new Entry<>(value, entryWeight, nanoClock.getAsLong() + ttlNanos));
+    weight += entryWeight;
+
+    Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+    while (weight > maxWeight && eldest.hasNext()) {
+      weight -= eldest.next().getValue().weight();
+      eldest.remove();
+      evictions++;
+    }
+  }
+
+  /**
+   * Drop every entry.
+   */
+  synchronized void invalidateAll() {
+    entries.clear();
+    weight = 0;
+  }
+
+  /**
+   * Drop every entry whose key matches.
+   */
+  synchronized void invalidateIf(Predicate<K> predicate) {
+    Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<K, Entry<V>> entry = it.next();
+      if (predicate.test(entry.getKey())) {
+        weight -= entry.getValue().weight();
+        it.remove();
+      }
+    }
+  }
+
+  public synchronized Stats stats() {
+    return new Stats(hits, misses, evictions, entries.size(), weight);
+  }
+
+  private void remove(K key) {
+    Entry<V> previous = entries.remove(key);
+    if (previous != null) {
+      weight -= previous.weight();
+    }
+  }
+}
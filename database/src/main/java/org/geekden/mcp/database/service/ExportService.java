@@ -0,0 +1,172 @@
+package org.geekden.mcp.database.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.geekden.mcp.database.dialect.DatabaseDialect;
+import org.geekden.mcp.database.formatter.ArrowBatchWriter;
+import org.geekden.mcp.database.formatter.DelimitedWriter;
+import org.geekden.mcp.database.metrics.ServerMetrics;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.OptionalLong;
+
+/**
+ * Exports a whole query result as CSV, TSV or an Arrow IPC stream.
+ * <p>
+ * Features:
+ * - Bulk copy for CSV/TSV where the dialect has one (PostgreSQL COPY ... TO STDOUT)
+ * - Otherwise a forward-only read with a large fetch size inside a read transaction
+ * - Arrow output in record batches of {@code db.export.batch-rows} rows
+ * - CSV/TSV rows go straight to the sink; Arrow holds one batch at a time
+ * - No query timeout, since an export is expected to read everything
+ */
+@ApplicationScoped
+public class ExportService {
+
+  private static final Logger LOG = Logger.getLogger(ExportService.class);
+
+  @Inject
+  Instance<DatabaseDialect> dialect;
+
+  @Inject
+  ServerMetrics metrics;
+
+  @ConfigProperty(name = "db.export.fetch-size", defaultValue = "10000")
+  int fetchSize;
+
+  @ConfigProperty(name = "db.export.batch-rows", defaultValue = "65536")
+  int batchRows;
+
+  /**
+   * Outcome of an export.
+   *
+   * @param rows     Rows written, not counting the header
+   * @param elapsed  Time from starting the query to writing the last row
+   * @param bulkCopy Whether the database's bulk copy was used
+   */
+  public record Summary(long rows, Duration elapsed, boolean bulkCopy) {
+
+    public double rowsPerSecond() {
+      long nanos = Math.max(1, elapsed.toNanos());
+      return rows * 1_000_000_000.0 / nanos;
+    }
+
+    /**
+     * e.g. "Exported 120000 rows in 1.84 s (65217 rows/sec, COPY)".
+     */
+    public String describe() {
+      return String.format(Locale.ROOT, "Exported %d %s in %.2f s (%.0f rows/sec%s)",
+          rows, rows == 1 ? "row" : "rows", elapsed.toNanos() / 1e9, rowsPerSecond(), bulkCopy ? ", COPY" : "");
+    }
+  }
+
+  /**
+   * Export every row of a SELECT to a sink.
+   * <p>
+   * Bulk copy can't bind parameters, so queries with parameters always read through JDBC.
+   *
+   * @param connection Database connection
+   * @param query      SELECT query
+   * @param params     Values for ? placeholders, in order
+   * @param format     CSV or TSV
+   * @param sink       Destination; buffered by the caller, not flushed or closed here
+   * @return Rows written and how long it took
+   */
+  public Summary export(Connection connection, String query, List<Object> params,
+                        DelimitedWriter.Format format, Writer sink) throws SQLException, IOException {
+    validate(query);
+    if (params == null) {
+      params = List.of();
+    }
+    String sql = SqlScriptSplitter.stripSemicolon(query);
+    long start = System.nanoTime();
+
+    DatabaseDialect databaseDialect = dialect.get();
+    if (params.isEmpty()) {
+      OptionalLong copied = databaseDialect.bulkCopier().copyOut(connection, sql, format.delimiter(), sink);
+      if (copied.isPresent()) {
+        return finish(copied.getAsLong(), start, true);
+      }
+    }
+
+    ReadTransaction transaction = ReadTransaction.begin(connection, databaseDialect);
+    try (Statement stmt = createStatement(connection, sql, params);
+         ResultSet rs = executeQuery(stmt, sql, params)) {
+      return finish(new DelimitedWriter(sink, format).write(rs), start, false);
+    } finally {
+      transaction.close();
+    }
+  }
+
+  /**
+   * Export every row of a SELECT as an Arrow IPC stream.
+   *
+   * @param connection Database connection
+   * @param query      SELECT query
+   * @param params     Values for ? placeholders, in order
+   * @param sink       Destination; not closed here
+   * @return Rows written and how long it took
+   */
+  public Summary exportArrow(Connection connection, String query, List<Object> params, WritableByteChannel sink)
+      throws SQLException, IOException {
+    validate(query);
+    if (params == null) {
+      params = List.of();
+    }
+    String sql = SqlScriptSplitter.stripSemicolon(query);
+    long start = System.nanoTime();
+
+    ReadTransaction transaction = ReadTransaction.begin(connection, dialect.get());
+    try (Statement stmt = createStatement(connection, sql, params);
+         ResultSet rs = executeQuery(stmt, sql, params)) {
+      return finish(new ArrowBatchWriter(sink, batchRows).write(rs), start, false);
+    } finally {
+      transaction.close();
+    }
+  }
+
+  private static void validate(String query) {
+    if (query == null || query.trim().isEmpty()) {
+      throw new IllegalArgumentException("Query cannot be empty");
+    }
+    if (!SqlExecutionService.isReadOnly(query)) {
+      throw new IllegalArgumentException("Only read-only SELECT queries can be exported");
+    }
+  }
+
+  private static ResultSet executeQuery(Statement stmt, String sql, List<Object> params) throws SQLException {
+    if (stmt instanceof PreparedStatement prepared) {
+      QueryParameters.bind(prepared, params);
+      return prepared.executeQuery();
+    }
+    return stmt.executeQuery(sql);
+  }
+
+  private Summary finish(long rows, long start, boolean bulkCopy) {
+    metrics.recordRows(rows);
+    Summary summary = new Summary(rows, Duration.ofNanos(System.nanoTime() - start), bulkCopy);
+    LOG.debug(summary.describe());
+    return summary;
+  }
+
+  private Statement createStatement(Connection connection, String sql, List<Object> params) throws SQLException {
+    Statement stmt = params.isEmpty()
+        ? connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)
+        : connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    stmt.setFetchSize(fetchSize);
+    return stmt;
+  }
+}
@@ -1,34 +1,135 @@
 package org.geekden.mcp.database.service;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.geekden.mcp.database.dialect.DatabaseDialect;
-import org.geekden.mcp.database.dialect.DialectFactory;
 import org.geekden.mcp.database.formatter.TableFormatter;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+import org.jboss.logging.Logger;
 
 import java.sql.DatabaseMetaData;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.TreeSet;
+import java.util.Objects;
+import java.util.Optional;
 
 /**
- * Service for database schema introspection using JDBC DatabaseMetaData.
+ * Service for database schema introspection through the dialect's Introspector
+ * (JDBC DatabaseMetaData, or catalog queries where the dialect has them).
  *
  * Provides methods to:
  * - List all schemas
  * - List tables/views in a schema
  * - Get detailed table structure (columns, types, constraints)
+ * - Describe every table in a schema in one call, in pages that fit a character budget
+ * - Show a table's indexes, estimated rows, size and last analyze time
+ * <p>
+ * Results are cached per datasource, schema and table, since each one costs several
+ * catalog queries and agents ask for the same tables again and again. The cache is
+ * bounded by {@code db.introspection.cache.max-chars} and entries expire after
+ * {@code db.introspection.cache.ttl}. DDL run through this server drops the
+ * datasource's entries; changes made elsewhere are seen once they expire or after
+ * {@link #invalidate()}. Setting max-chars to 0 disables caching.
  */
 @ApplicationScoped
 public class IntrospectionService {
 
+  private static final Logger LOG = Logger.getLogger(IntrospectionService.class);
+
+  /** Table name that asks for every table in the schema. */
+  public static final String ALL_TABLES = "*";
+
   @Inject
-  DialectFactory dialectFactory;
+  Instance<DatabaseDialect> dialect;
+
+  @ConfigProperty(name = "db.introspection.cache.max-chars", defaultValue = "500000")
+  long cacheMaxChars;
+
+  @ConfigProperty(name = "db.introspection.cache.ttl", defaultValue = "5m")
+  Duration cacheTtl;
+
+  private ExpiringLruCache<Key, String> formatted;
+  private ExpiringLruCache<Key, List<TableBlock>> schemaTables;
+  private ExpiringLruCache<Key, List<String>> primaryKeyColumns;
+
+  /**
+   * Cache key; schema and table are null where the lookup doesn't use them.
+   */
+  private record Key(String datasource, String kind, String schema, String table) {
+  }
+
+  /**
+   * One table's part of {@link #describeSchema}: its type and name line and its columns.
+   */
+  private record TableBlock(String name, String text) {
+  }
+
+  /**
+   * Loads metadata on a cache miss.
+   */
+  @FunctionalInterface
+  private interface Loader<V> {
+    V load() throws SQLException;
+  }
+
+  @PostConstruct
+  void init() {
+    formatted = new ExpiringLruCache<>(cacheMaxChars, cacheTtl, String::length);
+    schemaTables = new ExpiringLruCache<>(cacheMaxChars, cacheTtl,
+        blocks -> blocks.stream().mapToInt(block -> block.text().length()).sum());
+    // Weigh key lists by their characters too, plus a little per entry
+    primaryKeyColumns = new ExpiringLruCache<>(cacheMaxChars, cacheTtl,
+        columns -> 16 + columns.stream().mapToInt(String::length).sum());
+  }
+
+  /**
+   * Whether caching is enabled.
+   */
+  public boolean isCacheEnabled() {
+    return cacheMaxChars > 0;
+  }
+
+  /**
+   * Drop every cached entry for the datasource selected on this thread, after DDL
+   * or when the caller asks for fresh metadata.
+   */
+  public void invalidate() {
+    String datasource = DataSourceRegistry.current();
+    formatted.invalidateIf(key -> Objects.equals(key.datasource(), datasource));
+    schemaTables.invalidateIf(key -> Objects.equals(key.datasource(), datasource));
+    primaryKeyColumns.invalidateIf(key -> Objects.equals(key.datasource(), datasource));
+    LOG.debugf("Metadata cache cleared for datasource %s", datasource == null ? "(default)" : datasource);
+  }
+
+  /**
+   * Current hit/miss counters of the formatted-result cache.
+   */
+  public ExpiringLruCache.Stats cacheStats() {
+    return formatted.stats();
+  }
+
+  private <V> V cached(ExpiringLruCache<Key, V> cache, String kind, String schema, String table, Loader<V> loader)
+      throws SQLException {
+    if (!isCacheEnabled()) {
+      return loader.load();
+    }
+    Key key = new Key(DataSourceRegistry.current(), kind, schema, table);
+    Optional<V> hit = cache.get(key);
+    if (hit.isPresent()) {
+      return hit.get();
+    }
+    V value = loader.load();
+    cache.put(key, value);
+    return value;
+  }
 
   /**
    * List all schemas in the database.
@@ -37,8 +138,11 @@ public class IntrospectionService {
    * @return Formatted table of schemas
    */
   public String listSchemas(DatabaseMetaData metaData) throws SQLException {
-    DatabaseDialect dialect = dialectFactory.getDialect(metaData);
-    List<String> schemas = dialect.introspector().schemas(metaData);
+    return cached(formatted, "schemas", null, null, () -> loadSchemas(metaData));
+  }
+
+  private String loadSchemas(DatabaseMetaData metaData) throws SQLException {
+    List<String> schemas = dialect.get().introspector().schemas(metaData);
 
     if (schemas.isEmpty()) {
       return "No schemas found.";
@@ -60,24 +164,19 @@ public class IntrospectionService {
    * @return Formatted table of tables/views
    */
   public String listTables(DatabaseMetaData metaData, String schema) throws SQLException {
-    List<String> headers = List.of("Table Name", "Type");
-    List<List<String>> rows = new ArrayList<>();
+    return cached(formatted, "tables", schema, null, () -> loadTables(metaData, schema));
+  }
 
-    // Get both tables and views
-    String[] types = {"TABLE", "VIEW"};
-    try (ResultSet rs = metaData.getTables(null, schema, "%", types)) {
-      while (rs.next()) {
-        String tableName = rs.getString("TABLE_NAME");
-        String tableType = rs.getString("TABLE_TYPE");
-        rows.add(TableFormatter.row(tableName, tableType));
-      }
-    }
+  private String loadTables(DatabaseMetaData metaData, String schema) throws SQLException {
+    List<List<String>> rows = dialect.get().introspector().tables(metaData, schema).stream()
+        .map(t -> TableFormatter.row(t.name(), t.type()))
+        .toList();
 
     if (rows.isEmpty()) {
       return "No tables found in schema: " + schema;
     }
 
-    return TableFormatter.format(headers, rows);
+    return TableFormatter.format(List.of("Table Name", "Type"), rows);
   }
 
   /**
@@ -89,104 +188,192 @@ public class IntrospectionService {
    * @return Formatted table of column details
    */
   public String describeTable(DatabaseMetaData metaData, String schema, String table) throws SQLException {
-    // First check if the table exists
-    boolean tableExists = false;
-    try (ResultSet rs = metaData.getTables(null, schema, table, new String[]{"TABLE", "VIEW"})) {
-      if (rs.next()) {
-        tableExists = true;
-      }
-    }
+    return cached(formatted, "table", schema, table, () -> loadTable(metaData, schema, table));
+  }
+
+  private String loadTable(DatabaseMetaData metaData, String schema, String table) throws SQLException {
+    List<DatabaseDialect.ColumnInfo> columns = dialect.get().introspector().columns(metaData, schema, table);
 
-    if (!tableExists) {
+    if (columns.isEmpty()) {
       // Return a friendly message instead of throwing an exception
       String tableName = (schema != null) ? schema + "." + table : table;
       return "Table not found: " + tableName;
     }
 
-    // Get primary keys
-    TreeSet<String> primaryKeys = getPrimaryKeys(metaData, schema, table);
-
-    // Get foreign keys
-    Map<String, String> foreignKeys = getForeignKeys(metaData, schema, table);
+    StringBuilder sb = new StringBuilder(formatColumns(columns));
+    try {
+      DatabaseDialect.Introspector introspector = dialect.get().introspector();
+      appendIndexes(sb, introspector.indexes(metaData, schema, table));
+      appendStats(sb, introspector.stats(metaData, schema, table));
+    } catch (SQLException | RuntimeException e) {
+      // Indexes and statistics are a nicety; the columns are still good without them
+      LOG.debugf("Index and statistics lookup failed for %s: %s", table, e.getMessage());
+    }
+    return sb.toString();
+  }
 
-    // Get columns with constraints
-    List<String> headers = List.of("Column Name", "Type", "Nullable", "Constraints");
-    List<List<String>> rows = new ArrayList<>();
+  private static void appendIndexes(StringBuilder sb, List<DatabaseDialect.IndexInfo> indexes) {
+    if (indexes.isEmpty()) {
+      sb.append("\n\nIndexes: none");
+      return;
+    }
+    List<List<String>> rows = indexes.stream()
+        .map(index -> TableFormatter.row(index.name(), String.join(", ", index.columns()),
+            index.unique() ? "UNIQUE" : ""))
+        .toList();
+    sb.append("\n\nIndexes:\n").append(TableFormatter.format(List.of("Index Name", "Columns", "Unique"), rows));
+  }
 
-    try (ResultSet rs = metaData.getColumns(null, schema, table, "%")) {
-      while (rs.next()) {
-        String columnName = rs.getString("COLUMN_NAME");
-        String columnType = rs.getString("TYPE_NAME");
-        int columnSize = rs.getInt("COLUMN_SIZE");
-        int nullable = rs.getInt("NULLABLE");
-
-        // Format type with size if applicable
-        String typeDisplay = columnType;
-        if (columnSize > 0 && !columnType.equalsIgnoreCase("TEXT")
-            && !columnType.equalsIgnoreCase("INTEGER")
-            && !columnType.equalsIgnoreCase("BIGINT")) {
-          typeDisplay = columnType + "(" + columnSize + ")";
-        }
-
-        // Nullable status
-        String nullableDisplay = (nullable == DatabaseMetaData.columnNoNulls) ? "NOT NULL" : "NULL";
-
-        // Constraints
-        List<String> constraints = new ArrayList<>();
-        if (primaryKeys.contains(columnName)) {
-          constraints.add("PRIMARY KEY");
-        }
-        if (foreignKeys.containsKey(columnName)) {
-          constraints.add("FOREIGN KEY -> " + foreignKeys.get(columnName));
-        }
-
-        String constraintsDisplay = constraints.isEmpty() ? "" : String.join(", ", constraints);
-
-        rows.add(TableFormatter.row(columnName, typeDisplay, nullableDisplay, constraintsDisplay));
-      }
+  /**
+   * e.g. "Estimated rows: 120000, Size: 14.2 MiB, Last analyzed: 2026-10-01T09:30:00Z".
+   * Left out for views and wherever the database records none of it.
+   */
+  private static void appendStats(StringBuilder sb, DatabaseDialect.TableStats stats) {
+    if (stats.estimatedRows().isEmpty() && stats.sizeBytes().isEmpty() && stats.lastAnalyzed().isEmpty()) {
+      return;
     }
+    List<String> parts = new ArrayList<>();
+    parts.add(stats.estimatedRows().isPresent()
+        ? "Estimated rows: " + stats.estimatedRows().getAsLong()
+        : "Estimated rows: unknown (not analyzed)");
+    stats.sizeBytes().ifPresent(bytes -> parts.add("Size: " + formatBytes(bytes)));
+    stats.lastAnalyzed().ifPresent(time -> parts.add("Last analyzed: " + time.truncatedTo(ChronoUnit.SECONDS)));
+    sb.append("\n\n").append(String.join(", ", parts));
+  }
 
-    if (rows.isEmpty()) {
-      String tableName = (schema != null) ? schema + "." + table : table;
-      return "Table not found: " + tableName;
+  private static String formatBytes(long bytes) {
+    if (bytes < 1024) {
+      return bytes + " B";
+    }
+    String[] units = {"KiB", "MiB", "GiB", "TiB"};
+    double value = bytes;
+    int unit = -1;
+    while (value >= 1024 && unit < units.length - 1) {
+      value /= 1024;
+      unit++;
     }
+    return String.format(Locale.ROOT, "%.1f %s", value, units[unit]);
+  }
 
-    return TableFormatter.format(headers, rows);
+  /**
+   * Describe the columns of every table and view in a schema at once, fetching the
+   * metadata with as few queries as the dialect allows rather than one describeTable
+   * per table. Indexes and statistics are left to describeTable.
+   *
+   * @param metaData Database metadata
+   * @param schema   Schema name
+   * @return Each table's name and type followed by its column details
+   */
+  public String describeSchema(DatabaseMetaData metaData, String schema) throws SQLException {
+    return describeSchema(metaData, schema, null, 0);
   }
 
   /**
-   * Get primary keys for a table.
+   * Describe the tables of a schema that fit a character budget, starting after a given table.
+   * Whole tables are shown, at least one per call; if any are left, a footer names the
+   * table to continue after.
+   *
+   * @param metaData Database metadata
+   * @param schema   Schema name
+   * @param after    Table the previous call stopped at (null to start from the first)
+   * @param maxChars Character budget for the table details (0 for none)
+   * @return Each table's name and type followed by its column details, then the footer
+   * @throws IllegalArgumentException if {@code after} is not a table in the schema
    */
-  private TreeSet<String> getPrimaryKeys(DatabaseMetaData metaData, String schema, String table) throws SQLException {
-    TreeSet<String> primaryKeys = new TreeSet<>();
+  public String describeSchema(DatabaseMetaData metaData, String schema, String after, int maxChars)
+      throws SQLException {
+    List<TableBlock> tables = cached(schemaTables, "schema", schema, null, () -> loadSchema(metaData, schema));
+
+    if (tables.isEmpty()) {
+      return "No tables found in schema: " + schema;
+    }
 
-    try (ResultSet rs = metaData.getPrimaryKeys(null, schema, table)) {
-      while (rs.next()) {
-        String columnName = rs.getString("COLUMN_NAME");
-        primaryKeys.add(columnName);
+    int start = 0;
+    if (after != null) {
+      while (start < tables.size() && !tables.get(start).name().equals(after)) {
+        start++;
+      }
+      if (start == tables.size()) {
+        throw new IllegalArgumentException("No table '" + after + "' in schema " + schema
+            + "; it may have been dropped since the previous page");
+      }
+      start++;
+      if (start == tables.size()) {
+        return "No tables after " + after + " in schema: " + schema;
       }
     }
 
-    return primaryKeys;
+    StringBuilder sb = new StringBuilder();
+    int end = start;
+    while (end < tables.size()) {
+      String text = tables.get(end).text();
+      int separator = end > start ? 2 : 0;
+      if (maxChars > 0 && end > start && sb.length() + separator + text.length() > maxChars) {
+        break;
+      }
+      if (end > start) {
+        sb.append("\n\n");
+      }
+      sb.append(text);
+      end++;
+    }
+
+    if (start > 0 || end < tables.size()) {
+      sb.append("\n\nShowing tables ").append(start + 1).append('-').append(end)
+          .append(" of ").append(tables.size());
+      if (end < tables.size()) {
+        sb.append(" (more available; stopped to fit the output limit)\nContinue with after=\"")
+            .append(tables.get(end - 1).name()).append('"');
+      }
+    }
+    return sb.toString();
   }
 
-  /**
-   * Get foreign keys for a table.
-   * Returns a map of column name -> referenced table.column
-   */
-  private Map<String, String> getForeignKeys(DatabaseMetaData metaData, String schema, String table) throws SQLException {
-    Map<String, String> foreignKeys = new LinkedHashMap<>();
+  private List<TableBlock> loadSchema(DatabaseMetaData metaData, String schema) throws SQLException {
+    Map<DatabaseDialect.TableInfo, List<DatabaseDialect.ColumnInfo>> described =
+        dialect.get().introspector().describeAll(metaData, schema);
 
-    try (ResultSet rs = metaData.getImportedKeys(null, schema, table)) {
-      while (rs.next()) {
-        String columnName = rs.getString("FKCOLUMN_NAME");
-        String referencedTable = rs.getString("PKTABLE_NAME");
-        String referencedColumn = rs.getString("PKCOLUMN_NAME");
+    List<TableBlock> tables = new ArrayList<>(described.size());
+    for (Map.Entry<DatabaseDialect.TableInfo, List<DatabaseDialect.ColumnInfo>> entry : described.entrySet()) {
+      DatabaseDialect.TableInfo table = entry.getKey();
+      tables.add(new TableBlock(table.name(),
+          table.type() + ": " + table.name() + "\n" + formatColumns(entry.getValue())));
+    }
+    return List.copyOf(tables);
+  }
 
-        foreignKeys.put(columnName, referencedTable + "." + referencedColumn);
+  private static String formatColumns(List<DatabaseDialect.ColumnInfo> columns) {
+    List<String> headers = List.of("Column Name", "Type", "Nullable", "Constraints");
+    List<List<String>> rows = new ArrayList<>();
+    for (DatabaseDialect.ColumnInfo column : columns) {
+      List<String> constraints = new ArrayList<>();
+      if (column.primaryKey()) {
+        constraints.add("PRIMARY KEY");
+      }
+      if (column.references() != null) {
+        constraints.add("FOREIGN KEY -> " + column.references());
       }
+      rows.add(TableFormatter.row(column.name(), column.type(), column.nullable() ? "NULL" : "NOT NULL",
+          String.join(", ", constraints)));
     }
 
-    return foreignKeys;
+    return TableFormatter.format(headers, rows);
+  }
+
+  /**
+   * Get primary key columns for a table in key sequence order.
+   *
+   * @param metaData Database metadata
+   * @param schema   Schema name (null to search all schemas)
+   * @param table    Table name
+   * @return Primary key column names, empty if the table has no primary key
+   */
+  public List<String> getPrimaryKeyColumns(DatabaseMetaData metaData, String schema, String table) throws SQLException {
+    return cached(primaryKeyColumns, "primaryKey", schema, table, () -> loadPrimaryKeyColumns(metaData, schema, table));
+  }
+
+  private List<String> loadPrimaryKeyColumns(DatabaseMetaData metaData, String schema, String table)
+      throws SQLException {
+    return List.copyOf(dialect.get().introspector().primaryKey(metaData, schema, table));
   }
 }
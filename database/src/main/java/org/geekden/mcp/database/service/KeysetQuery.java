@@ -0,0 +1,239 @@
+package org.geekden.mcp.database.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A SELECT simple enough to be paged by seeking on its table's primary key.
+ * <p>
+ * Only single-table queries of the form
+ * {@code SELECT <columns> FROM <table> [WHERE <condition>] [ORDER BY <primary key>]}
+ * qualify. Joins, grouping, aggregates, set operations, subqueries and comments
+ * fall back to LIMIT/OFFSET pagination.
+ * <p>
+ * Instead of skipping {@code (page-1) * PAGE_SIZE} rows, the next page is selected
+ * with {@code WHERE (pk) > (?)}, bound to the last seen key, so deep pages cost the same
+ * as the first.
+ */
+class KeysetQuery {
+
+  private static final Pattern SHAPE = Pattern.compile(
+      "^SELECT\\s+(.+?)\\s+FROM\\s+([\\w\"]+(?:\\.[\\w\"]+)?)"
+          + "(?:\\s+WHERE\\s+(.+?))?(?:\\s+ORDER\\s+BY\\s+(.+?))?$",
+      Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  private static final Pattern UNSUPPORTED = Pattern.compile(
+      "\\b(JOIN|GROUP\\s+BY|HAVING|UNION|INTERSECT|EXCEPT|DISTINCT|LIMIT|OFFSET|FETCH|WINDOW|OVER"
+          + "|FOR\\s+UPDATE|COUNT|SUM|AVG|MIN|MAX)\\b|\\bSELECT\\b.*\\bSELECT\\b|--|/\\*",
+      Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  private final String selectList;
+  private final String table;
+  private final String where;
+  private final String orderBy;
+
+  private KeysetQuery(String selectList, String table, String where, String orderBy) {
+    this.selectList = selectList;
+    this.table = table;
+    this.where = where;
+    this.orderBy = orderBy;
+  }
+
+  /**
+   * Parse a query into its keyset-pageable parts.
+   *
+   * @param query SQL query (trailing semicolon allowed)
+   * @return Parsed query, or empty if the query shape is not supported
+   */
+  static Optional<KeysetQuery> parse(String query) {
+    if (query == null) {
+      return Optional.empty();
+    }
+
+    String trimmed = query.trim();
+    if (trimmed.endsWith(";")) {
+      trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+    }
+
+    // Match keywords against a copy with string literals blanked out, then cut
+    // the original text at the same offsets
+    String masked = maskLiterals(trimmed);
+    if (masked == null || UNSUPPORTED.matcher(masked).find()) {
+      return Optional.empty();
+    }
+
+    Matcher matcher = SHAPE.matcher(masked);
+    if (!matcher.matches()) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new KeysetQuery(
+        group(trimmed, matcher, 1),
+        group(trimmed, matcher, 2),
+        group(trimmed, matcher, 3),
+        group(trimmed, matcher, 4)));
+  }
+
+  /**
+   * Schema qualifier of the table, or null if unqualified.
+   */
+  String schema() {
+    int dot = table.indexOf('.');
+    return dot < 0 ? null : unquote(table.substring(0, dot));
+  }
+
+  /**
+   * Unqualified table name.
+   */
+  String tableName() {
+    int dot = table.indexOf('.');
+    return unquote(dot < 0 ? table : table.substring(dot + 1));
+  }
+
+  /**
+   * Check whether the query can be paged on the given key columns: every key must
+   * be selected, and any existing ORDER BY must already be the key in ascending order.
+   *
+   * @param keyColumns Primary key columns in key sequence order
+   * @return true if keyset pagination preserves the query's semantics
+   */
+  boolean supports(List<String> keyColumns) {
+    if (keyColumns.isEmpty()) {
+      return false;
+    }
+
+    List<String> selected = new ArrayList<>();
+    for (String item : selectList.split(",")) {
+      selected.add(simpleName(item.trim()));
+    }
+    if (!selected.contains("*")) {
+      for (String key : keyColumns) {
+        if (selected.stream().noneMatch(key::equalsIgnoreCase)) {
+          return false;
+        }
+      }
+    }
+
+    if (orderBy == null) {
+      return true;
+    }
+
+    String[] orderItems = orderBy.split(",");
+    if (orderItems.length != keyColumns.size()) {
+      return false;
+    }
+    for (int i = 0; i < orderItems.length; i++) {
+      String item = orderItems[i].trim().replaceFirst("(?i)\\s+ASC$", "");
+      if (!simpleName(item).equalsIgnoreCase(keyColumns.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Build the query for the page following a key.
+   * <p>
+   * The key values are not part of the SQL: the seek condition has one {@code ?} per
+   * key column, to be bound after any placeholders of the original query.
+   *
+   * @param keyColumns Primary key columns in key sequence order
+   * @param seek       Whether to filter to rows after a key (false for the first page)
+   * @param quote      Identifier quote string for the database
+   * @return Query ordered by the key, and filtered to rows after the bound key if seeking
+   */
+  String toSql(List<String> keyColumns, boolean seek, String quote) {
+    List<String> keys = keyColumns.stream()
+        .map(key -> quote + key.replace(quote, quote + quote) + quote)
+        .toList();
+
+    StringBuilder sql = new StringBuilder("SELECT ").append(selectList).append(" FROM ").append(table);
+
+    List<String> conditions = new ArrayList<>();
+    if (where != null) {
+      conditions.add("(" + where + ")");
+    }
+    if (seek) {
+      if (keys.size() == 1) {
+        conditions.add(keys.get(0) + " > ?");
+      } else {
+        conditions.add("(" + String.join(", ", keys) + ") > ("
+            + String.join(", ", Collections.nCopies(keys.size(), "?")) + ")");
+      }
+    }
+    if (!conditions.isEmpty()) {
+      sql.append(" WHERE ").append(String.join(" AND ", conditions));
+    }
+
+    sql.append(" ORDER BY ").append(String.join(", ", keys));
+    return sql.toString();
+  }
+
+  /**
+   * Key values from a cursor, as they are bound to the seek placeholders. Whole numbers
+   * are bound as {@link Long} where they fit, so PostgreSQL compares them with an integer
+   * key through its index instead of casting the key to numeric.
+   *
+   * @param after Key values of the last row of the previous page
+   * @return Values in key order
+   */
+  static List<Object> seekValues(List<Object> after) {
+    List<Object> values = new ArrayList<>(after.size());
+    for (Object value : after) {
+      if (value instanceof BigDecimal number) {
+        try {
+          values.add(number.longValueExact());
+          continue;
+        } catch (ArithmeticException e) {
+          // Fractional or out of range: bind as is
+        }
+      }
+      values.add(value);
+    }
+    return values;
+  }
+
+  private static String group(String source, Matcher matcher, int group) {
+    return matcher.start(group) < 0 ? null : source.substring(matcher.start(group), matcher.end(group)).trim();
+  }
+
+  /**
+   * Strip a table qualifier and identifier quotes: {@code t."Id"} becomes {@code Id}.
+   */
+  private static String simpleName(String item) {
+    int dot = item.lastIndexOf('.');
+    return unquote(dot < 0 ? item : item.substring(dot + 1));
+  }
+
+  private static String unquote(String identifier) {
+    if (identifier.length() > 1 && identifier.startsWith("\"") && identifier.endsWith("\"")) {
+      return identifier.substring(1, identifier.length() - 1);
+    }
+    return identifier;
+  }
+
+  /**
+   * Replace the contents of string literals with placeholders of equal length.
+   *
+   * @return Masked query, or null if a literal is unterminated
+   */
+  private static String maskLiterals(String query) {
+    StringBuilder masked = new StringBuilder(query.length());
+    boolean inLiteral = false;
+    for (int i = 0; i < query.length(); i++) {
+      char c = query.charAt(i);
+      if (c == '\'') {
+        inLiteral = !inLiteral;
+        masked.append(c);
+      } else {
+        masked.append(inLiteral ? '_' : c);
+      }
+    }
+    return inLiteral ? null : masked.toString();
+  }
+}
@@ -0,0 +1,188 @@
+package org.geekden.mcp.database.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.geekden.mcp.database.formatter.OutputLimits;
+import org.geekden.mcp.database.formatter.ResultFormat;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of formatted result pages for repeated SELECTs.
+ * <p>
+ * Agents often re-read the same page while reasoning about it. Pages are keyed by
+ * datasource, normalized SQL, bind parameters, page number, page size, cursor,
+ * output limits and result format, bounded by their total size in characters and
+ * expire after a TTL. Any statement that is not a read-only query invalidates the whole
+ * cache, since we can't tell which tables it touched.
+ * Setting {@code db.cache.max-chars} to 0 disables caching.
+ */
+@ApplicationScoped
+public class PageCache {
+
+  private static final Logger LOG = Logger.getLogger(PageCache.class);
+
+  /** SELECT ... INTO creates a table rather than reading one. */
+  private static final Pattern SELECT_INTO = Pattern.compile("\\bINTO\\b", Pattern.CASE_INSENSITIVE);
+
+  /** Statements a WITH query may run besides its SELECTs (PostgreSQL allows them inside CTEs). */
+  private static final Pattern WRITE = Pattern.compile("\\b(INSERT|UPDATE|DELETE|MERGE)\\b", Pattern.CASE_INSENSITIVE);
+
+  /** Locking reads and functions whose result differs on every call. */
+  private static final Pattern VOLATILE = Pattern.compile(
+      "\\bFOR\\s+(UPDATE|SHARE|NO\\s+KEY\\s+UPDATE|KEY\\s+SHARE)\\b"
+          + "|\\b(nextval|setval|currval|lastval|random|gen_random_uuid|uuid_generate_v4|clock_timestamp"
+          + "|pg_sleep|txid_current|changes|total_changes|last_insert_rowid)\\s*\\(",
+      Pattern.CASE_INSENSITIVE);
+
+  @ConfigProperty(name = "db.cache.max-chars", defaultValue = "1000000")
+  long maxChars;
+
+  @ConfigProperty(name = "db.cache.ttl", defaultValue = "30s")
+  Duration ttl;
+
+  private ExpiringLruCache<Key, String> cache;
+
+  private record Key(String datasource, String sql, List<Object> params, int page, int pageSize, String cursor,
+                     OutputLimits limits, ResultFormat format) {
+  }
+
+  @PostConstruct
+  void init() {
+    cache = new ExpiringLruCache<>(maxChars, ttl, String::length);
+  }
+
+  /**
+   * Whether caching is enabled.
+   */
+  public boolean isEnabled() {
+    return maxChars > 0;
+  }
+
+  /**
+   * Look up a cached page.
+   *
+   * @param query    SQL query as given by the client
+   * @param params   Bind parameters
+   * @param page     Page number (ignored when a cursor is given)
+   * @param pageSize Rows per page
+   * @param cursor   Continuation cursor, or null
+   * @param limits   Output limits the page was formatted with
+   * @param format   Result format the page was rendered in
+   * @return Formatted page, or empty on a miss
+   */
+  Optional<String> get(String query, List<Object> params, int page, int pageSize, String cursor,
+                       OutputLimits limits, ResultFormat format) {
+    Optional<String> cached = cache.get(key(query, params, page, pageSize, cursor, limits, format));
+    if (cached.isPresent()) {
+      LOG.debugf("Page cache hit for page %d", page);
+    }
+    return cached;
+  }
+
+  /**
+   * Store a formatted page.
+   */
+  void put(String query, List<Object> params, int page, int pageSize, String cursor, OutputLimits limits,
+           ResultFormat format, String result) {
+    cache.put(key(query, params, page, pageSize, cursor, limits, format), result);
+  }
+
+  /**
+   * Drop every cached page (after DML or DDL).
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Current hit/miss counters.
+   */
+  public ExpiringLruCache.Stats stats() {
+    return cache.stats();
+  }
+
+  @PreDestroy
+  void logStats() {
+    ExpiringLruCache.Stats stats = cache.stats();
+    if (stats.hits() + stats.misses() > 0) {
+      LOG.infof("Page cache: %d hits, %d misses (%.0f%%), %d evictions",
+          stats.hits(), stats.misses(), stats.hitRatio() * 100, stats.evictions());
+    }
+  }
+
+  /**
+   * Check whether a statement only reads data, so it needn't invalidate the cache:
+   * a SELECT, or a WITH query none of whose statements write.
+   */
+  static boolean isSelect(String query) {
+    String normalized = normalize(query);
+    if (startsWithWord(normalized, "WITH")) {
+      // Keywords inside literals also count, which errs on the side of writing
+      return !WRITE.matcher(normalized).find() && !SELECT_INTO.matcher(normalized).find();
+    }
+    return startsWithWord(normalized, "SELECT") && !SELECT_INTO.matcher(normalized).find();
+  }
+
+  private static boolean startsWithWord(String sql, String word) {
+    return sql.regionMatches(true, 0, word, 0, word.length())
+        && (sql.length() == word.length() || Character.isWhitespace(sql.charAt(word.length())));
+  }
+
+  /**
+   * Check whether a statement's result can be served from the cache.
+   */
+  static boolean isCacheable(String query) {
+    return isSelect(query) && !VOLATILE.matcher(query).find();
+  }
+
+  /**
+   * Collapse whitespace outside quoted literals and identifiers, and drop a trailing semicolon.
+   */
+  static String normalize(String query) {
+    StringBuilder result = new StringBuilder(query.length());
+    char quote = 0;
+    boolean pendingSpace = false;
+
+    for (int i = 0; i < query.length(); i++) {
+      char c = query.charAt(i);
+      if (quote == 0 && Character.isWhitespace(c)) {
+        pendingSpace = result.length() > 0;
+        continue;
+      }
+      if (pendingSpace) {
+        result.append(' ');
+        pendingSpace = false;
+      }
+      if (quote == 0 && (c == '\'' || c == '"')) {
+        quote = c;
+      } else if (c == quote) {
+        quote = 0; // A doubled quote closes and reopens, which is equivalent
+      }
+      result.append(c);
+    }
+
+    int end = result.length();
+    if (end > 0 && result.charAt(end - 1) == ';' && quote == 0) {
+      result.setLength(end - 1);
+      while (result.length() > 0 && result.charAt(result.length() - 1) == ' ') {
+        result.setLength(result.length() - 1);
+      }
+    }
+    return result.toString();
+  }
+
+  private static Key key(String query, List<Object> params, int page, int pageSize, String cursor,
+                         OutputLimits limits, ResultFormat format) {
+    // A cursor determines its own page
+    return new Key(DataSourceRegistry.current(), normalize(query), params, cursor == null ? page : 0, pageSize, cursor,
+        limits, format);
+  }
+}
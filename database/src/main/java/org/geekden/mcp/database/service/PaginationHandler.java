@@ -1,10 +1,10 @@
 package org.geekden.mcp.database.service;
 
 import org.geekden.mcp.database.dialect.DatabaseDialect;
-import org.geekden.mcp.database.dialect.DialectFactory;
 
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.util.List;
 
 /**
  * Handles pagination logic for SQL queries.
@@ -12,17 +12,18 @@ import java.sql.SQLException;
  * Features:
  * - Detects if a query is pageable (SELECT statements)
  * - Injects LIMIT/OFFSET clauses for pagination
+ * - Seeks past the last seen primary key for keyset-pageable queries
  * - Supports database-specific syntax via dialect abstraction
  * - Fetches PAGE_SIZE + 1 rows to detect if more data is available
  */
 public class PaginationHandler {
 
   private final int pageSize;
-  private final DialectFactory dialectFactory;
+  private final DatabaseDialect dialect;
 
-  public PaginationHandler(int pageSize, DialectFactory dialectFactory) {
+  public PaginationHandler(int pageSize, DatabaseDialect dialect) {
     this.pageSize = pageSize;
-    this.dialectFactory = dialectFactory;
+    this.dialect = dialect;
   }
 
   /**
@@ -50,21 +51,27 @@ public class PaginationHandler {
    * Fetches PAGE_SIZE + 1 rows to detect if more data is available.
    * Formula: LIMIT (PAGE_SIZE + 1) OFFSET (page-1)*PAGE_SIZE
    *
-   * @param query    SQL query
-   * @param page     Page number (1-based)
-   * @param metaData Database metadata for dialect detection
+   * @param query SQL query
+   * @param page  Page number (1-based)
    * @return Query with pagination added
    */
-  public String addPagination(String query, int page, DatabaseMetaData metaData) throws SQLException {
+  public String addPagination(String query, int page) {
     if (page < 1) {
       throw new IllegalArgumentException("Page number must be >= 1");
     }
 
-    DatabaseDialect dialect = dialectFactory.getDialect(metaData);
-
-    // Calculate offset
-    int offset = (page - 1) * pageSize;
+    return addPaginationAtOffset(query, (page - 1) * pageSize);
+  }
 
+  /**
+   * Add pagination starting at an arbitrary row, for pages that don't start at a
+   * multiple of the page size (e.g. after a page cut short by the output budget).
+   *
+   * @param query  SQL query
+   * @param offset Rows to skip
+   * @return Query with pagination added
+   */
+  public String addPaginationAtOffset(String query, int offset) {
     // Fetch one extra row to detect if more data is available
     int limit = pageSize + 1;
 
@@ -77,6 +84,53 @@ public class PaginationHandler {
     return dialect.paginator().paginate(trimmedQuery, offset, limit);
   }
 
+  /**
+   * Add keyset pagination to a query using database-specific dialect.
+   * <p>
+   * Orders by the primary key and, after the first page, filters to rows whose key
+   * is greater than the last one displayed, so no rows are skipped with OFFSET.
+   * The last key is bound to placeholders after the query's own parameters.
+   *
+   * @param keyset     Parsed keyset-pageable query
+   * @param keyColumns Primary key columns in key sequence order
+   * @param seek       Whether to seek past a key (false for the first page)
+   * @param metaData   Database metadata for the identifier quote string
+   * @return Query with keyset pagination added
+   * @see KeysetQuery#toSql
+   */
+  String addKeysetPagination(KeysetQuery keyset, List<String> keyColumns, boolean seek,
+                             DatabaseMetaData metaData) throws SQLException {
+    String seekQuery = keyset.toSql(keyColumns, seek, identifierQuote(metaData));
+    return dialect.paginator().paginate(seekQuery, 0, pageSize + 1);
+  }
+
+  /**
+   * Add OFFSET pagination to a keyset-pageable query, ordered by its primary key.
+   * <p>
+   * Used for explicit page numbers, so page N holds the same rows that seeking
+   * from page 1 would reach; without the key order OFFSET pages of an unordered
+   * query may skip or repeat rows.
+   *
+   * @param keyset     Parsed keyset-pageable query
+   * @param keyColumns Primary key columns in key sequence order
+   * @param offset     Rows to skip
+   * @param metaData   Database metadata for the identifier quote string
+   * @return Query ordered by the key with pagination added
+   */
+  String addOrderedPaginationAtOffset(KeysetQuery keyset, List<String> keyColumns, int offset,
+                                      DatabaseMetaData metaData) throws SQLException {
+    String orderedQuery = keyset.toSql(keyColumns, false, identifierQuote(metaData));
+    return dialect.paginator().paginate(orderedQuery, offset, pageSize + 1);
+  }
+
+  private static String identifierQuote(DatabaseMetaData metaData) throws SQLException {
+    String quote = metaData.getIdentifierQuoteString();
+    if (quote == null || quote.isBlank()) {
+      return "\"";
+    }
+    return quote.trim();
+  }
+
   /**
    * Get the configured page size.
    *
@@ -0,0 +1,200 @@
+package org.geekden.mcp.database.service;
+
+import org.geekden.mcp.database.dialect.DatabaseDialect;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+/**
+ * Renders a query plan as a condensed tree, one line per step, followed by the
+ * steps that cost the most and the sequential scans of large tables.
+ */
+final class PlanFormatter {
+
+  /** Steps listed under "Costliest steps". */
+  private static final int COSTLIEST = 3;
+
+  /** Conditions longer than this are cut, so one predicate can't swamp the tree. */
+  private static final int MAX_DETAIL_CHARS = 120;
+
+  /** Actual rows this many times off the estimate usually mean stale statistics. */
+  private static final long MISESTIMATE_FACTOR = 10;
+
+  private PlanFormatter() {
+  }
+
+  /**
+   * Tables read in full anywhere in the plan, in plan order.
+   */
+  static Set<String> scannedTables(DatabaseDialect.PlanNode node) {
+    Set<String> tables = new LinkedHashSet<>();
+    collectScans(node, tables);
+    return tables;
+  }
+
+  /**
+   * @param plan           Parsed EXPLAIN result
+   * @param tableRows      Estimated rows of the tables in {@link #scannedTables}, where known
+   * @param largeTableRows Rows from which a scanned table counts as large
+   */
+  static String format(DatabaseDialect.QueryPlan plan, Map<String, Long> tableRows, long largeTableRows) {
+    StringBuilder out = new StringBuilder();
+    out.append(plan.analyzed()
+        ? "Query plan with actual rows and times (the query ran in a transaction that was rolled back):\n"
+        : "Estimated query plan (the query was not run):\n");
+    appendStep(out, plan.root(), "", "", plan.analyzed(), tableRows, largeTableRows);
+
+    appendCostliest(out, plan);
+
+    out.append("\nSequential scans on large tables:");
+    List<String> scans = new ArrayList<>();
+    for (String table : scannedTables(plan.root())) {
+      Long rows = tableRows.get(table);
+      if (rows == null) {
+        scans.add(table + ": size unknown (no statistics; run ANALYZE)");
+      } else if (rows >= largeTableRows) {
+        scans.add(table + ": ~" + count(rows) + " rows");
+      }
+    }
+    if (scans.isEmpty()) {
+      out.append(" none\n");
+    } else {
+      out.append('\n');
+      scans.forEach(scan -> out.append("  - ").append(scan).append('\n'));
+    }
+
+    List<String> timings = new ArrayList<>();
+    plan.planningMillis().ifPresent(ms -> timings.add("planning " + millis(ms)));
+    plan.executionMillis().ifPresent(ms -> timings.add("execution " + millis(ms)));
+    if (!timings.isEmpty()) {
+      out.append("\nTime: ").append(String.join(", ", timings)).append('\n');
+    }
+    return out.toString().stripTrailing();
+  }
+
+  private static void appendStep(StringBuilder out, DatabaseDialect.PlanNode node, String prefix, String indent,
+                                 boolean analyzed, Map<String, Long> tableRows, long largeTableRows) {
+    out.append(prefix).append(node.operation());
+
+    List<String> metrics = new ArrayList<>();
+    node.cost().ifPresent(cost -> metrics.add(String.format(Locale.ROOT, "cost=%.2f", cost)));
+    node.estimatedRows().ifPresent(rows -> metrics.add("rows=" + count(rows)));
+    if (analyzed && node.loops() == 0) {
+      metrics.add("never executed");
+    }
+    node.actualRows().ifPresent(rows -> metrics.add("actual=" + count(rows)));
+    if (node.loops() > 1) {
+      metrics.add("loops=" + count(node.loops()));
+    }
+    node.actualMillis().ifPresent(ms -> metrics.add("time=" + millis(ms)));
+    if (node.estimatedRows().isPresent() && node.actualRows().isPresent()) {
+      long estimated = Math.max(1, node.estimatedRows().getAsLong());
+      long actual = Math.max(1, node.actualRows().getAsLong());
+      long factor = Math.max(estimated, actual) / Math.min(estimated, actual);
+      if (factor >= MISESTIMATE_FACTOR) {
+        metrics.add("estimate off " + count(factor) + "x");
+      }
+    }
+    if (!metrics.isEmpty()) {
+      out.append("  (").append(String.join(" ", metrics)).append(')');
+    }
+
+    if (node.detail() != null) {
+      String detail = node.detail();
+      out.append("  ").append(detail.length() > MAX_DETAIL_CHARS
+          ? detail.substring(0, MAX_DETAIL_CHARS - 1) + "…"
+          : detail);
+    }
+    if (node.fullScan() && node.relation() != null) {
+      Long rows = tableRows.get(node.relation());
+      if (rows != null && rows >= largeTableRows) {
+        out.append("  [large table: ~").append(count(rows)).append(" rows]");
+      }
+    }
+    out.append('\n');
+
+    List<DatabaseDialect.PlanNode> children = node.children();
+    for (int i = 0; i < children.size(); i++) {
+      boolean last = i == children.size() - 1;
+      appendStep(out, children.get(i), indent + (last ? "└─ " : "├─ "), indent + (last ? "   " : "│  "),
+          analyzed, tableRows, largeTableRows);
+    }
+  }
+
+  /**
+   * The steps with the most time of their own (time minus their inputs' time) where
+   * each step was measured, otherwise the most cost of their own. Nothing for plans
+   * with neither, such as SQLite's.
+   */
+  private static void appendCostliest(StringBuilder out, DatabaseDialect.QueryPlan plan) {
+    List<DatabaseDialect.PlanNode> steps = new ArrayList<>();
+    collect(plan.root(), steps);
+    boolean byTime = steps.stream().filter(step -> step.actualMillis().isPresent()).count() > 1;
+    boolean byCost = !byTime && plan.root().cost().isPresent();
+    if (steps.size() < 2 || !(byTime || byCost)) {
+      return;
+    }
+
+    List<Own> own = new ArrayList<>();
+    for (DatabaseDialect.PlanNode step : steps) {
+      OptionalDouble total = byTime ? step.actualMillis() : step.cost();
+      if (total.isEmpty()) {
+        continue;
+      }
+      double inputs = step.children().stream()
+          .map(child -> byTime ? child.actualMillis() : child.cost())
+          .mapToDouble(value -> value.orElse(0))
+          .sum();
+      own.add(new Own(step, Math.max(0, total.getAsDouble() - inputs)));
+    }
+    double sum = own.stream().mapToDouble(Own::value).sum();
+    if (sum <= 0) {
+      return;
+    }
+
+    out.append("\nCostliest steps (by own ").append(byTime ? "time" : "estimated cost").append("):\n");
+    List<Own> ranked = own.stream()
+        .filter(step -> step.value() > 0)
+        .sorted(Comparator.comparingDouble(Own::value).reversed())
+        .limit(COSTLIEST)
+        .toList();
+    for (int i = 0; i < ranked.size(); i++) {
+      Own step = ranked.get(i);
+      out.append("  ").append(i + 1).append(". ").append(step.node().operation()).append(": ")
+          .append(byTime ? millis(step.value()) : String.format(Locale.ROOT, "cost %.2f", step.value()))
+          .append(String.format(Locale.ROOT, " (%.0f%%)", 100 * step.value() / sum)).append('\n');
+    }
+  }
+
+  private static void collect(DatabaseDialect.PlanNode node, List<DatabaseDialect.PlanNode> steps) {
+    steps.add(node);
+    node.children().forEach(child -> collect(child, steps));
+  }
+
+  private static void collectScans(DatabaseDialect.PlanNode node, Set<String> tables) {
+    if (node.fullScan() && node.relation() != null) {
+      tables.add(node.relation());
+    }
+    node.children().forEach(child -> collectScans(child, tables));
+  }
+
+  private static String count(long value) {
+    return String.format(Locale.ROOT, "%,d", value);
+  }
+
+  private static String millis(double ms) {
+    return String.format(Locale.ROOT, "%.2f ms", ms);
+  }
+
+  /**
+   * A step with the time or cost it adds over its inputs.
+   */
+  private record Own(DatabaseDialect.PlanNode node, double value) {
+  }
+}
@@ -0,0 +1,122 @@
+package org.geekden.mcp.database.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGStatement;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bind parameters for {@code ?} placeholders.
+ * <p>
+ * Values are JSON scalars: integers become {@link Long} (or {@link BigDecimal} if
+ * too large), other numbers {@link Double}, plus {@link Boolean}, {@link String}
+ * and null. The driver infers SQL types from the Java types, except that strings on
+ * PostgreSQL are sent untyped, so the server reads them as whatever the placeholder is
+ * compared with ({@code created_at > ?}, {@code id = ?} on a uuid) rather than as varchar.
+ */
+public final class QueryParameters {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper()
+      .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+
+  private QueryParameters() {
+  }
+
+  /**
+   * Parse parameters given as a JSON array, e.g. {@code [42, "abc", null]}.
+   *
+   * @param json JSON array (null or blank for none)
+   * @return Parameter values in placeholder order
+   * @throws IllegalArgumentException if the text is not an array of scalars
+   */
+  public static List<Object> fromJsonArray(String json) {
+    if (json == null || json.isBlank()) {
+      return List.of();
+    }
+
+    JsonNode array;
+    try {
+      array = MAPPER.readTree(json);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Parameters must be a JSON array, e.g. [42, \"abc\"]", e);
+    }
+    if (array == null || !array.isArray()) {
+      throw new IllegalArgumentException("Parameters must be a JSON array, e.g. [42, \"abc\"]");
+    }
+
+    List<Object> values = new ArrayList<>(array.size());
+    for (JsonNode node : array) {
+      values.add(toValue(node));
+    }
+    return values;
+  }
+
+  /**
+   * Parse parameters given one per command-line option.
+   * <p>
+   * Each value is read as a JSON scalar if it is one ({@code 42}, {@code true},
+   * {@code null}, {@code "42"}), and as a plain string otherwise.
+   *
+   * @param args Raw values (null for none)
+   * @return Parameter values in placeholder order
+   */
+  public static List<Object> fromStrings(List<String> args) {
+    if (args == null) {
+      return List.of();
+    }
+
+    List<Object> values = new ArrayList<>(args.size());
+    for (String arg : args) {
+      JsonNode node = null;
+      try {
+        node = MAPPER.readTree(arg);
+      } catch (JsonProcessingException e) {
+        // Not JSON: bind the text as is
+      }
+      values.add(node == null || node.isContainerNode() || node.isMissingNode() ? arg : toValue(node));
+    }
+    return values;
+  }
+
+  /**
+   * Bind values to a prepared statement's placeholders in order.
+   */
+  public static void bind(PreparedStatement statement, List<Object> params) throws SQLException {
+    boolean untypedStrings = params.stream().anyMatch(String.class::isInstance)
+        && statement.isWrapperFor(PGStatement.class);
+    for (int i = 0; i < params.size(); i++) {
+      Object value = params.get(i);
+      if (value == null) {
+        statement.setNull(i + 1, Types.NULL);
+      } else if (untypedStrings && value instanceof String) {
+        // pgjdbc sends Types.OTHER strings with an unspecified type for the server to infer
+        statement.setObject(i + 1, value, Types.OTHER);
+      } else {
+        statement.setObject(i + 1, value);
+      }
+    }
+  }
+
+  private static Object toValue(JsonNode node) {
+    if (node.isNull()) {
+      return null;
+    } else if (node.isIntegralNumber()) {
+      return node.canConvertToLong() ? (Object) node.longValue() : new BigDecimal(node.bigIntegerValue());
+    } else if (node.isNumber()) {
+      return node.doubleValue();
+    } else if (node.isBoolean()) {
+      return node.booleanValue();
+    } else if (node.isTextual()) {
+      return node.textValue();
+    }
+    throw new IllegalArgumentException("Parameters must be numbers, strings, booleans or null");
+  }
+}
@@ -0,0 +1,103 @@
+package org.geekden.mcp.database.service;
+
+import org.geekden.mcp.database.formatter.OutputLimits;
+import org.geekden.mcp.database.formatter.ResultFormat;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A query for {@link SqlExecutionService#executeQuery}, with how to page and render its result.
+ * <p>
+ * Start from {@link #of} and set the options that differ from the defaults:
+ * <pre>{@code
+ * QueryRequest.of(sql, 1, 100).withParams(params).withLimits(limits).withFormat(ResultFormat.TSV)
+ * }</pre>
+ *
+ * @param query           SQL query to execute
+ * @param page            Page number (1-based, only applies to SELECT queries; ignored with a cursor)
+ * @param pageSize        Maximum number of rows per page
+ * @param cursor          Cursor from a previous page of the same query (null for none)
+ * @param params          Values for the query's placeholders, in order (empty for none)
+ * @param limits          Character budget, per-cell cap and time limit for the result
+ * @param cancelRequested Whether the client has cancelled the call
+ * @param format          How to render result rows
+ */
+public record QueryRequest(String query, int page, int pageSize, String cursor, List<Object> params,
+                           OutputLimits limits, BooleanSupplier cancelRequested, ResultFormat format) {
+
+  public QueryRequest {
+    if (query == null || query.trim().isEmpty()) {
+      throw new IllegalArgumentException("Query cannot be empty");
+    }
+    if (page < 1) {
+      throw new IllegalArgumentException("Page number must be >= 1");
+    }
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("Page size must be >= 1");
+    }
+    if (cursor != null && cursor.isBlank()) {
+      cursor = null;
+    }
+    if (params == null) {
+      params = List.of();
+    }
+    if (limits == null) {
+      limits = OutputLimits.NONE;
+    }
+    if (cancelRequested == null) {
+      cancelRequested = StatementCanceller.NEVER;
+    }
+    if (format == null) {
+      format = ResultFormat.TABLE;
+    }
+  }
+
+  /**
+   * A page of a query without parameters, rendered as an aligned table with no output limits.
+   *
+   * @param query    SQL query to execute
+   * @param page     Page number (1-based, only applies to SELECT queries)
+   * @param pageSize Maximum number of rows per page
+   */
+  public static QueryRequest of(String query, int page, int pageSize) {
+    return new QueryRequest(query, page, pageSize, null, null, null, null, null);
+  }
+
+  /**
+   * Continue from a cursor returned with a previous page (null or blank for none).
+   */
+  public QueryRequest withCursor(String cursor) {
+    return new QueryRequest(query, page, pageSize, cursor, params, limits, cancelRequested, format);
+  }
+
+  /**
+   * Bind values to the query's placeholders, in order.
+   *
+   * @see QueryParameters
+   */
+  public QueryRequest withParams(List<Object> params) {
+    return new QueryRequest(query, page, pageSize, cursor, params, limits, cancelRequested, format);
+  }
+
+  /**
+   * Bound the rendered page by a character budget, cell cap and time limit.
+   */
+  public QueryRequest withLimits(OutputLimits limits) {
+    return new QueryRequest(query, page, pageSize, cursor, params, limits, cancelRequested, format);
+  }
+
+  /**
+   * Cancel the running statement once the flag is set.
+   */
+  public QueryRequest withCancellation(BooleanSupplier cancelRequested) {
+    return new QueryRequest(query, page, pageSize, cursor, params, limits, cancelRequested, format);
+  }
+
+  /**
+   * Render result rows in another format.
+   */
+  public QueryRequest withFormat(ResultFormat format) {
+    return new QueryRequest(query, page, pageSize, cursor, params, limits, cancelRequested, format);
+  }
+}
@@ -0,0 +1,72 @@
+package org.geekden.mcp.database.service;
+
+import org.geekden.mcp.database.dialect.DatabaseDialect;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Read-only transaction opened so the driver honours the fetch size.
+ * <p>
+ * Drivers such as pgjdbc only fetch rows in batches inside a transaction; in
+ * auto-commit mode they read the whole result set into memory first. Where the
+ * dialect needs it, this switches an auto-commit connection into a read-only
+ * transaction and restores it on close. Elsewhere it does nothing.
+ */
+final class ReadTransaction implements AutoCloseable {
+
+  private static final Logger LOG = Logger.getLogger(ReadTransaction.class);
+
+  private final Connection connection;
+  private final boolean active;
+  private final boolean wasReadOnly;
+
+  private ReadTransaction(Connection connection, boolean active, boolean wasReadOnly) {
+    this.connection = connection;
+    this.active = active;
+    this.wasReadOnly = wasReadOnly;
+  }
+
+  /**
+   * Begin a read-only transaction if the dialect needs one for cursor fetches.
+   *
+   * @param connection Connection the query will run on
+   * @param dialect    Dialect of the database
+   * @return Transaction to close once the ResultSet has been read
+   */
+  static ReadTransaction begin(Connection connection, DatabaseDialect dialect) throws SQLException {
+    if (!dialect.requiresTransactionForFetchSize() || !connection.getAutoCommit()) {
+      return new ReadTransaction(connection, false, false);
+    }
+    // Read replica connections are read-only already and stay that way
+    boolean wasReadOnly = connection.isReadOnly();
+    connection.setAutoCommit(false);
+    if (!wasReadOnly) {
+      connection.setReadOnly(true);
+    }
+    return new ReadTransaction(connection, true, wasReadOnly);
+  }
+
+  /**
+   * End the transaction (nothing was written, so roll back) and restore auto-commit.
+   */
+  @Override
+  public void close() throws SQLException {
+    if (!active) {
+      return;
+    }
+    try {
+      connection.rollback();
+    } finally {
+      try {
+        if (!wasReadOnly) {
+          connection.setReadOnly(false);
+        }
+      } catch (SQLException e) {
+        LOG.warn("Error clearing read-only flag", e);
+      }
+      connection.setAutoCommit(true);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package org.geekden.mcp.database.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.geekden.mcp.database.dialect.DatabaseDialect;
+import org.geekden.mcp.database.formatter.ResultPage.RowTotal;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+import org.geekden.mcp.database.provider.ReadReplica;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Total row counts for the pagination footer.
+ * <p>
+ * Features:
+ * - Cheap estimates from the dialect (PostgreSQL planner, SQLite stat tables)
+ * - Optional exact COUNT(*) on a second pooled connection, started alongside the
+ *   first page and used once it finishes
+ * - Totals cached per query for later pages until the TTL expires or a statement writes
+ */
+@ApplicationScoped
+public class RowCounter {
+
+  private static final Logger LOG = Logger.getLogger(RowCounter.class);
+
+  @ConfigProperty(name = "db.row-count.estimate", defaultValue = "true")
+  boolean estimate;
+
+  @ConfigProperty(name = "db.row-count.exact", defaultValue = "false")
+  boolean exact;
+
+  @ConfigProperty(name = "db.row-count.ttl", defaultValue = "60s")
+  Duration ttl;
+
+  @ConfigProperty(name = "db.query-timeout", defaultValue = "60s")
+  Duration queryTimeout;
+
+  @Inject
+  Instance<DatabaseDialect> dialect;
+
+  @Inject
+  @ReadReplica
+  Instance<Connection> connection;
+
+  @Inject
+  DataSourceRegistry dataSources;
+
+  private ExpiringLruCache<Key, RowTotal> totals;
+  private ExecutorService counters;
+  /** Exact counts run one at a time, so they never take more than one extra connection. */
+  private final Semaphore countPermit = new Semaphore(1);
+  private final Map<Key, Boolean> counting = new ConcurrentHashMap<>();
+
+  private record Key(String datasource, String sql, List<Object> params) {
+  }
+
+  @PostConstruct
+  void init() {
+    totals = new ExpiringLruCache<>(256, ttl, total -> 1);
+    counters = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    counters.shutdownNow();
+  }
+
+  /**
+   * Start an exact count of a query's rows in the background, if enabled and not already known.
+   *
+   * @param query  Read-only SELECT
+   * @param params Bind parameters
+   */
+  void countInBackground(String query, List<Object> params) {
+    if (!exact || !SqlExecutionService.isReadOnly(query)) {
+      return;
+    }
+    Key key = key(query, params);
+    Optional<RowTotal> known = totals.get(key);
+    if (known.isPresent() && known.get().exact()) {
+      return;
+    }
+    if (counting.putIfAbsent(key, Boolean.TRUE) != null) {
+      return;
+    }
+    if (!countPermit.tryAcquire()) {
+      counting.remove(key);
+      return;
+    }
+
+    String datasource = DataSourceRegistry.current();
+    try {
+      counters.submit(() -> {
+        try {
+          DataSourceRegistry.Selection selection = dataSources.select(datasource);
+          try (Connection conn = connection.get()) {
+            totals.put(key, new RowTotal(count(conn, query, params), true));
+          } finally {
+            selection.close();
+          }
+        } catch (Exception e) {
+          LOG.debugf("Row count failed: %s", e.getMessage());
+        } finally {
+          counting.remove(key);
+          countPermit.release();
+        }
+      });
+    } catch (RuntimeException e) {
+      counting.remove(key);
+      countPermit.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Total rows of a query: an exact count if one has finished, otherwise an estimate.
+   *
+   * @param connection Connection the query ran on, used for the estimate (may be in a transaction)
+   * @param query      SQL query
+   * @param params     Bind parameters
+   * @return Total, or empty if none is available
+   */
+  Optional<RowTotal> total(Connection connection, String query, List<Object> params) {
+    Key key = key(query, params);
+    Optional<RowTotal> known = totals.get(key);
+    if (known.isPresent() || !estimate) {
+      return known;
+    }
+    try {
+      OptionalLong estimated = estimate(connection, SqlScriptSplitter.stripSemicolon(query), params);
+      if (estimated.isPresent()) {
+        RowTotal total = new RowTotal(estimated.getAsLong(), false);
+        totals.put(key, total);
+        return Optional.of(total);
+      }
+    } catch (SQLException | RuntimeException e) {
+      // An estimate is a nicety; the page is still good without it
+      LOG.debugf("Row estimate failed: %s", e.getMessage());
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Ask the dialect for an estimate. Inside a transaction, such as a cursor session's,
+   * a savepoint keeps a failed estimate from aborting the rest of it.
+   */
+  private OptionalLong estimate(Connection connection, String sql, List<Object> params) throws SQLException {
+    if (connection.getAutoCommit()) {
+      return dialect.get().rowEstimator().estimate(connection, sql, params);
+    }
+    Savepoint savepoint = connection.setSavepoint();
+    try {
+      OptionalLong estimated = dialect.get().rowEstimator().estimate(connection, sql, params);
+      connection.releaseSavepoint(savepoint);
+      return estimated;
+    } catch (SQLException | RuntimeException e) {
+      try {
+        connection.rollback(savepoint);
+      } catch (SQLException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Forget all totals (after DML or DDL).
+   */
+  void invalidateAll() {
+    totals.invalidateAll();
+  }
+
+  private long count(Connection conn, String query, List<Object> params) throws SQLException {
+    String sql = "SELECT COUNT(*) FROM (" + SqlScriptSplitter.stripSemicolon(query) + ") AS counted";
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setQueryTimeout(SqlExecutionService.timeoutSeconds(queryTimeout));
+      QueryParameters.bind(stmt, params);
+      try (ResultSet rs = stmt.executeQuery()) {
+        rs.next();
+        return rs.getLong(1);
+      }
+    }
+  }
+
+  private static Key key(String query, List<Object> params) {
+    return new Key(DataSourceRegistry.current(), PageCache.normalize(query), params);
+  }
+}
@@ -1,108 +1,841 @@
 package org.geekden.mcp.database.service;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
-import org.geekden.mcp.database.dialect.DialectFactory;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.geekden.mcp.database.dialect.DatabaseDialect;
+import org.geekden.mcp.database.formatter.CompactWriter;
+import org.geekden.mcp.database.formatter.OutputLimits;
+import org.geekden.mcp.database.formatter.ResultFormat;
+import org.geekden.mcp.database.formatter.ResultPage;
 import org.geekden.mcp.database.formatter.ResultSetFormatter;
+import org.geekden.mcp.database.formatter.StreamingTableWriter;
+import org.geekden.mcp.database.formatter.TableFormatter;
+import org.geekden.mcp.database.metrics.ServerMetrics;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+import org.jboss.logging.Logger;
 
-
+import java.io.IOException;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
 
 /**
  * Service for executing SQL queries with pagination support.
  *
  * Features:
  * - Supports all SQL types (SELECT, INSERT, UPDATE, DELETE, DDL)
- * - Automatic pagination for SELECT queries
+ * - Bind parameters for ? placeholders via PreparedStatement
+ * - Automatic pagination for SELECT queries, optionally bounded by an output budget
+ * - Keyset (seek) pagination with continuation cursors where a primary key allows
+ * - Cursor sessions that keep other SELECTs open between pages where the database allows
+ * - Cache of recently served pages, invalidated by any non-SELECT statement
+ * - DDL clears the schema metadata cache of the datasource it ran on
+ * - Unpaginated SELECTs fetched in batches, inside a read-only transaction where the driver needs one
+ * - Query timeout, and cancellation of running statements when the client gives up
+ * - Multi-statement scripts in one transaction, with consecutive DML sent as a JDBC batch
+ * - Query plans from the dialect's EXPLAIN, condensed to a tree with the costliest steps
  * - Auto-commit transaction mode
- * - Formatted results with aligned text tables
+ * - Formatted results with aligned text tables or compact TSV/Markdown/JSON Lines,
+ *   or streamed to a sink for large results
  */
 @ApplicationScoped
 public class SqlExecutionService {
 
+  private static final Logger LOG = Logger.getLogger(SqlExecutionService.class);
+
+  @Inject
+  Instance<DatabaseDialect> dialect;
+
+  @Inject
+  IntrospectionService introspectionService;
+
+  @Inject
+  CursorSessionRegistry cursorSessions;
+
   @Inject
-  DialectFactory dialectFactory;
+  PageCache pageCache;
+
+  @Inject
+  StatementCanceller canceller;
+
+  @Inject
+  ServerMetrics metrics;
+
+  @Inject
+  RowCounter rowCounter;
+
+  @ConfigProperty(name = "db.fetch-size", defaultValue = "1000")
+  int fetchSize;
+
+  @ConfigProperty(name = "db.query-timeout", defaultValue = "60s")
+  Duration queryTimeout;
+
+  @ConfigProperty(name = "db.explain.large-table-rows", defaultValue = "10000")
+  long largeTableRows;
 
   /**
    * Execute a SQL query with pagination support.
+   * <p>
+   * SELECTs on a single table with a primary key are paginated by keyset: each page
+   * ends with a cursor that seeks past the last key shown, so deep pages don't rescan
+   * skipped rows. Other SELECTs keep their ResultSet open in a cursor session (where
+   * the dialect supports it) and the cursor continues fetching from it. Explicit page
+   * numbers without a cursor use LIMIT/OFFSET.
+   * <p>
+   * Parameters are bound to {@code ?} placeholders through a PreparedStatement, so
+   * repeated query shapes reuse the driver's per-connection statement cache (and, on
+   * PostgreSQL, a server-side plan once the prepare threshold is reached).
+   * <p>
+   * A page holds at most {@code pageSize} rows, but ends earlier if the rendered
+   * result would exceed the character budget; the footer then reports how many rows
+   * were shown and the cursor continues from the next row. Long cells are truncated.
+   * Compact formats (TSV, Markdown, JSON Lines) write each row without padding, and
+   * the budget is measured in the chosen format.
+   * <p>
+   * Every statement runs under the configured query timeout. While it runs, the
+   * cancellation flag is polled and a set flag cancels the statement, so an
+   * abandoned call doesn't keep holding a pooled connection.
+   * <p>
+   * Pages of plain SELECTs are cached briefly; any other statement clears the cache.
+   * <p>
+   * A cursor session opened for the first page checks out a connection of its own,
+   * since the caller closes this one; use {@link #executeQuery(ConnectionLease, QueryRequest)}
+   * to let the session keep the caller's connection instead.
    *
    * @param connection Database connection
-   * @param query      SQL query to execute
-   * @param page       Page number (1-based, only applies to SELECT queries)
-   * @param pageSize   Number of rows per page
+   * @param request    Query, page and rendering options
    * @return Formatted query result
    */
-  public String executeQuery(Connection connection, String query, int page, int pageSize) throws SQLException {
-    if (query == null || query.trim().isEmpty()) {
-      throw new IllegalArgumentException("Query cannot be empty");
+  public String executeQuery(Connection connection, QueryRequest request) throws SQLException {
+    return executeQuery(ConnectionLease.of(connection), request);
+  }
+
+  /**
+   * Execute a SQL query on a leased connection, as {@link #executeQuery(Connection, QueryRequest)}.
+   * <p>
+   * The connection is only checked out if the call needs it: a page served from the
+   * page cache or from an open cursor session doesn't. A cursor session opened for
+   * the first page takes the connection over, so the call never holds two.
+   *
+   * @param lease   Connection for the call
+   * @param request Query, page and rendering options
+   * @return Formatted query result
+   */
+  public String executeQuery(ConnectionLease lease, QueryRequest request) throws SQLException {
+    String query = request.query();
+
+    if (!pageCache.isEnabled()) {
+      return execute(lease, request).text();
     }
 
-    if (page < 1) {
-      throw new IllegalArgumentException("Page number must be >= 1");
+    if (!PageCache.isSelect(query)) {
+      try {
+        return execute(lease, request).text();
+      } finally {
+        // Can't tell which tables were touched: drop everything
+        pageCache.invalidateAll();
+      }
     }
 
-    if (pageSize < 1) {
-      throw new IllegalArgumentException("Page size must be >= 1");
+    if (!PageCache.isCacheable(query)) {
+      return execute(lease, request).text();
     }
 
-    DatabaseMetaData metaData = connection.getMetaData();
-    PaginationHandler paginationHandler = new PaginationHandler(pageSize, dialectFactory);
+    Optional<String> cached = pageCache.get(query, request.params(), request.page(), request.pageSize(),
+        request.cursor(), request.limits(), request.format());
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    Rendered result = execute(lease, request);
+    if (result.cacheable()) {
+      pageCache.put(query, request.params(), request.page(), request.pageSize(), request.cursor(),
+          request.limits(), request.format(), result.text());
+    }
+    return result.text();
+  }
+
+  /**
+   * A formatted result, and whether it may be served again from the page cache.
+   * Pages cut short by the time limit depend on how busy the database was, not on
+   * the query, so they are not cached.
+   */
+  private record Rendered(String text, boolean cacheable) {
+
+    static Rendered of(String text) {
+      return new Rendered(text, true);
+    }
+  }
+
+  private Rendered execute(ConnectionLease lease, QueryRequest request) throws SQLException {
+    String query = request.query();
+    int page = request.page();
+    int pageSize = request.pageSize();
+    String cursor = request.cursor();
+    List<Object> params = request.params();
+    OutputLimits limits = request.limits();
+    BooleanSupplier cancelRequested = request.cancelRequested();
+    ResultFormat format = request.format();
+    PaginationHandler paginationHandler = new PaginationHandler(pageSize, dialect.get());
 
     // Determine if this is a SELECT query that can be paginated
     boolean isPageable = paginationHandler.isPageable(query);
 
-    String executedQuery = query;
+    ContinuationToken token = null;
+    if (cursor != null) {
+      if (!isPageable) {
+        throw new IllegalArgumentException("Cursor can only be used with paginated SELECT queries");
+      }
+      token = ContinuationToken.decode(cursor);
+      if (!token.matches(query, params)) {
+        throw new IllegalArgumentException("Cursor was issued for a different query");
+      }
+      String datasource = DataSourceRegistry.current();
+      if (!token.matchesDatasource(datasource)) {
+        throw new IllegalArgumentException("Cursor was issued for "
+            + (token.datasource() == null ? "the main database" : "datasource '" + token.datasource() + "'")
+            + ", not " + (datasource == null ? "the main database" : "datasource '" + datasource + "'"));
+      }
+      page = token.page();
+
+      if (token.isSession()) {
+        Optional<CursorSession> session = cursorSessions.resume(token.session(), page);
+        if (session.isPresent()) {
+          return fetchPage(session.get(), query, params, page, pageSize, limits, cancelRequested, format);
+        }
+        // Session expired or was evicted: re-execute from the same row
+        LOG.debugf("Cursor session %s not available, falling back to OFFSET %d", token.session(), token.offset());
+      }
+    }
+
+    Connection connection = lease.get();
+    DatabaseMetaData metaData = connection.getMetaData();
+
+    // Queries with a usable primary key are always ordered by it. Page 1 and keyset cursors
+    // seek on the key; explicit page numbers use OFFSET over the same order, so pages line up.
+    KeysetQuery keyset = null;
+    List<String> keyColumns = List.of();
+    if (isPageable && (token == null || token.isKeyset())) {
+      keyset = KeysetQuery.parse(query).orElse(null);
+      if (keyset != null) {
+        keyColumns = resolveKeyColumns(connection, metaData, keyset);
+        if (!keyset.supports(keyColumns)) {
+          keyset = null;
+        }
+      }
+      if (token != null && (keyset == null || token.keyValues().size() != keyColumns.size())) {
+        throw new IllegalArgumentException("Cursor no longer applies to this query; use page numbers instead");
+      }
+    }
+    boolean seek = keyset != null && (token != null || page == 1);
+
+    // An exact row count, if enabled, runs on another connection while this page is fetched
     if (isPageable) {
-      executedQuery = paginationHandler.addPagination(query, page, metaData);
+      rowCounter.countInBackground(query, params);
     }
 
+    // Other queries keep their cursor open so later pages don't re-execute them
+    if (isPageable && keyset == null && page == 1 && cursorSessions.isEnabled()
+        && dialect.get().supportsHeldCursors()) {
+      Optional<CursorSession> session = cursorSessions.open(lease, SqlScriptSplitter.stripSemicolon(query), params,
+          pageSize + 1, dialect.get(), cancelRequested);
+      if (session.isPresent()) {
+        return fetchPage(session.get(), query, params, page, pageSize, limits, cancelRequested, format);
+      }
+    }
+
+    // Pages cut short by the output budget continue from the row count in the cursor
+    int offset = token != null && !token.isKeyset() ? token.offset() : (page - 1) * pageSize;
+
+    String executedQuery = query;
+    List<Object> boundParams = params;
+    if (seek) {
+      executedQuery = paginationHandler.addKeysetPagination(keyset, keyColumns, token != null, metaData);
+      if (token != null) {
+        // The seek placeholders follow the query's own
+        boundParams = new ArrayList<>(params);
+        boundParams.addAll(KeysetQuery.seekValues(token.keyValues()));
+      }
+    } else if (keyset != null) {
+      executedQuery = paginationHandler.addOrderedPaginationAtOffset(keyset, keyColumns, offset, metaData);
+    } else if (isPageable) {
+      executedQuery = paginationHandler.addPaginationAtOffset(query, offset);
+    }
+
+    // Unpaginated SELECTs can be any size: fetch them in batches instead of all at once
+    int rowsPerFetch = isPageable ? pageSize + 1 : fetchSize;
+    boolean batchedRead = !isPageable && PageCache.isCacheable(query);
+
     // Execute the query
-    try (Statement stmt = connection.createStatement()) {
-      boolean isResultSet = stmt.execute(executedQuery);
+    ReadTransaction transaction = batchedRead ? ReadTransaction.begin(connection, dialect.get()) : null;
+    try (Statement stmt = createStatement(connection, executedQuery, boundParams, rowsPerFetch)) {
+      StatementCanceller.Watch watch = canceller.watch(stmt, cancelRequested);
+      try {
+        boolean isResultSet = executeStatement(stmt, executedQuery, boundParams);
+
+        if (isResultSet) {
+          // SELECT query - format results
+          try (ResultSet rs = stmt.getResultSet()) {
+            if (!isPageable) {
+              // Non-paginated SELECT (e.g., already has LIMIT clause)
+              return rendered(ResultSetFormatter.readPage(rs, 0, false, null, limits, format), null, format);
+            }
 
-      if (isResultSet) {
-        // SELECT query - format results
-        try (ResultSet rs = stmt.getResultSet()) {
-          if (isPageable) {
             // Get the number of rows to display (excluding the extra row for "more data" detection)
             int rowsToDisplay = paginationHandler.getPageSize();
-            return ResultSetFormatter.format(rs, page, rowsToDisplay);
-          } else {
-            // Non-paginated SELECT (e.g., already has LIMIT clause)
-            return ResultSetFormatter.format(rs);
+            int nextPage = page + 1;
+            // Key-ordered pages, sought or not, continue by seeking past their last key
+            if (keyset != null) {
+              ResultPage result = ResultSetFormatter.readPage(rs, rowsToDisplay, false,
+                  ContinuationToken.afterKey(keyColumns, query, params, nextPage), limits, format);
+              return rendered(withTotal(result, connection, query, params), page, format);
+            }
+
+            ResultPage result = ResultSetFormatter.readPage(rs, rowsToDisplay, false, null, limits, format);
+            int nextOffset = offset + result.rows().size();
+            if (result.hasMore() && nextOffset != page * pageSize) {
+              // Page numbers no longer line up with page-size multiples
+              result = result.withNextCursor(ContinuationToken.forOffset(query, params, nextPage, nextOffset));
+            }
+            return rendered(withTotal(result, connection, query, params), page, format);
           }
-        }
-      } else {
-        // INSERT/UPDATE/DELETE/DDL - return affected row count or success message
-        int updateCount = stmt.getUpdateCount();
-
-        // Check if this is a DDL statement (CREATE, DROP, ALTER, etc.)
-        // DDL statements return updateCount = 0, same as DML with 0 rows affected
-        // We distinguish them by checking the SQL statement type
-        if (isDdlStatement(query)) {
-          return "Command executed successfully.";
         } else {
-          // DML operation (INSERT/UPDATE/DELETE)
-          return ResultSetFormatter.formatRowCount(updateCount);
+          // INSERT/UPDATE/DELETE/DDL - return affected row count or success message
+          rowCounter.invalidateAll();
+          invalidateMetadata(query);
+          return Rendered.of(formatUpdate(stmt, query));
         }
+      } finally {
+        watch.close();
+      }
+    } finally {
+      if (transaction != null) {
+        transaction.close();
       }
     }
   }
 
   /**
-   * Execute a SQL query with default page number (1).
+   * Execute a SQL query and stream its whole result to a sink, without pagination.
+   * <p>
+   * Rows are fetched in batches and written as they are read, so memory is bounded
+   * by the fetch size and the formatter's look-ahead sample rather than the result
+   * size. Non-SELECT statements write the same message {@link #executeQuery} would
+   * return.
    *
    * @param connection Database connection
    * @param query      SQL query to execute
-   * @param pageSize   Number of rows per page
-   * @return Formatted query result
+   * @param params     Values for the query's placeholders, in order (empty for none)
+   * @param sink       Destination for the formatted result
+   */
+  public void streamQuery(Connection connection, String query, List<Object> params, Appendable sink)
+      throws SQLException, IOException {
+    streamQuery(connection, query, params, sink, ResultFormat.TABLE);
+  }
+
+  /**
+   * Execute a SQL query and stream its whole result to a sink in the given format.
+   * <p>
+   * Compact formats write each row as it is read, without the table's look-ahead sample.
+   *
+   * @param connection Database connection
+   * @param query      SQL query to execute
+   * @param params     Values for the query's placeholders, in order (empty for none)
+   * @param sink       Destination for the formatted result
+   * @param format     How to render result rows (null for the aligned table)
+   */
+  public void streamQuery(Connection connection, String query, List<Object> params, Appendable sink,
+                          ResultFormat format) throws SQLException, IOException {
+    if (query == null || query.trim().isEmpty()) {
+      throw new IllegalArgumentException("Query cannot be empty");
+    }
+    if (params == null) {
+      params = List.of();
+    }
+
+    boolean batchedRead = PageCache.isCacheable(query);
+    ReadTransaction transaction = batchedRead ? ReadTransaction.begin(connection, dialect.get()) : null;
+    try (Statement stmt = createStatement(connection, query, params, fetchSize)) {
+      if (executeStatement(stmt, query, params)) {
+        try (ResultSet rs = stmt.getResultSet()) {
+          long rows = format == null || format == ResultFormat.TABLE
+              ? new StreamingTableWriter(sink).write(rs)
+              : new CompactWriter(sink, format).write(rs);
+          metrics.recordRows(rows);
+          if (rows > 0) {
+            sink.append('\n').append(ResultSetFormatter.formatRowTotal(rows));
+          }
+        }
+      } else {
+        rowCounter.invalidateAll();
+        invalidateMetadata(query);
+        sink.append(formatUpdate(stmt, query));
+      }
+    } finally {
+      if (transaction != null) {
+        transaction.close();
+      }
+      if (pageCache.isEnabled() && !PageCache.isSelect(query)) {
+        pageCache.invalidateAll();
+      }
+    }
+  }
+
+  /**
+   * Execute a multi-statement script in a single transaction.
+   * <p>
+   * The script is split at top-level semicolons. Runs of consecutive INSERT, UPDATE
+   * and DELETE statements are sent together as one JDBC batch; other statements run
+   * on their own, and SELECTs show their first page. Everything commits at the end,
+   * or rolls back if any statement fails.
+   *
+   * @param connection      Database connection
+   * @param script          Statements separated by semicolons
+   * @param pageSize        Rows to show for each SELECT in the script
+   * @param cancelRequested Whether the client has cancelled the call
+   * @return One line per statement with its outcome, followed by a summary
+   * @throws SQLException naming the failed statement, after the script was rolled back
+   */
+  public String executeScript(Connection connection, String script, int pageSize, BooleanSupplier cancelRequested)
+      throws SQLException {
+    List<String> statements = SqlScriptSplitter.split(script);
+    if (statements.isEmpty()) {
+      throw new IllegalArgumentException("Script contains no statements");
+    }
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("Page size must be >= 1");
+    }
+    if (cancelRequested == null) {
+      cancelRequested = StatementCanceller.NEVER;
+    }
+
+    StringBuilder report = new StringBuilder();
+    boolean restoreAutoCommit = connection.getAutoCommit();
+    if (restoreAutoCommit) {
+      connection.setAutoCommit(false);
+    }
+    try {
+      int index = 0;
+      while (index < statements.size()) {
+        int end = index + 1;
+        while (end < statements.size() && isBatchable(statements.get(index)) && isBatchable(statements.get(end))) {
+          end++;
+        }
+        List<String> group = statements.subList(index, end);
+        if (group.size() > 1) {
+          executeBatch(connection, group, index, cancelRequested, report);
+        } else {
+          executeScriptStatement(connection, group.get(0), index, pageSize, cancelRequested, report);
+        }
+        index = end;
+      }
+      connection.commit();
+    } catch (SQLException | RuntimeException e) {
+      try {
+        connection.rollback();
+      } catch (SQLException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    } finally {
+      if (restoreAutoCommit) {
+        connection.setAutoCommit(true);
+      }
+      pageCache.invalidateAll();
+      rowCounter.invalidateAll();
+      // Even a rolled-back script may have changed the schema where DDL isn't transactional
+      statements.forEach(this::invalidateMetadata);
+    }
+
+    report.append("Executed ").append(statements.size())
+        .append(statements.size() == 1 ? " statement" : " statements").append(" in one transaction.");
+    return report.toString();
+  }
+
+  /**
+   * Explain how the database runs a query, without showing its rows.
+   * <p>
+   * Runs the dialect's EXPLAIN and renders the plan as a condensed tree with estimated
+   * rows and costs, the steps that cost the most, and full scans of tables with at
+   * least {@code db.explain.large-table-rows} rows (from the planner statistics).
+   * <p>
+   * With analyze the query really runs, inside a transaction that is then rolled back,
+   * so writes leave no trace but take their locks and time. PostgreSQL reports actual
+   * rows and time for every step; elsewhere the query is run and measured as a whole.
+   *
+   * @param connection      Database connection
+   * @param query           Statement to explain
+   * @param params          Values for the query's placeholders, in order (empty for none)
+   * @param analyze         Whether to run the query for actual rows and times
+   * @param cancelRequested Whether the client has cancelled the call
+   * @return Condensed plan
+   * @throws java.sql.SQLFeatureNotSupportedException if the database has no EXPLAIN the server can read
+   */
+  public String explainQuery(Connection connection, String query, List<Object> params, boolean analyze,
+                             BooleanSupplier cancelRequested) throws SQLException {
+    if (query == null || query.trim().isEmpty()) {
+      throw new IllegalArgumentException("Query cannot be empty");
+    }
+    if (params == null) {
+      params = List.of();
+    }
+    if (cancelRequested == null) {
+      cancelRequested = StatementCanceller.NEVER;
+    }
+
+    DatabaseDialect databaseDialect = dialect.get();
+    DatabaseDialect.Explainer explainer = databaseDialect.explainer();
+    String sql = SqlScriptSplitter.stripSemicolon(query);
+    String explain = explainer.statement(sql, analyze).orElseThrow(() ->
+        new SQLFeatureNotSupportedException("EXPLAIN is not supported for " + databaseDialect.getName()));
+
+    DatabaseDialect.QueryPlan plan;
+    boolean restoreAutoCommit = analyze && connection.getAutoCommit();
+    if (restoreAutoCommit) {
+      connection.setAutoCommit(false);
+    }
+    try {
+      try (Statement stmt = createStatement(connection, explain, params, fetchSize)) {
+        StatementCanceller.Watch watch = canceller.watch(stmt, cancelRequested);
+        try {
+          if (!executeStatement(stmt, explain, params)) {
+            throw new SQLException("EXPLAIN returned no plan");
+          }
+          try (ResultSet rs = stmt.getResultSet()) {
+            plan = explainer.parse(rs, sql, analyze);
+          }
+        } finally {
+          watch.close();
+        }
+      }
+      if (analyze && !explainer.measuresSteps()) {
+        plan = measure(connection, sql, params, plan, cancelRequested);
+      }
+    } finally {
+      if (analyze) {
+        try {
+          connection.rollback();
+        } finally {
+          if (restoreAutoCommit) {
+            connection.setAutoCommit(true);
+          }
+        }
+      }
+    }
+
+    return PlanFormatter.format(plan, tableRows(connection, databaseDialect, plan), largeTableRows);
+  }
+
+  /**
+   * Run a query to the end and attach its row count and elapsed time to the plan's root.
+   */
+  private DatabaseDialect.QueryPlan measure(Connection connection, String sql, List<Object> params,
+                                            DatabaseDialect.QueryPlan plan, BooleanSupplier cancelRequested)
+      throws SQLException {
+    long start = System.nanoTime();
+    long rows = 0;
+    try (Statement stmt = createStatement(connection, sql, params, fetchSize)) {
+      StatementCanceller.Watch watch = canceller.watch(stmt, cancelRequested);
+      try {
+        if (executeStatement(stmt, sql, params)) {
+          try (ResultSet rs = stmt.getResultSet()) {
+            while (rs.next()) {
+              rows++;
+            }
+          }
+        } else {
+          rows = Math.max(0, stmt.getUpdateCount());
+        }
+      } finally {
+        watch.close();
+      }
+    }
+    return plan.measured(rows, (System.nanoTime() - start) / 1e6);
+  }
+
+  /**
+   * Estimated rows of each table the plan scans in full. Tables the introspector can't
+   * size (no statistics yet, or a CTE rather than a table) are left out.
+   */
+  private Map<String, Long> tableRows(Connection connection, DatabaseDialect databaseDialect,
+                                      DatabaseDialect.QueryPlan plan) {
+    Map<String, Long> rows = new HashMap<>();
+    for (String table : PlanFormatter.scannedTables(plan.root())) {
+      try {
+        databaseDialect.introspector().stats(connection.getMetaData(), null, table).estimatedRows()
+            .ifPresent(estimate -> rows.put(table, estimate));
+      } catch (SQLException | RuntimeException e) {
+        LOG.debugf("No statistics for %s: %s", table, e.getMessage());
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Run consecutive DML statements as one JDBC batch.
+   */
+  private void executeBatch(Connection connection, List<String> group, int firstIndex,
+                            BooleanSupplier cancelRequested, StringBuilder report) throws SQLException {
+    try (Statement stmt = createStatement(connection, null, List.of(), fetchSize)) {
+      StatementCanceller.Watch watch = canceller.watch(stmt, cancelRequested);
+      try {
+        for (String sql : group) {
+          stmt.addBatch(sql);
+        }
+        int[] counts;
+        try {
+          counts = stmt.executeBatch();
+        } catch (BatchUpdateException e) {
+          // Drivers either stop at the failure or mark it in the counts
+          int[] done = e.getUpdateCounts();
+          int failed = done.length;
+          for (int i = 0; i < done.length; i++) {
+            if (done[i] == Statement.EXECUTE_FAILED) {
+              failed = i;
+              break;
+            }
+          }
+          if (failed < group.size()) {
+            throw statementFailed(describe(firstIndex, group.get(failed)), e);
+          }
+          throw statementFailed("Batch of statements " + (firstIndex + 1) + "-" + (firstIndex + group.size()), e);
+        }
+        for (int i = 0; i < group.size(); i++) {
+          String outcome = counts[i] == Statement.SUCCESS_NO_INFO
+              ? "Executed." : ResultSetFormatter.formatRowCount(counts[i]);
+          appendOutcome(report, firstIndex + i, group.get(i), outcome);
+        }
+      } finally {
+        watch.close();
+      }
+    }
+  }
+
+  /**
+   * Run one statement of a script on its own.
    */
-  public String executeQuery(Connection connection, String query, int pageSize) throws SQLException {
-    return executeQuery(connection, query, 1, pageSize);
+  private void executeScriptStatement(Connection connection, String sql, int index, int pageSize,
+                                      BooleanSupplier cancelRequested, StringBuilder report) throws SQLException {
+    try (Statement stmt = createStatement(connection, sql, List.of(), pageSize + 1)) {
+      StatementCanceller.Watch watch = canceller.watch(stmt, cancelRequested);
+      try {
+        if (stmt.execute(sql)) {
+          try (ResultSet rs = stmt.getResultSet()) {
+            ResultPage page = ResultSetFormatter.readPage(rs, pageSize, false, null);
+            String table = render(page, null);
+            if (page.hasMore()) {
+              table += "\nShowing the first " + pageSize + " rows";
+            }
+            appendOutcome(report, index, sql, "\n" + table);
+          }
+        } else {
+          appendOutcome(report, index, sql, formatUpdate(stmt, sql));
+        }
+      } finally {
+        watch.close();
+      }
+    } catch (SQLException e) {
+      throw statementFailed(describe(index, sql), e);
+    }
+  }
+
+  /**
+   * Whether a script statement can join a JDBC batch (DML without a result set).
+   */
+  private static boolean isBatchable(String sql) {
+    String upper = sql.toUpperCase();
+    return (upper.startsWith("INSERT") || upper.startsWith("UPDATE") || upper.startsWith("DELETE"))
+        && !upper.contains("RETURNING");
+  }
+
+  private static void appendOutcome(StringBuilder report, int index, String sql, String outcome) {
+    report.append(index + 1).append(". ").append(summarize(sql)).append(" — ").append(outcome).append('\n');
+  }
+
+  private static String describe(int index, String sql) {
+    return "Statement " + (index + 1) + " (" + summarize(sql) + ")";
+  }
+
+  private static String summarize(String sql) {
+    return TableFormatter.truncate(sql.replaceAll("\\s+", " "), 60);
+  }
+
+  private static SQLException statementFailed(String statement, SQLException cause) {
+    return new SQLException(statement + " failed, script rolled back: " + cause.getMessage(),
+        cause.getSQLState(), cause);
+  }
+
+  /**
+   * Create a forward-only statement, prepared only when there is something to bind.
+   */
+  private Statement createStatement(Connection connection, String sql, List<Object> params, int fetchSize)
+      throws SQLException {
+    Statement stmt = params.isEmpty()
+        ? connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)
+        : connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    stmt.setFetchSize(fetchSize);
+    stmt.setQueryTimeout(timeoutSeconds(queryTimeout));
+    return stmt;
+  }
+
+  /**
+   * Convert a timeout to whole seconds for {@link Statement#setQueryTimeout}, rounding up (0 for none).
+   */
+  static int timeoutSeconds(Duration timeout) {
+    long seconds = (timeout.toMillis() + 999) / 1000;
+    return (int) Math.min(Integer.MAX_VALUE, Math.max(0, seconds));
+  }
+
+  /**
+   * Execute a statement from {@link #createStatement}, binding its parameters.
+   *
+   * @return true if the first result is a ResultSet
+   */
+  private static boolean executeStatement(Statement stmt, String sql, List<Object> params)
+      throws SQLException {
+    if (stmt instanceof PreparedStatement prepared) {
+      QueryParameters.bind(prepared, params);
+      return prepared.execute();
+    }
+    return stmt.execute(sql);
+  }
+
+  /**
+   * Describe the outcome of a statement that returned no ResultSet.
+   */
+  private String formatUpdate(Statement stmt, String query) throws SQLException {
+    int updateCount = stmt.getUpdateCount();
+
+    // Check if this is a DDL statement (CREATE, DROP, ALTER, etc.)
+    // DDL statements return updateCount = 0, same as DML with 0 rows affected
+    // We distinguish them by checking the SQL statement type
+    if (isDdlStatement(query)) {
+      return "Command executed successfully.";
+    } else {
+      // DML operation (INSERT/UPDATE/DELETE)
+      return ResultSetFormatter.formatRowCount(updateCount);
+    }
+  }
+
+  /**
+   * Serve a page from an open cursor session, parking it for the next page
+   * if more rows remain and closing it otherwise. Row estimates run on the
+   * session's connection, so serving the page takes no other.
+   */
+  private Rendered fetchPage(CursorSession session, String query, List<Object> params, int page, int pageSize,
+                             OutputLimits limits, BooleanSupplier cancelRequested, ResultFormat format)
+      throws SQLException {
+    try {
+      StatementCanceller.Watch watch = canceller.watch(session.statement(), cancelRequested);
+      try {
+        // After the first page the cursor already sits on the first row to display
+        ResultPage result = ResultSetFormatter.readPage(session.resultSet(), pageSize, page > 1, null, limits,
+            format);
+
+        if (result.hasMore()) {
+          int nextPage = page + 1;
+          int offset = session.rowsShown() + result.rows().size();
+          session.advanceTo(nextPage, offset);
+          cursorSessions.park(session);
+          result = result.withNextCursor(ContinuationToken.forSession(session.id(), query, params, nextPage, offset));
+          result = withTotal(result, session.connection(), query, params);
+        } else {
+          cursorSessions.close(session);
+        }
+        return rendered(result, page, format);
+      } finally {
+        watch.close();
+      }
+    } catch (SQLException | RuntimeException e) {
+      cursorSessions.close(session);
+      throw e;
+    }
+  }
+
+  /**
+   * Check whether a statement only reads data, so it can run on a read replica:
+   * a SELECT or a WITH query that only reads, without locking clauses or functions
+   * with side effects.
+   *
+   * @param query SQL statement
+   * @return true if the statement can run on a read-only connection
+   */
+  public static boolean isReadOnly(String query) {
+    return query != null && PageCache.isCacheable(query);
+  }
+
+  /**
+   * Add the query's total row count to a page that has more after it, if one is known or estimable.
+   */
+  private ResultPage withTotal(ResultPage result, Connection connection, String query, List<Object> params) {
+    if (!result.hasMore()) {
+      return result;
+    }
+    return rowCounter.total(connection, query, params).map(result::withTotal).orElse(result);
+  }
+
+  /**
+   * Render a page as a table, counting its rows towards the current tool call's metrics.
+   */
+  private String render(ResultPage result, Integer page) {
+    return render(result, page, ResultFormat.TABLE);
+  }
+
+  /**
+   * Render a page for {@link #executeQuery}, leaving pages cut short by the time limit out of the cache.
+   */
+  private Rendered rendered(ResultPage result, Integer page, ResultFormat format) {
+    return new Rendered(render(result, page, format), result.cutoff() != ResultPage.Cutoff.TIME_LIMIT);
+  }
+
+  /**
+   * Render a page in a result format, counting its rows towards the current tool call's metrics.
+   */
+  private String render(ResultPage result, Integer page, ResultFormat format) {
+    metrics.recordRows(result.rows().size());
+    return ResultSetFormatter.render(result, page, format);
+  }
+
+  /**
+   * Look up the primary key of the table a keyset query reads from.
+   * Unqualified tables resolve against the connection's current schema.
+   */
+  private List<String> resolveKeyColumns(Connection connection, DatabaseMetaData metaData, KeysetQuery keyset)
+      throws SQLException {
+    String schema = keyset.schema() != null ? keyset.schema() : connection.getSchema();
+    String table = keyset.tableName();
+
+    if (metaData.storesLowerCaseIdentifiers()) {
+      schema = schema == null ? null : schema.toLowerCase();
+      table = table.toLowerCase();
+    } else if (metaData.storesUpperCaseIdentifiers()) {
+      schema = schema == null ? null : schema.toUpperCase();
+      table = table.toUpperCase();
+    }
+
+    return introspectionService.getPrimaryKeyColumns(metaData, schema, table);
+  }
+
+  /**
+   * Drop cached schema metadata for the current datasource if a statement changed the schema.
+   */
+  private void invalidateMetadata(String query) {
+    if (isDdlStatement(query)) {
+      introspectionService.invalidate();
+    }
   }
 
   /**
@@ -0,0 +1,183 @@
+package org.geekden.mcp.database.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits a SQL script into statements at top-level semicolons.
+ * <p>
+ * Semicolons don't end a statement inside:
+ * - String literals ('...', with '' and E'\'' escapes)
+ * - Quoted identifiers ("...")
+ * - Line (--) and block comments, including nested block comments
+ * - PostgreSQL dollar-quoted bodies ($$...$$, $tag$...$tag$)
+ * - The BEGIN ... END body of a CREATE TRIGGER
+ * <p>
+ * Comments before a statement are dropped, so each statement starts with its
+ * first keyword; comment-only fragments are skipped.
+ */
+public final class SqlScriptSplitter {
+
+  private SqlScriptSplitter() {
+  }
+
+  /**
+   * Split a script into statements, without their terminating semicolons.
+   *
+   * @param script SQL script
+   * @return Statements in script order
+   * @throws IllegalArgumentException if a quote, comment or dollar-quoted body is not closed
+   */
+  public static List<String> split(String script) {
+    List<String> statements = new ArrayList<>();
+    if (script == null) {
+      return statements;
+    }
+
+    int length = script.length();
+    int start = -1;
+    int blockDepth = 0;
+    boolean trigger = false;
+    String firstWord = null;
+    int i = 0;
+
+    while (i < length) {
+      char c = script.charAt(i);
+
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '-' && i + 1 < length && script.charAt(i + 1) == '-') {
+        int end = script.indexOf('\n', i);
+        i = end < 0 ? length : end + 1;
+      } else if (c == '/' && i + 1 < length && script.charAt(i + 1) == '*') {
+        i = skipBlockComment(script, i);
+      } else if (c == ';' && blockDepth == 0) {
+        if (start >= 0) {
+          statements.add(script.substring(start, i).trim());
+        }
+        start = -1;
+        trigger = false;
+        firstWord = null;
+        i++;
+      } else {
+        if (start < 0) {
+          start = i;
+        }
+        if (c == '\'') {
+          boolean escapes = i > 0 && (script.charAt(i - 1) == 'E' || script.charAt(i - 1) == 'e')
+              && (i < 2 || !isWordChar(script.charAt(i - 2)));
+          i = skipQuoted(script, i, '\'', escapes);
+        } else if (c == '"') {
+          i = skipQuoted(script, i, '"', false);
+        } else if (c == '$' && dollarTag(script, i) != null) {
+          String tag = dollarTag(script, i);
+          int end = script.indexOf(tag, i + tag.length());
+          if (end < 0) {
+            throw new IllegalArgumentException("Unterminated dollar-quoted string starting at offset " + i);
+          }
+          i = end + tag.length();
+        } else if (isWordStart(c)) {
+          int end = i;
+          while (end < length && isWordChar(script.charAt(end))) {
+            end++;
+          }
+          String word = script.substring(i, end).toUpperCase(Locale.ROOT);
+          if (firstWord == null) {
+            firstWord = word;
+          } else if (word.equals("TRIGGER") && firstWord.equals("CREATE") && blockDepth == 0) {
+            trigger = true;
+          } else if (trigger && (word.equals("BEGIN") || (word.equals("CASE") && blockDepth > 0))) {
+            blockDepth++;
+          } else if (word.equals("END") && blockDepth > 0) {
+            blockDepth--;
+          }
+          i = end;
+        } else {
+          i++;
+        }
+      }
+    }
+
+    if (start >= 0) {
+      statements.add(script.substring(start).trim());
+    }
+    return statements;
+  }
+
+  /**
+   * Trim a single statement and drop its terminating semicolon, so it can be
+   * wrapped in another statement (a subquery, COPY, EXPLAIN) or prepared alone.
+   *
+   * @param statement SQL statement, with or without a trailing semicolon
+   * @return The statement without surrounding whitespace or semicolon
+   */
+  public static String stripSemicolon(String statement) {
+    String trimmed = statement.trim();
+    return trimmed.endsWith(";") ? trimmed.substring(0, trimmed.length() - 1).trim() : trimmed;
+  }
+
+  private static int skipBlockComment(String script, int start) {
+    int depth = 0;
+    int i = start;
+    while (i < script.length()) {
+      if (script.startsWith("/*", i)) {
+        depth++;
+        i += 2;
+      } else if (script.startsWith("*/", i)) {
+        depth--;
+        i += 2;
+        if (depth == 0) {
+          return i;
+        }
+      } else {
+        i++;
+      }
+    }
+    throw new IllegalArgumentException("Unterminated block comment starting at offset " + start);
+  }
+
+  private static int skipQuoted(String script, int start, char quote, boolean backslashEscapes) {
+    int i = start + 1;
+    while (i < script.length()) {
+      char c = script.charAt(i);
+      if (backslashEscapes && c == '\\') {
+        i += 2;
+      } else if (c == quote) {
+        if (i + 1 < script.length() && script.charAt(i + 1) == quote) {
+          i += 2; // Doubled quote
+        } else {
+          return i + 1;
+        }
+      } else {
+        i++;
+      }
+    }
+    throw new IllegalArgumentException("Unterminated quoted text starting at offset " + start);
+  }
+
+  /**
+   * The dollar-quote delimiter starting at {@code start} ($$ or $tag$), or null if there is none
+   * (e.g. a $1 placeholder).
+   */
+  private static String dollarTag(String script, int start) {
+    int i = start + 1;
+    if (i < script.length() && isWordStart(script.charAt(i))) {
+      while (i < script.length() && isWordChar(script.charAt(i))) {
+        i++;
+      }
+    }
+    if (i < script.length() && script.charAt(i) == '$') {
+      return script.substring(start, i + 1);
+    }
+    return null;
+  }
+
+  private static boolean isWordStart(char c) {
+    return Character.isLetter(c) || c == '_';
+  }
+
+  private static boolean isWordChar(char c) {
+    return Character.isLetterOrDigit(c) || c == '_';
+  }
+}
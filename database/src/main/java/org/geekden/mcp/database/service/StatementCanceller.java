@@ -0,0 +1,110 @@
+package org.geekden.mcp.database.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Cancels running statements when the client abandons the call.
+ * <p>
+ * JDBC calls block until the database answers, so the calling thread can't
+ * notice a cancellation itself. While a statement runs, a watcher polls the
+ * caller's cancellation flag and calls {@link Statement#cancel()} once it is set,
+ * which makes the blocked call fail and frees the connection.
+ */
+@ApplicationScoped
+public class StatementCanceller {
+
+  private static final Logger LOG = Logger.getLogger(StatementCanceller.class);
+
+  /** Cancellation flag for calls that can't be cancelled. */
+  public static final BooleanSupplier NEVER = () -> false;
+
+  @ConfigProperty(name = "db.cancel.poll-interval", defaultValue = "100ms")
+  Duration pollInterval;
+
+  private ScheduledExecutorService poller;
+
+  @PostConstruct
+  void init() {
+    poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "statement-canceller");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    poller.shutdownNow();
+  }
+
+  /**
+   * Watch a statement until the returned handle is closed.
+   *
+   * @param statement       Statement that is about to run
+   * @param cancelRequested Whether the client has cancelled the call
+   * @return Handle to close once the statement's results have been read
+   */
+  Watch watch(Statement statement, BooleanSupplier cancelRequested) {
+    if (cancelRequested == NEVER) {
+      return new Watch(null);
+    }
+    Watch watch = new Watch(statement);
+    long period = Math.max(1, pollInterval.toMillis());
+    watch.future = poller.scheduleWithFixedDelay(() -> {
+      if (cancelRequested.getAsBoolean()) {
+        watch.cancel();
+      }
+    }, period, period, TimeUnit.MILLISECONDS);
+    return watch;
+  }
+
+  /**
+   * A statement being watched for cancellation.
+   */
+  static final class Watch implements AutoCloseable {
+
+    private final Statement statement;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private volatile ScheduledFuture<?> future;
+
+    private Watch(Statement statement) {
+      this.statement = statement;
+    }
+
+    private void cancel() {
+      if (!cancelled.compareAndSet(false, true)) {
+        return;
+      }
+      if (future != null) {
+        future.cancel(false);
+      }
+      try {
+        LOG.info("Cancelling statement at client request");
+        statement.cancel();
+      } catch (SQLException e) {
+        LOG.warn("Error cancelling statement", e);
+      }
+    }
+
+    @Override
+    public void close() {
+      if (future != null) {
+        future.cancel(false);
+      }
+    }
+  }
+}
@@ -5,6 +5,9 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Alternative;
 import jakarta.interceptor.Interceptor;
 
+import java.io.OutputStream;
+import java.io.Writer;
+
 /**
  * Test-specific implementation of OutputWriter that captures output to StringBuilders.
  * <p>
@@ -33,6 +36,37 @@ public class CapturingOutput implements OutputWriter {
     stderr.append(message).append('\n');
   }
 
+  @Override
+  public Writer stdoutWriter() {
+    return new Writer() {
+      @Override
+      public void write(char[] buffer, int offset, int length) {
+        stdout.append(buffer, offset, length);
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+
+  /**
+   * Binary stdout; each byte is captured as one ISO-8859-1 character.
+   */
+  @Override
+  public OutputStream stdoutStream() {
+    return new OutputStream() {
+      @Override
+      public void write(int b) {
+        stdout.append((char) (b & 0xff));
+      }
+    };
+  }
+
   /**
    * Get all output written to stdout.
    *
@@ -0,0 +1,85 @@
+package org.geekden.mcp.cli;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.DatabaseMcpTools;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Integration tests for the CLI explain command.
+ */
+@QuarkusTest
+@TestProfile(ExplainCommandTest.Profile.class)
+class ExplainCommandTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+  }
+
+  @Inject
+  ExplainCommand command;
+
+  @Inject
+  CommandLine.IFactory factory;
+
+  @Inject
+  DatabaseMcpTools mcpTools;
+
+  @Inject
+  CapturingOutput output;
+
+  @BeforeEach
+  void setUp() {
+    output.reset();
+    mcpTools.executeSql("DROP TABLE IF EXISTS explain_data", 1);
+    mcpTools.executeSql("CREATE TABLE explain_data (id INTEGER PRIMARY KEY, value TEXT)", 1);
+    mcpTools.executeSql("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 100) "
+        + "INSERT INTO explain_data (id, value) SELECT i, 'Value ' || i FROM n", 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    mcpTools.executeSql("DROP TABLE IF EXISTS explain_data", 1);
+  }
+
+  private int execute(String... args) {
+    return new CommandLine(command, factory).execute(args);
+  }
+
+  @Test
+  void testExplainPrintsPlan() {
+    int exitCode = execute("SELECT * FROM explain_data WHERE value = ?", "--param", "Value 7");
+    assertThat("Should succeed", exitCode, is(0));
+
+    assertThat(output.getStdout(), allOf(
+        startsWith("Estimated query plan (the query was not run):"),
+        containsString("explain_data"),
+        containsString("Sequential scans on large tables:")));
+    assertThat("Should not run the query", output.getStdout(), not(containsString("Value 7")));
+  }
+
+  @Test
+  void testExplainAnalyzeLeavesDataUnchanged() {
+    int exitCode = execute("UPDATE explain_data SET value = 'changed'", "--analyze");
+    assertThat("Should succeed", exitCode, is(0));
+    assertThat(output.getStdout(), containsString("actual=100"));
+
+    assertThat("The update should be rolled back",
+        mcpTools.executeSql("SELECT COUNT(*) AS n FROM explain_data WHERE value = 'changed'", 1),
+        not(containsString("100")));
+  }
+
+  @Test
+  void testExplainSqlErrorFails() {
+    int exitCode = execute("SELECT * FROM no_such_table");
+    assertThat("Should fail", exitCode, is(1));
+    assertThat(output.getStderr(), startsWith("Explain failed: "));
+  }
+}
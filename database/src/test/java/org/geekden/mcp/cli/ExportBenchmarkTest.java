@@ -0,0 +1,107 @@
+package org.geekden.mcp.cli;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.DatabaseMcpTools;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Compares Arrow against CSV export on a typical fact table: numbers plus a
+ * low-cardinality label. Prints the size and throughput of each.
+ * <p>
+ * Excluded from {@code mvn test}; run with {@code mvn test -Pbenchmark}. Timings
+ * depend on the machine, so only the size advantage is asserted.
+ */
+@Tag("benchmark")
+@QuarkusTest
+@TestProfile(ExportBenchmarkTest.Profile.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExportBenchmarkTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+  }
+
+  private static final int ROWS = 50_000;
+  private static final String QUERY = "SELECT * FROM export_facts ORDER BY id";
+
+  @Inject
+  ExportCommand command;
+
+  @Inject
+  CommandLine.IFactory factory;
+
+  @Inject
+  DatabaseMcpTools mcpTools;
+
+  @Inject
+  CapturingOutput output;
+
+  @TempDir
+  Path tempDir;
+
+  @BeforeAll
+  void createTable() {
+    mcpTools.executeSql("DROP TABLE IF EXISTS export_facts", 1);
+    mcpTools.executeSql("CREATE TABLE export_facts (id INTEGER PRIMARY KEY, region TEXT, amount REAL)", 1);
+    mcpTools.executeSql("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < " + ROWS + ") "
+        + "INSERT INTO export_facts SELECT i, CASE i % 4 WHEN 0 THEN 'north-america-east' "
+        + "WHEN 1 THEN 'north-america-west' WHEN 2 THEN 'europe-central' ELSE 'asia-pacific-south' END, "
+        + "i * 1.25 FROM n", 1);
+  }
+
+  @AfterAll
+  void dropTable() {
+    mcpTools.executeSql("DROP TABLE IF EXISTS export_facts", 1);
+  }
+
+  @Test
+  void benchmarkArrowAgainstCsv() throws Exception {
+    Path csv = tempDir.resolve("facts.csv");
+    Path arrow = tempDir.resolve("facts.arrows");
+
+    // Warm up both paths once so the timings compare steady state
+    export(csv);
+    export(arrow, "--format", "arrow");
+
+    String csvSummary = export(csv);
+    String arrowSummary = export(arrow, "--format", "arrow");
+    long csvBytes = Files.size(csv);
+    long arrowBytes = Files.size(arrow);
+    System.out.printf("CSV:   %,d bytes; %s%nArrow: %,d bytes; %s%n", csvBytes, csvSummary, arrowBytes, arrowSummary);
+
+    assertThat("Dictionary-encoded labels should make Arrow smaller than CSV", arrowBytes, lessThan(csvBytes));
+  }
+
+  /**
+   * Export the fact table to a file.
+   *
+   * @return The throughput summary printed on stderr
+   */
+  private String export(Path file, String... options) {
+    output.reset();
+    String[] args = new String[options.length + 3];
+    args[0] = QUERY;
+    System.arraycopy(options, 0, args, 1, options.length);
+    args[options.length + 1] = "--output";
+    args[options.length + 2] = file.toString();
+    assertThat(new CommandLine(command, factory).execute(args), is(0));
+
+    String summary = output.getStderr().trim();
+    assertThat(summary, startsWith("Exported " + ROWS + " rows"));
+    return summary;
+  }
+}
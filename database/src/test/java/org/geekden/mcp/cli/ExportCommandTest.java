@@ -0,0 +1,132 @@
+package org.geekden.mcp.cli;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.geekden.mcp.database.DatabaseMcpTools;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Integration tests for the CLI export command.
+ */
+@QuarkusTest
+@TestProfile(ExportCommandTest.Profile.class)
+class ExportCommandTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+  }
+
+  @Inject
+  ExportCommand command;
+
+  @Inject
+  CommandLine.IFactory factory;
+
+  @Inject
+  DatabaseMcpTools mcpTools;
+
+  @Inject
+  CapturingOutput output;
+
+  @TempDir
+  Path tempDir;
+
+  @BeforeEach
+  void setUp() {
+    output.reset();
+    mcpTools.executeSql("DROP TABLE IF EXISTS export_data", 1);
+    mcpTools.executeSql("CREATE TABLE export_data (id INTEGER PRIMARY KEY, value TEXT)", 1);
+    mcpTools.executeSql("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 2500) "
+        + "INSERT INTO export_data (id, value) SELECT i, 'Value ' || i FROM n", 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    mcpTools.executeSql("DROP TABLE IF EXISTS export_data", 1);
+  }
+
+  private int execute(String... args) {
+    return new CommandLine(command, factory).execute(args);
+  }
+
+  @Test
+  void testExportToStdoutWritesCsvAndReportsThroughput() {
+    int exitCode = execute("SELECT * FROM export_data ORDER BY id");
+    assertThat("Should succeed", exitCode, is(0));
+
+    List<String> lines = output.getStdout().lines().toList();
+    assertThat("Should write a header and every row", lines, hasSize(2501));
+    assertThat(lines.get(0), is("id,value"));
+    assertThat(lines.get(2500), is("2500,Value 2500"));
+    assertThat("Should report throughput on stderr", output.getStderr(),
+        matchesPattern("(?s)Exported 2500 rows in [0-9.]+ s \\([0-9]+ rows/sec\\)\\n"));
+  }
+
+  @Test
+  void testExportToFileAsTsvWithParams() throws Exception {
+    Path file = tempDir.resolve("export.tsv");
+    int exitCode = execute("SELECT id, value FROM export_data WHERE id <= ? ORDER BY id",
+        "--param", "3", "--format", "TSV", "--output", file.toString());
+    assertThat("Should succeed", exitCode, is(0));
+
+    assertThat(Files.readString(file), is("id\tvalue\n1\tValue 1\n2\tValue 2\n3\tValue 3\n"));
+    assertThat("Should keep stdout free of data", output.getStdout(), is(""));
+    assertThat(output.getStderr(), containsString("Exported 3 rows"));
+  }
+
+  @Test
+  void testExportAsArrowStream() throws Exception {
+    Path file = tempDir.resolve("export.arrows");
+    int exitCode = execute("SELECT * FROM export_data ORDER BY id", "--format", "arrow", "--output", file.toString());
+    assertThat("Should succeed", exitCode, is(0));
+
+    long rows = 0;
+    try (BufferAllocator allocator = new RootAllocator();
+         ArrowStreamReader reader = new ArrowStreamReader(Files.newInputStream(file), allocator)) {
+      while (reader.loadNextBatch()) {
+        rows += reader.getVectorSchemaRoot().getRowCount();
+      }
+    }
+    assertThat("Arrow Java should read back every row", rows, is(2500L));
+    assertThat(output.getStderr(), containsString("Exported 2500 rows"));
+  }
+
+  @Test
+  void testExportAcceptsReadOnlyWithQuery() {
+    int exitCode = execute("WITH firsts AS (SELECT * FROM export_data WHERE id <= 2) SELECT * FROM firsts ORDER BY id");
+    assertThat("Should export a WITH ... SELECT", exitCode, is(0));
+
+    assertThat(output.getStdout().lines().toList(), contains("id,value", "1,Value 1", "2,Value 2"));
+  }
+
+  @Test
+  void testExportRejectsWrites() {
+    int exitCode = execute("DELETE FROM export_data");
+    assertThat("Should refuse a non-SELECT", exitCode, is(1));
+    assertThat(output.getStderr(), containsString("Only read-only SELECT queries can be exported"));
+    assertThat("Should not have run the DELETE", mcpTools.executeSql("SELECT COUNT(*) AS n FROM export_data", 1),
+        containsString("2500"));
+  }
+
+  @Test
+  void testExportRejectsUnknownFormat() {
+    int exitCode = execute("SELECT * FROM export_data", "--format", "json");
+    assertThat(exitCode, is(1));
+    assertThat(output.getStderr(), containsString("Unknown format 'json'"));
+  }
+}
@@ -10,8 +10,12 @@ import org.geekden.mcp.database.DatabaseMcpTools;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import picocli.CommandLine;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
@@ -162,4 +166,58 @@ class QueryCommandTest {
     int exitCode = execute("SELECT * FROM cli_test_data WHERE id > 10000");
     assertThat("Should succeed with empty result", exitCode, is(0));
   }
+
+  @Test
+  void testCliQueryWithParameters() {
+    int exitCode = execute("SELECT * FROM cli_test_data WHERE id = ? OR value = ?",
+        "--param", "7", "--param", "Value 9");
+    assertThat("Should succeed with exit code 0", exitCode, is(0));
+
+    String stdout = output.getStdout();
+    assertThat("Should bind both parameters",
+        stdout, allOf(containsString("Value 7"), containsString("Value 9"), not(containsString("Value 8"))));
+  }
+
+  @Test
+  void testCliQueryStreamWritesAllRows() {
+    int exitCode = execute("SELECT * FROM cli_test_data ORDER BY id", "--stream");
+    assertThat("Should succeed with exit code 0", exitCode, is(0));
+
+    String stdout = output.getStdout();
+    assertThat("Should stream every row without pagination",
+        stdout, allOf(containsString("Value 1 "), containsString("Value 250"), containsString("250 rows.")));
+    assertThat("Should not show pagination footer", stdout, not(containsString("Page 1")));
+  }
+
+  @Test
+  void testCliQueryFileRunsScript(@TempDir Path dir) throws Exception {
+    Path script = dir.resolve("script.sql");
+    Files.writeString(script, """
+        -- Move two rows
+        UPDATE cli_test_data SET value = 'Moved' WHERE id IN (1, 2);
+        DELETE FROM cli_test_data WHERE id > 200;
+        """);
+
+    int exitCode = execute("--file", script.toString());
+    assertThat("Should succeed with exit code 0", exitCode, is(0));
+
+    String stdout = output.getStdout();
+    assertThat("Should report each statement", stdout,
+        allOf(containsString("2 rows affected."), containsString("50 rows affected."),
+            containsString("Executed 2 statements in one transaction.")));
+  }
+
+  @Test
+  void testCliQueryRequiresQueryOrFile() {
+    int exitCode = execute();
+    assertThat("Should fail with exit code 1", exitCode, is(1));
+    assertThat("Should explain what is missing", output.getStderr(), containsString("--file"));
+  }
+
+  @Test
+  void testCliQueryStreamRejectsPage() {
+    int exitCode = execute("SELECT * FROM cli_test_data", "--stream", "--page", "2");
+    assertThat("Should fail with exit code 1", exitCode, is(1));
+    assertThat("Should explain the conflict", output.getStderr(), containsString("--stream"));
+  }
 }
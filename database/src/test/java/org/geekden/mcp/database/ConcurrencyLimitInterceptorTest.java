@@ -0,0 +1,99 @@
+package org.geekden.mcp.database;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for ConcurrencyLimitInterceptor: calls beyond the limit wait for a slot.
+ */
+@QuarkusTest
+@TestProfile(ConcurrencyLimitInterceptorTest.Profile.class)
+class ConcurrencyLimitInterceptorTest {
+
+  private static final int LIMIT = 2;
+
+  public static class Profile extends IsolatedDatabaseProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      Map<String, String> overrides = new HashMap<>(super.getConfigOverrides());
+      overrides.put("db.tools.max-concurrent", String.valueOf(LIMIT));
+      return overrides;
+    }
+  }
+
+  /**
+   * Stand-in for a tool method that holds its slot until released. A singleton, so the
+   * test reads the bean's own counters rather than a client proxy's.
+   */
+  @Singleton
+  @ConcurrencyLimited
+  public static class BlockingCalls {
+
+    final AtomicInteger started = new AtomicInteger();
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    volatile CountDownLatch release = new CountDownLatch(0);
+
+    public void call() throws InterruptedException {
+      started.incrementAndGet();
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        release.await();
+      } finally {
+        running.decrementAndGet();
+      }
+    }
+  }
+
+  @Inject
+  BlockingCalls calls;
+
+  @Test
+  void testCallsBeyondLimitWaitForSlot() throws Exception {
+    calls.release = new CountDownLatch(1);
+
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < LIMIT + 1; i++) {
+      threads.add(Thread.ofVirtual().start(() -> {
+        try {
+          calls.call();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }));
+    }
+
+    // Wait until every thread is parked: LIMIT on the latch, the rest on the interceptor
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (calls.started.get() < LIMIT
+        || threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+      assertThat("Calls should park within the deadline", System.nanoTime() - deadline, lessThan(0L));
+      Thread.sleep(10);
+    }
+
+    assertThat("Only the limit should be running", calls.running.get(), is(LIMIT));
+    assertThat("The extra call should not have started", calls.started.get(), is(LIMIT));
+
+    calls.release.countDown();
+    for (Thread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    assertThat("The waiting call should run once a slot frees", calls.started.get(), is(LIMIT + 1));
+    assertThat("No more than the limit should ever run at once", calls.maxRunning.get(), is(LIMIT));
+  }
+}
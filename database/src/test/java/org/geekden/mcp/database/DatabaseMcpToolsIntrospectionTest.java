@@ -72,6 +72,15 @@ class DatabaseMcpToolsIntrospectionTest {
     assertThat("Should handle non-existent table gracefully", result, not(emptyString()));
   }
 
+  @Test
+  void testIntrospectAllTablesInSchema() {
+    // "*" describes every table at once; an empty schema is reported, not an error
+    String result = mcpTools.introspect("main", "*");
+
+    assertThat("Should return a result", result, not(emptyString()));
+    assertThat("Should not fail", result, not(startsWith("Error")));
+  }
+
   @Test
   void testIntrospectionErrorHandling() {
     // Test error handling - introspect with invalid parameters
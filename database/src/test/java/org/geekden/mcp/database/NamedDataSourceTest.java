@@ -0,0 +1,79 @@
+package org.geekden.mcp.database;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests that tools can work on a named datasource alongside the main database.
+ */
+@QuarkusTest
+@TestProfile(NamedDataSourceTest.Profile.class)
+class NamedDataSourceTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      Map<String, String> overrides = new HashMap<>(super.getConfigOverrides());
+      overrides.put("db.analytics.jdbc.url", "jdbc:sqlite:target/NamedDataSourceTest-analytics.db");
+      return overrides;
+    }
+  }
+
+  @Inject
+  DatabaseMcpTools mcpTools;
+
+  @AfterEach
+  void tearDown() {
+    mcpTools.executeSql("DROP TABLE IF EXISTS events", 1, null, null, 0, null, "analytics", null);
+  }
+
+  @Test
+  void testQueriesRunOnSelectedDatasource() {
+    mcpTools.executeSql("CREATE TABLE events (id INTEGER PRIMARY KEY, kind TEXT)", 1, null, null, 0, null, "analytics", null);
+    mcpTools.executeSql("INSERT INTO events VALUES (1, 'signup')", 1, null, null, 0, null, "analytics", null);
+
+    String named = mcpTools.executeSql("SELECT kind FROM events", 1, null, null, 0, null, "analytics", null);
+    String main = mcpTools.executeSql("SELECT kind FROM events", 1);
+
+    assertThat("Named datasource should have its table", named, containsString("signup"));
+    assertThat("Main database should not see the named datasource's table", main, startsWith("Error"));
+  }
+
+  @Test
+  void testIntrospectsSelectedDatasource() {
+    String result = mcpTools.introspect(null, null, null, 0, false, "analytics");
+
+    assertThat("Should list the named datasource's schemas", result, containsString("main"));
+  }
+
+  @Test
+  void testCursorFromAnotherDatasourceIsRejected() {
+    mcpTools.executeSql("CREATE TABLE events (id INTEGER PRIMARY KEY, kind TEXT)", 1, null, null, 0, null, "analytics", null);
+    mcpTools.executeSql("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 150) "
+        + "INSERT INTO events (id, kind) SELECT i, 'kind ' || i FROM n", 1, null, null, 0, null, "analytics", null);
+    String page1 = mcpTools.executeSql("SELECT * FROM events", 1, null, null, 0, null, "analytics", null);
+    String cursor = page1.substring(page1.indexOf("Next cursor: ") + "Next cursor: ".length()).trim();
+
+    String result = mcpTools.executeSql("SELECT * FROM events", 1, cursor, null, 0, null, null, null);
+
+    assertThat("Should refuse to continue on the main database", result,
+        is("Error: Cursor was issued for datasource 'analytics', not the main database"));
+  }
+
+  @Test
+  void testUnknownDatasourceIsRejected() {
+    String result = mcpTools.executeSql("SELECT 1", 1, null, null, 0, null, "nope", null);
+
+    assertThat("Should name the configured datasources", result,
+        is("Error: Unknown datasource 'nope'; configured: analytics"));
+  }
+}
@@ -0,0 +1,78 @@
+package org.geekden.mcp.database;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests that read-only statements go to the read replica and writes to the primary.
+ * The "replica" is a separate SQLite database, so each side's tables show where a statement ran.
+ */
+@QuarkusTest
+@TestProfile(ReadReplicaRoutingTest.Profile.class)
+class ReadReplicaRoutingTest {
+
+  private static final String REPLICA_FILE = "target/ReadReplicaRoutingTest-replica.db";
+
+  public static class Profile extends IsolatedDatabaseProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      createReplica();
+      Map<String, String> overrides = new HashMap<>(super.getConfigOverrides());
+      overrides.put("db.read.jdbc.url", "jdbc:sqlite:" + REPLICA_FILE);
+      return overrides;
+    }
+
+    private static void createReplica() {
+      try {
+        Files.deleteIfExists(Path.of(REPLICA_FILE));
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + REPLICA_FILE);
+             Statement stmt = conn.createStatement()) {
+          stmt.execute("CREATE TABLE replica_marker (source TEXT)");
+          stmt.execute("INSERT INTO replica_marker VALUES ('from the replica')");
+        }
+      } catch (Exception e) {
+        throw new IllegalStateException("Failed to create replica database", e);
+      }
+    }
+  }
+
+  @Inject
+  DatabaseMcpTools mcpTools;
+
+  @AfterEach
+  void tearDown() {
+    mcpTools.executeSql("DROP TABLE IF EXISTS primary_only", 1);
+  }
+
+  @Test
+  void testSelectReadsFromReplica() {
+    String result = mcpTools.executeSql("SELECT source FROM replica_marker", 1);
+
+    assertThat("SELECT should run on the replica", result, containsString("from the replica"));
+  }
+
+  @Test
+  void testWritesGoToPrimary() {
+    String created = mcpTools.executeSql("CREATE TABLE primary_only (id INTEGER)", 1);
+    String inserted = mcpTools.executeSql("INSERT INTO primary_only VALUES (1)", 1);
+    String selected = mcpTools.executeSql("SELECT id FROM primary_only", 1);
+
+    assertThat("DDL should run on the primary", created, not(startsWith("Error")));
+    assertThat("DML should run on the primary", inserted, containsString("1 row"));
+    assertThat("The replica should not have the primary's table", selected, startsWith("Error"));
+  }
+}
@@ -0,0 +1,54 @@
+package org.geekden.mcp.database.config;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.geekden.mcp.database.provider.ConnectionProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests that the connection pool is opened at startup.
+ */
+@QuarkusTest
+@TestProfile(ConnectionPoolWarmerTest.Profile.class)
+class ConnectionPoolWarmerTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      Map<String, String> overrides = new HashMap<>(super.getConfigOverrides());
+      overrides.put("hikari.minimum-idle", "2");
+      return overrides;
+    }
+  }
+
+  @Inject
+  ConnectionProvider connectionProvider;
+
+  @Test
+  void testPoolIsOpenBeforeFirstCall() {
+    // The first tool call should not pay for creating the pool
+    HikariPoolMXBean pool = connectionProvider.poolStatus().orElse(null);
+
+    assertThat("Pool should be created at startup", pool, notNullValue());
+    assertThat("Pool should hold the minimum idle connections", pool.getTotalConnections(),
+        greaterThanOrEqualTo(2));
+  }
+
+  @Test
+  void testWarmUpOpensMinimumIdleConnections() throws Exception {
+    assertThat("Should open the configured minimum idle connections", connectionProvider.warmUp(), is(2));
+
+    HikariPoolMXBean pool = connectionProvider.poolStatus().orElseThrow();
+    assertThat("Warm-up should return its connections", pool.getActiveConnections(), is(0));
+    assertThat("Connections should stay idle in the pool", pool.getIdleConnections(), greaterThanOrEqualTo(2));
+  }
+}
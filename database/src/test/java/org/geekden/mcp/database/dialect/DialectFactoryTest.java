@@ -27,6 +27,9 @@ class DialectFactoryTest {
   @Inject
   Instance<Connection> connection;
 
+  @Inject
+  Instance<DatabaseDialect> pooledDialect;
+
   @Test
   void testGetDialectForCurrentDatabase() throws Exception {
     try (Connection conn = connection.get()) {
@@ -38,8 +41,8 @@ class DialectFactoryTest {
         assertThat("Should return SQLite dialect for SQLite database",
             dialect.getName(), is("SQLite"));
       } else if (dbName.contains("postgresql") || dbName.contains("postgres")) {
-        assertThat("Should return Standard SQL dialect for PostgreSQL",
-            dialect.getName(), is("Standard SQL"));
+        assertThat("Should return PostgreSQL dialect for PostgreSQL",
+            dialect.getName(), is("PostgreSQL"));
       } else {
         assertThat("Should return Standard SQL dialect as fallback",
             dialect.getName(), is("Standard SQL"));
@@ -50,6 +53,18 @@ class DialectFactoryTest {
     }
   }
 
+  @Test
+  void testPooledDialectResolvedOnce() throws Exception {
+    try (Connection conn = connection.get()) {
+      DatabaseDialect detected = dialectFactory.getDialect(conn.getMetaData());
+
+      assertThat("Injected dialect should match detection",
+          pooledDialect.get().getName(), is(detected.getName()));
+      assertThat("Injected dialect should be resolved once and reused",
+          pooledDialect.get(), is(sameInstance(pooledDialect.get())));
+    }
+  }
+
   @Test
   void testIntrospectorForCurrentDatabase() throws Exception {
     try (Connection conn = connection.get()) {
@@ -94,6 +109,18 @@ class DialectFactoryTest {
     assertThat("Should add LIMIT and OFFSET", paginated, is("SELECT * FROM users LIMIT 10 OFFSET 10"));
   }
 
+  @Test
+  void testCursorCapabilities() {
+    assertThat("SQLite should not hold cursors open between calls",
+        new SQLiteDialect().supportsHeldCursors(), is(false));
+    assertThat("PostgreSQL should hold cursors open between calls",
+        new PostgreSQLDialect().supportsHeldCursors(), is(true));
+    assertThat("Unknown databases should not hold cursors, since their driver may not stream",
+        new StandardDialect().supportsHeldCursors(), is(false));
+    assertThat("PostgreSQL should need a transaction for fetch size",
+        new PostgreSQLDialect().requiresTransactionForFetchSize(), is(true));
+  }
+
   @Test
   void testStandardPaginatorTrimsQuery() {
     DatabaseDialect dialect = new SQLiteDialect();
@@ -0,0 +1,117 @@
+package org.geekden.mcp.database.dialect;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Times the dialect's catalog introspector against plain JDBC DatabaseMetaData on a
+ * schema with thousands of tables, and prints the comparison.
+ * <p>
+ * Covers whichever database the tests run on: the PRAGMA introspector on SQLite, or
+ * pg_catalog when DB_URL points at PostgreSQL. Excluded from {@code mvn test}; run with
+ * {@code mvn test -Pbenchmark}. Timings depend on the machine, so none are asserted.
+ */
+@Tag("benchmark")
+@QuarkusTest
+@TestProfile(IntrospectionBenchmarkTest.Profile.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IntrospectionBenchmarkTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+  }
+
+  private static final String SCHEMA = "introspection_bench";
+  private static final int TABLES = 2000;
+  private static final int DESCRIBED = 200;
+  private static final int ROUNDS = 5;
+
+  private final DatabaseDialect.Introspector jdbc = Introspectors.standard();
+  private String schema;
+
+  @Inject
+  Instance<Connection> connection;
+
+  @Inject
+  Instance<DatabaseDialect> dialect;
+
+  @BeforeAll
+  void createSchema() throws Exception {
+    try (Connection conn = connection.get()) {
+      IntrospectionFixture.create(conn, SCHEMA, TABLES);
+      schema = IntrospectionFixture.schema(conn, SCHEMA);
+    }
+  }
+
+  @AfterAll
+  void dropSchema() throws Exception {
+    try (Connection conn = connection.get()) {
+      IntrospectionFixture.drop(conn, SCHEMA, TABLES);
+    }
+  }
+
+  @Test
+  void benchmarkCatalogAgainstJdbc() throws Exception {
+    DatabaseDialect.Introspector catalog = dialect.get().introspector();
+    try (Connection conn = connection.get()) {
+      DatabaseMetaData metaData = conn.getMetaData();
+      // Warm up both paths (statement caches, catalog pages)
+      describeEach(jdbc, metaData, 20);
+      describeEach(catalog, metaData, 20);
+
+      System.out.printf("%s, %d tables, best of %d%n", dialect.get().getName(), TABLES + 2, ROUNDS);
+      compare("list tables", () -> jdbc.tables(metaData, schema), () -> catalog.tables(metaData, schema), 1);
+      compare("describe table", () -> describeEach(jdbc, metaData, DESCRIBED),
+          () -> describeEach(catalog, metaData, DESCRIBED), DESCRIBED);
+      compare("describe all", () -> describeEach(catalog, metaData, TABLES),
+          () -> assertThat(catalog.describeAll(metaData, schema).size(), is(TABLES + 2)), 1);
+    }
+  }
+
+  /**
+   * Print the best time per operation of each path over {@value #ROUNDS} rounds.
+   * For "describe all" the two paths are the catalog's per-table and bulk queries.
+   */
+  private static void compare(String label, Task jdbc, Task catalog, int operations) throws Exception {
+    long jdbcNanos = best(jdbc);
+    long catalogNanos = best(catalog);
+    System.out.printf("%-16s jdbc %8.2f ms, catalog %8.2f ms (%.1fx)%n", label + ":",
+        jdbcNanos / 1e6 / operations, catalogNanos / 1e6 / operations,
+        (double) jdbcNanos / catalogNanos);
+  }
+
+  private static long best(Task task) throws Exception {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      task.run();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best;
+  }
+
+  private void describeEach(DatabaseDialect.Introspector introspector, DatabaseMetaData metaData, int count)
+      throws Exception {
+    for (int i = 1; i <= count; i++) {
+      assertThat(introspector.columns(metaData, schema, "t" + i), hasSize(6));
+    }
+  }
+
+  @FunctionalInterface
+  private interface Task {
+    void run() throws Exception;
+  }
+}
@@ -0,0 +1,97 @@
+package org.geekden.mcp.database.dialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Schema shared by the introspector tests and benchmark: tables {@code t1..tN}, each with
+ * six columns and a composite foreign key to {@code parent}, plus a view {@code named} over t1.
+ * <p>
+ * On PostgreSQL the fixture gets a schema of its own; the caller picks the name so that
+ * test classes sharing one database don't collide. On SQLite it goes in {@code main},
+ * which is already a file per test class.
+ */
+final class IntrospectionFixture {
+
+  private IntrospectionFixture() {
+  }
+
+  static boolean isPostgresql(Connection conn) throws SQLException {
+    return conn.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql");
+  }
+
+  /**
+   * Schema to pass to the introspectors: the fixture's own on PostgreSQL, null (main) on SQLite.
+   */
+  static String schema(Connection conn, String schema) throws SQLException {
+    return isPostgresql(conn) ? schema : null;
+  }
+
+  /**
+   * Create the fixture, replacing any left over from an earlier run.
+   *
+   * @param schema Schema to create it in (PostgreSQL only)
+   * @param tables Number of {@code t} tables
+   */
+  static void create(Connection conn, String schema, int tables) throws SQLException {
+    if (!isPostgresql(conn)) {
+      createInSqlite(conn, tables);
+      return;
+    }
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+      stmt.execute("CREATE SCHEMA " + schema);
+      stmt.execute("CREATE TABLE " + schema + ".parent (id INTEGER, region VARCHAR(20), "
+          + "PRIMARY KEY (region, id))");
+      stmt.execute("DO $$ BEGIN FOR i IN 1.." + tables + " LOOP "
+          + "EXECUTE format('CREATE TABLE " + schema + ".t%s (id BIGSERIAL PRIMARY KEY, parent_id INTEGER, "
+          + "parent_region VARCHAR(20), name VARCHAR(100) NOT NULL, amount NUMERIC(10,2), note TEXT, "
+          + "FOREIGN KEY (parent_region, parent_id) REFERENCES " + schema + ".parent (region, id))', i); "
+          + "END LOOP; END $$");
+      stmt.execute("CREATE VIEW " + schema + ".named AS SELECT id, name FROM " + schema + ".t1");
+    }
+  }
+
+  private static void createInSqlite(Connection conn, int tables) throws SQLException {
+    dropFromSqlite(conn, tables);
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE parent (id INTEGER, region VARCHAR(20), PRIMARY KEY (region, id))");
+      conn.setAutoCommit(false);
+      for (int i = 1; i <= tables; i++) {
+        stmt.execute("CREATE TABLE t" + i + " (id INTEGER PRIMARY KEY, parent_id INTEGER, "
+            + "parent_region VARCHAR(20), name VARCHAR(100) NOT NULL, amount DECIMAL(10,2), note TEXT, "
+            + "FOREIGN KEY (parent_region, parent_id) REFERENCES parent (region, id))");
+      }
+      conn.commit();
+      conn.setAutoCommit(true);
+      stmt.execute("CREATE VIEW named AS SELECT id, name FROM t1");
+    }
+  }
+
+  /**
+   * Drop the fixture.
+   *
+   * @param schema Schema it was created in (PostgreSQL only)
+   * @param tables Number of {@code t} tables
+   */
+  static void drop(Connection conn, String schema, int tables) throws SQLException {
+    if (!isPostgresql(conn)) {
+      dropFromSqlite(conn, tables);
+      return;
+    }
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+    }
+  }
+
+  private static void dropFromSqlite(Connection conn, int tables) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP VIEW IF EXISTS named");
+      for (int i = 1; i <= tables; i++) {
+        stmt.execute("DROP TABLE IF EXISTS t" + i);
+      }
+      stmt.execute("DROP TABLE IF EXISTS parent");
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package org.geekden.mcp.database.dialect;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the pg_catalog introspector against pgjdbc's DatabaseMetaData.
+ * <p>
+ * Runs only against PostgreSQL (DB_URL=jdbc:postgresql://...); skipped on SQLite.
+ * For timings see {@link IntrospectionBenchmarkTest}.
+ */
+@QuarkusTest
+@TestProfile(PgCatalogIntrospectorTest.Profile.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PgCatalogIntrospectorTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+  }
+
+  private static final String SCHEMA = "introspection_test";
+  private static final int TABLES = 50;
+
+  private final DatabaseDialect.Introspector jdbc = Introspectors.standard();
+  private final DatabaseDialect.Introspector catalog = Introspectors.pgCatalog();
+
+  @Inject
+  Instance<Connection> connection;
+
+  @BeforeAll
+  void createSchema() throws Exception {
+    try (Connection conn = connection.get()) {
+      assumeTrue(IntrospectionFixture.isPostgresql(conn), "PostgreSQL only");
+      IntrospectionFixture.create(conn, SCHEMA, TABLES);
+    }
+  }
+
+  @AfterAll
+  void dropSchema() throws Exception {
+    try (Connection conn = connection.get()) {
+      if (IntrospectionFixture.isPostgresql(conn)) {
+        IntrospectionFixture.drop(conn, SCHEMA, TABLES);
+      }
+    }
+  }
+
+  @Test
+  void testMatchesJdbcMetadata() throws Exception {
+    try (Connection conn = connection.get()) {
+      DatabaseMetaData metaData = conn.getMetaData();
+
+      assertThat(catalog.schemas(metaData), hasItems("public", SCHEMA));
+      assertThat(catalog.tables(metaData, SCHEMA), is(jdbc.tables(metaData, SCHEMA)));
+      assertThat(catalog.tables(metaData, SCHEMA).getLast(),
+          is(new DatabaseDialect.TableInfo("named", "VIEW")));
+
+      List<DatabaseDialect.ColumnInfo> columns = catalog.columns(metaData, SCHEMA, "t42");
+      List<DatabaseDialect.ColumnInfo> expected = jdbc.columns(metaData, SCHEMA, "t42");
+      assertThat(columns.stream().map(DatabaseDialect.ColumnInfo::name).toList(),
+          is(expected.stream().map(DatabaseDialect.ColumnInfo::name).toList()));
+      assertThat(columns.stream().map(DatabaseDialect.ColumnInfo::nullable).toList(),
+          is(expected.stream().map(DatabaseDialect.ColumnInfo::nullable).toList()));
+      assertThat(columns.stream().map(DatabaseDialect.ColumnInfo::primaryKey).toList(),
+          is(expected.stream().map(DatabaseDialect.ColumnInfo::primaryKey).toList()));
+      assertThat(columns.stream().map(DatabaseDialect.ColumnInfo::references).toList(),
+          is(expected.stream().map(DatabaseDialect.ColumnInfo::references).toList()));
+
+      assertThat("Types as PostgreSQL writes them",
+          columns.stream().map(DatabaseDialect.ColumnInfo::type).toList(),
+          contains("bigint", "integer", "character varying(20)", "character varying(100)", "numeric(10,2)", "text"));
+      assertThat("Composite foreign key maps each column to its own target",
+          columns.get(2).references(), is("parent.region"));
+
+      assertThat(catalog.primaryKey(metaData, SCHEMA, "parent"), contains("region", "id"));
+      DatabaseDialect.IndexInfo primaryKeyIndex = catalog.indexes(metaData, SCHEMA, "parent").getFirst();
+      assertThat(primaryKeyIndex.columns(), contains("region", "id"));
+      assertThat(primaryKeyIndex.unique(), is(true));
+      assertThat("A table that was never analyzed has no row estimate",
+          catalog.stats(metaData, SCHEMA, "parent").estimatedRows().isPresent(), is(false));
+      assertThat(catalog.primaryKey(metaData, SCHEMA, "parent"), is(jdbc.primaryKey(metaData, SCHEMA, "parent")));
+      assertThat(catalog.columns(metaData, SCHEMA, "missing"), is(empty()));
+      assertThat("Exact names, not LIKE patterns", catalog.columns(metaData, SCHEMA, "t_"), is(empty()));
+    }
+  }
+
+  /**
+   * The whole schema in one query against one describe per table.
+   */
+  @Test
+  void testDescribeAllInOneQuery() throws Exception {
+    try (Connection conn = connection.get()) {
+      DatabaseMetaData metaData = conn.getMetaData();
+      Map<DatabaseDialect.TableInfo, List<DatabaseDialect.ColumnInfo>> described =
+          catalog.describeAll(metaData, SCHEMA);
+
+      assertThat(List.copyOf(described.keySet()), is(catalog.tables(metaData, SCHEMA)));
+      for (DatabaseDialect.TableInfo table : catalog.tables(metaData, SCHEMA)) {
+        assertThat(table.name(), described.get(table), is(catalog.columns(metaData, SCHEMA, table.name())));
+      }
+    }
+  }
+}
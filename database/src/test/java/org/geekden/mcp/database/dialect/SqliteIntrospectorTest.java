@@ -0,0 +1,116 @@
+package org.geekden.mcp.database.dialect;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the PRAGMA introspector against sqlite-jdbc's DatabaseMetaData.
+ * <p>
+ * Runs only against SQLite; skipped when DB_URL points elsewhere.
+ * For timings see {@link IntrospectionBenchmarkTest}.
+ */
+@QuarkusTest
+@TestProfile(SqliteIntrospectorTest.Profile.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SqliteIntrospectorTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+  }
+
+  private static final int TABLES = 50;
+
+  private final DatabaseDialect.Introspector jdbc = Introspectors.standard();
+  private final DatabaseDialect.Introspector pragma = Introspectors.sqlite();
+
+  @Inject
+  Instance<Connection> connection;
+
+  @BeforeAll
+  void createTables() throws Exception {
+    try (Connection conn = connection.get()) {
+      assumeTrue(conn.getMetaData().getDatabaseProductName().toLowerCase().contains("sqlite"), "SQLite only");
+      IntrospectionFixture.create(conn, null, TABLES);
+    }
+  }
+
+  @AfterAll
+  void dropTables() throws Exception {
+    try (Connection conn = connection.get()) {
+      if (conn.getMetaData().getDatabaseProductName().toLowerCase().contains("sqlite")) {
+        IntrospectionFixture.drop(conn, null, TABLES);
+      }
+    }
+  }
+
+  @Test
+  void testMatchesJdbcMetadata() throws Exception {
+    try (Connection conn = connection.get()) {
+      DatabaseMetaData metaData = conn.getMetaData();
+
+      assertThat(pragma.schemas(metaData), contains("main"));
+      assertThat(pragma.tables(metaData, null).stream().map(DatabaseDialect.TableInfo::name).sorted().toList(),
+          is(jdbc.tables(metaData, null).stream().map(DatabaseDialect.TableInfo::name).sorted().toList()));
+      assertThat("Unknown schemas fall back to main", pragma.tables(metaData, "public"), hasSize(TABLES + 2));
+      assertThat(pragma.tables(metaData, null), hasItem(new DatabaseDialect.TableInfo("named", "VIEW")));
+
+      List<DatabaseDialect.ColumnInfo> columns = pragma.columns(metaData, "main", "t42");
+      List<DatabaseDialect.ColumnInfo> expected = jdbc.columns(metaData, "main", "t42");
+      assertThat(columns.stream().map(DatabaseDialect.ColumnInfo::name).toList(),
+          is(expected.stream().map(DatabaseDialect.ColumnInfo::name).toList()));
+      assertThat(columns.stream().map(DatabaseDialect.ColumnInfo::nullable).toList(),
+          is(expected.stream().map(DatabaseDialect.ColumnInfo::nullable).toList()));
+      assertThat(columns.stream().map(DatabaseDialect.ColumnInfo::primaryKey).toList(),
+          is(expected.stream().map(DatabaseDialect.ColumnInfo::primaryKey).toList()));
+      assertThat(columns.stream().map(DatabaseDialect.ColumnInfo::references).toList(),
+          is(expected.stream().map(DatabaseDialect.ColumnInfo::references).toList()));
+
+      assertThat("Types as declared", columns.stream().map(DatabaseDialect.ColumnInfo::type).toList(),
+          contains("INTEGER", "INTEGER", "VARCHAR(20)", "VARCHAR(100)", "DECIMAL(10,2)", "TEXT"));
+      assertThat("Composite foreign key maps each column to its own target",
+          columns.get(2).references(), is("parent.region"));
+
+      assertThat(pragma.primaryKey(metaData, null, "parent"), contains("region", "id"));
+      DatabaseDialect.IndexInfo primaryKeyIndex = pragma.indexes(metaData, null, "parent").getFirst();
+      assertThat(primaryKeyIndex.columns(), contains("region", "id"));
+      assertThat(primaryKeyIndex.unique(), is(true));
+      assertThat("A table that was never analyzed has no row estimate",
+          pragma.stats(metaData, null, "parent").estimatedRows().isPresent(), is(false));
+      assertThat(pragma.primaryKey(metaData, null, "parent"), is(jdbc.primaryKey(metaData, null, "parent")));
+      assertThat(pragma.columns(metaData, null, "named"), hasSize(2));
+      assertThat(pragma.columns(metaData, null, "missing"), is(empty()));
+    }
+  }
+
+  /**
+   * The whole schema in one query against one describe per table.
+   */
+  @Test
+  void testDescribeAllInOneQuery() throws Exception {
+    try (Connection conn = connection.get()) {
+      DatabaseMetaData metaData = conn.getMetaData();
+      Map<DatabaseDialect.TableInfo, List<DatabaseDialect.ColumnInfo>> described =
+          pragma.describeAll(metaData, null);
+
+      assertThat(List.copyOf(described.keySet()), is(pragma.tables(metaData, null)));
+      for (DatabaseDialect.TableInfo table : pragma.tables(metaData, null)) {
+        assertThat(table.name(), described.get(table), is(pragma.columns(metaData, null, table.name())));
+      }
+    }
+  }
+}
@@ -0,0 +1,330 @@
+package org.geekden.mcp.database.formatter;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.Text;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.rowset.RowSetMetaDataImpl;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Integration tests for ArrowBatchWriter.
+ * <p>
+ * Every stream is read back with the Arrow Java {@link ArrowStreamReader}, so the
+ * types, dictionaries and batches are checked as a consumer would see them.
+ */
+@QuarkusTest
+@TestProfile(ArrowBatchWriterTest.Profile.class)
+class ArrowBatchWriterTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+  }
+
+  /** What a JDBC getter returns for SQL NULL, by return type; reference types return null. */
+  private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS =
+      Map.of(boolean.class, false, int.class, 0, long.class, 0L, double.class, 0.0);
+
+  @Inject
+  Instance<Connection> connection;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS sales");
+      stmt.execute("CREATE TABLE sales (id INTEGER PRIMARY KEY, name TEXT, region TEXT, amount REAL)");
+      for (int i = 1; i <= 10; i++) {
+        String region = i == 10 ? "'west'" : i == 6 ? "NULL" : i % 2 == 0 ? "'north'" : "'south'";
+        String amount = i == 3 ? "NULL" : String.valueOf(i * 1.5);
+        stmt.execute("INSERT INTO sales VALUES (" + i + ", 'name " + i + "', " + region + ", " + amount + ")");
+      }
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS sales");
+    }
+  }
+
+  private byte[] write(String query, int batchRows) throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(query)) {
+      return write(rs, batchRows);
+    }
+  }
+
+  private static byte[] write(ResultSet rs, int batchRows) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new ArrowBatchWriter(Channels.newChannel(out), batchRows).write(rs);
+    return out.toByteArray();
+  }
+
+  @Test
+  void testDictionaryGrowsAcrossBatches() throws Exception {
+    ReadBack stream = read(write("SELECT id, name, region, amount FROM sales ORDER BY id", 4));
+
+    assertThat(stream.batches(), is(3));
+    assertThat(stream.schema().getFields().stream().map(Field::getName).toList(),
+        contains("id", "name", "region", "amount"));
+    assertThat("Only the low-cardinality column uses a dictionary",
+        stream.schema().getFields().stream().map(field -> field.getDictionary() != null).toList(),
+        contains(false, false, true, false));
+
+    assertThat(stream.column("id"), contains(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L));
+    assertThat(stream.column("name").get(9), is("name 10"));
+    assertThat(stream.column("region"), contains("south", "north", "south", "north", "south",
+        null, "south", "north", "south", "west"));
+    assertThat(stream.column("amount"), contains(1.5, 3.0, null, 6.0, 7.5, 9.0, 10.5, 12.0, 13.5, 15.0));
+    assertThat("'west' should be added to the earlier entries",
+        stream.dictionarySizes(), contains(2, 2, 3));
+  }
+
+  @Test
+  void testDictionaryIsReplacedWhenTooLarge() throws Exception {
+    int rows = ArrowBatchWriter.MAX_DICTIONARY_SIZE + 5000;
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS labels");
+      stmt.execute("CREATE TABLE labels (id INTEGER PRIMARY KEY, label TEXT)");
+      // One repeated label in the first batch, then a new label on every row
+      stmt.execute("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < " + rows + ") "
+          + "INSERT INTO labels SELECT i, CASE WHEN i <= 1000 THEN 'first' ELSE 'label ' || i END FROM n");
+    }
+    try {
+      ReadBack stream = read(write("SELECT label FROM labels ORDER BY id", 1000));
+
+      List<Object> labels = stream.column("label");
+      assertThat(labels, hasSize(rows));
+      assertThat(labels.get(999), is("first"));
+      assertThat(labels.get(1000), is("label 1001"));
+      assertThat(labels.get(rows - 1), is("label " + rows));
+      assertThat("The dictionary should never grow past the limit", stream.dictionarySizes(),
+          everyItem(lessThanOrEqualTo(ArrowBatchWriter.MAX_DICTIONARY_SIZE)));
+      // Batch 66 leaves 'first' plus 65 * 1000 labels; batch 67 would overflow, so starts over
+      assertThat(stream.dictionarySizes().get(65), is(65_001));
+      assertThat("The dictionary should be replaced by the batch that would overflow it",
+          stream.dictionarySizes().get(66), is(1000));
+    } finally {
+      try (Connection conn = connection.get();
+           Statement stmt = conn.createStatement()) {
+        stmt.execute("DROP TABLE IF EXISTS labels");
+      }
+    }
+  }
+
+  @Test
+  void testRepeatedLabelsAreStoredOnce() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS labels");
+      stmt.execute("CREATE TABLE labels (id INTEGER PRIMARY KEY, label TEXT)");
+      stmt.execute("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 5000) "
+          + "INSERT INTO labels SELECT i, CASE i % 2 WHEN 0 THEN 'north-america-east' "
+          + "ELSE 'europe-central' END FROM n");
+    }
+    try {
+      byte[] stream = write("SELECT label FROM labels ORDER BY id", 5000);
+
+      assertThat("Four-byte indices should replace the label text", stream.length, lessThan(5000 * 8));
+      assertThat(read(stream).column("label").get(4999), is("north-america-east"));
+    } finally {
+      try (Connection conn = connection.get();
+           Statement stmt = conn.createStatement()) {
+        stmt.execute("DROP TABLE IF EXISTS labels");
+      }
+    }
+  }
+
+  @Test
+  void testPlainUtf8Column() throws Exception {
+    ReadBack stream = read(write("SELECT name FROM sales ORDER BY id", 100));
+    assertThat(stream.schema().getFields().get(0).getType(), is(ArrowType.Utf8.INSTANCE));
+    assertThat(stream.schema().getFields().get(0).getDictionary(), is(nullValue()));
+    assertThat(stream.column("name"), contains("name 1", "name 2", "name 3", "name 4", "name 5",
+        "name 6", "name 7", "name 8", "name 9", "name 10"));
+  }
+
+  @Test
+  void testEmptyResultWritesSchemaOnly() throws Exception {
+    ReadBack stream = read(write("SELECT * FROM sales WHERE id < 0", 4));
+    assertThat(stream.schema().getFields(), hasSize(4));
+    assertThat(stream.batches(), is(0));
+  }
+
+  @Test
+  void testEveryColumnTypeRoundTrips() throws Exception {
+    RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+    metaData.setColumnCount(12);
+    column(metaData, 1, "flag", Types.BOOLEAN, "boolean");
+    column(metaData, 2, "small", Types.SMALLINT, "int2");
+    column(metaData, 3, "big", Types.BIGINT, "int8");
+    column(metaData, 4, "ratio", Types.DOUBLE, "float8");
+    column(metaData, 5, "price", Types.DECIMAL, "numeric");
+    metaData.setPrecision(5, 10);
+    metaData.setScale(5, 2);
+    column(metaData, 6, "unbounded", Types.NUMERIC, "numeric");
+    column(metaData, 7, "day", Types.DATE, "date");
+    column(metaData, 8, "local", Types.TIMESTAMP, "timestamp");
+    column(metaData, 9, "instant", Types.TIMESTAMP, "timestamptz");
+    column(metaData, 10, "payload", Types.VARBINARY, "bytea");
+    column(metaData, 11, "note", Types.VARCHAR, "text");
+    column(metaData, 12, "uuid", Types.OTHER, "uuid");
+
+    LocalDateTime local = LocalDateTime.of(2024, 2, 29, 13, 45, 30, 123_456_000);
+    Instant instant = Instant.parse("2024-02-29T13:45:30.123456Z");
+    Object[] values = {true, 7, 9_000_000_000L, 0.25, new BigDecimal("-12345.67"),
+        new BigDecimal("3.14159265358979323846264338327950288419716939937510"),
+        Date.valueOf(LocalDate.of(2024, 2, 29)), Timestamp.valueOf(local), Timestamp.from(instant),
+        new byte[] {1, 2, 3}, "héllo", "5f0c5d3e-9e0a-4c1e-8f43-2b8d1c2a6b7e"};
+    Object[] nulls = new Object[values.length];
+
+    ReadBack stream = read(write(resultSet(metaData, values, nulls), 10));
+
+    assertThat(stream.schema().getFields().stream().map(Field::getType).toList(), contains(
+        ArrowType.Bool.INSTANCE,
+        new ArrowType.Int(32, true),
+        new ArrowType.Int(64, true),
+        new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE),
+        new ArrowType.Decimal(10, 2, 128),
+        ArrowType.Utf8.INSTANCE,
+        new ArrowType.Date(DateUnit.DAY),
+        new ArrowType.Timestamp(TimeUnit.MICROSECOND, null),
+        new ArrowType.Timestamp(TimeUnit.MICROSECOND, "UTC"),
+        ArrowType.Binary.INSTANCE,
+        ArrowType.Utf8.INSTANCE,
+        ArrowType.Utf8.INSTANCE));
+
+    assertThat(stream.column("flag"), contains(true, null));
+    assertThat(stream.column("small"), contains(7, null));
+    assertThat(stream.column("big"), contains(9_000_000_000L, null));
+    assertThat(stream.column("ratio"), contains(0.25, null));
+    assertThat(stream.column("price"), contains(new BigDecimal("-12345.67"), null));
+    assertThat("Decimals without a usable precision should fall back to text", stream.column("unbounded"),
+        contains("3.14159265358979323846264338327950288419716939937510", null));
+    assertThat("Dates are days since the epoch", stream.column("day"),
+        contains((int) LocalDate.of(2024, 2, 29).toEpochDay(), null));
+    assertThat(stream.column("local"), contains(local, null));
+    assertThat("timestamptz values are UTC microseconds", stream.column("instant"),
+        contains(instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1000, null));
+    assertThat((byte[]) stream.column("payload").get(0), is(new byte[] {1, 2, 3}));
+    assertThat(stream.column("payload").get(1), is(nullValue()));
+    assertThat(stream.column("note"), contains("héllo", null));
+    assertThat(stream.column("uuid"), contains("5f0c5d3e-9e0a-4c1e-8f43-2b8d1c2a6b7e", null));
+  }
+
+  private static void column(RowSetMetaDataImpl metaData, int index, String name, int type, String typeName)
+      throws SQLException {
+    metaData.setColumnLabel(index, name);
+    metaData.setColumnType(index, type);
+    metaData.setColumnTypeName(index, typeName);
+  }
+
+  /**
+   * A ResultSet over in-memory rows, so every JDBC type is covered whichever database the tests run on.
+   * Each value must already be the Java type its column's getter returns.
+   */
+  private static ResultSet resultSet(ResultSetMetaData metaData, Object[]... rows) {
+    int[] row = {-1};
+    Object[] lastRead = {null};
+    return (ResultSet) Proxy.newProxyInstance(ArrowBatchWriterTest.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+        (proxy, method, args) -> switch (method.getName()) {
+          case "getMetaData" -> metaData;
+          case "next" -> ++row[0] < rows.length;
+          case "wasNull" -> lastRead[0] == null;
+          case "getBoolean", "getInt", "getLong", "getDouble", "getBigDecimal", "getDate", "getTimestamp",
+               "getBytes", "getString" -> {
+            lastRead[0] = rows[row[0]][(Integer) args[0] - 1];
+            yield lastRead[0] != null ? lastRead[0] : PRIMITIVE_DEFAULTS.get(method.getReturnType());
+          }
+          default -> throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  /**
+   * A stream as read by Arrow Java: its schema, and every column's values across all batches,
+   * with dictionary-encoded columns decoded.
+   *
+   * @param dictionarySizes Size of the first dictionary after each batch
+   */
+  private record ReadBack(Schema schema, int batches, Map<String, List<Object>> columns,
+                          List<Integer> dictionarySizes) {
+    List<Object> column(String name) {
+      return columns.get(name);
+    }
+  }
+
+  private static ReadBack read(byte[] stream) throws Exception {
+    try (BufferAllocator allocator = new RootAllocator();
+         ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream), allocator)) {
+      VectorSchemaRoot root = reader.getVectorSchemaRoot();
+      Map<String, List<Object>> columns = new LinkedHashMap<>();
+      root.getSchema().getFields().forEach(field -> columns.put(field.getName(), new ArrayList<>()));
+      List<Integer> dictionarySizes = new ArrayList<>();
+      int batches = 0;
+      while (reader.loadNextBatch()) {
+        batches++;
+        for (FieldVector vector : root.getFieldVectors()) {
+          Field field = vector.getField();
+          ValueVector values = field.getDictionary() == null ? null
+              : reader.getDictionaryVectors().get(field.getDictionary().getId()).getVector();
+          for (int i = 0; i < root.getRowCount(); i++) {
+            Object value = vector.getObject(i);
+            if (values != null && value != null) {
+              value = values.getObject((Integer) value);
+            }
+            columns.get(field.getName()).add(value instanceof Text text ? text.toString() : value);
+          }
+        }
+        reader.getDictionaryVectors().values().stream().findFirst()
+            .map(Dictionary::getVector)
+            .ifPresent(dictionary -> dictionarySizes.add(dictionary.getValueCount()));
+      }
+      return new ReadBack(root.getSchema(), batches, columns, dictionarySizes);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package org.geekden.mcp.database.formatter;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Measures how many characters and UTF-8 bytes a row costs in each result format,
+ * on a page where one comment is much longer than the rest, and prints the comparison.
+ * <p>
+ * Excluded from {@code mvn test}; run with {@code mvn test -Pbenchmark}. Sizes
+ * depend on the data, so only that every row was rendered is asserted.
+ */
+@Tag("benchmark")
+@QuarkusTest
+@TestProfile(CompactWriterBenchmarkTest.Profile.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CompactWriterBenchmarkTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+  }
+
+  private static final int ROWS = 1000;
+  private static final int LONG_COMMENT = 500;
+
+  @Inject
+  Instance<Connection> connection;
+
+  @BeforeAll
+  void createTable() throws Exception {
+    try (Connection conn = connection.get()) {
+      try (Statement stmt = conn.createStatement()) {
+        stmt.execute("DROP TABLE IF EXISTS format_bench");
+        stmt.execute("CREATE TABLE format_bench (id INTEGER PRIMARY KEY, status TEXT, amount NUMERIC(10, 2), "
+            + "shipped BOOLEAN, comment TEXT)");
+      }
+      try (PreparedStatement insert = conn.prepareStatement(
+          "INSERT INTO format_bench (id, status, amount, shipped, comment) VALUES (?, ?, ?, ?, ?)")) {
+        for (int i = 1; i <= ROWS; i++) {
+          insert.setInt(1, i);
+          insert.setString(2, i % 3 == 0 ? "shipped" : "pending");
+          insert.setBigDecimal(3, BigDecimal.valueOf(i * 137L % 100_000, 2));
+          insert.setBoolean(4, i % 3 == 0);
+          insert.setString(5, i == 7 ? "x".repeat(LONG_COMMENT) : "ok");
+          insert.addBatch();
+        }
+        insert.executeBatch();
+      }
+    }
+  }
+
+  @AfterAll
+  void dropTable() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS format_bench");
+    }
+  }
+
+  @Test
+  void benchmarkBytesPerRow() throws Exception {
+    System.out.printf("%d rows, one comment of %d chars%n", ROWS, LONG_COMMENT);
+    for (ResultFormat format : ResultFormat.values()) {
+      String rendered;
+      try (Connection conn = connection.get();
+           Statement stmt = conn.createStatement();
+           ResultSet rs = stmt.executeQuery("SELECT * FROM format_bench ORDER BY id")) {
+        ResultPage page = ResultSetFormatter.readPage(rs, 0, false, null, OutputLimits.NONE, format);
+        assertThat(page.rows(), hasSize(ROWS));
+        rendered = ResultSetFormatter.render(page, null, format);
+      }
+      int bytes = rendered.getBytes(StandardCharsets.UTF_8).length;
+      System.out.printf("%-9s %8.1f chars/row %8.1f bytes/row%n", format.name().toLowerCase() + ":",
+          rendered.length() / (double) ROWS, bytes / (double) ROWS);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package org.geekden.mcp.database.formatter;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Integration tests for CompactWriter.
+ */
+@QuarkusTest
+@TestProfile(CompactWriterTest.Profile.class)
+class CompactWriterTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+  }
+
+  @Inject
+  Instance<Connection> connection;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS notes");
+      stmt.execute("CREATE TABLE notes (id INTEGER PRIMARY KEY, body TEXT)");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (1, 'plain')");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (2, NULL)");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (3, 'a|b \"q\"')");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (4, 'two' || char(10) || 'lines' || char(9) || 'tab\\')");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (5, '<null>')");
+      stmt.execute("DROP TABLE IF EXISTS readings");
+      stmt.execute("CREATE TABLE readings (id INTEGER PRIMARY KEY, ratio REAL, done BOOLEAN, label TEXT)");
+      stmt.execute("INSERT INTO readings (id, ratio, done, label) VALUES (1, 0.5, 1, '12')");
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS notes");
+      stmt.execute("DROP TABLE IF EXISTS readings");
+    }
+  }
+
+  private String write(ResultFormat format, String query) throws Exception {
+    StringBuilder out = new StringBuilder();
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(query)) {
+      new CompactWriter(out, format).write(rs);
+    }
+    return out.toString();
+  }
+
+  @Test
+  void testTsvEscapesSoEveryRowIsOneLine() throws Exception {
+    assertThat(write(ResultFormat.TSV, "SELECT * FROM notes ORDER BY id"), is(
+        "id\tbody\n"
+            + "1\tplain\n"
+            + "2\t<null>\n"
+            + "3\ta|b \"q\"\n"
+            + "4\ttwo\\nlines\\ttab\\\\\n"
+            + "5\t<null>\n"));
+  }
+
+  @Test
+  void testMarkdownEscapesBackslashesPipesAndLineBreaks() throws Exception {
+    assertThat(write(ResultFormat.MARKDOWN, "SELECT * FROM notes ORDER BY id"), is(
+        "|id|body|\n"
+            + "|---|---|\n"
+            + "|1|plain|\n"
+            + "|2|<null>|\n"
+            + "|3|a\\|b \"q\"|\n"
+            + "|4|two<br>lines\ttab\\\\|\n"
+            + "|5|<null>|\n"));
+  }
+
+  @Test
+  void testJsonLinesWritesSqlNullAsNullAndTextAsString() throws Exception {
+    assertThat(write(ResultFormat.JSONL, "SELECT * FROM notes ORDER BY id"), is(
+        "{\"id\":1,\"body\":\"plain\"}\n"
+            + "{\"id\":2,\"body\":null}\n"
+            + "{\"id\":3,\"body\":\"a|b \\\"q\\\"\"}\n"
+            + "{\"id\":4,\"body\":\"two\\nlines\\ttab\\\\\"}\n"
+            + "{\"id\":5,\"body\":\"<null>\"}\n"));
+  }
+
+  @Test
+  void testJsonLinesWritesValuesByColumnTypeAndNumbersRepeatedLabels() throws Exception {
+    assertThat(write(ResultFormat.JSONL,
+        "SELECT r.id, n.id, r.ratio, r.done, r.label FROM readings r JOIN notes n ON n.id = r.id"),
+        is("{\"id\":1,\"id_2\":1,\"ratio\":0.5,\"done\":true,\"label\":\"12\"}\n"));
+  }
+
+  @Test
+  void testJsonLinesKeepsCellsThatAreNotLiteralsAsStrings() {
+    assertThat(CompactWriter.render(ResultFormat.JSONL, List.of("n", "n", "n_2"),
+        List.of(Types.DOUBLE, Types.BIGINT, Types.BOOLEAN), List.of(List.of("NaN", "12345…", "t"))),
+        is("{\"n\":\"NaN\",\"n_3\":\"12345…\",\"n_2\":\"t\"}"));
+  }
+
+  @Test
+  void testEmptyResult() throws Exception {
+    assertThat(write(ResultFormat.JSONL, "SELECT * FROM notes WHERE id < 0"), is("No results."));
+  }
+
+  @Test
+  void testRejectsTableFormat() {
+    assertThrows(IllegalArgumentException.class, () -> new CompactWriter(new StringBuilder(), ResultFormat.TABLE));
+  }
+
+  @Test
+  void testParseFormat() {
+    assertThat(ResultFormat.parse(null), is(ResultFormat.TABLE));
+    assertThat(ResultFormat.parse(" JsonL "), is(ResultFormat.JSONL));
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ResultFormat.parse("xml"));
+    assertThat(e.getMessage(), containsString("Unknown format 'xml'"));
+  }
+
+  /**
+   * A page where one value is much longer than the rest, the case that pads every
+   * row of the aligned table.
+   */
+  @Test
+  void testCompactFormatsAvoidPaddingEveryRow() {
+    List<String> headers = List.of("id", "status", "comment");
+    List<Integer> types = List.of(Types.INTEGER, Types.VARCHAR, Types.VARCHAR);
+    List<List<String>> rows = new ArrayList<>();
+    for (int i = 1; i <= 200; i++) {
+      String comment = i == 7 ? "x".repeat(500) : "ok";
+      rows.add(List.of(String.valueOf(i), i % 3 == 0 ? "shipped" : "pending", comment));
+    }
+
+    int table = TableFormatter.format(headers, rows).length();
+    assertThat("Every table row should be padded to the long comment", table, greaterThan(200 * 500));
+    for (ResultFormat format : List.of(ResultFormat.TSV, ResultFormat.MARKDOWN, ResultFormat.JSONL)) {
+      int compact = CompactWriter.render(format, headers, types, rows).length();
+      assertThat(format + " should carry the long comment once", compact, lessThan(500 + 200 * 60));
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package org.geekden.mcp.database.formatter;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Integration tests for DelimitedWriter.
+ */
+@QuarkusTest
+@TestProfile(DelimitedWriterTest.Profile.class)
+class DelimitedWriterTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+  }
+
+  @Inject
+  Instance<Connection> connection;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS notes");
+      stmt.execute("CREATE TABLE notes (id INTEGER PRIMARY KEY, body TEXT)");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (1, 'plain')");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (2, NULL)");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (3, '')");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (4, 'says \"hi\", twice')");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (5, 'two' || char(10) || 'lines')");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (6, 'tab' || char(9) || 'bed')");
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS notes");
+    }
+  }
+
+  private String write(DelimitedWriter.Format format) throws Exception {
+    StringBuilder out = new StringBuilder();
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT * FROM notes ORDER BY id")) {
+      long rows = new DelimitedWriter(out, format).write(rs);
+      assertThat("Should count rows without the header", rows, is(6L));
+    }
+    return out.toString();
+  }
+
+  @Test
+  void testCsvQuotesOnlyWhereNeeded() throws Exception {
+    assertThat(write(DelimitedWriter.Format.CSV), is(
+        "id,body\n"
+            + "1,plain\n"
+            + "2,\n"
+            + "3,\"\"\n"
+            + "4,\"says \"\"hi\"\", twice\"\n"
+            + "5,\"two\nlines\"\n"
+            + "6,tab\tbed\n"));
+  }
+
+  @Test
+  void testTsvQuotesTabsButNotCommas() throws Exception {
+    assertThat(write(DelimitedWriter.Format.TSV), is(
+        "id\tbody\n"
+            + "1\tplain\n"
+            + "2\t\n"
+            + "3\t\"\"\n"
+            + "4\t\"says \"\"hi\"\", twice\"\n"
+            + "5\t\"two\nlines\"\n"
+            + "6\t\"tab\tbed\"\n"));
+  }
+
+  @Test
+  void testParseFormatIgnoresCase() {
+    assertThat(DelimitedWriter.Format.parse("Tsv"), is(DelimitedWriter.Format.TSV));
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> DelimitedWriter.Format.parse("json"));
+    assertThat(e.getMessage(), containsString("use csv or tsv"));
+  }
+}
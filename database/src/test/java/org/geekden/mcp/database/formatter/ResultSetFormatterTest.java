@@ -13,7 +13,12 @@ import org.junit.jupiter.api.Test;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -160,6 +165,115 @@ class ResultSetFormatterTest {
     }
   }
 
+  @Test
+  void testReadPageStopsAtOutputBudget() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT * FROM users ORDER BY id")) {
+
+      // One row renders in 115 characters, two in 144
+      ResultPage page = ResultSetFormatter.readPage(rs, 10, false, null, new OutputLimits(120, 0));
+
+      assertThat("Should stop before the row that exceeds the budget", page.rows(), hasSize(1));
+      assertThat("Should report more rows", page.hasMore(), is(true));
+      assertThat("Should leave the cursor on the first row not shown", rs.getString("name"), is("Bob"));
+
+      String result = ResultSetFormatter.render(page, 1);
+      assertThat("Table should fit the budget",
+          result.substring(0, result.indexOf("\nPage")).length(), lessThanOrEqualTo(120));
+      assertThat("Should report the effective page boundary",
+          result, containsString("Page 1 (more available; stopped after 1 row to fit the output limit)"));
+    }
+  }
+
+  @Test
+  void testReadPageMakesOneCursorFromTheLastRowShown() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT * FROM users ORDER BY id")) {
+      List<List<Object>> encoded = new ArrayList<>();
+      ResultSetFormatter.CursorFactory cursors = new ResultSetFormatter.CursorFactory() {
+        @Override
+        public List<Object> positionOf(ResultSet row) throws SQLException {
+          return List.of(row.getInt("id"));
+        }
+
+        @Override
+        public String cursorAfter(List<Object> position) {
+          encoded.add(position);
+          return "after-" + position.get(0);
+        }
+      };
+
+      // The budget can end the page on any row: one row renders in 115 characters, two in 144
+      ResultPage page = ResultSetFormatter.readPage(rs, 10, false, cursors, new OutputLimits(150, 0));
+
+      assertThat("Should stop after two rows", page.rows(), hasSize(2));
+      assertThat("Should continue after the last row shown", page.nextCursor(), is("after-2"));
+      assertThat("Should encode a cursor only once per page", encoded, contains(List.of(2)));
+    }
+  }
+
+  @Test
+  void testReadPageShowsOneRowOverBudget() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT * FROM users ORDER BY id")) {
+
+      ResultPage page = ResultSetFormatter.readPage(rs, 10, false, null, new OutputLimits(1, 0));
+
+      assertThat("Should always show at least one row", page.rows(), hasSize(1));
+      assertThat("Non-paged output should say it was cut short",
+          ResultSetFormatter.render(page, null), containsString("Showing the first 1 row to fit the output limit"));
+      assertThat("Should say the rest can't be paged to",
+          ResultSetFormatter.render(page, null), containsString("the rest can't be fetched as a next page"));
+    }
+  }
+
+  @Test
+  void testReadPageStopsAtTimeLimit() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT * FROM users ORDER BY id")) {
+
+      ResultPage page = ResultSetFormatter.readPage(rs, 10, false, null, new OutputLimits(0, 0, Duration.ofNanos(1)));
+
+      assertThat("Should return the rows read before the deadline", page.rows(), hasSize(1));
+      assertThat("Should report more rows", page.hasMore(), is(true));
+      assertThat("Should mark the page as cut short",
+          ResultSetFormatter.render(page, 1), containsString("stopped after 1 row at the time limit"));
+    }
+  }
+
+  @Test
+  void testPaginationFooterShowsRowTotal() {
+    ResultPage page = new ResultPage(List.of("id"), List.of(Types.INTEGER), List.of(List.of("1")), true, null,
+        ResultPage.Cutoff.NONE);
+
+    assertThat("Should show an estimated total",
+        ResultSetFormatter.render(page.withTotal(new ResultPage.RowTotal(1234, false)), 1),
+        containsString("Page 1 (more available; about 1234 rows in total)"));
+    assertThat("Should show an exact total without qualification",
+        ResultSetFormatter.render(page.withTotal(new ResultPage.RowTotal(1234, true)), 1),
+        containsString("Page 1 (more available; 1234 rows in total)"));
+  }
+
+  @Test
+  void testReadPageTruncatesLongCells() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT * FROM users ORDER BY id")) {
+
+      ResultPage page = ResultSetFormatter.readPage(rs, 10, false, null, new OutputLimits(0, 5));
+
+      assertThat("All rows fit without a budget", page.rows(), hasSize(3));
+      assertThat("Long cells should be truncated",
+          page.rows().get(0), contains("1", "Alice", "alic…"));
+      assertThat("Cells within the cap should be unchanged, and SQL NULL left null",
+          page.rows().get(2), contains("3", "Char…", null));
+    }
+  }
+
   @Test
   void testFormatMessage() {
     String result = ResultSetFormatter.formatMessage("Operation completed successfully");
@@ -0,0 +1,113 @@
+package org.geekden.mcp.database.formatter;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Integration tests for StreamingTableWriter.
+ */
+@QuarkusTest
+@TestProfile(StreamingTableWriterTest.Profile.class)
+class StreamingTableWriterTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+  }
+
+  @Inject
+  Instance<Connection> connection;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS notes");
+      stmt.execute("CREATE TABLE notes (id INTEGER PRIMARY KEY, body TEXT)");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (1, 'short')");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (2, NULL)");
+      stmt.execute("INSERT INTO notes (id, body) VALUES (3, 'a much longer note than the others')");
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS notes");
+    }
+  }
+
+  @Test
+  void testMatchesBufferedFormatterWhenSampleCoversResult() throws Exception {
+    String buffered;
+    StringBuilder streamed = new StringBuilder();
+    long rows;
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      try (ResultSet rs = stmt.executeQuery("SELECT * FROM notes ORDER BY id")) {
+        buffered = ResultSetFormatter.format(rs);
+      }
+      try (ResultSet rs = stmt.executeQuery("SELECT * FROM notes ORDER BY id")) {
+        rows = new StreamingTableWriter(streamed).write(rs);
+      }
+    }
+
+    assertThat("Should count rows", rows, is(3L));
+    assertThat("Should render the same table as TableFormatter", streamed.toString(), is(buffered));
+  }
+
+  @Test
+  void testTruncatesCellsWiderThanMaxWidth() throws Exception {
+    StringBuilder streamed = new StringBuilder();
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT body FROM notes WHERE id = 3")) {
+      new StreamingTableWriter(streamed, 10, 10).write(rs);
+    }
+
+    assertThat("Should truncate with an ellipsis", streamed.toString(), containsString("a much lo…"));
+    assertThat("Should not contain the full value",
+        streamed.toString(), not(containsString("longer")));
+  }
+
+  @Test
+  void testTruncatesRowsBeyondSampleToSampledWidth() throws Exception {
+    StringBuilder streamed = new StringBuilder();
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT body FROM notes ORDER BY id")) {
+      new StreamingTableWriter(streamed, 1, 200).write(rs);
+    }
+
+    String[] lines = streamed.toString().split("\n");
+    assertThat("Should write header, separator, three rows and footer", lines.length, is(6));
+    assertThat("Later rows should fit the column width",
+        lines[4].length(), is(lines[1].length()));
+    assertThat("Wider row past the sample should be truncated", lines[4], endsWith("…"));
+  }
+
+  @Test
+  void testEmptyResult() throws Exception {
+    StringBuilder streamed = new StringBuilder();
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT * FROM notes WHERE id > 100")) {
+      long rows = new StreamingTableWriter(streamed).write(rs);
+      assertThat("Should count no rows", rows, is(0L));
+    }
+
+    assertThat("Should indicate no results", streamed.toString(), is("No results."));
+  }
+}
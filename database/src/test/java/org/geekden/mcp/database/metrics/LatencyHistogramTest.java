@@ -0,0 +1,50 @@
+package org.geekden.mcp.database.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for LatencyHistogram.
+ */
+class LatencyHistogramTest {
+
+  @Test
+  void testEmptyHistogramReportsZero() {
+    LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+    assertThat("Should count nothing", snapshot.count(), is(0L));
+    assertThat("Should report a zero percentile", snapshot.percentileMillis(95), is(0.0));
+    assertThat("Should report a zero mean", snapshot.meanMillis(), is(0.0));
+  }
+
+  @Test
+  void testPercentilesUseBucketBounds() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 90; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+    }
+    for (int i = 0; i < 10; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(150));
+    }
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+    assertThat("Should count every duration", snapshot.count(), is(100L));
+    assertThat("p50 should fall in the 2-5 ms bucket", snapshot.percentileMillis(50), is(5.0));
+    assertThat("p95 should fall in the 100-200 ms bucket", snapshot.percentileMillis(95), is(150.0));
+    assertThat("Should track the longest duration", snapshot.maxMillis(), is(150.0));
+    assertThat("Should compute the mean", snapshot.meanMillis(), is(17.7));
+  }
+
+  @Test
+  void testSlowDurationsBeyondLastBucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(TimeUnit.SECONDS.toNanos(90));
+
+    assertThat("Should report the actual maximum past the last bound",
+        histogram.snapshot().percentileMillis(99), is(90000.0));
+  }
+}
@@ -0,0 +1,76 @@
+package org.geekden.mcp.database.metrics;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.DatabaseMcpTools;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for the server_stats tool and the metrics file.
+ */
+@QuarkusTest
+@TestProfile(ServerMetricsTest.Profile.class)
+class ServerMetricsTest {
+
+  private static final String METRICS_FILE = "target/ServerMetricsTest.metrics";
+
+  public static class Profile extends IsolatedDatabaseProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      Map<String, String> overrides = new HashMap<>(super.getConfigOverrides());
+      overrides.put("db.metrics.file", METRICS_FILE);
+      return overrides;
+    }
+  }
+
+  @Inject
+  DatabaseMcpTools mcpTools;
+
+  @Inject
+  MetricsFileWriter metricsFileWriter;
+
+  @Test
+  void testStatsReportPoolAndToolCalls() {
+    mcpTools.executeSql("SELECT 1 AS n UNION ALL SELECT 2 UNION ALL SELECT 3", 1, null, null, 0, null, null, null);
+    mcpTools.executeSql("SELECT * FROM no_such_table", 1, null, null, 0, null, null, null);
+
+    String stats = mcpTools.serverStats();
+
+    assertThat("Should show pool gauges", stats, containsString("Connection pool DatabaseConnectionPool:"));
+    assertThat("Should show connection acquire time", stats, containsString("Connection acquire:"));
+    assertThat("Should list the tool", stats, containsString("executeSql"));
+    assertThat("Should count both calls, one failed, and the rows returned",
+        stats, matchesPattern("(?s).*executeSql\\s+2\\s+1\\s+\\S+\\s+\\S+\\s+\\S+\\s+3\\s+\\d+.*"));
+  }
+
+  @Test
+  void testWritesMetricsFile() throws Exception {
+    Path file = Path.of(METRICS_FILE);
+    Files.deleteIfExists(file);
+
+    metricsFileWriter.write();
+
+    assertThat("Should write the report", Files.readString(file), containsString("Connection pool"));
+  }
+
+  @Test
+  void testMetricsFileNotWrittenOutsideServerMode() throws Exception {
+    Path file = Path.of(METRICS_FILE);
+    Files.deleteIfExists(file);
+
+    // Tests start the application without the stdio server, like a CLI command
+    metricsFileWriter.onStop(null);
+
+    assertThat("Should not overwrite the server's file", Files.exists(file), is(false));
+  }
+}
@@ -0,0 +1,135 @@
+package org.geekden.mcp.database.provider;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for closing idle named datasource pools and capping how many are open,
+ * on a clock the test advances.
+ */
+@QuarkusTest
+@TestProfile(DataSourceRegistryTest.Profile.class)
+class DataSourceRegistryTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      Map<String, String> overrides = new HashMap<>(super.getConfigOverrides());
+      for (String name : new String[] {"alpha", "beta", "gamma"}) {
+        overrides.put("db." + name + ".jdbc.url", "jdbc:sqlite:target/DataSourceRegistryTest-" + name + ".db");
+      }
+      overrides.put("db.datasources.max-open", "2");
+      overrides.put("db.datasources.idle-timeout", "10m");
+      return overrides;
+    }
+  }
+
+  @Inject
+  DataSourceRegistry registry;
+
+  private final AtomicLong now = new AtomicLong();
+
+  @BeforeEach
+  void setUp() {
+    registry.closeAll();
+    registry.setClock(now::get);
+  }
+
+  @AfterEach
+  void tearDown() {
+    registry.closeAll();
+    registry.setClock(System::nanoTime);
+  }
+
+  private void use(String name) throws SQLException {
+    registry.getConnection(name).close();
+  }
+
+  private void advance(Duration duration) {
+    now.addAndGet(duration.toNanos());
+  }
+
+  @Test
+  void testIdlePoolClosesAfterTimeout() throws Exception {
+    use("alpha");
+
+    advance(Duration.ofMinutes(9));
+    registry.closeIdlePools();
+    assertThat("Should stay open within the idle timeout", registry.openPools(), contains("alpha"));
+
+    advance(Duration.ofMinutes(2));
+    registry.closeIdlePools();
+    assertThat("Should close once idle for longer than the timeout", registry.openPools(), empty());
+  }
+
+  @Test
+  void testUseResetsIdleTime() throws Exception {
+    use("alpha");
+    advance(Duration.ofMinutes(8));
+    use("alpha");
+
+    advance(Duration.ofMinutes(8));
+    registry.closeIdlePools();
+
+    assertThat("Idle time should count from the last use", registry.openPools(), contains("alpha"));
+  }
+
+  @Test
+  void testBusyPoolIsNotClosed() throws Exception {
+    Connection held = registry.getConnection("alpha");
+    try {
+      advance(Duration.ofMinutes(30));
+      registry.closeIdlePools();
+
+      assertThat("A pool with a borrowed connection should stay open", registry.openPools(), contains("alpha"));
+    } finally {
+      held.close();
+    }
+  }
+
+  @Test
+  void testLeastRecentlyUsedPoolMakesRoom() throws Exception {
+    use("alpha");
+    advance(Duration.ofSeconds(1));
+    use("beta");
+    advance(Duration.ofSeconds(1));
+    use("alpha");
+    advance(Duration.ofSeconds(1));
+
+    use("gamma");
+
+    assertThat("Should evict the pool used longest ago", registry.openPools(),
+        containsInAnyOrder("alpha", "gamma"));
+  }
+
+  @Test
+  void testBusyPoolsAreNotEvicted() throws Exception {
+    Connection alpha = registry.getConnection("alpha");
+    Connection beta = registry.getConnection("beta");
+    try {
+      SQLException e = assertThrows(SQLException.class, () -> use("gamma"));
+
+      assertThat(e.getMessage(), containsString("db.datasources.max-open"));
+      assertThat("Both busy pools should stay open", registry.openPools(), containsInAnyOrder("alpha", "beta"));
+    } finally {
+      beta.close();
+      alpha.close();
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package org.geekden.mcp.database.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.geekden.mcp.database.dialect.DatabaseDialect;
+import org.geekden.mcp.database.dialect.DialectFactory;
+import org.geekden.mcp.database.formatter.ResultPage;
+import org.geekden.mcp.database.formatter.ResultSetFormatter;
+import org.geekden.mcp.database.provider.DataSourceRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for CursorSessionRegistry.
+ * Drives the registry directly since SQLite does not hold cursors through SqlExecutionService.
+ */
+@QuarkusTest
+@TestProfile(CursorSessionRegistryTest.Profile.class)
+class CursorSessionRegistryTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      Map<String, String> overrides = new HashMap<>(super.getConfigOverrides());
+      overrides.put("db.alpha.jdbc.url", "jdbc:sqlite:target/CursorSessionRegistryTest-alpha.db");
+      return overrides;
+    }
+  }
+
+  @Inject
+  CursorSessionRegistry registry;
+
+  @Inject
+  DialectFactory dialectFactory;
+
+  @Inject
+  DataSourceRegistry dataSources;
+
+  @Inject
+  Instance<Connection> connection;
+
+  private DatabaseDialect dialect;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS events");
+      stmt.execute("CREATE TABLE events (id INTEGER, label TEXT)");
+      for (int i = 1; i <= 25; i++) {
+        stmt.execute("INSERT INTO events (id, label) VALUES (" + i + ", 'Event " + i + "')");
+      }
+      dialect = dialectFactory.getDialect(conn.getMetaData());
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    registry.closeAll();
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS events");
+    }
+  }
+
+  @Test
+  void testSessionContinuesFromLiveCursor() throws Exception {
+    CursorSession session = open("SELECT * FROM events ORDER BY id").orElseThrow();
+
+    ResultPage page1 = ResultSetFormatter.readPage(session.resultSet(), 10, false, null);
+    assertThat("First page should have more rows", page1.hasMore(), is(true));
+    session.advanceTo(2, 10);
+    registry.park(session);
+
+    CursorSession resumed = registry.resume(session.id(), 2).orElseThrow();
+    ResultPage page2 = ResultSetFormatter.readPage(resumed.resultSet(), 10, true, null);
+
+    assertThat("Second page should start where the first ended",
+        page2.rows().get(0), contains("11", "Event 11"));
+    assertThat("Second page should be full", page2.rows(), hasSize(10));
+    registry.close(resumed);
+
+    assertThat("Closed session should release its connection", registry.openCount(), is(0));
+  }
+
+  @Test
+  void testResumeWrongPageLeavesSessionParked() throws Exception {
+    CursorSession session = open("SELECT * FROM events").orElseThrow();
+    session.advanceTo(3, 20);
+    registry.park(session);
+
+    assertThat("Should not resume at a different page",
+        registry.resume(session.id(), 2).isPresent(), is(false));
+    assertThat("Session should still be available for its own page",
+        registry.resume(session.id(), 3).isPresent(), is(true));
+    registry.close(session);
+  }
+
+  @Test
+  void testCapacityEvictsLeastRecentlyUsed() throws Exception {
+    // db.cursor.max-open defaults to one open cursor
+    CursorSession first = open("SELECT * FROM events").orElseThrow();
+    first.advanceTo(2, 10);
+    registry.park(first);
+
+    Optional<CursorSession> second = open("SELECT label FROM events");
+
+    assertThat("Should open a new session by evicting the idle one", second.isPresent(), is(true));
+    assertThat("Evicted session should be gone", registry.resume(first.id(), 2).isPresent(), is(false));
+    assertThat("Only one session should hold a connection", registry.openCount(), is(1));
+    registry.close(second.get());
+  }
+
+  @Test
+  void testCapacityWhenAllSessionsBusy() throws Exception {
+    CursorSession busy = open("SELECT * FROM events").orElseThrow();
+
+    assertThat("Should not open beyond capacity while sessions are in use",
+        open("SELECT label FROM events").isPresent(), is(false));
+    registry.close(busy);
+  }
+
+  @Test
+  void testCapacityIsPerDatasource() throws Exception {
+    // The main pool and the named pool (db.datasources.max-pool-size=2) each leave room for one cursor
+    CursorSession main = open("SELECT * FROM events").orElseThrow();
+
+    DataSourceRegistry.Selection selection = dataSources.select("alpha");
+    try {
+      Optional<CursorSession> named = open("SELECT 1");
+      assertThat("A busy session on the main pool should not use the named pool's slot",
+          named.isPresent(), is(true));
+      assertThat("Session should record its datasource", named.get().datasource(), is("alpha"));
+      assertThat("Should not open beyond the named pool's capacity", open("SELECT 2").isPresent(), is(false));
+      registry.close(named.get());
+    } finally {
+      selection.close();
+    }
+    registry.close(main);
+  }
+
+  @Test
+  void testSessionTakesOverLeasedConnection() throws Exception {
+    Connection leased;
+    CursorSession session;
+    try (ConnectionLease lease = new ConnectionLease(connection::get)) {
+      leased = lease.get();
+      session = registry.open(lease, "SELECT * FROM events", List.of(), 11, dialect, StatementCanceller.NEVER)
+          .orElseThrow();
+    }
+
+    assertThat("Session should keep the caller's connection", session.connection(), is(sameInstance(leased)));
+    assertThat("Closing the lease should leave the connection to the session", leased.isClosed(), is(false));
+    registry.close(session);
+    assertThat("Closing the session should release the connection", leased.isClosed(), is(true));
+  }
+
+  @Test
+  void testSessionBorrowsItsOwnBesideCallerOwnedConnection() throws Exception {
+    try (Connection conn = connection.get()) {
+      CursorSession session = registry.open(ConnectionLease.of(conn), "SELECT * FROM events", List.of(), 11,
+          dialect, StatementCanceller.NEVER).orElseThrow();
+
+      assertThat("Session should not take a connection its caller closes",
+          session.connection(), is(not(sameInstance(conn))));
+      registry.close(session);
+      assertThat("Closing the session should leave the caller's connection open", conn.isClosed(), is(false));
+    }
+  }
+
+  @Test
+  void testIdleSessionsEvicted() throws Exception {
+    CursorSession session = open("SELECT * FROM events").orElseThrow();
+    session.advanceTo(2, 10);
+    registry.park(session);
+
+    registry.evictIdle(Duration.ZERO);
+
+    assertThat("Idle session should be closed", registry.resume(session.id(), 2).isPresent(), is(false));
+    assertThat("Connection should be released", registry.openCount(), is(0));
+  }
+
+  private Optional<CursorSession> open(String query) throws SQLException {
+    return registry.open(new ConnectionLease(connection::get), query, List.of(), 11, dialect,
+        StatementCanceller.NEVER);
+  }
+}
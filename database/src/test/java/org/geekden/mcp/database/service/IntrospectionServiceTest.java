@@ -14,9 +14,12 @@ import org.junit.jupiter.api.Test;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Statement;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Integration tests for IntrospectionService.
@@ -32,6 +35,9 @@ class IntrospectionServiceTest {
   @Inject
   IntrospectionService introspectionService;
 
+  @Inject
+  SqlExecutionService sqlExecutionService;
+
   @Inject
   Instance<Connection> connection;
 
@@ -72,6 +78,9 @@ class IntrospectionServiceTest {
               "FROM users u JOIN orders o ON u.id = o.user_id"
       );
     }
+
+    // The DDL above bypassed SqlExecutionService, so drop any metadata cached by earlier tests
+    introspectionService.invalidate();
   }
 
   @AfterEach
@@ -218,6 +227,82 @@ class IntrospectionServiceTest {
     }
   }
 
+  @Test
+  void testDescribeTableShowsIndexesAndStatistics() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE INDEX orders_user_total ON orders (user_id, total)");
+      for (int i = 1; i <= 3; i++) {
+        stmt.execute("INSERT INTO users (id, name) VALUES (" + i + ", 'user " + i + "')");
+        stmt.execute("INSERT INTO orders (order_id, user_id, total) VALUES (" + i + ", " + i + ", 9.5)");
+      }
+      stmt.execute("ANALYZE");
+      introspectionService.invalidate();
+
+      String result = introspectionService.describeTable(conn.getMetaData(), null, "orders");
+
+      assertThat(result, containsString("Indexes:"));
+      assertThat(result, containsString("Index Name"));
+      assertThat("Should list the index with its columns in order", result,
+          matchesPattern("(?s).*orders_user_total\\s+user_id, total.*"));
+      assertThat("Should show the analyzed row count", result, containsString("Estimated rows: 3"));
+    }
+  }
+
+  @Test
+  void testDescribeSchema() throws Exception {
+    try (Connection conn = connection.get()) {
+      DatabaseMetaData metaData = conn.getMetaData();
+
+      String result = introspectionService.describeSchema(metaData, null);
+
+      assertThat(result, containsString("TABLE: users\n"));
+      assertThat(result, containsString("TABLE: orders\n"));
+      assertThat(result, containsString("VIEW: user_orders\n"));
+      assertThat("Should show foreign keys", result, containsString("FOREIGN KEY -> users.id"));
+      assertThat("Tables should precede views", result.indexOf("TABLE: users"),
+          lessThan(result.indexOf("VIEW: user_orders")));
+      String orders = result.substring(result.indexOf("TABLE: orders\n") + "TABLE: orders\n".length());
+      orders = orders.substring(0, orders.indexOf("\n\n"));
+      assertThat("Each table's columns are shown as describeTable shows them",
+          introspectionService.describeTable(metaData, null, "orders"), startsWith(orders));
+    }
+  }
+
+  @Test
+  void testDescribeSchemaInPagesThatFitMaxChars() throws Exception {
+    try (Connection conn = connection.get()) {
+      DatabaseMetaData metaData = conn.getMetaData();
+      String whole = introspectionService.describeSchema(metaData, null);
+
+      // A budget smaller than any table still shows one table per call
+      String first = introspectionService.describeSchema(metaData, null, null, 1);
+      assertThat(first, containsString("Showing tables 1-1 of 3 (more available; stopped to fit the output limit)"));
+      Matcher next = Pattern.compile("Continue with after=\"(.+)\"").matcher(first);
+      assertThat("Should say where to continue", next.find(), is(true));
+      StringBuilder pages = new StringBuilder(first.substring(0, first.indexOf("\n\nShowing")));
+
+      String second = introspectionService.describeSchema(metaData, null, next.group(1), 0);
+      assertThat("Without a budget the rest fits", second, containsString("Showing tables 2-3 of 3"));
+      assertThat(second, not(containsString("Continue with")));
+      pages.append("\n\n").append(second, 0, second.indexOf("\n\nShowing"));
+
+      assertThat("The pages together should be the whole schema", pages.toString(), is(whole));
+      assertThat("A budget that fits everything adds no footer",
+          introspectionService.describeSchema(metaData, null, null, whole.length()), is(whole));
+
+      String last = whole.substring(whole.lastIndexOf("\n\n") + 2);
+      last = last.substring(last.indexOf(": ") + 2, last.indexOf('\n'));
+      assertThat("Continuing after the last table should say there are no more",
+          introspectionService.describeSchema(metaData, null, last, 1),
+          is("No tables after " + last + " in schema: null"));
+
+      IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+          () -> introspectionService.describeSchema(metaData, null, "missing", 0));
+      assertThat(e.getMessage(), containsString("No table 'missing'"));
+    }
+  }
+
   @Test
   void testTableFormattingConsistency() throws Exception {
     try (Connection conn = connection.get()) {
@@ -238,7 +323,43 @@ class IntrospectionServiceTest {
 
       // All should end with footer separator
       assertThat("Tables should end with separator line", tables, endsWith("─"));
-      assertThat("Table details should end with separator line", tableDetails, endsWith("─"));
+      assertThat("Table details should be followed by the indexes", tableDetails, containsString("─\n\nIndexes"));
+    }
+  }
+
+  @Test
+  void testDescribeTableIsCachedUntilInvalidated() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      DatabaseMetaData metaData = conn.getMetaData();
+      String before = introspectionService.describeTable(metaData, null, "users");
+      assertThat(before, not(containsString("nickname")));
+
+      // Schema change the service can't see
+      stmt.execute("ALTER TABLE users ADD COLUMN nickname TEXT");
+      assertThat("Should serve the cached description",
+          introspectionService.describeTable(metaData, null, "users"), is(before));
+
+      introspectionService.invalidate();
+      assertThat("Should reload after invalidation",
+          introspectionService.describeTable(metaData, null, "users"), containsString("nickname"));
+    }
+  }
+
+  @Test
+  void testDdlThroughSqlExecutionInvalidatesCache() throws Exception {
+    try (Connection conn = connection.get()) {
+      DatabaseMetaData metaData = conn.getMetaData();
+      assertThat(introspectionService.listTables(metaData, null), not(containsString("audit_log")));
+
+      sqlExecutionService.executeQuery(conn, QueryRequest.of("CREATE TABLE audit_log (id INTEGER PRIMARY KEY)", 1, 1));
+      try {
+        assertThat("DDL should drop cached metadata",
+            introspectionService.listTables(metaData, null), containsString("audit_log"));
+      } finally {
+        sqlExecutionService.executeQuery(conn, QueryRequest.of("DROP TABLE audit_log", 1, 1));
+      }
+      assertThat(introspectionService.listTables(metaData, null), not(containsString("audit_log")));
     }
   }
 }
@@ -0,0 +1,201 @@
+package org.geekden.mcp.database.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for KeysetQuery parsing/rewriting and ContinuationToken encoding.
+ */
+class KeysetQueryTest {
+
+  @Test
+  void testParseSimpleQuery() {
+    KeysetQuery keyset = KeysetQuery.parse("SELECT * FROM users").orElseThrow();
+
+    assertThat("Should extract table name", keyset.tableName(), is("users"));
+    assertThat("Should have no schema", keyset.schema(), is(nullValue()));
+  }
+
+  @Test
+  void testParseQualifiedTable() {
+    KeysetQuery keyset = KeysetQuery.parse("SELECT id, name FROM public.\"Users\" WHERE active = true;").orElseThrow();
+
+    assertThat("Should extract schema", keyset.schema(), is("public"));
+    assertThat("Should unquote table name", keyset.tableName(), is("Users"));
+  }
+
+  @Test
+  void testParseRejectsUnsupportedShapes() {
+    assertThat("Should reject joins",
+        KeysetQuery.parse("SELECT * FROM a JOIN b ON a.id = b.a_id").isPresent(), is(false));
+    assertThat("Should reject grouping",
+        KeysetQuery.parse("SELECT name, COUNT(*) FROM users GROUP BY name").isPresent(), is(false));
+    assertThat("Should reject subqueries",
+        KeysetQuery.parse("SELECT * FROM users WHERE id IN (SELECT user_id FROM orders)").isPresent(), is(false));
+    assertThat("Should reject multiple tables",
+        KeysetQuery.parse("SELECT * FROM a, b").isPresent(), is(false));
+    assertThat("Should reject explicit limits",
+        KeysetQuery.parse("SELECT * FROM users LIMIT 5").isPresent(), is(false));
+  }
+
+  @Test
+  void testParseIgnoresKeywordsInLiterals() {
+    KeysetQuery keyset = KeysetQuery.parse("SELECT * FROM notes WHERE body = 'join us ORDER BY noon'").orElseThrow();
+
+    assertThat("Keywords inside literals should not affect parsing",
+        keyset.supports(List.of("id")), is(true));
+  }
+
+  @Test
+  void testSupportsRequiresSelectedKey() {
+    assertThat("Should support SELECT *",
+        KeysetQuery.parse("SELECT * FROM users").orElseThrow().supports(List.of("id")), is(true));
+    assertThat("Should support key in select list",
+        KeysetQuery.parse("SELECT name, u.id FROM users").orElseThrow().supports(List.of("id")), is(true));
+    assertThat("Should not support key missing from select list",
+        KeysetQuery.parse("SELECT name FROM users").orElseThrow().supports(List.of("id")), is(false));
+    assertThat("Should not support tables without a primary key",
+        KeysetQuery.parse("SELECT * FROM users").orElseThrow().supports(List.of()), is(false));
+  }
+
+  @Test
+  void testSupportsOnlyKeyOrdering() {
+    assertThat("Should support ORDER BY key",
+        KeysetQuery.parse("SELECT * FROM users ORDER BY id").orElseThrow().supports(List.of("id")), is(true));
+    assertThat("Should support ORDER BY key ASC",
+        KeysetQuery.parse("SELECT * FROM users ORDER BY id ASC").orElseThrow().supports(List.of("id")), is(true));
+    assertThat("Should not support descending order",
+        KeysetQuery.parse("SELECT * FROM users ORDER BY id DESC").orElseThrow().supports(List.of("id")), is(false));
+    assertThat("Should not support ordering by other columns",
+        KeysetQuery.parse("SELECT * FROM users ORDER BY name").orElseThrow().supports(List.of("id")), is(false));
+  }
+
+  @Test
+  void testToSqlFirstPage() {
+    KeysetQuery keyset = KeysetQuery.parse("SELECT * FROM users WHERE active = 1").orElseThrow();
+
+    String sql = keyset.toSql(List.of("id"), false, "\"");
+
+    assertThat("Should inject ORDER BY on the key",
+        sql, is("SELECT * FROM users WHERE (active = 1) ORDER BY \"id\""));
+  }
+
+  @Test
+  void testToSqlSeeksPastLastKey() {
+    KeysetQuery keyset = KeysetQuery.parse("SELECT * FROM users WHERE active = 1 ORDER BY id").orElseThrow();
+
+    String sql = keyset.toSql(List.of("id"), true, "\"");
+
+    assertThat("Should replace OFFSET with a key predicate on a placeholder",
+        sql, is("SELECT * FROM users WHERE (active = 1) AND \"id\" > ? ORDER BY \"id\""));
+  }
+
+  @Test
+  void testToSqlCompositeKey() {
+    KeysetQuery keyset = KeysetQuery.parse("SELECT * FROM order_lines").orElseThrow();
+
+    String sql = keyset.toSql(List.of("order_id", "line"), true, "\"");
+
+    assertThat("Should compare row values with one placeholder per key column",
+        sql, is("SELECT * FROM order_lines WHERE (\"order_id\", \"line\") > (?, ?) ORDER BY \"order_id\", \"line\""));
+  }
+
+  @Test
+  void testSeekValuesBindWholeNumbersAsLong() {
+    List<Object> values = KeysetQuery.seekValues(List.of(new BigDecimal("7"), new BigDecimal("2.5"),
+        new BigDecimal("123456789012345678901234"), "\\' OR 1=1 --"));
+
+    assertThat("Whole numbers should bind as Long, everything else as decoded", values, contains(
+        7L, new BigDecimal("2.5"), new BigDecimal("123456789012345678901234"), "\\' OR 1=1 --"));
+  }
+
+  @Test
+  void testTokenRoundTrip() {
+    ContinuationToken token = new ContinuationToken(
+        ContinuationToken.fingerprint("SELECT * FROM users"), null, 3, List.of(new BigDecimal("42"), "abc"), null, 0);
+
+    ContinuationToken decoded = ContinuationToken.decode(token.encode());
+
+    assertThat("Should preserve page", decoded.page(), is(3));
+    assertThat("Should preserve key values", decoded.keyValues(), contains(new BigDecimal("42"), "abc"));
+    assertThat("Should match same query ignoring whitespace",
+        decoded.matches("  SELECT *   FROM users; ", List.of()), is(true));
+    assertThat("Should not match a different query",
+        decoded.matches("SELECT * FROM orders", List.of()), is(false));
+    assertThat("Should not match the same query with parameters",
+        decoded.matches("SELECT * FROM users", List.of(1L)), is(false));
+  }
+
+  @Test
+  void testTokenCarriesKeysLongerThan64Kb() {
+    String key = "é".repeat(40_000);
+    ContinuationToken token = new ContinuationToken(
+        ContinuationToken.fingerprint("SELECT * FROM notes"), null, 2, List.of(key), null, 0);
+
+    assertThat("Should preserve a key of 80,000 UTF-8 bytes",
+        ContinuationToken.decode(token.encode()).keyValues(), contains(key));
+  }
+
+  @Test
+  void testFingerprintSeparatesParameters() {
+    String query = "SELECT * FROM users WHERE a = ? AND b = ?";
+
+    assertThat("Should tell apart values split at different places",
+        ContinuationToken.fingerprint(query, List.of("ab", "c")),
+        is(not(ContinuationToken.fingerprint(query, List.of("a", "bc")))));
+    assertThat("Should tell apart a number and its text",
+        ContinuationToken.fingerprint(query, List.of(42L, "x")),
+        is(not(ContinuationToken.fingerprint(query, List.of("42", "x")))));
+  }
+
+  @Test
+  void testSessionTokenRoundTrip() {
+    String encoded = ContinuationToken.forSession("abc-123", "SELECT * FROM users", List.of(), 2, 100);
+
+    ContinuationToken decoded = ContinuationToken.decode(encoded);
+
+    assertThat("Should be a session token", decoded.isSession(), is(true));
+    assertThat("Should preserve session handle", decoded.session(), is("abc-123"));
+    assertThat("Should preserve page", decoded.page(), is(2));
+    assertThat("Should preserve offset for fallback", decoded.offset(), is(100));
+  }
+
+  @Test
+  void testOffsetTokenRoundTrip() {
+    String encoded = ContinuationToken.forOffset("SELECT * FROM users ORDER BY name", List.of(), 3, 137);
+
+    ContinuationToken decoded = ContinuationToken.decode(encoded);
+
+    assertThat("Should not be a session token", decoded.isSession(), is(false));
+    assertThat("Should not be a keyset token", decoded.isKeyset(), is(false));
+    assertThat("Should preserve offset", decoded.offset(), is(137));
+    assertThat("Should preserve page", decoded.page(), is(3));
+  }
+
+  @Test
+  void testTokenRecordsDatasource() {
+    ContinuationToken token = new ContinuationToken(
+        ContinuationToken.fingerprint("SELECT * FROM users"), "analytics", 2, List.of(), null, 100);
+
+    ContinuationToken decoded = ContinuationToken.decode(token.encode());
+
+    assertThat("Should match the datasource it was issued on", decoded.matchesDatasource("analytics"), is(true));
+    assertThat("Should not match another datasource", decoded.matchesDatasource("reporting"), is(false));
+    assertThat("Should not match the main database", decoded.matchesDatasource(null), is(false));
+    assertThat("Tokens from the main database should not match a named datasource",
+        ContinuationToken.decode(ContinuationToken.forOffset("SELECT * FROM users", List.of(), 2, 100))
+            .matchesDatasource("analytics"), is(false));
+  }
+
+  @Test
+  void testTokenRejectsGarbage() {
+    assertThrows(IllegalArgumentException.class, () -> ContinuationToken.decode("not a cursor!"));
+    assertThrows(IllegalArgumentException.class, () -> ContinuationToken.decode("AAAA"));
+  }
+}
@@ -0,0 +1,180 @@
+package org.geekden.mcp.database.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.geekden.mcp.database.formatter.OutputLimits;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for PageCache and its use by SqlExecutionService.
+ */
+@QuarkusTest
+@TestProfile(PageCacheTest.Profile.class)
+class PageCacheTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      Map<String, String> overrides = new HashMap<>(super.getConfigOverrides());
+      overrides.put("db.cache.max-chars", "100000");
+      return overrides;
+    }
+  }
+
+  @Inject
+  SqlExecutionService sqlExecutionService;
+
+  @Inject
+  PageCache pageCache;
+
+  @Inject
+  Instance<Connection> connection;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS items");
+      stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT)");
+      stmt.execute("INSERT INTO items (id, name) VALUES (1, 'Original')");
+    }
+    pageCache.invalidateAll();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS items");
+    }
+  }
+
+  @Test
+  void testRepeatedSelectServedFromCache() throws Exception {
+    try (Connection conn = connection.get()) {
+      String first = sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM items", 1, 10));
+      long hitsBefore = pageCache.stats().hits();
+
+      // Change the data behind the cache's back
+      try (Statement stmt = conn.createStatement()) {
+        stmt.execute("UPDATE items SET name = 'Changed' WHERE id = 1");
+      }
+
+      String second = sqlExecutionService.executeQuery(conn, QueryRequest.of("  SELECT *\n  FROM items; ", 1, 10));
+
+      assertThat("Same query (modulo whitespace) should return the cached page", second, is(first));
+      assertThat("Should count a hit", pageCache.stats().hits(), is(hitsBefore + 1));
+    }
+  }
+
+  @Test
+  void testDmlInvalidatesCache() throws Exception {
+    try (Connection conn = connection.get()) {
+      sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM items", 1, 10));
+
+      sqlExecutionService.executeQuery(conn, QueryRequest.of("UPDATE items SET name = 'Changed' WHERE id = 1", 1, 10));
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM items", 1, 10));
+
+      assertThat("Should re-execute after DML", result, containsString("Changed"));
+      assertThat("Cache should only hold the new page", pageCache.stats().entries(), is(1));
+    }
+  }
+
+  @Test
+  void testPageSizeIsPartOfKey() throws Exception {
+    try (Connection conn = connection.get()) {
+      sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM items", 1, 10));
+      long missesBefore = pageCache.stats().misses();
+
+      sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM items", 1, 20));
+
+      assertThat("Different page size should miss", pageCache.stats().misses(), is(missesBefore + 1));
+    }
+  }
+
+  @Test
+  void testPageCutAtTimeLimitIsNotCached() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      for (int i = 2; i <= 20; i++) {
+        stmt.execute("INSERT INTO items (id, name) VALUES (" + i + ", 'Item " + i + "')");
+      }
+      // Any time limit has passed by the second row
+      OutputLimits limits = new OutputLimits(0, 0, Duration.ofNanos(1));
+
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM items", 1, 10)
+          .withLimits(limits));
+
+      assertThat(result, containsString("at the time limit"));
+      assertThat("A page cut short by the clock should not be cached", pageCache.stats().entries(), is(0));
+    }
+  }
+
+  @Test
+  void testStatementClassification() {
+    assertThat(PageCache.isSelect("select * from items"), is(true));
+    assertThat(PageCache.isSelect("SELECT * INTO backup FROM items"), is(false));
+    assertThat(PageCache.isSelect("INSERT INTO items VALUES (2, 'x')"), is(false));
+    assertThat(PageCache.isSelect("SELECTED"), is(false));
+    assertThat(PageCache.isSelect("WITH recent AS (SELECT * FROM items) SELECT * FROM recent"), is(true));
+    assertThat(PageCache.isSelect("WITH gone AS (DELETE FROM items RETURNING *) SELECT * FROM gone"), is(false));
+    assertThat(PageCache.isSelect("WITH ids AS (SELECT 1) INSERT INTO items SELECT * FROM ids"), is(false));
+    assertThat(PageCache.isCacheable("SELECT nextval('seq')"), is(false));
+    assertThat(PageCache.isCacheable("SELECT * FROM items FOR UPDATE"), is(false));
+    assertThat(PageCache.isCacheable("SELECT * FROM items WHERE name = 'random'"), is(true));
+  }
+
+  @Test
+  void testNormalizePreservesLiterals() {
+    assertThat(PageCache.normalize(" SELECT  *\n FROM t WHERE a = 'x  y' ;"),
+        is("SELECT * FROM t WHERE a = 'x  y'"));
+  }
+
+  @Test
+  void testLruEvictionBySize() {
+    ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, Duration.ofMinutes(1), String::length);
+
+    cache.put("a", "aaaa");
+    cache.put("b", "bbbb");
+    cache.get("a"); // a is now most recently used
+    cache.put("c", "cccc");
+
+    assertThat("Most recently used entry should survive", cache.get("a").isPresent(), is(true));
+    assertThat("Least recently used entry should be evicted", cache.get("b").isPresent(), is(false));
+    assertThat("Should count the eviction", cache.stats().evictions(), is(1L));
+    assertThat("Weight should stay within bound", cache.stats().weight(), is(8L));
+
+    cache.put("huge", "x".repeat(11));
+    assertThat("Entries larger than the bound should not be cached", cache.get("huge").isPresent(), is(false));
+  }
+
+  @Test
+  void testEntriesExpireAfterTtl() {
+    AtomicLong now = new AtomicLong();
+    ExpiringLruCache<String, String> cache =
+        new ExpiringLruCache<>(100, Duration.ofSeconds(30), String::length, now::get);
+
+    cache.put("a", "value");
+    now.addAndGet(Duration.ofSeconds(29).toNanos());
+    assertThat("Should be live before TTL", cache.get("a").isPresent(), is(true));
+
+    now.addAndGet(Duration.ofSeconds(2).toNanos());
+    assertThat("Should expire after TTL", cache.get("a").isPresent(), is(false));
+    assertThat("Expired entry should be removed", cache.stats().entries(), is(0));
+  }
+}
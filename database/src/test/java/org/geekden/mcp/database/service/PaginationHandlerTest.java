@@ -2,15 +2,11 @@ package org.geekden.mcp.database.service;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.TestProfile;
-import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 import org.geekden.mcp.database.IsolatedDatabaseProfile;
-import org.geekden.mcp.database.dialect.DialectFactory;
+import org.geekden.mcp.database.dialect.DatabaseDialect;
 import org.junit.jupiter.api.Test;
 
-import java.sql.Connection;
-import java.sql.DatabaseMetaData;
-
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -26,14 +22,11 @@ class PaginationHandlerTest {
   }
 
   @Inject
-  DialectFactory dialectFactory;
-
-  @Inject
-  Instance<Connection> connection;
+  DatabaseDialect dialect;
 
   @Test
   void testIsPageable_selectQuery() {
-    PaginationHandler handler = new PaginationHandler(100, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(100, dialect);
 
     assertThat("Should detect SELECT query",
         handler.isPageable("SELECT * FROM users"), is(true));
@@ -50,7 +43,7 @@ class PaginationHandlerTest {
 
   @Test
   void testIsPageable_nonSelectQueries() {
-    PaginationHandler handler = new PaginationHandler(100, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(100, dialect);
 
     assertThat("Should not paginate INSERT",
         handler.isPageable("INSERT INTO users (name) VALUES ('test')"), is(false));
@@ -70,7 +63,7 @@ class PaginationHandlerTest {
 
   @Test
   void testIsPageable_selectWithExistingLimit() {
-    PaginationHandler handler = new PaginationHandler(100, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(100, dialect);
 
     assertThat("Should not paginate SELECT with existing LIMIT",
         handler.isPageable("SELECT * FROM users LIMIT 10"), is(false));
@@ -81,7 +74,7 @@ class PaginationHandlerTest {
 
   @Test
   void testIsPageable_emptyOrNull() {
-    PaginationHandler handler = new PaginationHandler(100, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(100, dialect);
 
     assertThat("Should handle null query",
         handler.isPageable(null), is(false));
@@ -95,115 +88,96 @@ class PaginationHandlerTest {
 
   @Test
   void testAddPagination_firstPage() throws Exception {
-    PaginationHandler handler = new PaginationHandler(100, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(100, dialect);
 
-    try (Connection conn = connection.get()) {
-      DatabaseMetaData metaData = conn.getMetaData();
-      String query = "SELECT * FROM users";
-      String result = handler.addPagination(query, 1, metaData);
+    String query = "SELECT * FROM users";
+    String result = handler.addPagination(query, 1);
 
-      assertThat("Should add LIMIT 101 for first page",
-          result, containsString("LIMIT 101"));
+    assertThat("Should add LIMIT 101 for first page",
+        result, containsString("LIMIT 101"));
 
-      assertThat("Should add OFFSET 0 for first page",
-          result, containsString("OFFSET 0"));
+    assertThat("Should add OFFSET 0 for first page",
+        result, containsString("OFFSET 0"));
 
-      assertThat("Should preserve original query",
-          result, startsWith("SELECT * FROM users"));
-    }
+    assertThat("Should preserve original query",
+        result, startsWith("SELECT * FROM users"));
   }
 
   @Test
   void testAddPagination_secondPage() throws Exception {
-    PaginationHandler handler = new PaginationHandler(100, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(100, dialect);
 
-    try (Connection conn = connection.get()) {
-      DatabaseMetaData metaData = conn.getMetaData();
-      String query = "SELECT * FROM users";
-      String result = handler.addPagination(query, 2, metaData);
+    String query = "SELECT * FROM users";
+    String result = handler.addPagination(query, 2);
 
-      assertThat("Should add LIMIT 101 for second page",
-          result, containsString("LIMIT 101"));
+    assertThat("Should add LIMIT 101 for second page",
+        result, containsString("LIMIT 101"));
 
-      assertThat("Should add OFFSET 100 for second page",
-          result, containsString("OFFSET 100"));
-    }
+    assertThat("Should add OFFSET 100 for second page",
+        result, containsString("OFFSET 100"));
   }
 
   @Test
   void testAddPagination_thirdPage() throws Exception {
-    PaginationHandler handler = new PaginationHandler(100, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(100, dialect);
 
-    try (Connection conn = connection.get()) {
-      DatabaseMetaData metaData = conn.getMetaData();
-      String query = "SELECT id, name FROM users WHERE active = true";
-      String result = handler.addPagination(query, 3, metaData);
+    String query = "SELECT id, name FROM users WHERE active = true";
+    String result = handler.addPagination(query, 3);
 
-      assertThat("Should add LIMIT 101 for third page",
-          result, containsString("LIMIT 101"));
+    assertThat("Should add LIMIT 101 for third page",
+        result, containsString("LIMIT 101"));
 
-      assertThat("Should add OFFSET 200 for third page",
-          result, containsString("OFFSET 200"));
+    assertThat("Should add OFFSET 200 for third page",
+        result, containsString("OFFSET 200"));
 
-      assertThat("Should preserve original query",
-          result, startsWith("SELECT id, name FROM users WHERE active = true"));
-    }
+    assertThat("Should preserve original query",
+        result, startsWith("SELECT id, name FROM users WHERE active = true"));
   }
 
   @Test
   void testAddPagination_customPageSize() throws Exception {
-    PaginationHandler handler = new PaginationHandler(50, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(50, dialect);
 
-    try (Connection conn = connection.get()) {
-      DatabaseMetaData metaData = conn.getMetaData();
-      String query = "SELECT * FROM users";
-      String result = handler.addPagination(query, 2, metaData);
+    String query = "SELECT * FROM users";
+    String result = handler.addPagination(query, 2);
 
-      assertThat("Should add LIMIT 51 for page size 50",
-          result, containsString("LIMIT 51"));
+    assertThat("Should add LIMIT 51 for page size 50",
+        result, containsString("LIMIT 51"));
 
-      assertThat("Should add OFFSET 50 for second page with page size 50",
-          result, containsString("OFFSET 50"));
-    }
+    assertThat("Should add OFFSET 50 for second page with page size 50",
+        result, containsString("OFFSET 50"));
   }
 
   @Test
   void testAddPagination_removesTrailingSemicolon() throws Exception {
-    PaginationHandler handler = new PaginationHandler(100, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(100, dialect);
 
-    try (Connection conn = connection.get()) {
-      DatabaseMetaData metaData = conn.getMetaData();
-      String query = "SELECT * FROM users;";
-      String result = handler.addPagination(query, 1, metaData);
+    String query = "SELECT * FROM users;";
+    String result = handler.addPagination(query, 1);
 
-      assertThat("Should not have double semicolon",
-          result, not(containsString(";;")));
+    assertThat("Should not have double semicolon",
+        result, not(containsString(";;")));
 
-      assertThat("Should end with OFFSET clause",
-          result, endsWith("OFFSET 0"));
-    }
+    assertThat("Should end with OFFSET clause",
+        result, endsWith("OFFSET 0"));
   }
 
   @Test
-  void testAddPagination_invalidPageNumber() throws Exception {
-    PaginationHandler handler = new PaginationHandler(100, dialectFactory);
-
-    try (Connection conn = connection.get()) {
-      DatabaseMetaData metaData = conn.getMetaData();
+  void testAddPagination_invalidPageNumber() {
+    PaginationHandler handler = new PaginationHandler(100, dialect);
 
-      assertThrows(IllegalArgumentException.class, () -> {
-        handler.addPagination("SELECT * FROM users", 0, metaData);
-      }, "Should throw exception for page 0");
+    assertThrows(IllegalArgumentException.class, () -> {
+      handler.addPagination("SELECT * FROM users", 0);
+    }, "Should throw exception for page 0");
 
-      assertThrows(IllegalArgumentException.class, () -> {
-        handler.addPagination("SELECT * FROM users", -1, metaData);
-      }, "Should throw exception for negative page");
-    }
+    assertThrows(IllegalArgumentException.class, () -> {
+      handler.addPagination("SELECT * FROM users", -1);
+    }, "Should throw exception for negative page");
   }
 
   @Test
   void testHasMoreData() {
-    PaginationHandler handler = new PaginationHandler(100, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(100, dialect);
 
     assertThat("Should have more data when 101 rows fetched",
         handler.hasMoreData(101), is(true));
@@ -220,7 +194,7 @@ class PaginationHandlerTest {
 
   @Test
   void testGetRowsToDisplay() {
-    PaginationHandler handler = new PaginationHandler(100, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(100, dialect);
 
     assertThat("Should display 100 rows when 101 fetched",
         handler.getRowsToDisplay(101), is(100));
@@ -237,7 +211,7 @@ class PaginationHandlerTest {
 
   @Test
   void testGetPageSize() {
-    PaginationHandler handler = new PaginationHandler(75, dialectFactory);
+    PaginationHandler handler = new PaginationHandler(75, dialect);
 
     assertThat("Should return configured page size",
         handler.getPageSize(), is(75));
@@ -0,0 +1,115 @@
+package org.geekden.mcp.database.service;
+
+import org.geekden.mcp.database.dialect.DatabaseDialect;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for rendering query plans, on plans shaped like PostgreSQL's EXPLAIN ANALYZE output.
+ */
+class PlanFormatterTest {
+
+  private static final long LARGE = 10_000;
+
+  private static DatabaseDialect.PlanNode step(String operation, String relation, boolean fullScan, long rows,
+                                               long actual, double cost, double millis,
+                                               DatabaseDialect.PlanNode... children) {
+    return new DatabaseDialect.PlanNode(operation, relation, null, fullScan, OptionalLong.of(rows),
+        OptionalLong.of(actual), 1, OptionalDouble.of(cost), OptionalDouble.of(millis), List.of(children));
+  }
+
+  private static DatabaseDialect.QueryPlan joinPlan() {
+    DatabaseDialect.PlanNode orders = step("Seq Scan on orders", "orders", true, 50_000, 50_000, 900, 40);
+    DatabaseDialect.PlanNode customers = step("Seq Scan on customers", "customers", true, 20, 400, 1, 0.5);
+    DatabaseDialect.PlanNode hash = step("Hash", null, false, 20, 400, 1.5, 1, customers);
+    DatabaseDialect.PlanNode join = step("Hash Join", null, false, 1_000, 50_000, 1_000, 60, orders, hash);
+    return new DatabaseDialect.QueryPlan(join, true, OptionalDouble.of(0.25), OptionalDouble.of(61.5));
+  }
+
+  @Test
+  void testTreeShowsEachStepWithRowsAndCost() {
+    String result = PlanFormatter.format(joinPlan(), Map.of("orders", 50_000L, "customers", 400L), LARGE);
+
+    List<String> lines = result.lines().toList();
+    assertThat(lines.get(1), is("Hash Join  (cost=1000.00 rows=1,000 actual=50,000 time=60.00 ms estimate off 50x)"));
+    assertThat(lines.get(2), is("├─ Seq Scan on orders  (cost=900.00 rows=50,000 actual=50,000 time=40.00 ms)"
+        + "  [large table: ~50,000 rows]"));
+    assertThat(lines.get(3), startsWith("└─ Hash  (cost=1.50 rows=20 actual=400"));
+    assertThat(lines.get(4), startsWith("   └─ Seq Scan on customers  (cost=1.00"));
+    assertThat("Should end with the timings", result, endsWith("Time: planning 0.25 ms, execution 61.50 ms"));
+  }
+
+  @Test
+  void testCostliestStepsByOwnTime() {
+    String result = PlanFormatter.format(joinPlan(), Map.of(), LARGE);
+
+    // Own time: orders 40, join 60 - 40 - 1 = 19, customers 0.5, hash 0.5
+    assertThat(result, containsString("""
+        Costliest steps (by own time):
+          1. Seq Scan on orders: 40.00 ms (67%)
+          2. Hash Join: 19.00 ms (32%)
+          3. Hash: 0.50 ms (1%)
+        """));
+  }
+
+  @Test
+  void testSequentialScansOnLargeTables() {
+    String result = PlanFormatter.format(joinPlan(), Map.of("orders", 50_000L, "customers", 400L), LARGE);
+    assertThat("Only the large table is listed", result,
+        containsString("Sequential scans on large tables:\n  - orders: ~50,000 rows\n"));
+
+    String unknown = PlanFormatter.format(joinPlan(), Map.of("orders", 50_000L), LARGE);
+    assertThat("Tables without statistics are listed as unknown", unknown,
+        containsString("  - customers: size unknown (no statistics; run ANALYZE)"));
+
+    String small = PlanFormatter.format(joinPlan(), Map.of("orders", 500L, "customers", 400L), LARGE);
+    assertThat(small, containsString("Sequential scans on large tables: none"));
+    assertThat(small, not(containsString("[large table")));
+  }
+
+  @Test
+  void testEstimatedPlanRanksByCost() {
+    DatabaseDialect.PlanNode scan = new DatabaseDialect.PlanNode("Seq Scan on orders", "orders", "Filter: (id > 5)",
+        true, OptionalLong.of(100), OptionalLong.empty(), 1, OptionalDouble.of(80), OptionalDouble.empty(), List.of());
+    DatabaseDialect.PlanNode sort = new DatabaseDialect.PlanNode("Sort", null, "Sort Key: id", false,
+        OptionalLong.of(100), OptionalLong.empty(), 1, OptionalDouble.of(100), OptionalDouble.empty(), List.of(scan));
+    DatabaseDialect.QueryPlan plan = new DatabaseDialect.QueryPlan(sort, false, OptionalDouble.empty(),
+        OptionalDouble.empty());
+
+    String result = PlanFormatter.format(plan, Map.of(), LARGE);
+
+    assertThat(result, startsWith("""
+        Estimated query plan (the query was not run):
+        Sort  (cost=100.00 rows=100)  Sort Key: id
+        └─ Seq Scan on orders  (cost=80.00 rows=100)  Filter: (id > 5)
+        """));
+    assertThat(result, containsString("1. Seq Scan on orders: cost 80.00 (80%)"));
+    assertThat("No timings for a plan that wasn't run", result, not(containsString("Time:")));
+  }
+
+  @Test
+  void testPlanWithoutCostsHasNoCostliestSteps() {
+    DatabaseDialect.PlanNode scan = new DatabaseDialect.PlanNode("SCAN products", "products", null, true,
+        OptionalLong.empty(), OptionalLong.empty(), 1, OptionalDouble.empty(), OptionalDouble.empty(), List.of());
+    DatabaseDialect.PlanNode root = new DatabaseDialect.PlanNode("QUERY PLAN", null, null, false,
+        OptionalLong.empty(), OptionalLong.empty(), 1, OptionalDouble.empty(), OptionalDouble.empty(), List.of(scan));
+
+    String result = PlanFormatter.format(new DatabaseDialect.QueryPlan(root, false, OptionalDouble.empty(),
+        OptionalDouble.empty()), Map.of("products", 20_000L), LARGE);
+
+    assertThat(result, is("""
+        Estimated query plan (the query was not run):
+        QUERY PLAN
+        └─ SCAN products  [large table: ~20,000 rows]
+
+        Sequential scans on large tables:
+          - products: ~20,000 rows"""));
+  }
+}
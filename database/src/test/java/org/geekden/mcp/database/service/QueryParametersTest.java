@@ -0,0 +1,46 @@
+package org.geekden.mcp.database.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for QueryParameters parsing.
+ */
+class QueryParametersTest {
+
+  @Test
+  void testFromJsonArrayTypesValues() {
+    List<Object> params = QueryParameters.fromJsonArray("[42, 1.5, \"abc\", true, null, 123456789012345678901234]");
+
+    assertThat("Should type each value", params, contains(
+        42L, 1.5, "abc", true, null, new BigDecimal("123456789012345678901234")));
+  }
+
+  @Test
+  void testFromJsonArrayEmpty() {
+    assertThat("Null means no parameters", QueryParameters.fromJsonArray(null), is(empty()));
+    assertThat("Blank means no parameters", QueryParameters.fromJsonArray("  "), is(empty()));
+    assertThat("Empty array means no parameters", QueryParameters.fromJsonArray("[]"), is(empty()));
+  }
+
+  @Test
+  void testFromJsonArrayRejectsInvalidInput() {
+    assertThrows(IllegalArgumentException.class, () -> QueryParameters.fromJsonArray("42"));
+    assertThrows(IllegalArgumentException.class, () -> QueryParameters.fromJsonArray("[1, 2"));
+    assertThrows(IllegalArgumentException.class, () -> QueryParameters.fromJsonArray("[[1]]"));
+  }
+
+  @Test
+  void testFromStringsReadsScalarsAndPlainText() {
+    List<Object> params = QueryParameters.fromStrings(List.of("42", "\"42\"", "null", "Alice", "42 Main St", "[1]"));
+
+    assertThat("JSON scalars should be typed, anything else bound as text",
+        params, contains(42L, "42", null, "Alice", "42 Main St", "[1]"));
+  }
+}
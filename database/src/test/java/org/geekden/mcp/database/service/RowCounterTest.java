@@ -0,0 +1,101 @@
+package org.geekden.mcp.database.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for exact row counts run in the background.
+ */
+@QuarkusTest
+@TestProfile(RowCounterTest.Profile.class)
+class RowCounterTest {
+
+  public static class Profile extends IsolatedDatabaseProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      Map<String, String> overrides = new HashMap<>(super.getConfigOverrides());
+      overrides.put("db.row-count.exact", "true");
+      return overrides;
+    }
+  }
+
+  @Inject
+  SqlExecutionService sqlExecutionService;
+
+  @Inject
+  Instance<Connection> connection;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS items");
+      stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, grp INTEGER)");
+      for (int i = 1; i <= 120; i++) {
+        stmt.execute("INSERT INTO items VALUES (" + i + ", " + (i % 2) + ")");
+      }
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS items");
+    }
+  }
+
+  @Test
+  void testExactCountAppearsOnLaterPages() throws Exception {
+    String query = "SELECT * FROM items WHERE grp = 0";
+    try (Connection conn = connection.get()) {
+      sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 10));
+
+      // The count runs in the background; later pages pick it up once it's done
+      String result = "";
+      for (int attempt = 0; attempt < 50 && !result.contains("in total"); attempt++) {
+        Thread.sleep(100);
+        result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 2, 10));
+      }
+
+      assertThat("Footer should include the exact count of matching rows",
+          result, containsString("Page 2 (more available; 60 rows in total)"));
+    }
+  }
+
+  @Test
+  void testWritesInvalidateCounts() throws Exception {
+    String query = "SELECT * FROM items";
+    try (Connection conn = connection.get()) {
+      String result = "";
+      for (int attempt = 0; attempt < 50 && !result.contains("in total"); attempt++) {
+        result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 10));
+        Thread.sleep(100);
+      }
+      assertThat("Should count all rows", result, containsString("120 rows in total"));
+
+      sqlExecutionService.executeQuery(conn, QueryRequest.of("DELETE FROM items WHERE id > 100", 1, 10));
+
+      result = "";
+      for (int attempt = 0; attempt < 50 && !result.contains("in total"); attempt++) {
+        result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 10));
+        Thread.sleep(100);
+      }
+      assertThat("Should recount after the delete", result, containsString("100 rows in total"));
+    }
+  }
+}
@@ -3,7 +3,12 @@ package org.geekden.mcp.database.service;
 import io.quarkus.test.junit.QuarkusTest;
 
 import org.geekden.mcp.database.IsolatedDatabaseProfile;
+import org.geekden.mcp.database.formatter.OutputLimits;
+import org.geekden.mcp.database.formatter.ResultFormat;
+import org.geekden.mcp.database.formatter.ResultSetFormatter;
+import org.geekden.mcp.database.provider.ConnectionProvider;
 
+import com.zaxxer.hikari.HikariPoolMXBean;
 import io.quarkus.test.junit.TestProfile;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
@@ -13,11 +18,17 @@ import org.junit.jupiter.api.Test;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * Integration tests for SqlExecutionService.
@@ -36,6 +47,12 @@ class SqlExecutionServiceTest {
   @Inject
   Instance<Connection> connection;
 
+  @Inject
+  ConnectionProvider connectionProvider;
+
+  @Inject
+  CursorSessionRegistry cursorSessions;
+
   @BeforeEach
   void setUp() throws Exception {
     // Create test table with data using injected connection
@@ -76,7 +93,7 @@ class SqlExecutionServiceTest {
   void testExecuteSelectQuery_firstPage() throws Exception {
     try (Connection conn = connection.get()) {
       String query = "SELECT * FROM products ORDER BY id";
-      String result = sqlExecutionService.executeQuery(conn, query, 1, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
 
       assertThat("Should contain headers",
           result, allOf(containsString("id"), containsString("name"), containsString("price")));
@@ -93,7 +110,7 @@ class SqlExecutionServiceTest {
   void testExecuteSelectQuery_secondPage() throws Exception {
     try (Connection conn = connection.get()) {
       String query = "SELECT * FROM products ORDER BY id";
-      String result = sqlExecutionService.executeQuery(conn, query, 2, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 2, 100));
 
       assertThat("Should contain data from second page",
           result, containsString("Product 101"));
@@ -107,7 +124,7 @@ class SqlExecutionServiceTest {
   void testExecuteSelectQuery_lastPage() throws Exception {
     try (Connection conn = connection.get()) {
       String query = "SELECT * FROM products ORDER BY id";
-      String result = sqlExecutionService.executeQuery(conn, query, 3, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 3, 100));
 
       assertThat("Should contain data from last page",
           result, containsString("Product 201"));
@@ -121,7 +138,7 @@ class SqlExecutionServiceTest {
   void testExecuteSelectQuery_customPageSize() throws Exception {
     try (Connection conn = connection.get()) {
       String query = "SELECT * FROM products ORDER BY id";
-      String result = sqlExecutionService.executeQuery(conn, query, 1, 50);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 50));
 
       assertThat("Should contain first row",
           result, containsString("Product 1"));
@@ -135,7 +152,7 @@ class SqlExecutionServiceTest {
   void testExecuteSelectQuery_emptyResult() throws Exception {
     try (Connection conn = connection.get()) {
       String query = "SELECT * FROM products WHERE id > 1000";
-      String result = sqlExecutionService.executeQuery(conn, query, 1, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
 
       assertThat("Should indicate no results",
           result, is("No results."));
@@ -147,7 +164,7 @@ class SqlExecutionServiceTest {
     try (Connection conn = connection.get()) {
       // Query with existing LIMIT should not be paginated
       String query = "SELECT * FROM products LIMIT 5";
-      String result = sqlExecutionService.executeQuery(conn, query, 1, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
 
       assertThat("Should contain data",
           result, containsString("Product 1"));
@@ -157,18 +174,132 @@ class SqlExecutionServiceTest {
     }
   }
 
+  @Test
+  void testExecuteSelectQuery_nonPageableReadsAllRowsInBatches() throws Exception {
+    try (Connection conn = connection.get()) {
+      String result = sqlExecutionService.executeQuery(conn,
+          QueryRequest.of("SELECT * FROM products ORDER BY id LIMIT 250", 1, 10));
+
+      assertThat("Should return every row, not just one page",
+          result, allOf(containsString("Product 1 "), containsString("Product 250")));
+      assertThat("Should leave the connection in auto-commit mode", conn.getAutoCommit(), is(true));
+    }
+  }
+
+  @Test
+  void testStreamQuery_postgresqlReadsInsideReadOnlyTransaction() throws Exception {
+    try (Connection conn = connection.get()) {
+      assumeTrue(conn.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql"),
+          "PostgreSQL only: pgjdbc needs a transaction to fetch in batches");
+
+      // Record the connection state while rows are being written
+      List<Boolean> autoCommitWhileReading = new ArrayList<>();
+      List<Boolean> readOnlyWhileReading = new ArrayList<>();
+      StringBuilder written = new StringBuilder();
+      Appendable sink = new Appendable() {
+        @Override
+        public Appendable append(CharSequence chars) {
+          record();
+          written.append(chars);
+          return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence chars, int start, int end) {
+          record();
+          written.append(chars, start, end);
+          return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+          record();
+          written.append(c);
+          return this;
+        }
+
+        private void record() {
+          try {
+            autoCommitWhileReading.add(conn.getAutoCommit());
+            readOnlyWhileReading.add(conn.isReadOnly());
+          } catch (SQLException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+      };
+
+      sqlExecutionService.streamQuery(conn, "SELECT * FROM products ORDER BY id", List.of(), sink);
+
+      assertThat("Should stream every row",
+          written.toString(), allOf(containsString("Product 1 "), containsString("Product 250")));
+      assertThat("Should read with auto-commit off", autoCommitWhileReading, everyItem(is(false)));
+      assertThat("Should read in a read-only transaction", readOnlyWhileReading, everyItem(is(true)));
+      assertThat("Should restore auto-commit", conn.getAutoCommit(), is(true));
+      assertThat("Should clear the read-only flag", conn.isReadOnly(), is(false));
+    }
+  }
+
+  @Test
+  void testStreamQuery_postgresqlWriteIsNotWrappedInReadTransaction() throws Exception {
+    try (Connection conn = connection.get()) {
+      assumeTrue(conn.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql"),
+          "PostgreSQL only");
+
+      StringBuilder sink = new StringBuilder();
+      sqlExecutionService.streamQuery(conn, "UPDATE products SET price = 0 WHERE id = 1", List.of(), sink);
+
+      assertThat(sink.toString(), is(ResultSetFormatter.formatRowCount(1)));
+      assertThat("Should leave auto-commit on", conn.getAutoCommit(), is(true));
+      try (Statement stmt = conn.createStatement();
+           ResultSet rs = stmt.executeQuery("SELECT price FROM products WHERE id = 1")) {
+        rs.next();
+        assertThat("The update should be committed", rs.getDouble(1), is(0.0));
+      }
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_cursorSessionKeepsTheCallersConnection() throws Exception {
+    try (Connection conn = connection.get()) {
+      assumeTrue(conn.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql"),
+          "PostgreSQL only: SQLite does not hold cursors");
+    }
+    HikariPoolMXBean pool = connectionProvider.poolStatus().orElseThrow();
+    String query = "SELECT name, price FROM products ORDER BY name";
+
+    try {
+      String page1;
+      try (ConnectionLease lease = new ConnectionLease(connection::get)) {
+        page1 = sqlExecutionService.executeQuery(lease, QueryRequest.of(query, 1, 100));
+        assertThat("Opening the session should not take a second connection",
+            pool.getActiveConnections(), is(1));
+      }
+      assertThat("The parked session should keep the call's connection", pool.getActiveConnections(), is(1));
+
+      try (ConnectionLease lease = new ConnectionLease(connection::get)) {
+        String page2 = sqlExecutionService.executeQuery(lease, QueryRequest.of(query, 1, 100)
+            .withCursor(nextCursor(page1)));
+        assertThat(page2, containsString("Page 2"));
+        assertThat("Resuming the session should not borrow a connection", pool.getActiveConnections(), is(1));
+      }
+    } finally {
+      cursorSessions.closeAll();
+    }
+    assertThat("Closing the session should return its connection", pool.getActiveConnections(), is(0));
+  }
+
   @Test
   void testExecuteInsertQuery() throws Exception {
     try (Connection conn = connection.get()) {
       String query = "INSERT INTO products (id, name, price) VALUES (999, 'New Product', 99.99)";
-      String result = sqlExecutionService.executeQuery(conn, query, 1, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
 
       assertThat("Should show affected row count",
           result, is("1 row affected."));
 
       // Verify data was inserted
       String selectQuery = "SELECT * FROM products WHERE id = 999";
-      String selectResult = sqlExecutionService.executeQuery(conn, selectQuery, 1, 100);
+      String selectResult = sqlExecutionService.executeQuery(conn, QueryRequest.of(selectQuery, 1, 100));
       assertThat("Should find inserted row",
           selectResult, containsString("New Product"));
     }
@@ -178,14 +309,14 @@ class SqlExecutionServiceTest {
   void testExecuteUpdateQuery() throws Exception {
     try (Connection conn = connection.get()) {
       String query = "UPDATE products SET price = 199.99 WHERE id <= 10";
-      String result = sqlExecutionService.executeQuery(conn, query, 1, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
 
       assertThat("Should show affected row count",
           result, is("10 rows affected."));
 
       // Verify data was updated
       String selectQuery = "SELECT price FROM products WHERE id = 1";
-      String selectResult = sqlExecutionService.executeQuery(conn, selectQuery, 1, 100);
+      String selectResult = sqlExecutionService.executeQuery(conn, QueryRequest.of(selectQuery, 1, 100));
       assertThat("Should show updated price",
           selectResult, containsString("199.99"));
     }
@@ -195,14 +326,14 @@ class SqlExecutionServiceTest {
   void testExecuteDeleteQuery() throws Exception {
     try (Connection conn = connection.get()) {
       String query = "DELETE FROM products WHERE id > 240";
-      String result = sqlExecutionService.executeQuery(conn, query, 1, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
 
       assertThat("Should show affected row count",
           result, is("10 rows affected."));
 
       // Verify data was deleted
       String selectQuery = "SELECT COUNT(*) as count FROM products";
-      String selectResult = sqlExecutionService.executeQuery(conn, selectQuery, 1, 100);
+      String selectResult = sqlExecutionService.executeQuery(conn, QueryRequest.of(selectQuery, 1, 100));
       assertThat("Should show reduced count",
           selectResult, containsString("240"));
     }
@@ -212,7 +343,7 @@ class SqlExecutionServiceTest {
   void testExecuteDeleteQuery_noRowsAffected() throws Exception {
     try (Connection conn = connection.get()) {
       String query = "DELETE FROM products WHERE id > 10000";
-      String result = sqlExecutionService.executeQuery(conn, query, 1, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
 
       assertThat("Should indicate no rows affected",
           result, is("No rows affected."));
@@ -229,7 +360,7 @@ class SqlExecutionServiceTest {
 
     try (Connection conn = connection.get()) {
       String query = "CREATE TABLE test_table (id INTEGER PRIMARY KEY, value TEXT)";
-      String result = sqlExecutionService.executeQuery(conn, query, 1, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
 
       assertThat("Should show success message",
           result, is("Command executed successfully."));
@@ -260,7 +391,7 @@ class SqlExecutionServiceTest {
 
     try (Connection conn = connection.get()) {
       String query = "DROP TABLE temp_table";
-      String result = sqlExecutionService.executeQuery(conn, query, 1, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
 
       assertThat("Should show success message",
           result, is("Command executed successfully."));
@@ -271,7 +402,7 @@ class SqlExecutionServiceTest {
   void testExecuteQuery_nullQuery() {
     Exception exception = assertThrows(IllegalArgumentException.class, () -> {
       try (Connection conn = connection.get()) {
-        sqlExecutionService.executeQuery(conn, null, 1, 100);
+        sqlExecutionService.executeQuery(conn, QueryRequest.of(null, 1, 100));
       }
     });
 
@@ -283,7 +414,7 @@ class SqlExecutionServiceTest {
   void testExecuteQuery_emptyQuery() {
     Exception exception = assertThrows(IllegalArgumentException.class, () -> {
       try (Connection conn = connection.get()) {
-        sqlExecutionService.executeQuery(conn, "", 1, 100);
+        sqlExecutionService.executeQuery(conn, QueryRequest.of("", 1, 100));
       }
     });
 
@@ -295,7 +426,7 @@ class SqlExecutionServiceTest {
   void testExecuteQuery_whitespaceQuery() {
     Exception exception = assertThrows(IllegalArgumentException.class, () -> {
       try (Connection conn = connection.get()) {
-        sqlExecutionService.executeQuery(conn, "   ", 1, 100);
+        sqlExecutionService.executeQuery(conn, QueryRequest.of("   ", 1, 100));
       }
     });
 
@@ -307,7 +438,7 @@ class SqlExecutionServiceTest {
   void testExecuteQuery_invalidPageNumber() {
     Exception exception = assertThrows(IllegalArgumentException.class, () -> {
       try (Connection conn = connection.get()) {
-        sqlExecutionService.executeQuery(conn, "SELECT * FROM products", 0, 100);
+        sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM products", 0, 100));
       }
     });
 
@@ -319,7 +450,7 @@ class SqlExecutionServiceTest {
   void testExecuteQuery_negativePageNumber() {
     Exception exception = assertThrows(IllegalArgumentException.class, () -> {
       try (Connection conn = connection.get()) {
-        sqlExecutionService.executeQuery(conn, "SELECT * FROM products", -1, 100);
+        sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM products", -1, 100));
       }
     });
 
@@ -331,7 +462,7 @@ class SqlExecutionServiceTest {
   void testExecuteQuery_invalidPageSize() {
     Exception exception = assertThrows(IllegalArgumentException.class, () -> {
       try (Connection conn = connection.get()) {
-        sqlExecutionService.executeQuery(conn, "SELECT * FROM products", 1, 0);
+        sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM products", 1, 0));
       }
     });
 
@@ -349,7 +480,7 @@ class SqlExecutionServiceTest {
 
     try (Connection conn = connection.get()) {
       String query = "SELECT * FROM products WHERE id = 1000";
-      String result = sqlExecutionService.executeQuery(conn, query, 1, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
 
       assertThat("Should show null placeholder",
           result, containsString("<null>"));
@@ -360,7 +491,7 @@ class SqlExecutionServiceTest {
   void testExecuteQuery_defaultPageParameter() throws Exception {
     try (Connection conn = connection.get()) {
       String query = "SELECT * FROM products ORDER BY id";
-      String result = sqlExecutionService.executeQuery(conn, query, 100);
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
 
       assertThat("Should default to page 1",
           result, containsString("Product 1"));
@@ -369,4 +500,404 @@ class SqlExecutionServiceTest {
           result, containsString("Page 1 (more available)"));
     }
   }
+
+  @Test
+  void testExecuteSelectQuery_keysetFirstPageReturnsCursor() throws Exception {
+    try (Connection conn = connection.get()) {
+      String query = "SELECT * FROM products";
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
+
+      assertThat("Should order by primary key",
+          result, containsString("Product 1 "));
+
+      assertThat("Should include a next cursor",
+          result, containsString("Next cursor: "));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_keysetCursorContinues() throws Exception {
+    try (Connection conn = connection.get()) {
+      String query = "SELECT * FROM products WHERE price > 0";
+      String page1 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100));
+      String page2 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100)
+          .withCursor(nextCursor(page1)));
+
+      assertThat("Should continue after the last key",
+          page2, allOf(containsString("Product 101"), not(containsString("Product 100 "))));
+
+      assertThat("Should number the continued page",
+          page2, containsString("Page 2 (more available)"));
+
+      String page3 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100)
+          .withCursor(nextCursor(page2)));
+
+      assertThat("Should reach the last page",
+          page3, allOf(containsString("Product 250"), containsString("Page 3 (no more data)")));
+
+      assertThat("Last page should not have a cursor",
+          page3, not(containsString("Next cursor")));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_keysetCursorBindsTextKeys() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS codes");
+      stmt.execute("CREATE TABLE codes (code VARCHAR(20) PRIMARY KEY)");
+      stmt.execute("INSERT INTO codes VALUES ('a'), ('b\\'), ('b\\'' OR ''x''=''x'), ('c')");
+      try {
+        String query = "SELECT code FROM codes";
+        String page1 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 2));
+        String page2 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 2)
+            .withCursor(nextCursor(page1)));
+
+        assertThat("Quotes and backslashes in the last key should not change the seek",
+            page2, allOf(containsString("b\\' OR 'x'='x"), containsString("c"),
+                not(containsString("b\\ ")), containsString("Page 2 (no more data)")));
+      } finally {
+        stmt.execute("DROP TABLE codes");
+      }
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_pageNumberKeepsKeyOrder() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      // Rewritten rows move to the end of the heap on PostgreSQL, so table order differs from key order
+      stmt.execute("UPDATE products SET price = price + 0 WHERE id <= 150");
+
+      String query = "SELECT * FROM products WHERE price > 0";
+      String page2 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 2, 100));
+
+      assertThat("Page 2 should hold the second hundred keys",
+          page2, allOf(containsString("Product 101 "), containsString("Product 200 "),
+              not(containsString("Product 100 ")), not(containsString("Product 201 "))));
+
+      String page3 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100)
+          .withCursor(nextCursor(page2)));
+      assertThat("Should continue from page 2 by key",
+          page3, allOf(containsString("Product 201 "), containsString("Page 3 (no more data)")));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_cursorForDifferentQueryFails() throws Exception {
+    try (Connection conn = connection.get()) {
+      String page1 = sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM products", 1, 100));
+
+      Exception exception = assertThrows(IllegalArgumentException.class, () ->
+          sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT id FROM products", 1, 100)
+              .withCursor(nextCursor(page1))));
+
+      assertThat("Should reject cursor from another query",
+          exception.getMessage(), containsString("different query"));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_nonKeysetQueryHasNoCursor() throws Exception {
+    try (Connection conn = connection.get()) {
+      String result = sqlExecutionService.executeQuery(conn,
+          QueryRequest.of("SELECT * FROM products ORDER BY name", 1, 100));
+
+      assertThat("Should fall back to offset pagination",
+          result, allOf(containsString("Page 1 (more available)"), not(containsString("Next cursor"))));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_withParameters() throws Exception {
+    try (Connection conn = connection.get()) {
+      String result = sqlExecutionService.executeQuery(conn,
+          QueryRequest.of("SELECT name FROM products WHERE id BETWEEN ? AND ? AND name <> ?", 1, 100)
+              .withParams(List.of(5L, 7L, "Product 6")));
+
+      assertThat("Should bind parameters in order",
+          result, allOf(containsString("Product 5"), containsString("Product 7"), not(containsString("Product 6"))));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_stringParametersCompareWithDateAndUuid() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("DROP TABLE IF EXISTS shipments");
+      stmt.execute("CREATE TABLE shipments (ref UUID PRIMARY KEY, shipped_on DATE NOT NULL)");
+      stmt.execute("INSERT INTO shipments VALUES ('0b7c1e2a-5f3d-4c59-9e8a-1f2d3c4b5a60', '2024-01-15'), "
+          + "('5d0e8f1b-2a3c-4d5e-8f90-a1b2c3d4e5f6', '2024-03-01')");
+      try {
+        String result = sqlExecutionService.executeQuery(conn,
+            QueryRequest.of("SELECT ref FROM shipments WHERE shipped_on > ? AND ref <> ?", 1, 100)
+                .withParams(List.of("2024-02-01", "0b7c1e2a-5f3d-4c59-9e8a-1f2d3c4b5a60")));
+
+        assertThat("Strings should compare as the column's type",
+            result, allOf(containsString("5d0e8f1b"), not(containsString("0b7c1e2a"))));
+      } finally {
+        stmt.execute("DROP TABLE shipments");
+      }
+    }
+  }
+
+  @Test
+  void testExecuteInsertQuery_withNullParameter() throws Exception {
+    try (Connection conn = connection.get()) {
+      List<Object> params = new ArrayList<>();
+      params.add(999L);
+      params.add("O'Brien");
+      params.add(null);
+      String result = sqlExecutionService.executeQuery(conn,
+          QueryRequest.of("INSERT INTO products (id, name, price) VALUES (?, ?, ?)", 1, 100)
+              .withParams(params));
+
+      assertThat("Should show affected row count", result, is("1 row affected."));
+
+      String selectResult = sqlExecutionService.executeQuery(conn,
+          QueryRequest.of("SELECT name, price FROM products WHERE id = ?", 1, 100)
+              .withParams(List.of(999L)));
+      assertThat("Should store string parameter verbatim", selectResult, containsString("O'Brien"));
+      assertThat("Should store null parameter", selectResult, containsString("<null>"));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_keysetCursorWithParameters() throws Exception {
+    try (Connection conn = connection.get()) {
+      String query = "SELECT * FROM products WHERE price > ?";
+      String page1 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100).withParams(List.of(100.0)));
+      String page2 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100)
+          .withCursor(nextCursor(page1))
+          .withParams(List.of(100.0)));
+
+      assertThat("Should continue after the last key with the same parameters",
+          page2, allOf(containsString("Product 200"), containsString("Page 2 (no more data)")));
+
+      Exception exception = assertThrows(IllegalArgumentException.class, () ->
+          sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100)
+              .withCursor(nextCursor(page1))
+              .withParams(List.of(10.0))));
+      assertThat("Should reject cursor issued for other parameter values",
+          exception.getMessage(), containsString("different query"));
+    }
+  }
+
+  @Test
+  void testExecuteQuery_parameterCountMismatch() throws Exception {
+    try (Connection conn = connection.get()) {
+      assertThrows(Exception.class, () ->
+          sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM products WHERE id = ?", 1, 100)
+              .withParams(List.of(1L, 2L))));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_budgetLimitedKeysetPageContinues() throws Exception {
+    try (Connection conn = connection.get()) {
+      String query = "SELECT * FROM products";
+      OutputLimits limits = new OutputLimits(500, 0);
+      String page1 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100).withLimits(limits));
+      int shown = rowsShown(page1);
+
+      assertThat("Should stop well before the page size", shown, lessThan(100));
+      assertThat("Table should fit the budget",
+          page1.substring(0, page1.indexOf("\nPage")).length(), lessThanOrEqualTo(500));
+
+      String page2 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100)
+          .withCursor(nextCursor(page1))
+          .withLimits(limits));
+      assertThat("Should continue after the last row shown",
+          page2, allOf(containsString("Product " + (shown + 1) + " "), not(containsString("Product " + shown + " "))));
+      assertThat("Should number the continued page", page2, containsString("Page 2 (more available"));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_budgetLimitedOffsetPageContinues() throws Exception {
+    try (Connection conn = connection.get()) {
+      String query = "SELECT * FROM products ORDER BY name";
+      OutputLimits limits = new OutputLimits(500, 0);
+      String page1 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100).withLimits(limits));
+      int shown = rowsShown(page1);
+
+      String expected;
+      try (Statement stmt = conn.createStatement();
+           ResultSet rs = stmt.executeQuery("SELECT name FROM products ORDER BY name LIMIT 1 OFFSET " + shown)) {
+        rs.next();
+        expected = rs.getString(1);
+      }
+
+      String page2 = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100)
+          .withCursor(nextCursor(page1))
+          .withLimits(limits));
+      assertThat("Should resume at the first row not shown",
+          page2.lines().skip(2).findFirst().orElseThrow(), containsString(expected + " "));
+      assertThat("Should number the continued page", page2, containsString("Page 2 (more available"));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_compactFormatFitsMoreRowsInBudget() throws Exception {
+    try (Connection conn = connection.get()) {
+      String query = "SELECT * FROM products ORDER BY name";
+      OutputLimits limits = new OutputLimits(2000, 0);
+      String table = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100).withLimits(limits));
+      String tsv = sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100)
+          .withLimits(limits)
+          .withFormat(ResultFormat.TSV));
+
+      assertThat("Should write tab-separated rows", tsv, startsWith("id\tname\tprice\n"));
+      assertThat("TSV should fit within the budget",
+          tsv.substring(0, tsv.indexOf("\nPage")).length(), lessThanOrEqualTo(2000));
+      assertThat("Unpadded rows should fit more per page", rowsShown(tsv), greaterThan(rowsShown(table)));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_cellsTruncated() throws Exception {
+    try (Connection conn = connection.get()) {
+      String result = sqlExecutionService.executeQuery(conn,
+          QueryRequest.of("SELECT name FROM products WHERE id = 123", 1, 100)
+              .withLimits(new OutputLimits(0, 6)));
+
+      assertThat("Should truncate long cells", result, allOf(containsString("Produ…"), not(containsString("Product"))));
+    }
+  }
+
+  @Test
+  void testExecuteQuery_cancelledByClient() throws Exception {
+    try (Connection conn = connection.get()) {
+      // Never finishes on its own
+      String query = "WITH RECURSIVE n(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM n) SELECT count(*) FROM n";
+
+      assertThrows(SQLException.class, () ->
+          sqlExecutionService.executeQuery(conn, QueryRequest.of(query, 1, 100).withCancellation(() -> true)));
+    }
+  }
+
+  @Test
+  void testExecuteScript_batchesDmlInOneTransaction() throws Exception {
+    try (Connection conn = connection.get()) {
+      String script = """
+          INSERT INTO products (id, name, price) VALUES (1001, 'Script 1', 1.0);
+          INSERT INTO products (id, name, price) VALUES (1002, 'Script 2', 2.0);
+          UPDATE products SET price = 0 WHERE id > 1000;
+          SELECT name, price FROM products WHERE id > 1000 ORDER BY id;
+          """;
+      String result = sqlExecutionService.executeScript(conn, script, 100, StatementCanceller.NEVER);
+
+      assertThat("Should report each statement's update count", result, allOf(
+          containsString("1. INSERT INTO products (id, name, price) VALUES (1001, 'Scrip… — 1 row affected."),
+          containsString("3. UPDATE products SET price = 0 WHERE id > 1000 — 2 rows affected.")));
+      assertThat("Should show the SELECT's rows", result, allOf(containsString("Script 1"), containsString("Script 2")));
+      assertThat("Should summarize the script", result, endsWith("Executed 4 statements in one transaction."));
+      assertThat("Should restore auto-commit", conn.getAutoCommit(), is(true));
+    }
+  }
+
+  @Test
+  void testExecuteScript_rollsBackOnFailure() throws Exception {
+    try (Connection conn = connection.get()) {
+      String script = """
+          INSERT INTO products (id, name, price) VALUES (1001, 'Script 1', 1.0);
+          INSERT INTO products (id, name, price) VALUES (1, 'Duplicate', 1.0);
+          """;
+
+      SQLException exception = assertThrows(SQLException.class, () ->
+          sqlExecutionService.executeScript(conn, script, 100, StatementCanceller.NEVER));
+      assertThat("Should say where the script failed", exception.getMessage(),
+          allOf(containsString("2"), containsString("failed, script rolled back")));
+
+      String result = sqlExecutionService.executeQuery(conn,
+          QueryRequest.of("SELECT * FROM products WHERE id = 1001", 1, 100));
+      assertThat("Earlier statements should be rolled back", result, is("No results."));
+    }
+  }
+
+  @Test
+  void testExecuteSelectQuery_footerShowsEstimatedTotal() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("ANALYZE products");
+
+      String result = sqlExecutionService.executeQuery(conn, QueryRequest.of("SELECT * FROM products", 1, 100));
+
+      assertThat("Footer should include the table size from sqlite_stat1",
+          result, containsString("Page 1 (more available; about 250 rows in total)"));
+    }
+  }
+
+  @Test
+  void testExplainQuery_showsPlanWithoutRunning() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      String query = "SELECT * FROM products WHERE name = ?;";
+      String result = sqlExecutionService.explainQuery(conn, query, List.of("Product 7"), false,
+          StatementCanceller.NEVER);
+
+      assertThat("Should say the query wasn't run", result,
+          startsWith("Estimated query plan (the query was not run):\n"));
+      assertThat("Should show the step reading the table", result, containsString("products"));
+      assertThat("Should not show rows", result, not(containsString("Product 7")));
+      assertThat("Without statistics the table's size is unknown", result,
+          containsString("  - products: size unknown (no statistics; run ANALYZE)"));
+
+      stmt.execute("ANALYZE products");
+      result = sqlExecutionService.explainQuery(conn, query, List.of("Product 7"), false, StatementCanceller.NEVER);
+      assertThat("A small table is no concern", result, containsString("Sequential scans on large tables: none"));
+    }
+  }
+
+  @Test
+  void testExplainQuery_flagsFullScanOfLargeTable() throws Exception {
+    try (Connection conn = connection.get();
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("WITH RECURSIVE n(i) AS (SELECT 1001 UNION ALL SELECT i + 1 FROM n WHERE i < 11000) "
+          + "INSERT INTO products (id, name, price) SELECT i, 'Bulk ' || i, 1.0 FROM n");
+      stmt.execute("ANALYZE products");
+
+      String result = sqlExecutionService.explainQuery(conn, "SELECT * FROM products WHERE price > 100",
+          List.of(), false, StatementCanceller.NEVER);
+
+      assertThat("Should mark the scan in the tree", result, containsString("[large table: ~10,250 rows]"));
+      assertThat("Should list the scan", result,
+          containsString("Sequential scans on large tables:\n  - products: ~10,250 rows"));
+
+      String lookup = sqlExecutionService.explainQuery(conn, "SELECT * FROM products WHERE id = 5000",
+          List.of(), false, StatementCanceller.NEVER);
+      assertThat("A primary key lookup isn't a full scan", lookup,
+          containsString("Sequential scans on large tables: none"));
+    }
+  }
+
+  @Test
+  void testExplainQuery_analyzeRunsQueryAndRollsBack() throws Exception {
+    try (Connection conn = connection.get()) {
+      String result = sqlExecutionService.explainQuery(conn, "DELETE FROM products WHERE id <= 10",
+          List.of(), true, StatementCanceller.NEVER);
+
+      assertThat(result, startsWith("Query plan with actual rows and times (the query ran in a transaction "
+          + "that was rolled back):\n"));
+      assertThat("Should show the rows the statement touched", result, containsString("actual=10"));
+      assertThat("Should show the execution time", result, matchesPattern("(?s).*\\nTime: .*execution [0-9.]+ ms$"));
+      assertThat("Should restore auto-commit", conn.getAutoCommit(), is(true));
+
+      String count = sqlExecutionService.executeQuery(conn,
+          QueryRequest.of("SELECT COUNT(*) AS n FROM products", 1, 100));
+      assertThat("The delete should be rolled back", count, containsString("250"));
+    }
+  }
+
+  private static int rowsShown(String result) {
+    Matcher matcher = Pattern.compile("stopped after (\\d+) rows").matcher(result);
+    assertThat("Page should be cut short by the output limit", matcher.find(), is(true));
+    return Integer.parseInt(matcher.group(1));
+  }
+
+  private static String nextCursor(String result) {
+    int start = result.indexOf("Next cursor: ");
+    assertThat("Result should contain a cursor", start, greaterThanOrEqualTo(0));
+    return result.substring(start + "Next cursor: ".length()).trim();
+  }
 }
@@ -0,0 +1,76 @@
+package org.geekden.mcp.database.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for SqlScriptSplitter.
+ */
+class SqlScriptSplitterTest {
+
+  @Test
+  void testSplitsAtSemicolons() {
+    List<String> statements = SqlScriptSplitter.split("INSERT INTO t VALUES (1);\nINSERT INTO t VALUES (2);\nSELECT * FROM t");
+
+    assertThat("Should split each statement, including one without a final semicolon", statements, contains(
+        "INSERT INTO t VALUES (1)", "INSERT INTO t VALUES (2)", "SELECT * FROM t"));
+  }
+
+  @Test
+  void testIgnoresSemicolonsInQuotesAndComments() {
+    List<String> statements = SqlScriptSplitter.split(
+        "INSERT INTO t VALUES ('a;b', 'it''s; here', E'x\\';y');\n"
+            + "SELECT \"odd;name\" FROM t -- trailing; comment\n;\n"
+            + "/* outer /* nested; */ still comment; */ DELETE FROM t");
+
+    assertThat("Should keep quoted and commented semicolons", statements, contains(
+        "INSERT INTO t VALUES ('a;b', 'it''s; here', E'x\\';y')",
+        "SELECT \"odd;name\" FROM t -- trailing; comment",
+        "DELETE FROM t"));
+  }
+
+  @Test
+  void testKeepsDollarQuotedBodiesTogether() {
+    String function = "CREATE FUNCTION f() RETURNS int AS $body$ BEGIN RETURN 1; END; $body$ LANGUAGE plpgsql";
+    List<String> statements = SqlScriptSplitter.split(function + ";\nSELECT $$a;b$$, $1");
+
+    assertThat("Should not split inside dollar quotes", statements, contains(function, "SELECT $$a;b$$, $1"));
+  }
+
+  @Test
+  void testKeepsTriggerBodyTogether() {
+    String trigger = "CREATE TRIGGER audit AFTER INSERT ON t BEGIN "
+        + "INSERT INTO log VALUES (CASE WHEN new.id > 0 THEN 'pos' ELSE 'neg' END); "
+        + "UPDATE t SET seen = 1; END";
+    List<String> statements = SqlScriptSplitter.split(trigger + ";\nINSERT INTO t VALUES (1);");
+
+    assertThat("Should split only after the trigger's END", statements, contains(trigger, "INSERT INTO t VALUES (1)"));
+  }
+
+  @Test
+  void testSkipsEmptyAndCommentOnlyStatements() {
+    List<String> statements = SqlScriptSplitter.split(";;\n-- setup\n;  /* nothing */ ;\nSELECT 1;\n-- done\n");
+
+    assertThat("Should drop fragments without code", statements, contains("SELECT 1"));
+  }
+
+  @Test
+  void testRejectsUnterminatedText() {
+    assertThrows(IllegalArgumentException.class, () -> SqlScriptSplitter.split("SELECT 'open"));
+    assertThrows(IllegalArgumentException.class, () -> SqlScriptSplitter.split("SELECT 1 /* open"));
+    assertThrows(IllegalArgumentException.class, () -> SqlScriptSplitter.split("SELECT $$open"));
+  }
+
+  @Test
+  void testStripSemicolon() {
+    assertThat(SqlScriptSplitter.stripSemicolon("  SELECT 1 ;  "), is("SELECT 1"));
+    assertThat(SqlScriptSplitter.stripSemicolon("SELECT 1"), is("SELECT 1"));
+    assertThat("Should drop only the terminating semicolon",
+        SqlScriptSplitter.stripSemicolon("SELECT ';' ;;"), is("SELECT ';' ;"));
+  }
+}
@@ -0,0 +1,49 @@
+package org.geekden.mcp.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps the number of tool calls running at once.
+ * <p>
+ * Tool methods run on virtual threads, so a slow search no longer blocks other
+ * requests; this bounds how many embed and scan entries together. Calls beyond
+ * the limit wait their turn, in arrival order.
+ */
+@ConcurrencyLimited
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class ConcurrencyLimitInterceptor {
+
+  private static final Logger LOG = Logger.getLogger(ConcurrencyLimitInterceptor.class);
+
+  @ConfigProperty(name = "journal.tools.max-concurrent", defaultValue = "4")
+  int maxConcurrent;
+
+  private Semaphore permits;
+
+  @PostConstruct
+  void init() {
+    permits = new Semaphore(Math.max(1, maxConcurrent), true);
+  }
+
+  @AroundInvoke
+  Object limit(InvocationContext context) throws Exception {
+    if (permits.availablePermits() == 0) {
+      LOG.debugf("Tool call %s waiting for one of %d slots", context.getMethod().getName(), maxConcurrent);
+    }
+    permits.acquire();
+    try {
+      return context.proceed();
+    } finally {
+      permits.release();
+    }
+  }
+}
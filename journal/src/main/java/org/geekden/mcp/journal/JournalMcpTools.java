@@ -2,6 +2,7 @@ package org.geekden.mcp.journal;
 
 import io.quarkiverse.mcp.server.Tool;
 import io.quarkiverse.mcp.server.ToolArg;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.geekden.mcp.journal.formatter.JournalFormatter;
@@ -28,6 +29,7 @@ import org.geekden.mcp.journal.model.JournalType;
 /**
  * MCP Tools for private journaling.
  * Provides tools for recording thoughts, searching entries, and reading journal content.
+ * Tool calls run concurrently on virtual threads, up to journal.tools.max-concurrent at a time.
  */
 @ApplicationScoped
 public class JournalMcpTools {
@@ -58,6 +60,8 @@ public class JournalMcpTools {
    * 
    * All entries are stored locally in your user journal and searchable via semantic search.
    */
+  @RunOnVirtualThread
+  @ConcurrencyLimited
   @Tool(description = "Your PRIVATE JOURNAL for learning and reflection. Record thoughts across different categories: "
       + "feelings (emotional states), project_notes (project-specific work), user_context (user preferences/info), "
       + "technical_insights (learnings), world_knowledge (facts). All entries are private and searchable.")
@@ -87,6 +91,8 @@ public class JournalMcpTools {
    * Search through your private journal entries using natural language queries.
    * Uses semantic search to find relevant entries based on meaning, not just keywords.
    */
+  @RunOnVirtualThread
+  @ConcurrencyLimited
   @Tool(description = "Search through your private journal entries using natural language queries. "
       + "Uses semantic search to find relevant entries based on meaning. "
       + "Filter by type (project/user/both), sections, date range, and limit results.")
@@ -148,6 +154,8 @@ public class JournalMcpTools {
   /**
    * Read the full content of a specific journal entry by file path.
    */
+  @RunOnVirtualThread
+  @ConcurrencyLimited
   @Tool(description = "Read the full content of a specific journal entry by file path. "
       + "Use the path from search results or recent entries list.")
   public String readJournalEntry(
@@ -165,6 +173,8 @@ public class JournalMcpTools {
   /**
    * Get recent journal entries in chronological order.
    */
+  @RunOnVirtualThread
+  @ConcurrencyLimited
   @Tool(description = "Get recent journal entries in chronological order. "
       + "Filter by type (project/user/both) and specify how many days to look back.")
   public String listRecentEntries(